@@ -17,6 +17,7 @@
 package hivis.common;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Date;
 import java.util.Random;
 
@@ -43,6 +44,7 @@ import hivis.data.DataValueInteger;
 import hivis.data.DataValueLong;
 import hivis.data.reader.SpreadSheetReader;
 import hivis.data.reader.SpreadSheetReader.Config;
+import hivis.data.reader.TableSnapshot;
 import hivis.data.view.AbstractSeriesViewMultiple;
 
 /**
@@ -183,6 +185,49 @@ public class HV {
 		return new SpreadSheetReader.Config();
 	}
 	
+	/**
+	 * <p>Save the given table to the given file in a compact binary format, which can be loaded 
+	 * 	much more quickly than a spreadsheet (see {@link #loadTable(File)}).</p>
+	 * <p>Series containing numbers, Strings, Booleans, Dates and java.time dates/times are supported.</p>
+	 * 
+	 * @param table The table to save.
+	 * @param file The file to save to. Any existing file is replaced.
+	 * @param checksums Whether to store checksums for the data, which are verified when the table is loaded.
+	 */
+	public static void saveTable(DataTable table, File file, boolean checksums) throws IOException {
+		TableSnapshot.save(table, file, checksums);
+	}
+	
+	/**
+	 * Save the given table to the given file in a compact binary format, with checksums. 
+	 * See {@link #saveTable(DataTable, File, boolean)}.
+	 */
+	public static void saveTable(DataTable table, File file) throws IOException {
+		TableSnapshot.save(table, file, true);
+	}
+	
+	/**
+	 * Load a table saved with {@link #saveTable(DataTable, File, boolean)}.
+	 * 
+	 * @param file The file to load the table from.
+	 * @return The loaded table.
+	 */
+	public static DataTable loadTable(File file) {
+		return new TableSnapshot(file).getData();
+	}
+	
+	/**
+	 * Load a table saved with {@link #saveTable(DataTable, File, boolean)}.
+	 * 
+	 * @param file The file to load the table from.
+	 * @param mapped If true then numeric series are read-only and backed directly by the memory-mapped 
+	 *   file, rather than copied onto the heap. This is useful for very large tables.
+	 * @return The loaded table.
+	 */
+	public static DataTable loadTable(File file, boolean mapped) {
+		return new TableSnapshot(file, mapped).getData();
+	}
+	
 	/**
 	 * Create a new DataSeries containing the given real (double) numbers.
 	 */
@@ -197,6 +242,38 @@ public class HV {
 		return new DataSeriesInteger(data);
 	}
 	
+	/**
+	 * Create a new DataSeries that uses the given array of real (double) numbers for 
+	 * its data, without copying it. See {@link DataSeriesDouble#wrap(double[])}.
+	 */
+	public static DataSeriesDouble wrapRealSeries(double[] data) {
+		return DataSeriesDouble.wrap(data);
+	}
+	
+	/**
+	 * Create a new DataSeries presenting the given range of the given array of real (double) 
+	 * numbers, without copying it. See {@link DataSeriesDouble#wrap(double[], int, int)}.
+	 */
+	public static DataSeriesDouble.Slice wrapRealSeries(double[] data, int offset, int length) {
+		return DataSeriesDouble.wrap(data, offset, length);
+	}
+	
+	/**
+	 * Create a new DataSeries that uses the given array of integer (int) numbers for 
+	 * its data, without copying it. See {@link DataSeriesInteger#wrap(int[])}.
+	 */
+	public static DataSeriesInteger wrapIntegerSeries(int[] data) {
+		return DataSeriesInteger.wrap(data);
+	}
+	
+	/**
+	 * Create a new DataSeries presenting the given range of the given array of integer (int) 
+	 * numbers, without copying it. See {@link DataSeriesInteger#wrap(int[], int, int)}.
+	 */
+	public static DataSeriesInteger.Slice wrapIntegerSeries(int[] data, int offset, int length) {
+		return DataSeriesInteger.wrap(data, offset, length);
+	}
+	
 
 	/**
 	 * Create a new generic DataSeries.
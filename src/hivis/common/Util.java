@@ -18,6 +18,7 @@ package hivis.common;
 
 import java.math.BigDecimal;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -253,7 +254,14 @@ public class Util {
 		}
 		
 		// Try each date format in turn.
+		ParsePosition position = new ParsePosition(0);
 		for (DateTimeFormatter f : formats) {
+			// Check if the input matches the format without resolving it (which is much cheaper than a failed parse as no exception is thrown).
+			position.setIndex(0);
+			position.setErrorIndex(-1);
+			if (f.parseUnresolved(input, position) == null || position.getErrorIndex() >= 0 || position.getIndex() != input.length()) {
+				continue;
+			}
 			try {
 				parseDateTime(input, f);
 				return f;
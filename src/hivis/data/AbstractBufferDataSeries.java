@@ -0,0 +1,202 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Base class for series storing primitive values in a {@link ByteBuffer}
+ * rather than an on-heap array, for example a direct buffer or a
+ * memory-mapped region of a file. This allows series larger than the heap to
+ * be used, keeps large data sets out of the way of the garbage collector, and
+ * allows read-only data to be shared between processes via the page cache
+ * (see {@link #map(File, long, int, int, boolean)}).
+ * </p>
+ * <p>
+ * If the buffer is read-only then attempts to modify the series will throw an
+ * {@link UnsupportedOperationException}. When a series grows beyond the
+ * capacity of its buffer the values are copied to a new, larger, direct
+ * buffer. A single buffer is limited to 2GB.
+ * </p>
+ * 
+ * @author O. J. Coleman
+ */
+public abstract class AbstractBufferDataSeries<V> extends AbstractModifiableDataSeries<V> {
+	/**
+	 * The buffer storing the values, starting at position 0.
+	 */
+	protected ByteBuffer buffer;
+	
+	/**
+	 * The number of values in this series.
+	 */
+	protected int size;
+	
+	/**
+	 * The number of bytes used to store each value.
+	 */
+	protected final int valueSize;
+	
+	
+	/**
+	 * Create a new empty series backed by a direct buffer with the given capacity (in values).
+	 */
+	protected AbstractBufferDataSeries(int valueSize, int capacity) {
+		this.valueSize = valueSize;
+		buffer = ByteBuffer.allocateDirect(capacity * valueSize).order(ByteOrder.nativeOrder());
+	}
+	
+	/**
+	 * Create a series backed by the given buffer, containing the given number of 
+	 * values starting at the current position of the buffer. The byte order of the 
+	 * buffer is used to read and write values.
+	 */
+	protected AbstractBufferDataSeries(int valueSize, ByteBuffer buffer, int length) {
+		if (length < 0 || (long) length * valueSize > buffer.remaining()) {
+			throw new IndexOutOfBoundsException();
+		}
+		this.valueSize = valueSize;
+		ByteOrder order = buffer.order();
+		this.buffer = buffer.slice().order(order);
+		size = length;
+	}
+	
+	
+	/**
+	 * Map a region of the given file.
+	 * 
+	 * @param file The file to map.
+	 * @param offset The position in the file the region starts at.
+	 * @param length The number of values in the region.
+	 * @param valueSize The number of bytes used to store each value.
+	 * @param writable Whether the region should be writable, in which case changes to the series are written to the file 
+	 *   (the file is extended if necessary). Otherwise the series will be read-only.
+	 */
+	protected static ByteBuffer map(File file, long offset, int length, int valueSize, boolean writable) throws IOException {
+		if ((long) length * valueSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A mapped region can not be larger than 2GB.");
+		}
+		StandardOpenOption[] options = writable ? new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE} : new StandardOpenOption[] {StandardOpenOption.READ};
+		try (FileChannel channel = FileChannel.open(file.toPath(), options)) {
+			// The mapping remains valid after the channel is closed.
+			return channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, offset, (long) length * valueSize);
+		}
+	}
+	
+	
+	@Override
+	public int length() {
+		return size;
+	}
+	
+	/**
+	 * Returns true iff this series is backed by a read-only buffer, and so may not be modified.
+	 */
+	public boolean isReadOnly() {
+		return buffer.isReadOnly();
+	}
+	
+	/**
+	 * Returns a read-only view of the buffer backing this series, with the limit set to the length of the series. 
+	 * This method is provided for improved efficiency. 
+	 */
+	public ByteBuffer getBufferRef() {
+		ByteBuffer ref = buffer.asReadOnlyBuffer().order(buffer.order());
+		ref.limit(size * valueSize);
+		return ref;
+	}
+	
+	/**
+	 * Throws an UnsupportedOperationException if this series is read-only.
+	 */
+	protected void checkWritable() {
+		if (buffer.isReadOnly()) {
+			throw new UnsupportedOperationException("This " + getClass().getSimpleName() + " is backed by a read-only buffer.");
+		}
+	}
+	
+	/**
+	 * Ensure the buffer can store at least the given number of values, 
+	 * copying the values to a new direct buffer if necessary.
+	 */
+	protected void ensureCapacity(int capacity) {
+		checkWritable();
+		if (buffer.capacity() < (long) capacity * valueSize) {
+			int newCapacity = (int) Math.min(Integer.MAX_VALUE / valueSize, Math.max(capacity, (long) (size * 1.5) + 1));
+			if (newCapacity < capacity) {
+				throw new IllegalStateException("A " + getClass().getSimpleName() + " can not store more than " + newCapacity + " values.");
+			}
+			ByteBuffer grown = ByteBuffer.allocateDirect(newCapacity * valueSize).order(buffer.order());
+			ByteBuffer values = buffer.duplicate();
+			values.position(0).limit(size * valueSize);
+			grown.put(values);
+			grown.clear();
+			buffer = grown;
+		}
+	}
+	
+	@Override
+	public void remove(int index) {
+		checkWritable();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		// Shift the following values down by one, by compacting the region from the removed value onwards.
+		ByteBuffer tail = buffer.duplicate();
+		tail.position(index * valueSize).limit(size * valueSize);
+		tail = tail.slice();
+		tail.position(valueSize);
+		tail.compact();
+		size--;
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, index, size);
+	}
+	
+	@Override
+	public void resize(int newLength) {
+		resize(newLength, getEmptyValue());
+	}
+	
+	@Override
+	public void resize(int newLength, V padValue) {
+		checkWritable();
+		if (newLength < size) {
+			size = newLength;
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, newLength, newLength);
+		}
+		else if (newLength > size) {
+			ensureCapacity(newLength);
+			int previousSize = size;
+			size = newLength;
+			for (int i = previousSize; i < newLength; i++) {
+				put(i, padValue);
+			}
+			this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, newLength);
+		}
+	}
+	
+	/**
+	 * Store the given value at the given index in the buffer, without firing any events.
+	 */
+	protected abstract void put(int index, V value);
+}
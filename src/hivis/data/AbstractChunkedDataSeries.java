@@ -0,0 +1,324 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Base class for series storing primitive values in a sequence of fixed-capacity 
+ * arrays (chunks) rather than a single array. Appending values never copies 
+ * existing values (a new chunk is added when the last is full), and removing 
+ * values only shifts values within the affected chunks (see 
+ * {@link #removeRange(int, int)}), avoiding the latency and garbage of 
+ * reallocating and copying a single large array.
+ * </p>
+ * <p>
+ * Chunks may be partially filled after values are removed. Values are located 
+ * by a binary search over the start index of each chunk, with the chunk last 
+ * accessed checked first, so sequential access is fast. The chunks can be 
+ * processed directly, for example by numeric kernels, via {@link #getChunk(int)} 
+ * or {@link #forEachChunk(ChunkConsumer)}.
+ * </p>
+ * 
+ * @param <V> The (boxed) type of the values.
+ * @param <A> The type of the primitive arrays used to store values, for example double[].
+ * 
+ * @author O. J. Coleman
+ */
+public abstract class AbstractChunkedDataSeries<V, A> extends AbstractModifiableDataSeries<V> {
+	/**
+	 * The default capacity of chunks.
+	 */
+	public static final int DEFAULT_CHUNK_CAPACITY = 4096;
+	
+	/**
+	 * Receives the chunks of a series, in order.
+	 */
+	public interface ChunkConsumer<A> {
+		/**
+		 * Receive a chunk.
+		 * @param values The array storing the values of the chunk (the array should not be modified).
+		 * @param start The index in the series of the first value in the chunk.
+		 * @param length The number of values in the chunk, stored at the beginning of the array.
+		 */
+		void accept(A values, int start, int length);
+	}
+	
+	/**
+	 * The capacity of each chunk.
+	 */
+	protected final int chunkCapacity;
+	
+	private Object[] chunks = new Object[4];
+	// The number of values in each chunk, and the index of the first value in each chunk
+	// (with the entry after the last chunk equal to the length of the series).
+	private int[] sizes = new int[4];
+	private int[] starts = new int[5];
+	private int chunkCount;
+	private int lastChunk;
+	
+	
+	protected AbstractChunkedDataSeries(int chunkCapacity) {
+		if (chunkCapacity <= 0) {
+			throw new IllegalArgumentException("The chunk capacity must be greater than 0.");
+		}
+		this.chunkCapacity = chunkCapacity;
+	}
+	
+	
+	/**
+	 * Create a new chunk with the given capacity.
+	 */
+	protected abstract A newChunk(int capacity);
+	
+	/**
+	 * Set the given range of the given chunk to the given value.
+	 */
+	protected abstract void fill(A chunk, int from, int to, V value);
+	
+	
+	@Override
+	public int length() {
+		return starts[chunkCount];
+	}
+	
+	/**
+	 * Get the number of chunks.
+	 */
+	public int chunkCount() {
+		return chunkCount;
+	}
+	
+	/**
+	 * Get the array storing the values of the given chunk. The values are stored at 
+	 * the beginning of the array (see {@link #getChunkLength(int)}). 
+	 * <strong>The array should never be modified.</strong>
+	 */
+	@SuppressWarnings("unchecked")
+	public A getChunk(int chunk) {
+		if (chunk < 0 || chunk >= chunkCount) {
+			throw new IndexOutOfBoundsException();
+		}
+		return (A) chunks[chunk];
+	}
+	
+	/**
+	 * Get the number of values in the given chunk.
+	 */
+	public int getChunkLength(int chunk) {
+		if (chunk < 0 || chunk >= chunkCount) {
+			throw new IndexOutOfBoundsException();
+		}
+		return sizes[chunk];
+	}
+	
+	/**
+	 * Get the index in this series of the first value in the given chunk.
+	 */
+	public int getChunkStart(int chunk) {
+		if (chunk < 0 || chunk >= chunkCount) {
+			throw new IndexOutOfBoundsException();
+		}
+		return starts[chunk];
+	}
+	
+	/**
+	 * Pass each chunk to the given consumer, in order.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachChunk(ChunkConsumer<A> consumer) {
+		for (int c = 0; c < chunkCount; c++) {
+			consumer.accept((A) chunks[c], starts[c], sizes[c]);
+		}
+	}
+	
+	
+	/**
+	 * Get the chunk containing the value at the given index, which must be valid.
+	 */
+	protected int chunkOf(int index) {
+		int c = lastChunk;
+		if (c < chunkCount && starts[c] <= index && index < starts[c + 1]) {
+			return c;
+		}
+		int lo = 0, hi = chunkCount - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (starts[mid] <= index) lo = mid;
+			else hi = mid - 1;
+		}
+		lastChunk = lo;
+		return lo;
+	}
+	
+	/**
+	 * Get the chunk array for the given chunk index (unchecked).
+	 */
+	@SuppressWarnings("unchecked")
+	protected A chunk(int chunk) {
+		return (A) chunks[chunk];
+	}
+	
+	/**
+	 * Get the index of the first value in the given chunk (unchecked).
+	 */
+	protected int start(int chunk) {
+		return starts[chunk];
+	}
+	
+	
+	/**
+	 * Get the index of the chunk to store the next appended value in, adding a chunk if necessary. 
+	 * The value should be stored at index {@link #getChunkLength(int)} in the chunk, and then 
+	 * {@link #appended(int)} called.
+	 */
+	protected int appendChunk() {
+		if (chunkCount == 0 || sizes[chunkCount - 1] == chunkCapacity) {
+			addChunk();
+		}
+		return chunkCount - 1;
+	}
+	
+	/**
+	 * Record that the given number of values were stored at the end of the last chunk.
+	 */
+	protected void appended(int count) {
+		sizes[chunkCount - 1] += count;
+		starts[chunkCount] += count;
+	}
+	
+	private void addChunk() {
+		if (chunkCount == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunkCount * 2);
+			sizes = Arrays.copyOf(sizes, chunkCount * 2);
+			starts = Arrays.copyOf(starts, chunkCount * 2 + 1);
+		}
+		chunks[chunkCount] = newChunk(chunkCapacity);
+		sizes[chunkCount] = 0;
+		starts[chunkCount + 1] = starts[chunkCount];
+		chunkCount++;
+	}
+	
+	/**
+	 * Append values from the given array (of type A), filling the last chunk and then adding 
+	 * chunks as necessary, without firing any events.
+	 */
+	protected void appendArray(Object values, int offset, int length) {
+		while (length > 0) {
+			int c = appendChunk();
+			int count = Math.min(length, chunkCapacity - sizes[c]);
+			System.arraycopy(values, offset, chunks[c], sizes[c], count);
+			appended(count);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	/**
+	 * Copy the values in this series to the beginning of the given array (of type A), which must be long enough.
+	 */
+	protected void copyTo(Object array) {
+		for (int c = 0; c < chunkCount; c++) {
+			System.arraycopy(chunks[c], 0, array, starts[c], sizes[c]);
+		}
+	}
+	
+	
+	@Override
+	public void remove(int index) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException();
+		}
+		removeValues(index, index + 1);
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, index, length());
+	}
+	
+	/**
+	 * Remove the values in the given range, as a single change. Only the values in the 
+	 * chunks containing the range are shifted, and chunks wholly within the range are dropped.
+	 * 
+	 * @param fromIndex The index of the first value to remove (inclusive).
+	 * @param toIndex The index after the last value to remove (exclusive).
+	 * @throws IndexOutOfBoundsException if the range is invalid for this series.
+	 */
+	public void removeRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > length() || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (fromIndex == toIndex) {
+			return;
+		}
+		removeValues(fromIndex, toIndex);
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, fromIndex, length());
+	}
+	
+	private void removeValues(int fromIndex, int toIndex) {
+		int first = chunkOf(fromIndex);
+		int last = chunkOf(toIndex - 1);
+		int kept = first;
+		for (int c = first; c <= last; c++) {
+			int from = Math.max(fromIndex, starts[c]) - starts[c];
+			int to = Math.min(toIndex, starts[c + 1]) - starts[c];
+			System.arraycopy(chunks[c], to, chunks[c], from, sizes[c] - to);
+			sizes[c] -= to - from;
+			// Drop empty chunks.
+			if (sizes[c] > 0) {
+				chunks[kept] = chunks[c];
+				sizes[kept] = sizes[c];
+				kept++;
+			}
+		}
+		int dropped = last + 1 - kept;
+		if (dropped > 0) {
+			System.arraycopy(chunks, last + 1, chunks, kept, chunkCount - last - 1);
+			System.arraycopy(sizes, last + 1, sizes, kept, chunkCount - last - 1);
+			Arrays.fill(chunks, chunkCount - dropped, chunkCount, null);
+			chunkCount -= dropped;
+		}
+		for (int c = first; c < chunkCount; c++) {
+			starts[c + 1] = starts[c] + sizes[c];
+		}
+		lastChunk = 0;
+	}
+	
+	@Override
+	public void resize(int newLength) {
+		resize(newLength, getEmptyValue());
+	}
+	
+	@Override
+	public void resize(int newLength, V padValue) {
+		int size = length();
+		if (newLength < size) {
+			removeValues(newLength, size);
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, newLength, newLength);
+		}
+		else if (newLength > size) {
+			int remaining = newLength - size;
+			while (remaining > 0) {
+				int c = appendChunk();
+				int count = Math.min(remaining, chunkCapacity - sizes[c]);
+				fill(chunk(c), sizes[c], sizes[c] + count, padValue);
+				appended(count);
+				remaining -= count;
+			}
+			this.setDataChanged(DataSeriesChange.ValuesAdded, size, newLength);
+		}
+	}
+}
@@ -16,8 +16,10 @@
 package hivis.data;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
 import java.time.temporal.TemporalAccessor;
 import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
@@ -41,6 +43,8 @@ import hivis.data.view.CalcValue;
 import hivis.data.view.CalcValue.SeriesOp;
 import hivis.data.view.Function;
 import hivis.data.view.GroupedSeries;
+import hivis.data.view.RollingWindow;
+import hivis.data.view.SeriesAggregate;
 import hivis.data.view.SeriesView;
 import hivis.data.view.SeriesViewAppend;
 import hivis.data.view.SeriesViewRow;
@@ -61,6 +65,8 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 	
 	// caches for various operations.
 	private Map<SeriesOp, DataValue<V>> cacheDataValueOp;
+	private SeriesAggregate aggregate;
+	private List<RollingWindow> rollingWindows;
 	private Table<Op, Object, SeriesView<?>> cacheDataSeriesOp;
 	
 	private DataSeries.FloatSeries floatSeriesView;
@@ -667,17 +673,20 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 	private DataValue<?> op(SeriesOp op) {
 		if (cacheDataValueOp == null || !cacheDataValueOp.containsKey(op)) {
 			if (cacheDataValueOp == null) cacheDataValueOp = new EnumMap<>(SeriesOp.class);
+			// The aggregate state is shared by all ops. It must be created (and so registered 
+			// as a listener) before the SeriesFunc so that it sees change events first.
+			if (aggregate == null && isNumeric()) aggregate = new SeriesAggregate(this);
 			if (op.realOutput || getType().equals(Double.class)) {
-				cacheDataValueOp.put(op, new CalcValue.DoubleValue.SeriesFunc(this, op));
+				cacheDataValueOp.put(op, new CalcValue.DoubleValue.SeriesFunc(this, op, aggregate));
 			}
 			else if (getType().equals(Float.class)) {
-				cacheDataValueOp.put(op, new CalcValue.FloatValue.SeriesFunc(this, op));
+				cacheDataValueOp.put(op, new CalcValue.FloatValue.SeriesFunc(this, op, aggregate));
 			}
 			else if (getType().equals(Integer.class)) {
-				cacheDataValueOp.put(op, new CalcValue.IntValue.SeriesFunc(this, op));
+				cacheDataValueOp.put(op, new CalcValue.IntValue.SeriesFunc(this, op, aggregate));
 			}
 			else if (getType().equals(Long.class)) {
-				cacheDataValueOp.put(op, new CalcValue.LongValue.SeriesFunc(this, op));
+				cacheDataValueOp.put(op, new CalcValue.LongValue.SeriesFunc(this, op, aggregate));
 			}
 			else {
 				throw new UnsupportedOperationException("Cannot get the " + op.name().toLowerCase() + " of a non-numeric DataSeries.");
@@ -776,49 +785,63 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 	}
 
 	@Override
-	public <O> SeriesView<O> apply(final Function<V, O> function) {
+	public RollingWindow rolling(int size) {
+		return rolling(null, size, 0);
+	}
+
+	@Override
+	public RollingWindow rolling(DataSeries<?> times, double duration) {
+		if (times == null) {
+			throw new IllegalArgumentException("The timestamp series must be given.");
+		}
+		return rolling(times, 0, duration);
+	}
+
+	/**
+	 * Get the (cached) RollingWindow with the given parameters.
+	 */
+	private RollingWindow rolling(DataSeries<?> times, int size, double duration) {
+		if (rollingWindows == null) {
+			rollingWindows = new ArrayList<>();
+		}
+		for (RollingWindow window : rollingWindows) {
+			if (window.getTimes() == times && window.getSize() == size && window.getDuration() == duration) {
+				return window;
+			}
+		}
+		RollingWindow window = times == null ? new RollingWindow(this, size) : new RollingWindow(this, times, duration);
+		rollingWindows.add(window);
+		return window;
+	}
+
+	@Override
+	public <O> SeriesView<O> apply(final Function<? super V, O> function) {
+		return apply(function, null);
+	}
+	
+	@Override
+	public <O> SeriesView<O> apply(final Function<? super V, O> function, Class<O> outputType) {
 		final DataSeries<V> me = this;
 		
-		// Determine function output type. This is used to create the cache series in CalcSeries.
-		Class<?> outputType = (new TypeToken<O>(getClass()) {}).getRawType();
-		// If the type doesn't appear to have been provided via generics (and if the length is 0),
-		// then get the type from examples. We consider all examples, in order to be sure we have
-		// the most common ancestor type or the correct envelope numeric type.
-		if (length() > 0 && (outputType == null || outputType.equals(Object.class))) {
-			for (V o : me) {
-				Object output = function.apply(o);
-				if (output == null) {
-					continue;
-				}
-				
-				Class<?> oType = output.getClass();
-				if (outputType == null) {
-					outputType = oType;
-				}
-				else if (outputType.equals(oType)) {
-					// Types match, nothing to do. 
-				}
-				else if (oType.isAssignableFrom(Number.class) && outputType.isAssignableFrom(Number.class)) {
-					// If we have two (different) number types, find the envelope type.
-					outputType = Util.getEnvelopeNumberType((Class<Number>) oType, (Class<Number>) outputType, false);
-				}
-				else if (!outputType.equals(oType)) {
-					// If we have two different object types, find the common denominator.
-					outputType = Util.getCommonAncestorClass(oType, outputType);
-				}
-				
-				if (outputType.equals(Object.class)) {
-					// This is as low as we can go.
-					break;
-				}
-			}
-			
-			// If we couldn't determine a type, let's just go with generic.
-			if (outputType == null) {
-				outputType = Object.class;
-			}
+		SeriesView<O> primitiveView = applyPrimitive(function);
+		if (primitiveView != null) {
+			return primitiveView;
 		}
-		final Class<?> outputTypeFinal = outputType;
+		
+		// Determine function output type. This is used to create the cache series in CalcSeries.
+		Class<?> outType = outputType;
+		// Use the type provided via the generic type parameters of the function if it's concrete.
+		if (outType == null && function.outputType != null && !function.outputType.equals(Object.class) &&
+				!function.outputType.isInterface() && !Modifier.isAbstract(function.outputType.getModifiers())) {
+			outType = function.outputType;
+		}
+		// Otherwise (eg Number or Object) the function may produce values of different 
+		// types (eg Integer and Double), so the output of any one value can't be used to 
+		// pick a (typed) cache series. Just go with generic.
+		if (outType == null) {
+			outType = Object.class;
+		}
+		final Class<?> outputTypeFinal = outType;
 		
 		// See if we can determine the (numeric) input type for the function,
 		// in which case we can use a CalcSeries sub-class that calls the method
@@ -827,6 +850,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 		if (type != null) {
 			if (type.equals(Float.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply(me.getFloat(index));
@@ -839,6 +866,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 			}
 			if (type.equals(Double.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply(me.getDouble(index));
@@ -851,6 +882,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 			}
 			if (type.equals(Integer.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply(me.getInt(index));
@@ -863,6 +898,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 			}
 			if (type.equals(Long.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply(me.getLong(index));
@@ -875,6 +914,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 			}
 			if (type.equals(String.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply((String) me.get(index));
@@ -887,6 +930,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 			}
 			if (type.equals(Date.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply((Date) me.get(index));
@@ -899,6 +946,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 			}
 			if (type.equals(TemporalAccessor.class)) {
 				return new CalcSeries<V, O>(me) {
+					@Override
+					public boolean isElementWise() {
+						return true;
+					}
 					@Override
 					public O calc(int index) {
 						return function.apply((TemporalAccessor) me.get(index));
@@ -913,6 +964,10 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 		// Fallback to creating a CalcSeries that uses the 
 		// (possibly typed) object-based apply method.
 		return new CalcSeries<V, O>(me) {
+			@Override
+			public boolean isElementWise() {
+				return true;
+			}
 			@Override
 			public O calc(int index) {
 				return function.apply(me.get(index));
@@ -924,6 +979,140 @@ public abstract class AbstractDataSeries<V> extends DataDefault implements DataS
 		};
 	}
 
+	/**
+	 * If the given function is one of the primitive variants (see for example 
+	 * {@link Function.DoubleToDouble}) and can be applied to the values in this 
+	 * series then create a view that calculates its values without boxing, 
+	 * otherwise return null.
+	 */
+	private <O> SeriesView<O> applyPrimitive(final Function<? super V, O> function) {
+		Class<?> type = getType();
+		if (type == null || !isNumeric()) {
+			return null;
+		}
+		final DataSeries<V> me = this;
+		boolean isInt = type.equals(Integer.class) || type.equals(Short.class) || type.equals(Byte.class);
+		boolean isIntegral = isInt || type.equals(Long.class);
+		
+		if (function instanceof Function.DoubleToDouble) {
+			final Function.DoubleToDouble f = (Function.DoubleToDouble) function;
+			return (SeriesView<O>) new CalcSeries.DoubleSeries<V>(me) {
+				@Override
+				public boolean isElementWise() {
+					return true;
+				}
+				@Override
+				protected void calcDouble(int fromIndex, int toIndex, double[] values) {
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = f.applyDouble(me.getDouble(i));
+					}
+				}
+				@Override
+				public double calcDouble(int index) {
+					return f.applyDouble(me.getDouble(index));
+				}
+			};
+		}
+		if (function instanceof Function.DoubleToBoolean) {
+			final Function.DoubleToBoolean f = (Function.DoubleToBoolean) function;
+			return (SeriesView<O>) new CalcSeries<V, Boolean>(me) {
+				@Override
+				public boolean isElementWise() {
+					return true;
+				}
+				@Override
+				public Boolean calc(int index) {
+					return f.applyBoolean(me.getDouble(index));
+				}
+				@Override
+				public boolean calcBoolean(int index) {
+					return f.applyBoolean(me.getDouble(index));
+				}
+				@Override
+				public DataSeries<Boolean> getNewSeries() {
+					return getNewSeries(Boolean.class);
+				}
+			};
+		}
+		if (function instanceof Function.IntToDouble && isInt) {
+			final Function.IntToDouble f = (Function.IntToDouble) function;
+			return (SeriesView<O>) new CalcSeries.DoubleSeries<V>(me) {
+				@Override
+				public boolean isElementWise() {
+					return true;
+				}
+				@Override
+				protected void calcDouble(int fromIndex, int toIndex, double[] values) {
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = f.applyDouble(me.getInt(i));
+					}
+				}
+				@Override
+				public double calcDouble(int index) {
+					return f.applyDouble(me.getInt(index));
+				}
+			};
+		}
+		if (function instanceof Function.IntToInt && isInt) {
+			final Function.IntToInt f = (Function.IntToInt) function;
+			return (SeriesView<O>) new CalcSeries.IntSeries<V>(me) {
+				@Override
+				public boolean isElementWise() {
+					return true;
+				}
+				@Override
+				protected void calcInteger(int fromIndex, int toIndex, int[] values) {
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = f.applyInt(me.getInt(i));
+					}
+				}
+				@Override
+				public int calcInteger(int index) {
+					return f.applyInt(me.getInt(index));
+				}
+			};
+		}
+		if (function instanceof Function.LongToDouble && isIntegral) {
+			final Function.LongToDouble f = (Function.LongToDouble) function;
+			return (SeriesView<O>) new CalcSeries.DoubleSeries<V>(me) {
+				@Override
+				public boolean isElementWise() {
+					return true;
+				}
+				@Override
+				protected void calcDouble(int fromIndex, int toIndex, double[] values) {
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = f.applyDouble(me.getLong(i));
+					}
+				}
+				@Override
+				public double calcDouble(int index) {
+					return f.applyDouble(me.getLong(index));
+				}
+			};
+		}
+		if (function instanceof Function.LongToLong && isIntegral) {
+			final Function.LongToLong f = (Function.LongToLong) function;
+			return (SeriesView<O>) new CalcSeries.LongSeries<V>(me) {
+				@Override
+				public boolean isElementWise() {
+					return true;
+				}
+				@Override
+				protected void calcLong(int fromIndex, int toIndex, long[] values) {
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = f.applyLong(me.getLong(i));
+					}
+				}
+				@Override
+				public long calcLong(int index) {
+					return f.applyLong(me.getLong(index));
+				}
+			};
+		}
+		return null;
+	}
+
 	@Override
 	public SeriesView<?> applyMathMethod(String mathMethod) {
 		return new CalcSeries.Maths<V>(mathMethod, this);
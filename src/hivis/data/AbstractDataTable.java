@@ -44,6 +44,7 @@ import hivis.data.view.RowFilter;
 import hivis.data.view.SeriesFunction;
 import hivis.data.view.SeriesView;
 import hivis.data.view.SortedTable;
+import hivis.data.view.SortedTable.SortKey;
 import hivis.data.view.TableFunction;
 import hivis.data.view.TableView;
 import hivis.data.view.TableViewAppend;
@@ -348,6 +349,11 @@ public abstract class AbstractDataTable extends DataDefault implements DataTable
 	public TableView sort(Comparator<DataRow> comparator) {
 		return new SortedTable(this, comparator);
 	}
+
+	@Override
+	public TableView sort(SortKey... keys) {
+		return new SortedTable(this, keys);
+	}
 	
 	
 	@Override
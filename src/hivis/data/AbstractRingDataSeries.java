@@ -0,0 +1,269 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+/**
+ * <p>
+ * Base class for series storing up to a fixed number of values in a circular 
+ * buffer, presenting a sliding window over a stream of values: once the series 
+ * is full, appending a value evicts the value at the head of the series, in 
+ * constant time.
+ * </p>
+ * <p>
+ * Appending (and evicting) values fires a single event carrying a 
+ * {@link WindowShift} describing the number of values evicted from the head and 
+ * appended to the tail, so that listeners can update incrementally. Other 
+ * modifications (setting values, removing values other than at the head, and 
+ * resizing) fire {@link DataSeriesChange#ValuesChanged} for the affected indices.
+ * </p>
+ * 
+ * @param <V> The (boxed) type of the values.
+ * @param <A> The type of the array used to store values, for example double[].
+ * 
+ * @author O. J. Coleman
+ */
+public abstract class AbstractRingDataSeries<V, A> extends AbstractModifiableDataSeries<V> {
+	/**
+	 * The array storing the values, of length {@link #capacity}.
+	 */
+	protected final A values;
+	
+	/**
+	 * The maximum number of values in this series.
+	 */
+	protected final int capacity;
+	
+	/**
+	 * The index in {@link #values} of the first value, and the number of values.
+	 */
+	protected int head, size;
+	
+	
+	protected AbstractRingDataSeries(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be greater than 0.");
+		}
+		this.capacity = capacity;
+		values = newArray(capacity);
+	}
+	
+	
+	/**
+	 * Create a new array with the given length.
+	 */
+	protected abstract A newArray(int length);
+	
+	/**
+	 * Store the given value at the given index in {@link #values}.
+	 */
+	protected abstract void put(int slot, V value);
+	
+	/**
+	 * Release the value at the given index in {@link #values}, if necessary 
+	 * (for example so that objects can be garbage collected).
+	 */
+	protected void release(int slot) {
+	}
+	
+	
+	/**
+	 * Get the maximum number of values in this series.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Returns true iff this series contains {@link #getCapacity()} values, 
+	 * such that appending a value will evict the value at the head.
+	 */
+	public boolean isFull() {
+		return size == capacity;
+	}
+	
+	@Override
+	public int length() {
+		return size;
+	}
+	
+	/**
+	 * Get the index in {@link #values} of the value at the given index in this series.
+	 */
+	protected int slot(int index) {
+		int slot = head + index;
+		return slot < capacity ? slot : slot - capacity;
+	}
+	
+	
+	@Override
+	public void appendValue(V value) {
+		int evicted = 0;
+		if (size == capacity) {
+			head = slot(1);
+			size--;
+			evicted = 1;
+		}
+		put(slot(size), value);
+		size++;
+		shifted(evicted, 1);
+	}
+	
+	/**
+	 * Append the given range of the given array (of type A) of values, as a single change. If the number 
+	 * of values exceeds the capacity then only the last {@link #getCapacity()} values are retained.
+	 */
+	protected void appendArray(Object array, int offset, int length) {
+		if (length == 0) {
+			return;
+		}
+		// Values that would be evicted by later values in the array are skipped, but still reported as appended and evicted.
+		int appended = length;
+		if (length > capacity) {
+			offset += length - capacity;
+			length = capacity;
+		}
+		int evicted = Math.max(0, size + length - capacity);
+		for (int i = 0; i < evicted; i++) {
+			release(slot(i));
+		}
+		head = slot(evicted);
+		size -= evicted;
+		
+		// Copy in up to two parts, wrapping around the end of the array.
+		int start = slot(size);
+		int first = Math.min(length, capacity - start);
+		System.arraycopy(array, offset, values, start, first);
+		System.arraycopy(array, offset + first, values, 0, length - first);
+		size += length;
+		shifted(evicted + appended - length, appended);
+	}
+	
+	/**
+	 * Remove the given number of values from the head of this series, in constant time, as a single change.
+	 * 
+	 * @throws IndexOutOfBoundsException if the count is negative or greater than the length of this series.
+	 */
+	public void evict(int count) {
+		if (count < 0 || count > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (count == 0) {
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			release(slot(i));
+		}
+		head = slot(count);
+		size -= count;
+		shifted(count, 0);
+	}
+	
+	/**
+	 * Record a change evicting values from the head and appending them at the tail.
+	 */
+	private void shifted(int evicted, int appended) {
+		this.beginChanges(this);
+		WindowShift shift = new WindowShift(evicted, appended);
+		int previousSize = size + evicted - appended;
+		appended = Math.min(appended, size);
+		if (evicted > 0) {
+			// All previously existing values have moved.
+			this.setDataChanged(shift, 0, previousSize);
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, 0, size);
+		}
+		else {
+			this.setDataChanged(shift, size - appended, size);
+		}
+		if (appended > 0) {
+			this.setDataChanged(DataSeriesChange.ValuesAdded, size - appended, size);
+		}
+		this.finishChanges(this);
+	}
+	
+	@Override
+	public void remove(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (index == 0) {
+			evict(1);
+			return;
+		}
+		// Shift the following values towards the head.
+		for (int i = index; i < size - 1; i++) {
+			move(slot(i + 1), slot(i));
+		}
+		release(slot(size - 1));
+		size--;
+		this.beginChanges(this);
+		this.setDataChanged(DataSeriesChange.ValuesChanged, index, size);
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, index, size);
+		this.finishChanges(this);
+	}
+	
+	private void move(int from, int to) {
+		System.arraycopy(values, from, values, to, 1);
+	}
+	
+	@Override
+	public void resize(int newLength) {
+		resize(newLength, getEmptyValue());
+	}
+	
+	/**
+	 * {@inheritDoc} Values are removed from or added at the tail.
+	 * 
+	 * @throws IllegalArgumentException if the new length is greater than the capacity.
+	 */
+	@Override
+	public void resize(int newLength, V padValue) {
+		if (newLength > capacity) {
+			throw new IllegalArgumentException("The length of a " + getClass().getSimpleName() + " can not exceed its capacity (" + capacity + ").");
+		}
+		int previousSize = size;
+		if (newLength < size) {
+			for (int i = newLength; i < size; i++) {
+				release(slot(i));
+			}
+			size = newLength;
+			this.beginChanges(this);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, newLength, previousSize);
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, newLength, newLength);
+			this.finishChanges(this);
+		}
+		else if (newLength > size) {
+			for (int i = size; i < newLength; i++) {
+				put(slot(i), padValue);
+			}
+			size = newLength;
+			this.beginChanges(this);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, previousSize, newLength);
+			this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, newLength);
+			this.finishChanges(this);
+		}
+	}
+	
+	/**
+	 * Copy the values in this series, in order, to the beginning of the given array (of type A), which must be long enough.
+	 */
+	protected void copyTo(Object array) {
+		int first = Math.min(size, capacity - head);
+		System.arraycopy(values, head, array, 0, first);
+		System.arraycopy(values, 0, array, first, size - first);
+	}
+}
@@ -54,6 +54,10 @@ public abstract class DataDefault implements Data {
 	
 	private Set<Object> changeTypes = new HashSet<>();
 	
+	// The ranges of indices affected by the changes recorded in changeTypes, 
+	// or null if they are not known.
+	private IndexRanges changedRanges = new IndexRanges();
+	
 	
 	public DataDefault() {
 	}
@@ -103,7 +107,8 @@ public abstract class DataDefault implements Data {
 	 */
 	private synchronized void fireChangeEvent() {
 		if (!changeTypes.isEmpty()) {
-			DataEvent event = new DataEvent(this, changeTypes.toArray());
+			DataEvent event = new DataEvent(this, null, changedRanges, changeTypes.toArray());
+			changedRanges = new IndexRanges();
 			fireChangeEvent(event);
 			changeTypes.clear();
 		}
@@ -128,6 +133,43 @@ public abstract class DataDefault implements Data {
 	 */
 	@Override
 	public void setDataChanged(Object changeType) {
+		changedRanges = null;
+		recordDataChanged(changeType);
+	}
+	
+	/**
+	 * Equivalent to {@link #setDataChanged(Object)} but also records the range of 
+	 * indices affected by the change, which will be made available via 
+	 * {@link DataEvent#getAffectedRanges()}. Intended for use by DataSeries.
+	 * 
+	 * @param fromIndex The first index affected by the change (inclusive).
+	 * @param toIndex The end of the range of indices affected by the change (exclusive). 
+	 */
+	protected void setDataChanged(Object changeType, int fromIndex, int toIndex) {
+		if (changedRanges != null) {
+			changedRanges.add(fromIndex, toIndex);
+		}
+		recordDataChanged(changeType);
+	}
+	
+	/**
+	 * Equivalent to {@link #setDataChanged(Object)} but also records the range(s) of 
+	 * indices affected by the change, which will be made available via 
+	 * {@link DataEvent#getAffectedRanges()}. Intended for use by DataSeries.
+	 * 
+	 * @param affectedRanges The ranges of indices affected by the change, or null if not known.
+	 */
+	protected void setDataChanged(Object changeType, IndexRanges affectedRanges) {
+		if (affectedRanges == null) {
+			changedRanges = null;
+		}
+		else if (changedRanges != null) {
+			changedRanges.addAll(affectedRanges);
+		}
+		recordDataChanged(changeType);
+	}
+	
+	private void recordDataChanged(Object changeType) {
 		changeTypes.add(changeType);
 		
 		// In the process of notifying containers that data has changed, 
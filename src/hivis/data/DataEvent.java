@@ -26,12 +26,36 @@ import hivis.common.Event;
  * @author O. J. Coleman
  */
 public class DataEvent extends Event<Data, Object, DataEvent> {
+	private final IndexRanges affectedRanges;
+	
 	public DataEvent(Data affected, DataEvent sourceEvent, Object... changeTypes) {
 		super(affected, sourceEvent, changeTypes);
+		affectedRanges = null;
 	}
 	
 	public DataEvent(Data affected, Object... changeTypes) {
 		super(affected, changeTypes);
+		affectedRanges = null;
+	}
+	
+	/**
+	 * Create an event that records the range(s) of indices affected by the change (see {@link #getAffectedRanges()}).
+	 */
+	public DataEvent(Data affected, DataEvent sourceEvent, IndexRanges affectedRanges, Object... changeTypes) {
+		super(affected, sourceEvent, changeTypes);
+		this.affectedRanges = affectedRanges;
+	}
+	
+	/**
+	 * For events on a {@link DataSeries}, get the ranges of indices whose values 
+	 * may differ from the values at the same indices before the change (including 
+	 * any indices added to the series). Indices beyond the current length of the 
+	 * series should be ignored. Returns null if the affected indices are not known, 
+	 * in which case all values should be considered to be potentially changed. 
+	 * The returned object should not be modified.
+	 */
+	public IndexRanges getAffectedRanges() {
+		return affectedRanges;
 	}
 	
 	@Override
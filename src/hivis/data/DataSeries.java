@@ -20,6 +20,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import hivis.data.view.Function;
+import hivis.data.view.RollingWindow;
 import hivis.data.view.RowFilter;
 import hivis.data.view.SeriesView;
 import hivis.data.view.TableFunction;
@@ -631,6 +632,38 @@ public interface DataSeries<V> extends DataSequence, Iterable<V> {
 	 */
 	public <K> DataMap<K, SeriesView<V>> group(Function<V, K> keyFuntion);
 
+	/**
+	 * Get rolling (moving) window statistics of this series, over windows of
+	 * the given number of values. For example
+	 * <code>series.rolling(10).mean()</code> is a view of the mean of each
+	 * value and the (up to) 9 values preceding it. The views are updated
+	 * incrementally as values are appended to this series (see
+	 * {@link hivis.data.view.RollingSeries}).
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the size is less than 1.
+	 * @throws UnsupportedOperationException
+	 *             if this series is non-numeric.
+	 */
+	public RollingWindow rolling(int size);
+
+	/**
+	 * Get rolling (moving) window statistics of this series, over windows
+	 * spanning the given duration. The window for each value contains the
+	 * values whose timestamps, given by the values at the same index in the
+	 * given series, are greater than the timestamp of that value minus the
+	 * duration. The timestamps must be non-decreasing.
+	 * 
+	 * @param times
+	 *            The timestamp of each value, for example in milliseconds.
+	 * @throws IllegalArgumentException
+	 *             if the duration is not positive or the timestamps are not
+	 *             numeric.
+	 * @throws UnsupportedOperationException
+	 *             if this series is non-numeric.
+	 */
+	public RollingWindow rolling(DataSeries<?> times, double duration);
+
 	/**
 	 * Create a view of this series containing the values in this series scaled
 	 * to the unit range [0, 1]. Equivalent to
@@ -685,6 +718,21 @@ public interface DataSeries<V> extends DataSequence, Iterable<V> {
 	 */
 	public SeriesView<V> append(DataSeries<V> series);
 
+	/**
+	 * Create a view of this series that is calculated by applying the given
+	 * function to each element in this series. If the function is one of the
+	 * primitive variants (see for example {@link Function.DoubleToDouble})
+	 * then values are calculated without boxing. The output type of the view
+	 * is taken from the generic type parameters of the function if they specify
+	 * a concrete type, otherwise (for example Number or Object) a generic series
+	 * is used; see {@link #apply(Function, Class)} to specify it explicitly.
+	 * 
+	 * @param function
+	 *            The function to calculate the new values from the original
+	 *            values.
+	 */
+	public <O> SeriesView<O> apply(final Function<? super V, O> function);
+
 	/**
 	 * Create a view of this series that is calculated by applying the given
 	 * function to each element in this series.
@@ -692,8 +740,10 @@ public interface DataSeries<V> extends DataSequence, Iterable<V> {
 	 * @param function
 	 *            The function to calculate the new values from the original
 	 *            values.
+	 * @param outputType
+	 *            The type of the values produced by the function.
 	 */
-	public <O> SeriesView<O> apply(final Function<V, O> function);
+	public <O> SeriesView<O> apply(final Function<? super V, O> function, Class<O> outputType);
 
 	/**
 	 * Create a view of this series that is calculated by applying the given
@@ -0,0 +1,166 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Data series storing double-precision floating-point numbers in a {@link ByteBuffer}, for example a 
+ * direct (off-heap) buffer or a memory-mapped file (see {@link AbstractBufferDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesDoubleBuffer extends AbstractBufferDataSeries<Double> {
+	public DataSeriesDoubleBuffer() {
+		this(10);
+	}
+	
+	/**
+	 * Create a new empty series backed by a direct buffer with the given capacity.
+	 */
+	public DataSeriesDoubleBuffer(int capacity) {
+		super(8, capacity);
+	}
+	
+	/**
+	 * Create a series backed by the given buffer, containing the given number of
+	 * values starting at the current position of the buffer. The byte order of 
+	 * the buffer is used. The buffer is used by reference: changes to the series 
+	 * are written to the buffer (unless it is read-only), and the buffer should 
+	 * not be modified externally.
+	 */
+	public DataSeriesDoubleBuffer(ByteBuffer buffer, int length) {
+		super(8, buffer, length);
+	}
+	
+	/**
+	 * Create a series backed by a direct buffer containing a copy of the values in the given series.
+	 */
+	public DataSeriesDoubleBuffer(DataSeries<Double> series) {
+		this(Math.max(1, series.length()));
+		appendValues(series.asDoubleArray(), 0, series.length());
+	}
+	
+	
+	/**
+	 * Create a series backed by a memory-mapped region of the given file. The
+	 * values are read and written in the byte order of the platform. To use a 
+	 * different byte order, map the file with the desired order and use 
+	 * {@link #DataSeriesDoubleBuffer(ByteBuffer, int)}.
+	 * 
+	 * @param file The file to map.
+	 * @param offset The position in the file the values start at.
+	 * @param length The number of values.
+	 * @param writable Whether changes to the series should be written to the file (the file is extended 
+	 *   to fit the values if necessary). Otherwise the series will be read-only. Appending values beyond 
+	 *   the given length copies the values to a new direct buffer, which is no longer backed by the file.
+	 */
+	public static DataSeriesDoubleBuffer map(File file, long offset, int length, boolean writable) throws IOException {
+		return new DataSeriesDoubleBuffer(map(file, offset, length, 8, writable).order(ByteOrder.nativeOrder()), length);
+	}
+	
+	
+	@Override
+	public Double get(int index) {
+		return getDouble(index);
+	}
+	
+	@Override
+	public double getDouble(int index) {
+		if (index < 0 || index >= size) {
+			return Double.NaN;
+		}
+		return buffer.getDouble(index * 8);
+	}
+	
+	@Override
+	public void setValue(int index, Double value) {
+		checkWritable();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (buffer.getDouble(index * 8) != value) {
+			buffer.putDouble(index * 8, value);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	@Override
+	public void appendValue(Double value) {
+		ensureCapacity(size + 1);
+		buffer.putDouble(size * 8, value);
+		size++;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - 1, size);
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(double[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		ensureCapacity(size + length);
+		ByteBuffer target = buffer.duplicate().order(buffer.order());
+		target.position(size * 8);
+		target.asDoubleBuffer().put(values, offset, length);
+		size += length;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - length, size);
+	}
+	
+	@Override
+	protected void put(int index, Double value) {
+		buffer.putDouble(index * 8, value);
+	}
+	
+	@Override
+	public Double getEmptyValue() {
+		return Double.NaN;
+	}
+	
+	@Override
+	public double[] asDoubleArray(double[] data) {
+		if (data == null || data.length < size) {
+			data = new double[size];
+		}
+		ByteBuffer source = buffer.duplicate().order(buffer.order());
+		source.asDoubleBuffer().get(data, 0, size);
+		return data;
+	}
+	
+	@Override
+	public DataSeriesDoubleBuffer getNewSeries() {
+		return new DataSeriesDoubleBuffer();
+	}
+	
+	@Override
+	public DataSeriesDoubleBuffer copy() {
+		return new DataSeriesDoubleBuffer(this);
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.Arrays;
+
+/**
+ * Data series storing double-precision floating-point numbers in chunks, so that appending values never copies 
+ * existing values (see {@link AbstractChunkedDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesDoubleChunked extends AbstractChunkedDataSeries<Double, double[]> {
+	public DataSeriesDoubleChunked() {
+		this(DEFAULT_CHUNK_CAPACITY);
+	}
+	
+	/**
+	 * Create a new empty series with the given chunk capacity.
+	 */
+	public DataSeriesDoubleChunked(int chunkCapacity) {
+		super(chunkCapacity);
+	}
+	
+	/**
+	 * Create a new series containing a copy of the values in the given series, with the default chunk capacity.
+	 */
+	public DataSeriesDoubleChunked(DataSeries<Double> series) {
+		this(DEFAULT_CHUNK_CAPACITY);
+		double[] values = series.asDoubleArray();
+		appendArray(values, 0, values.length);
+	}
+	
+	
+	@Override
+	protected double[] newChunk(int capacity) {
+		return new double[capacity];
+	}
+	
+	@Override
+	protected void fill(double[] chunk, int from, int to, Double value) {
+		Arrays.fill(chunk, from, to, value);
+	}
+	
+	
+	@Override
+	public Double get(int index) {
+		return getDouble(index);
+	}
+	
+	@Override
+	public double getDouble(int index) {
+		if (index < 0 || index >= length()) {
+			return Double.NaN;
+		}
+		int c = chunkOf(index);
+		return chunk(c)[index - start(c)];
+	}
+	
+	@Override
+	public void setValue(int index, Double value) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException();
+		}
+		int c = chunkOf(index);
+		double[] chunk = chunk(c);
+		if (chunk[index - start(c)] != value) {
+			chunk[index - start(c)] = value;
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	@Override
+	public void appendValue(Double value) {
+		int c = appendChunk();
+		chunk(c)[getChunkLength(c)] = value;
+		appended(1);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, length() - 1, length());
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(double[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		appendArray(values, offset, length);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, length() - length, length());
+	}
+	
+	@Override
+	public Double getEmptyValue() {
+		return Double.NaN;
+	}
+	
+	@Override
+	public double[] asDoubleArray(double[] data) {
+		if (data == null || data.length < length()) {
+			data = new double[length()];
+		}
+		copyTo(data);
+		return data;
+	}
+	
+	@Override
+	public DataSeriesDoubleChunked getNewSeries() {
+		return new DataSeriesDoubleChunked(chunkCapacity);
+	}
+	
+	@Override
+	public DataSeriesDoubleChunked copy() {
+		DataSeriesDoubleChunked copy = new DataSeriesDoubleChunked(chunkCapacity);
+		forEachChunk((values, start, length) -> copy.appendArray(values, 0, length));
+		return copy;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+/**
+ * Data series storing up to a fixed number of double-precision floating-point numbers, evicting the value 
+ * at the head when a value is appended to a full series (see {@link AbstractRingDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesDoubleRing extends AbstractRingDataSeries<Double, double[]> {
+	/**
+	 * Create a new empty series with the given capacity.
+	 */
+	public DataSeriesDoubleRing(int capacity) {
+		super(capacity);
+	}
+	
+	
+	@Override
+	protected double[] newArray(int length) {
+		return new double[length];
+	}
+	
+	@Override
+	protected void put(int slot, Double value) {
+		values[slot] = value;
+	}
+	
+	
+	@Override
+	public Double get(int index) {
+		return getDouble(index);
+	}
+	
+	@Override
+	public double getDouble(int index) {
+		if (index < 0 || index >= size) {
+			return Double.NaN;
+		}
+		return values[slot(index)];
+	}
+	
+	@Override
+	public void setValue(int index, Double value) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		int slot = slot(index);
+		if (values[slot] != value) {
+			values[slot] = value;
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array, evicting values from the head 
+	 * as necessary. A single change event is fired. If the number of values exceeds the 
+	 * capacity then only the last {@link #getCapacity()} values are retained.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(double[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		appendArray(values, offset, length);
+	}
+	
+	@Override
+	public Double getEmptyValue() {
+		return Double.NaN;
+	}
+	
+	@Override
+	public double[] asDoubleArray(double[] data) {
+		if (data == null || data.length < size) {
+			data = new double[size];
+		}
+		copyTo(data);
+		return data;
+	}
+	
+	/**
+	 * Returns a new, empty, unbounded {@link DataSeriesDouble}: a series created from
+	 * the values of a ring series (for example by {@link #getNewSeries(Iterable)})
+	 * must be able to contain all the given values.
+	 */
+	@Override
+	public DataSeriesDouble getNewSeries() {
+		return new DataSeriesDouble();
+	}
+	
+	@Override
+	public DataSeriesDoubleRing copy() {
+		DataSeriesDoubleRing copy = new DataSeriesDoubleRing(capacity);
+		copy.appendValues(asDoubleArray(), 0, size);
+		return copy;
+	}
+}
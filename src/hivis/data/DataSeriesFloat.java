@@ -20,10 +20,11 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
 
-import hivis.data.DataSeriesDouble.Sorted;
 import hivis.data.view.AbstractSeriesViewMultiple;
 import hivis.data.view.CalcSeries;
+import hivis.data.view.IndexSort;
 import hivis.data.view.SeriesView;
 import hivis.data.view.SortedSeries;
 
@@ -83,7 +84,7 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 		try {
 			if (elements[index] != value) {
 				elements[index] = value;
-				this.setDataChanged(DataSeriesChange.ValuesChanged);
+				this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
 			}
 		}
 		catch (ArrayIndexOutOfBoundsException ex) {
@@ -98,7 +99,7 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 		}
 		elements[size] = value;
 		size++;
-		this.setDataChanged(DataSeriesChange.ValuesAdded);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - 1, size);
 	}
 
 	@Override
@@ -112,7 +113,7 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 			throw new IndexOutOfBoundsException();
 		}
 		size--;
-		this.setDataChanged(DataSeriesChange.ValuesRemoved);
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, index, size);
 	}
 
 	@Override
@@ -130,6 +131,107 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 		this.setDataChanged(DataSeriesChange.ValuesChanged);
 	}
 
+	/**
+	 * Set a contiguous range of values from the given array. The new values are
+	 * compared against the existing values and copied in a single pass, and at
+	 * most one change event is fired.
+	 * 
+	 * @param index The index in this series of the first value to set.
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to set.
+	 * @throws IndexOutOfBoundsException if the range is invalid for this series or the given array.
+	 */
+	public void setValues(int index, float[] values, int offset, int length) {
+		if (index < 0 || offset < 0 || length < 0 || index + length > size || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		int i = 0;
+		while (i < length && isSame(elements[index + i], values[offset + i])) {
+			i++;
+		}
+		if (i < length) {
+			int j = length;
+			while (isSame(elements[index + j - 1], values[offset + j - 1])) {
+				j--;
+			}
+			System.arraycopy(values, offset + i, elements, index + i, j - i);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index + i, index + j);
+		}
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(float[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		if (elements.length < size + length) {
+			elements = Arrays.copyOf(elements, Math.max(size + length, (int) (size * 1.5) + 1));
+		}
+		System.arraycopy(values, offset, elements, size, length);
+		size += length;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - length, size);
+	}
+	
+	/**
+	 * Replace the data for this series with the given array, without copying.
+	 * The new values are compared against the previous values in a single pass 
+	 * and change events are only fired if they differ (at most one event is fired).
+	 * This is intended for bulk (re)calculation of series values, for example by 
+	 * {@link CalcSeries}: the returned array, which held the previous values, may 
+	 * be reused as the target of the next calculation.
+	 * 
+	 * @param data The new data for the series. Adopted by reference (thus the data should NOT be modified externally after calling this method).
+	 * @param length The number of values in the given array to use (the array may be longer).
+	 * @return The array previously used to store the data for this series.
+	 */
+	public float[] swapData(float[] data, int length) {
+		if (length < 0 || length > data.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		float[] previous = elements;
+		int previousSize = size;
+		elements = data;
+		size = length;
+		
+		// Find the first and last values that differ.
+		int common = Math.min(length, previousSize);
+		int first = 0;
+		while (first < common && isSame(previous[first], data[first])) {
+			first++;
+		}
+		int last = common;
+		while (last > first && isSame(previous[last - 1], data[last - 1])) {
+			last--;
+		}
+		
+		if (first < last || length != previousSize) {
+			this.beginChanges(this);
+			if (first < last) this.setDataChanged(DataSeriesChange.ValuesChanged, first, last);
+			if (length > previousSize) this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, length);
+			if (length < previousSize) this.setDataChanged(DataSeriesChange.ValuesRemoved, length, length);
+			this.finishChanges(this);
+		}
+		return previous;
+	}
+
+	/**
+	 * Returns true iff the given values are equal or both NaN.
+	 */
+	static boolean isSame(float a, float b) {
+		return a == b || a != a && b != b;
+	}
+
 	@Override
 	public void resize(int newLength) {
 		resize(newLength, getEmptyValue());
@@ -139,13 +241,14 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 	public void resize(int newLength, Float padValue) {
 		if (newLength < size) {
 			size = newLength;
-			this.setDataChanged(DataSeriesChange.ValuesRemoved);
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, newLength, newLength);
 		}
 		else if (newLength > size) {
 			elements = Arrays.copyOf(elements, newLength);
 			Arrays.fill(elements, size, newLength, padValue);
+			int previousSize = size;
 			size = newLength;
-			this.setDataChanged(DataSeriesChange.ValuesAdded);
+			this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, newLength);
 		}
 	}
 	
@@ -167,6 +270,53 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 		return elements;
 	}
 
+	/**
+	 * Create a series that uses the given array for its data, without copying it. 
+	 * The array becomes the storage of the series: the caller may continue to update 
+	 * values in the array in place, provided {@link #notifyModified(int, int)} is called 
+	 * after doing so, but should not otherwise rely on the array (appending values to the 
+	 * series, for example, may replace it with a larger array). 
+	 * See {@link #wrap(float[], int, int)} to wrap part of an array.
+	 */
+	public static DataSeriesFloat wrap(float[] data) {
+		DataSeriesFloat series = new DataSeriesFloat(0);
+		series.elements = data;
+		series.size = data.length;
+		return series;
+	}
+	
+	/**
+	 * Create a series presenting the given range of the given array, without copying it. 
+	 * The array remains owned by the caller, who may update values in the range in place 
+	 * and must then call {@link Slice#notifyModified(int, int)} to notify listeners (for 
+	 * example views and plots). The series can not be modified via the DataSeries API.
+	 * 
+	 * @param data The array containing the values.
+	 * @param offset The index in the array of the first value of the series.
+	 * @param length The number of values in the series.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public static Slice wrap(float[] data, int offset, int length) {
+		return new Slice(data, offset, length);
+	}
+	
+	/**
+	 * Notify listeners that the values in the given range have been modified in 
+	 * the underlying array (see {@link #wrap(float[])}). A single change event is fired.
+	 * 
+	 * @param fromIndex The index of the first modified value (inclusive).
+	 * @param toIndex The index after the last modified value (exclusive).
+	 * @throws IndexOutOfBoundsException if the range is invalid for this series.
+	 */
+	public void notifyModified(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (fromIndex < toIndex) {
+			this.setDataChanged(DataSeriesChange.ValuesChanged, fromIndex, toIndex);
+		}
+	}
+	
 	@Override
 	public DataSeriesFloat getNewSeries() {
 		return new DataSeriesFloat();
@@ -188,7 +338,91 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 	}
 	
 	/**
-	 * Subclass of SortedSeries optimised for floats.
+	 * Series presenting a range of a caller-owned array, without copying it (see {@link DataSeriesFloat#wrap(float[], int, int)}).
+	 */
+	public static class Slice extends AbstractUnmodifiableDataSeries<Float> {
+		private final float[] data;
+		private final int offset, length;
+		private ReentrantLock lock = new ReentrantLock();
+		
+		public Slice(float[] data, int offset, int length) {
+			if (offset < 0 || length < 0 || offset + length > data.length) {
+				throw new IndexOutOfBoundsException();
+			}
+			this.data = data;
+			this.offset = offset;
+			this.length = length;
+		}
+		
+		@Override
+		public int length() {
+			return length;
+		}
+		@Override
+		public Float get(int index) {
+			return getFloat(index);
+		}
+		@Override
+		public float getFloat(int index) {
+			if (index < 0 || index >= length) {
+				return Float.NaN;
+			}
+			return data[offset + index];
+		}
+		@Override
+		public float[] asFloatArray(float[] array) {
+			if (array == null || array.length < length) {
+				return Arrays.copyOfRange(data, offset, offset + length);
+			}
+			System.arraycopy(data, offset, array, 0, length);
+			return array;
+		}
+		@Override
+		public Float getEmptyValue() {
+			return Float.NaN;
+		}
+		
+		/**
+		 * Notify listeners that the values in the given range (relative to the start of this series) 
+		 * have been modified in the underlying array. A single change event is fired.
+		 * 
+		 * @param fromIndex The index of the first modified value (inclusive).
+		 * @param toIndex The index after the last modified value (exclusive).
+		 * @throws IndexOutOfBoundsException if the range is invalid for this series.
+		 */
+		public void notifyModified(int fromIndex, int toIndex) {
+			if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (fromIndex < toIndex) {
+				this.setDataChanged(DataSeriesChange.ValuesChanged, fromIndex, toIndex);
+			}
+		}
+		
+		@Override
+		public DataSeriesFloat getNewSeries() {
+			return new DataSeriesFloat();
+		}
+		@Override
+		public DataSeriesFloat copy() {
+			return new DataSeriesFloat(asFloatArray());
+		}
+		@Override
+		public void update(DataEvent cause) {
+		}
+		@Override
+		public void lock() {
+			lock.lock();
+		}
+		@Override
+		public void unlock() {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Subclass of SortedSeries optimised for floats. If no comparator is given 
+	 * the values are sorted as primitives, without boxing.
 	 */
 	public static class Sorted extends SortedSeries<Float> {
 		DataSeriesFloat cache = new DataSeriesFloat();
@@ -196,12 +430,36 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 		public Sorted(DataSeries<Float> source, Comparator<Float> comp) { super(source, comp); }
 		@Override
 		public void update(DataEvent cause) {
-			super.update(cause);
-			cache.elements = new float[elements.length];
-			for (int i = 0; i < elements.length; i++) {
-				cache.elements[i] = elements[i];
+			if (comparator != null) {
+				super.update(cause);
+				float[] values = new float[length()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = elements[i];
+				}
+				cache.elements = values;
+				cache.size = values.length;
+				return;
 			}
-			cache.size = cache.elements.length;
+			
+			this.beginChanges(this);
+			int length = source.length();
+			float[] values = source.asFloatArray(cache.elements != null && cache.elements.length == length ? cache.elements : new float[length]);
+			if (useParallel(length)) {
+				Arrays.parallelSort(values, 0, length);
+			} else {
+				Arrays.sort(values, 0, length);
+			}
+			cache.elements = values;
+			cache.size = length;
+			elements = null;
+			recalc = false;
+			this.finishChanges(this);
+		}
+		@Override
+		public Float get(int index) {
+			if (recalc) update(null);
+			if (index < 0 || index >= length()) return source.getEmptyValue();
+			return cache.get(index);
 		}
 		@Override
 		public float getFloat(int index) {
@@ -213,6 +471,14 @@ public class DataSeriesFloat extends AbstractModifiableDataSeries<Float> {
 			if (recalc) update(null);
 			return cache.asFloatArray();
 		}
+		@Override
+		public int[] getSortOrder() {
+			if (comparator != null) {
+				return super.getSortOrder();
+			}
+			int length = source.length();
+			return IndexSort.order(source.asFloatArray(), length, useParallel(length));
+		}
 	}
 	
 //	@Override
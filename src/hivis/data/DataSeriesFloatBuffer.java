@@ -0,0 +1,166 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Data series storing single-precision floating-point numbers in a {@link ByteBuffer}, for example a 
+ * direct (off-heap) buffer or a memory-mapped file (see {@link AbstractBufferDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesFloatBuffer extends AbstractBufferDataSeries<Float> {
+	public DataSeriesFloatBuffer() {
+		this(10);
+	}
+	
+	/**
+	 * Create a new empty series backed by a direct buffer with the given capacity.
+	 */
+	public DataSeriesFloatBuffer(int capacity) {
+		super(4, capacity);
+	}
+	
+	/**
+	 * Create a series backed by the given buffer, containing the given number of
+	 * values starting at the current position of the buffer. The byte order of 
+	 * the buffer is used. The buffer is used by reference: changes to the series 
+	 * are written to the buffer (unless it is read-only), and the buffer should 
+	 * not be modified externally.
+	 */
+	public DataSeriesFloatBuffer(ByteBuffer buffer, int length) {
+		super(4, buffer, length);
+	}
+	
+	/**
+	 * Create a series backed by a direct buffer containing a copy of the values in the given series.
+	 */
+	public DataSeriesFloatBuffer(DataSeries<Float> series) {
+		this(Math.max(1, series.length()));
+		appendValues(series.asFloatArray(), 0, series.length());
+	}
+	
+	
+	/**
+	 * Create a series backed by a memory-mapped region of the given file. The
+	 * values are read and written in the byte order of the platform. To use a 
+	 * different byte order, map the file with the desired order and use 
+	 * {@link #DataSeriesFloatBuffer(ByteBuffer, int)}.
+	 * 
+	 * @param file The file to map.
+	 * @param offset The position in the file the values start at.
+	 * @param length The number of values.
+	 * @param writable Whether changes to the series should be written to the file (the file is extended 
+	 *   to fit the values if necessary). Otherwise the series will be read-only. Appending values beyond 
+	 *   the given length copies the values to a new direct buffer, which is no longer backed by the file.
+	 */
+	public static DataSeriesFloatBuffer map(File file, long offset, int length, boolean writable) throws IOException {
+		return new DataSeriesFloatBuffer(map(file, offset, length, 4, writable).order(ByteOrder.nativeOrder()), length);
+	}
+	
+	
+	@Override
+	public Float get(int index) {
+		return getFloat(index);
+	}
+	
+	@Override
+	public float getFloat(int index) {
+		if (index < 0 || index >= size) {
+			return Float.NaN;
+		}
+		return buffer.getFloat(index * 4);
+	}
+	
+	@Override
+	public void setValue(int index, Float value) {
+		checkWritable();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (buffer.getFloat(index * 4) != value) {
+			buffer.putFloat(index * 4, value);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	@Override
+	public void appendValue(Float value) {
+		ensureCapacity(size + 1);
+		buffer.putFloat(size * 4, value);
+		size++;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - 1, size);
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(float[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		ensureCapacity(size + length);
+		ByteBuffer target = buffer.duplicate().order(buffer.order());
+		target.position(size * 4);
+		target.asFloatBuffer().put(values, offset, length);
+		size += length;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - length, size);
+	}
+	
+	@Override
+	protected void put(int index, Float value) {
+		buffer.putFloat(index * 4, value);
+	}
+	
+	@Override
+	public Float getEmptyValue() {
+		return Float.NaN;
+	}
+	
+	@Override
+	public float[] asFloatArray(float[] data) {
+		if (data == null || data.length < size) {
+			data = new float[size];
+		}
+		ByteBuffer source = buffer.duplicate().order(buffer.order());
+		source.asFloatBuffer().get(data, 0, size);
+		return data;
+	}
+	
+	@Override
+	public DataSeriesFloatBuffer getNewSeries() {
+		return new DataSeriesFloatBuffer();
+	}
+	
+	@Override
+	public DataSeriesFloatBuffer copy() {
+		return new DataSeriesFloatBuffer(this);
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.Arrays;
+
+/**
+ * Data series storing single-precision floating-point numbers in chunks, so that appending values never copies 
+ * existing values (see {@link AbstractChunkedDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesFloatChunked extends AbstractChunkedDataSeries<Float, float[]> {
+	public DataSeriesFloatChunked() {
+		this(DEFAULT_CHUNK_CAPACITY);
+	}
+	
+	/**
+	 * Create a new empty series with the given chunk capacity.
+	 */
+	public DataSeriesFloatChunked(int chunkCapacity) {
+		super(chunkCapacity);
+	}
+	
+	/**
+	 * Create a new series containing a copy of the values in the given series, with the default chunk capacity.
+	 */
+	public DataSeriesFloatChunked(DataSeries<Float> series) {
+		this(DEFAULT_CHUNK_CAPACITY);
+		float[] values = series.asFloatArray();
+		appendArray(values, 0, values.length);
+	}
+	
+	
+	@Override
+	protected float[] newChunk(int capacity) {
+		return new float[capacity];
+	}
+	
+	@Override
+	protected void fill(float[] chunk, int from, int to, Float value) {
+		Arrays.fill(chunk, from, to, value);
+	}
+	
+	
+	@Override
+	public Float get(int index) {
+		return getFloat(index);
+	}
+	
+	@Override
+	public float getFloat(int index) {
+		if (index < 0 || index >= length()) {
+			return Float.NaN;
+		}
+		int c = chunkOf(index);
+		return chunk(c)[index - start(c)];
+	}
+	
+	@Override
+	public void setValue(int index, Float value) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException();
+		}
+		int c = chunkOf(index);
+		float[] chunk = chunk(c);
+		if (chunk[index - start(c)] != value) {
+			chunk[index - start(c)] = value;
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	@Override
+	public void appendValue(Float value) {
+		int c = appendChunk();
+		chunk(c)[getChunkLength(c)] = value;
+		appended(1);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, length() - 1, length());
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(float[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		appendArray(values, offset, length);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, length() - length, length());
+	}
+	
+	@Override
+	public Float getEmptyValue() {
+		return Float.NaN;
+	}
+	
+	@Override
+	public float[] asFloatArray(float[] data) {
+		if (data == null || data.length < length()) {
+			data = new float[length()];
+		}
+		copyTo(data);
+		return data;
+	}
+	
+	@Override
+	public DataSeriesFloatChunked getNewSeries() {
+		return new DataSeriesFloatChunked(chunkCapacity);
+	}
+	
+	@Override
+	public DataSeriesFloatChunked copy() {
+		DataSeriesFloatChunked copy = new DataSeriesFloatChunked(chunkCapacity);
+		forEachChunk((values, start, length) -> copy.appendArray(values, 0, length));
+		return copy;
+	}
+}
@@ -19,6 +19,7 @@ package hivis.data;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -80,20 +81,31 @@ public class DataSeriesGeneric<V> extends AbstractModifiableDataSeries<V> {
 	public void setValue(int index, V value) {
 		if (!Util.equalsIncData(elements.get(index), value)) {
 			elements.set(index, value);
-			this.setDataChanged(DataSeriesChange.ValuesChanged);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
 		}
 	}
 	
 	@Override
 	public void appendValue(V value) {
 		elements.add(value);
-		this.setDataChanged(DataSeriesChange.ValuesAdded);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, elements.size() - 1, elements.size());
+	}
+	
+	/**
+	 * Append the given values. A single change event is fired.
+	 */
+	public void appendValues(Collection<? extends V> values) {
+		if (values.isEmpty()) {
+			return;
+		}
+		elements.addAll(values);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, elements.size() - values.size(), elements.size());
 	}
 	
 	@Override
 	public void remove(int index) {
 		elements.remove(index);
-		this.setDataChanged(DataSeriesChange.ValuesRemoved);
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, index, elements.size());
 	}
 
 	@Override
@@ -107,13 +119,14 @@ public class DataSeriesGeneric<V> extends AbstractModifiableDataSeries<V> {
 			while (newLength < elements.size()) {
 				elements.remove(elements.size() - 1);
 			}
-			this.setDataChanged(DataSeriesChange.ValuesRemoved);
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, newLength, newLength);
 		}
 		else if (newLength > elements.size()) {
+			int previousSize = elements.size();
 			while (newLength > elements.size()) {
 				elements.add(padValue);
 			}
-			this.setDataChanged(DataSeriesChange.ValuesAdded);
+			this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, newLength);
 		}
 	}
 
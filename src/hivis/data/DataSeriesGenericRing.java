@@ -0,0 +1,104 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.List;
+
+import hivis.common.Util;
+
+/**
+ * Generic data series storing up to a fixed number of values, evicting the value 
+ * at the head when a value is appended to a full series (see {@link AbstractRingDataSeries}).
+ * If the values are numeric then the specialised series classes, for example 
+ * {@link DataSeriesDoubleRing}, should be used for efficiency.
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesGenericRing<V> extends AbstractRingDataSeries<V, Object[]> {
+	/**
+	 * Create a new empty series with the given capacity.
+	 */
+	public DataSeriesGenericRing(int capacity) {
+		super(capacity);
+	}
+	
+	
+	@Override
+	protected Object[] newArray(int length) {
+		return new Object[length];
+	}
+	
+	@Override
+	protected void put(int slot, V value) {
+		values[slot] = value;
+	}
+	
+	@Override
+	protected void release(int slot) {
+		values[slot] = null;
+	}
+	
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(int index) {
+		if (index < 0 || index >= size) {
+			return getEmptyValue();
+		}
+		return (V) values[slot(index)];
+	}
+	
+	@Override
+	public void setValue(int index, V value) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		int slot = slot(index);
+		if (!Util.equalsIncData(values[slot], value)) {
+			values[slot] = value;
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	/**
+	 * Append the given values, evicting values from the head as necessary. A single change event is fired. 
+	 * If the number of values exceeds the capacity then only the last {@link #getCapacity()} values are retained.
+	 */
+	public void appendValues(List<? extends V> values) {
+		appendArray(values.toArray(), 0, values.size());
+	}
+	
+	/**
+	 * Returns a new, empty, unbounded {@link DataSeriesGeneric}: a series created from
+	 * the values of a ring series (for example by {@link #getNewSeries(Iterable)})
+	 * must be able to contain all the given values.
+	 */
+	@Override
+	public DataSeriesGeneric<V> getNewSeries() {
+		return new DataSeriesGeneric<V>();
+	}
+	
+	@Override
+	public DataSeriesGenericRing<V> copy() {
+		DataSeriesGenericRing<V> copy = new DataSeriesGenericRing<>(capacity);
+		Object[] array = new Object[size];
+		copyTo(array);
+		copy.appendArray(array, 0, size);
+		return copy;
+	}
+}
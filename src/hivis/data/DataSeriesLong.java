@@ -19,9 +19,11 @@ package hivis.data;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
 
-import hivis.data.DataSeriesDouble.Sorted;
 import hivis.data.view.AbstractSeriesViewMultiple;
+import hivis.data.view.CalcSeries;
+import hivis.data.view.IndexSort;
 import hivis.data.view.SeriesView;
 import hivis.data.view.SortedSeries;
 
@@ -81,7 +83,7 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 		try {
 			if (elements[index] != value) {
 				elements[index] = value;
-				this.setDataChanged(DataSeriesChange.ValuesChanged);
+				this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
 			}
 		}
 		catch (ArrayIndexOutOfBoundsException ex) {
@@ -96,7 +98,7 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 		}
 		elements[size] = value;
 		size++;
-		this.setDataChanged(DataSeriesChange.ValuesAdded);
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - 1, size);
 	}
 
 	@Override
@@ -110,7 +112,7 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 			throw new IndexOutOfBoundsException();
 		}
 		size--;
-		this.setDataChanged(DataSeriesChange.ValuesRemoved);
+		this.setDataChanged(DataSeriesChange.ValuesRemoved, index, size);
 	}
 
 	@Override
@@ -127,6 +129,100 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 		return data;
 	}
 	
+	/**
+	 * Set a contiguous range of values from the given array. The new values are
+	 * compared against the existing values and copied in a single pass, and at
+	 * most one change event is fired.
+	 * 
+	 * @param index The index in this series of the first value to set.
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to set.
+	 * @throws IndexOutOfBoundsException if the range is invalid for this series or the given array.
+	 */
+	public void setValues(int index, long[] values, int offset, int length) {
+		if (index < 0 || offset < 0 || length < 0 || index + length > size || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		int i = 0;
+		while (i < length && elements[index + i] == values[offset + i]) {
+			i++;
+		}
+		if (i < length) {
+			int j = length;
+			while (elements[index + j - 1] == values[offset + j - 1]) {
+				j--;
+			}
+			System.arraycopy(values, offset + i, elements, index + i, j - i);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index + i, index + j);
+		}
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(long[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		if (elements.length < size + length) {
+			elements = Arrays.copyOf(elements, Math.max(size + length, (int) (size * 1.5) + 1));
+		}
+		System.arraycopy(values, offset, elements, size, length);
+		size += length;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - length, size);
+	}
+	
+	/**
+	 * Replace the data for this series with the given array, without copying.
+	 * The new values are compared against the previous values in a single pass 
+	 * and change events are only fired if they differ (at most one event is fired).
+	 * This is intended for bulk (re)calculation of series values, for example by 
+	 * {@link CalcSeries}: the returned array, which held the previous values, may 
+	 * be reused as the target of the next calculation.
+	 * 
+	 * @param data The new data for the series. Adopted by reference (thus the data should NOT be modified externally after calling this method).
+	 * @param length The number of values in the given array to use (the array may be longer).
+	 * @return The array previously used to store the data for this series.
+	 */
+	public long[] swapData(long[] data, int length) {
+		if (length < 0 || length > data.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		long[] previous = elements;
+		int previousSize = size;
+		elements = data;
+		size = length;
+		
+		// Find the first and last values that differ.
+		int common = Math.min(length, previousSize);
+		int first = 0;
+		while (first < common && previous[first] == data[first]) {
+			first++;
+		}
+		int last = common;
+		while (last > first && previous[last - 1] == data[last - 1]) {
+			last--;
+		}
+		
+		if (first < last || length != previousSize) {
+			this.beginChanges(this);
+			if (first < last) this.setDataChanged(DataSeriesChange.ValuesChanged, first, last);
+			if (length > previousSize) this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, length);
+			if (length < previousSize) this.setDataChanged(DataSeriesChange.ValuesRemoved, length, length);
+			this.finishChanges(this);
+		}
+		return previous;
+	}
+
 	@Override
 	public void resize(int newLength) {
 		resize(newLength, getEmptyValue());
@@ -136,16 +232,83 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 	public void resize(int newLength, Long padValue) {
 		if (newLength < size) {
 			size = newLength;
-			this.setDataChanged(DataSeriesChange.ValuesRemoved);
+			this.setDataChanged(DataSeriesChange.ValuesRemoved, newLength, newLength);
 		}
 		else if (newLength > size) {
 			elements = Arrays.copyOf(elements, newLength);
 			Arrays.fill(elements, size, newLength, padValue);
+			int previousSize = size;
 			size = newLength;
-			this.setDataChanged(DataSeriesChange.ValuesAdded);
+			this.setDataChanged(DataSeriesChange.ValuesAdded, previousSize, newLength);
 		}
 	}
 
+	/**
+	 * Set the data for this series. This replaces all previous data.
+	 * @param data The new data for the series. Copied by reference (thus the data should NOT be modified externally after calling this method).
+	 */
+	public void setData(long[] data) {
+		elements = data;
+		size = data.length;
+		this.setDataChanged(DataSeriesChange.ValuesChanged);
+	}
+	
+	/**
+	 * Returns a reference to the underlying data array. 
+	 * This method is provided for improved efficiency. 
+	 * <strong>The array should never be modified.</strong>
+	 */
+	public long[] getDataRef() {
+		return elements;
+	}
+	
+	/**
+	 * Create a series that uses the given array for its data, without copying it. 
+	 * The array becomes the storage of the series: the caller may continue to update 
+	 * values in the array in place, provided {@link #notifyModified(int, int)} is called 
+	 * after doing so, but should not otherwise rely on the array (appending values to the 
+	 * series, for example, may replace it with a larger array). 
+	 * See {@link #wrap(long[], int, int)} to wrap part of an array.
+	 */
+	public static DataSeriesLong wrap(long[] data) {
+		DataSeriesLong series = new DataSeriesLong(0);
+		series.elements = data;
+		series.size = data.length;
+		return series;
+	}
+	
+	/**
+	 * Create a series presenting the given range of the given array, without copying it. 
+	 * The array remains owned by the caller, who may update values in the range in place 
+	 * and must then call {@link Slice#notifyModified(int, int)} to notify listeners (for 
+	 * example views and plots). The series can not be modified via the DataSeries API.
+	 * 
+	 * @param data The array containing the values.
+	 * @param offset The index in the array of the first value of the series.
+	 * @param length The number of values in the series.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public static Slice wrap(long[] data, int offset, int length) {
+		return new Slice(data, offset, length);
+	}
+	
+	/**
+	 * Notify listeners that the values in the given range have been modified in 
+	 * the underlying array (see {@link #wrap(long[])}). A single change event is fired.
+	 * 
+	 * @param fromIndex The index of the first modified value (inclusive).
+	 * @param toIndex The index after the last modified value (exclusive).
+	 * @throws IndexOutOfBoundsException if the range is invalid for this series.
+	 */
+	public void notifyModified(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (fromIndex < toIndex) {
+			this.setDataChanged(DataSeriesChange.ValuesChanged, fromIndex, toIndex);
+		}
+	}
+	
 	@Override
 	public DataSeriesLong getNewSeries() {
 		return new DataSeriesLong();
@@ -167,7 +330,91 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 	}
 	
 	/**
-	 * Subclass of SortedSeries optimised for longs.
+	 * Series presenting a range of a caller-owned array, without copying it (see {@link DataSeriesLong#wrap(long[], int, int)}).
+	 */
+	public static class Slice extends AbstractUnmodifiableDataSeries<Long> {
+		private final long[] data;
+		private final int offset, length;
+		private ReentrantLock lock = new ReentrantLock();
+		
+		public Slice(long[] data, int offset, int length) {
+			if (offset < 0 || length < 0 || offset + length > data.length) {
+				throw new IndexOutOfBoundsException();
+			}
+			this.data = data;
+			this.offset = offset;
+			this.length = length;
+		}
+		
+		@Override
+		public int length() {
+			return length;
+		}
+		@Override
+		public Long get(int index) {
+			return getLong(index);
+		}
+		@Override
+		public long getLong(int index) {
+			if (index < 0 || index >= length) {
+				return 0;
+			}
+			return data[offset + index];
+		}
+		@Override
+		public long[] asLongArray(long[] array) {
+			if (array == null || array.length < length) {
+				return Arrays.copyOfRange(data, offset, offset + length);
+			}
+			System.arraycopy(data, offset, array, 0, length);
+			return array;
+		}
+		@Override
+		public Long getEmptyValue() {
+			return Long.MIN_VALUE;
+		}
+		
+		/**
+		 * Notify listeners that the values in the given range (relative to the start of this series) 
+		 * have been modified in the underlying array. A single change event is fired.
+		 * 
+		 * @param fromIndex The index of the first modified value (inclusive).
+		 * @param toIndex The index after the last modified value (exclusive).
+		 * @throws IndexOutOfBoundsException if the range is invalid for this series.
+		 */
+		public void notifyModified(int fromIndex, int toIndex) {
+			if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (fromIndex < toIndex) {
+				this.setDataChanged(DataSeriesChange.ValuesChanged, fromIndex, toIndex);
+			}
+		}
+		
+		@Override
+		public DataSeriesLong getNewSeries() {
+			return new DataSeriesLong();
+		}
+		@Override
+		public DataSeriesLong copy() {
+			return new DataSeriesLong(asLongArray());
+		}
+		@Override
+		public void update(DataEvent cause) {
+		}
+		@Override
+		public void lock() {
+			lock.lock();
+		}
+		@Override
+		public void unlock() {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Subclass of SortedSeries optimised for longs. If no comparator is given 
+	 * the values are sorted as primitives, without boxing.
 	 */
 	public static class Sorted extends SortedSeries<Long> {
 		DataSeriesLong cache = new DataSeriesLong();
@@ -175,9 +422,36 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 		public Sorted(DataSeries<Long> source, Comparator<Long> comp) { super(source, comp); }
 		@Override
 		public void update(DataEvent cause) {
-			super.update(cause);
-			cache.elements = Arrays.stream(elements).mapToLong(i->i).toArray();
-			cache.size = cache.elements.length;
+			if (comparator != null) {
+				super.update(cause);
+				long[] values = new long[length()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = elements[i];
+				}
+				cache.elements = values;
+				cache.size = values.length;
+				return;
+			}
+			
+			this.beginChanges(this);
+			int length = source.length();
+			long[] values = source.asLongArray(cache.elements != null && cache.elements.length == length ? cache.elements : new long[length]);
+			if (useParallel(length)) {
+				Arrays.parallelSort(values, 0, length);
+			} else {
+				Arrays.sort(values, 0, length);
+			}
+			cache.elements = values;
+			cache.size = length;
+			elements = null;
+			recalc = false;
+			this.finishChanges(this);
+		}
+		@Override
+		public Long get(int index) {
+			if (recalc) update(null);
+			if (index < 0 || index >= length()) return source.getEmptyValue();
+			return cache.get(index);
 		}
 		@Override
 		public long getLong(int index) {
@@ -189,5 +463,13 @@ public class DataSeriesLong extends AbstractModifiableDataSeries<Long> {
 			if (recalc) update(null);
 			return cache.asLongArray();
 		}
+		@Override
+		public int[] getSortOrder() {
+			if (comparator != null) {
+				return super.getSortOrder();
+			}
+			int length = source.length();
+			return IndexSort.order(source.asLongArray(), length, useParallel(length));
+		}
 	}
 }
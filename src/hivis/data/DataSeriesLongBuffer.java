@@ -0,0 +1,166 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Data series storing long integers in a {@link ByteBuffer}, for example a 
+ * direct (off-heap) buffer or a memory-mapped file (see {@link AbstractBufferDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesLongBuffer extends AbstractBufferDataSeries<Long> {
+	public DataSeriesLongBuffer() {
+		this(10);
+	}
+	
+	/**
+	 * Create a new empty series backed by a direct buffer with the given capacity.
+	 */
+	public DataSeriesLongBuffer(int capacity) {
+		super(8, capacity);
+	}
+	
+	/**
+	 * Create a series backed by the given buffer, containing the given number of
+	 * values starting at the current position of the buffer. The byte order of 
+	 * the buffer is used. The buffer is used by reference: changes to the series 
+	 * are written to the buffer (unless it is read-only), and the buffer should 
+	 * not be modified externally.
+	 */
+	public DataSeriesLongBuffer(ByteBuffer buffer, int length) {
+		super(8, buffer, length);
+	}
+	
+	/**
+	 * Create a series backed by a direct buffer containing a copy of the values in the given series.
+	 */
+	public DataSeriesLongBuffer(DataSeries<Long> series) {
+		this(Math.max(1, series.length()));
+		appendValues(series.asLongArray(), 0, series.length());
+	}
+	
+	
+	/**
+	 * Create a series backed by a memory-mapped region of the given file. The
+	 * values are read and written in the byte order of the platform. To use a 
+	 * different byte order, map the file with the desired order and use 
+	 * {@link #DataSeriesLongBuffer(ByteBuffer, int)}.
+	 * 
+	 * @param file The file to map.
+	 * @param offset The position in the file the values start at.
+	 * @param length The number of values.
+	 * @param writable Whether changes to the series should be written to the file (the file is extended 
+	 *   to fit the values if necessary). Otherwise the series will be read-only. Appending values beyond 
+	 *   the given length copies the values to a new direct buffer, which is no longer backed by the file.
+	 */
+	public static DataSeriesLongBuffer map(File file, long offset, int length, boolean writable) throws IOException {
+		return new DataSeriesLongBuffer(map(file, offset, length, 8, writable).order(ByteOrder.nativeOrder()), length);
+	}
+	
+	
+	@Override
+	public Long get(int index) {
+		return getLong(index);
+	}
+	
+	@Override
+	public long getLong(int index) {
+		if (index < 0 || index >= size) {
+			return 0;
+		}
+		return buffer.getLong(index * 8);
+	}
+	
+	@Override
+	public void setValue(int index, Long value) {
+		checkWritable();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (buffer.getLong(index * 8) != value) {
+			buffer.putLong(index * 8, value);
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	@Override
+	public void appendValue(Long value) {
+		ensureCapacity(size + 1);
+		buffer.putLong(size * 8, value);
+		size++;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - 1, size);
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array. A single change event is fired.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(long[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		ensureCapacity(size + length);
+		ByteBuffer target = buffer.duplicate().order(buffer.order());
+		target.position(size * 8);
+		target.asLongBuffer().put(values, offset, length);
+		size += length;
+		this.setDataChanged(DataSeriesChange.ValuesAdded, size - length, size);
+	}
+	
+	@Override
+	protected void put(int index, Long value) {
+		buffer.putLong(index * 8, value);
+	}
+	
+	@Override
+	public Long getEmptyValue() {
+		return Long.MIN_VALUE;
+	}
+	
+	@Override
+	public long[] asLongArray(long[] data) {
+		if (data == null || data.length < size) {
+			data = new long[size];
+		}
+		ByteBuffer source = buffer.duplicate().order(buffer.order());
+		source.asLongBuffer().get(data, 0, size);
+		return data;
+	}
+	
+	@Override
+	public DataSeriesLongBuffer getNewSeries() {
+		return new DataSeriesLongBuffer();
+	}
+	
+	@Override
+	public DataSeriesLongBuffer copy() {
+		return new DataSeriesLongBuffer(this);
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+/**
+ * Data series storing up to a fixed number of long integers, evicting the value 
+ * at the head when a value is appended to a full series (see {@link AbstractRingDataSeries}).
+ * 
+ * @author O. J. Coleman
+ */
+public class DataSeriesLongRing extends AbstractRingDataSeries<Long, long[]> {
+	/**
+	 * Create a new empty series with the given capacity.
+	 */
+	public DataSeriesLongRing(int capacity) {
+		super(capacity);
+	}
+	
+	
+	@Override
+	protected long[] newArray(int length) {
+		return new long[length];
+	}
+	
+	@Override
+	protected void put(int slot, Long value) {
+		values[slot] = value;
+	}
+	
+	
+	@Override
+	public Long get(int index) {
+		return getLong(index);
+	}
+	
+	@Override
+	public long getLong(int index) {
+		if (index < 0 || index >= size) {
+			return 0;
+		}
+		return values[slot(index)];
+	}
+	
+	@Override
+	public void setValue(int index, Long value) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		int slot = slot(index);
+		if (values[slot] != value) {
+			values[slot] = value;
+			this.setDataChanged(DataSeriesChange.ValuesChanged, index, index + 1);
+		}
+	}
+	
+	/**
+	 * Append a contiguous range of values from the given array, evicting values from the head 
+	 * as necessary. A single change event is fired. If the number of values exceeds the 
+	 * capacity then only the last {@link #getCapacity()} values are retained.
+	 * 
+	 * @param values The array containing the new values.
+	 * @param offset The index in the given array of the first new value.
+	 * @param length The number of values to append.
+	 * @throws IndexOutOfBoundsException if the range is invalid for the given array.
+	 */
+	public void appendValues(long[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > values.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		appendArray(values, offset, length);
+	}
+	
+	@Override
+	public Long getEmptyValue() {
+		return Long.MIN_VALUE;
+	}
+	
+	@Override
+	public long[] asLongArray(long[] data) {
+		if (data == null || data.length < size) {
+			data = new long[size];
+		}
+		copyTo(data);
+		return data;
+	}
+	
+	/**
+	 * Returns a new, empty, unbounded {@link DataSeriesLong}: a series created from
+	 * the values of a ring series (for example by {@link #getNewSeries(Iterable)})
+	 * must be able to contain all the given values.
+	 */
+	@Override
+	public DataSeriesLong getNewSeries() {
+		return new DataSeriesLong();
+	}
+	
+	@Override
+	public DataSeriesLongRing copy() {
+		DataSeriesLongRing copy = new DataSeriesLongRing(capacity);
+		copy.appendValues(asLongArray(), 0, size);
+		return copy;
+	}
+}
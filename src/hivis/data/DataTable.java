@@ -26,6 +26,7 @@ import hivis.data.view.Function;
 import hivis.data.view.GroupedTable;
 import hivis.data.view.RowFilter;
 import hivis.data.view.SeriesFunction;
+import hivis.data.view.SortedTable.SortKey;
 import hivis.data.view.TableFunction;
 import hivis.data.view.TableView;
 
@@ -366,6 +367,23 @@ public interface DataTable extends DataMap<String, DataSeries<?>>, Iterable<Data
 	 */
 	public TableView sort(Comparator<DataRow> comparator);
 	
+	/**
+	 * <p>
+	 * Create a view of this table containing the rows in this table sorted
+	 * according to the values in the series specified by the given keys, for
+	 * example <code>table.sort(SortKey.asc("year"), SortKey.desc("score"))</code>.
+	 * Rows are ordered by the first key, then rows with equal values for the 
+	 * first key are ordered by the second key, and so on.
+	 * </p>
+	 * <p>
+	 * This sort is guaranteed to be stable: rows with equal values for all keys 
+	 * will not be reordered as a result of the sort.
+	 * </p>
+	 * @throws IllegalArgumentException if there is no series with a label given by a key.
+	 * @throws IndexOutOfBoundsException if an index given by a key is out of range ( index < 0 || index >= seriesCount())
+	 */
+	public TableView sort(SortKey... keys);
+	
 	/**
 	 * <p>
 	 * Create a view of this table containing the rows in the table grouped
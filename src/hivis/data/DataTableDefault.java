@@ -16,7 +16,13 @@
 
 package hivis.data;
 
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
@@ -179,6 +185,251 @@ public class DataTableDefault extends AbstractDataTable {
 		}
 	}
 	
+	/**
+	 * Append a row to this table, as a single change. 
+	 * See {@link #appendRows(List)}.
+	 * 
+	 * @param row The values for the row, one for each series in the order of the series.
+	 */
+	public void appendRow(Object... row) {
+		appendRows(Collections.singletonList(row));
+	}
+	
+	/**
+	 * Append the given rows to this table, as a single change: the values for each series 
+	 * are appended in bulk, and a single ValuesAdded event is fired by each series and a 
+	 * single event by this table. All values are checked before any are appended. Numeric 
+	 * values are converted to the type stored by numeric series (values that can not be 
+	 * converted without loss, for example 1.5 or 1e12 for an Integer series, are rejected), 
+	 * and null values are appended as the empty value of the series (see {@link DataSeries#getEmptyValue()}).
+	 * 
+	 * @param rows The rows to append, each containing one value for each series in the order of the series.
+	 * @throws IllegalArgumentException If a row does not contain a value for each series, 
+	 *   or a value can not be stored in the corresponding series.
+	 */
+	public void appendRows(List<Object[]> rows) {
+		int seriesCount = seriesCount();
+		for (Object[] row : rows) {
+			if (row.length != seriesCount) {
+				throw new IllegalArgumentException("A row containing " + row.length + " values can not be appended to a table containing " + seriesCount + " series.");
+			}
+		}
+		Object[] columns = new Object[seriesCount];
+		for (int s = 0; s < seriesCount; s++) {
+			Object[] column = new Object[rows.size()];
+			for (int r = 0; r < column.length; r++) {
+				column[r] = rows.get(r)[s];
+			}
+			columns[s] = column;
+		}
+		appendColumns(columns);
+	}
+	
+	/**
+	 * Append the rows of the given table to this table, as a single change. The series in 
+	 * the given table are matched to the series in this table by label. 
+	 * See {@link #appendColumns(Object...)}.
+	 * 
+	 * @throws IllegalArgumentException If the given table does not contain a series for each series in 
+	 *   this table, or the values in a series can not be stored in the corresponding series in this table.
+	 */
+	public void appendRows(DataTable rows) {
+		Object[] columns = new Object[seriesCount()];
+		for (int s = 0; s < columns.length; s++) {
+			String label = getSeriesLabel(s);
+			if (!rows.hasSeries(label)) {
+				throw new IllegalArgumentException("The given table does not contain a series labelled " + label + ".");
+			}
+			DataSeries<?> source = rows.get(label);
+			Class<?> type = getSeries(s).getType();
+			// Values of a different type are checked and converted by appendColumns.
+			if (type != source.getType()) columns[s] = source.asList();
+			else if (type == Double.class) columns[s] = source.asDoubleArray();
+			else if (type == Float.class) columns[s] = source.asFloatArray();
+			else if (type == Integer.class) columns[s] = source.asIntArray();
+			else if (type == Long.class) columns[s] = source.asLongArray();
+			else columns[s] = source.asList();
+			if (source.length() != rows.length()) {
+				columns[s] = Arrays.copyOf(toObjectArray(columns[s]), rows.length());
+			}
+		}
+		appendColumns(columns);
+	}
+	
+	/**
+	 * Append the given columns of values to this table, as a single change: the values for 
+	 * each series are appended in bulk (directly into the storage of the primitive series), 
+	 * and a single ValuesAdded event is fired by each series and a single event by this table. 
+	 * All values are checked before any are appended. Numeric values are converted to the type 
+	 * stored by numeric series (values that can not be converted without loss, for example 1.5 
+	 * or 1e12 for an Integer series, are rejected), and null values are appended as the empty 
+	 * value of the series. 
+	 * 
+	 * @param columns For each series in the order of the series, an array (primitive or Object) 
+	 *   or List of values. The most efficient form is an array of the primitive type stored by 
+	 *   the series, for example double[] for a {@link DataSeriesDouble}. All columns must contain 
+	 *   the same number of values.
+	 * @throws IllegalArgumentException If the number of columns does not match the number of series, 
+	 *   the columns are of different lengths or a value can not be stored in the corresponding series.
+	 */
+	@SuppressWarnings("unchecked")
+	public void appendColumns(Object... columns) {
+		lock();
+		try {
+			int seriesCount = seriesCount();
+			if (columns.length != seriesCount) {
+				throw new IllegalArgumentException("The number of columns given, " + columns.length + ", does not match the number of series, " + seriesCount + ".");
+			}
+			
+			// Convert and check all the values before changing anything.
+			Object[] values = new Object[seriesCount];
+			int length = -1;
+			for (int s = 0; s < seriesCount; s++) {
+				values[s] = toColumn(getSeries(s), getSeriesLabel(s), columns[s]);
+				int columnLength = values[s] instanceof List ? ((List<?>) values[s]).size() : Array.getLength(values[s]);
+				if (length != -1 && columnLength != length) {
+					throw new IllegalArgumentException("The given columns are not all the same length.");
+				}
+				length = columnLength;
+			}
+			if (length <= 0) {
+				return;
+			}
+			
+			this.beginChanges(this);
+			try {
+				for (int s = 0; s < seriesCount; s++) {
+					DataSeries<?> series = getSeries(s);
+					Object column = values[s];
+					if (series instanceof DataSeriesDouble) ((DataSeriesDouble) series).appendValues((double[]) column, 0, length);
+					else if (series instanceof DataSeriesDoubleBuffer) ((DataSeriesDoubleBuffer) series).appendValues((double[]) column, 0, length);
+					else if (series instanceof DataSeriesDoubleChunked) ((DataSeriesDoubleChunked) series).appendValues((double[]) column, 0, length);
+					else if (series instanceof DataSeriesFloat) ((DataSeriesFloat) series).appendValues((float[]) column, 0, length);
+					else if (series instanceof DataSeriesFloatBuffer) ((DataSeriesFloatBuffer) series).appendValues((float[]) column, 0, length);
+					else if (series instanceof DataSeriesFloatChunked) ((DataSeriesFloatChunked) series).appendValues((float[]) column, 0, length);
+					else if (series instanceof DataSeriesInteger) ((DataSeriesInteger) series).appendValues((int[]) column, 0, length);
+					else if (series instanceof DataSeriesIntegerBuffer) ((DataSeriesIntegerBuffer) series).appendValues((int[]) column, 0, length);
+					else if (series instanceof DataSeriesIntegerChunked) ((DataSeriesIntegerChunked) series).appendValues((int[]) column, 0, length);
+					else if (series instanceof DataSeriesLong) ((DataSeriesLong) series).appendValues((long[]) column, 0, length);
+					else if (series instanceof DataSeriesLongBuffer) ((DataSeriesLongBuffer) series).appendValues((long[]) column, 0, length);
+					else if (series instanceof DataSeriesLongChunked) ((DataSeriesLongChunked) series).appendValues((long[]) column, 0, length);
+					else if (series instanceof DataSeriesGeneric) ((DataSeriesGeneric<Object>) series).appendValues((List<Object>) column);
+					else {
+						DataSeries<Object> os = (DataSeries<Object>) series;
+						os.beginChanges(this);
+						for (Object value : (List<Object>) column) {
+							os.appendValue(value);
+						}
+						os.finishChanges(this);
+					}
+				}
+			}
+			finally {
+				this.finishChanges(this);
+			}
+		}
+		finally {
+			unlock();
+		}
+	}
+	
+	/**
+	 * Convert the given column of values to the form appended to the given series: 
+	 * an array of the primitive type stored by primitive series, or a List of values.
+	 */
+	private static Object toColumn(DataSeries<?> series, String label, Object column) {
+		if (column == null || !(column instanceof List || column.getClass().isArray())) {
+			throw new IllegalArgumentException("The column given for the series " + label + " is not an array or List.");
+		}
+		Class<?> type = series.getType();
+		boolean numeric = type != null && Number.class.isAssignableFrom(type);
+		boolean primitive = series instanceof DataSeriesDouble || series instanceof DataSeriesFloat || series instanceof DataSeriesInteger 
+				|| series instanceof DataSeriesLong || series instanceof AbstractBufferDataSeries || series instanceof AbstractChunkedDataSeries;
+		
+		// Fast path: an array of the primitive type stored by the series.
+		if (primitive && (type == Double.class && column instanceof double[] || type == Float.class && column instanceof float[] 
+				|| type == Integer.class && column instanceof int[] || type == Long.class && column instanceof long[])) {
+			return column;
+		}
+		
+		Object[] values = toObjectArray(column);
+		for (int i = 0; i < values.length; i++) {
+			Object value = values[i];
+			if (value == null) {
+				values[i] = series.getEmptyValue();
+			}
+			else if (numeric ? !(value instanceof Number) : type != null && !type.isInstance(value)) {
+				throw new IllegalArgumentException("The value " + value + " (of type " + value.getClass().getSimpleName() + ") for the series " + label + " can not be stored in the series.");
+			}
+		}
+		if (!primitive) {
+			return Arrays.asList(values);
+		}
+		
+		int length = values.length;
+		if (type == Double.class) {
+			double[] array = new double[length];
+			for (int i = 0; i < length; i++) array[i] = ((Number) values[i]).doubleValue();
+			return array;
+		}
+		if (type == Float.class) {
+			float[] array = new float[length];
+			for (int i = 0; i < length; i++) array[i] = ((Number) values[i]).floatValue();
+			return array;
+		}
+		if (type == Integer.class) {
+			int[] array = new int[length];
+			for (int i = 0; i < length; i++) array[i] = (int) toIntegral((Number) values[i], Integer.MIN_VALUE, Integer.MAX_VALUE, label);
+			return array;
+		}
+		long[] array = new long[length];
+		for (int i = 0; i < length; i++) array[i] = toIntegral((Number) values[i], Long.MIN_VALUE, Long.MAX_VALUE, label);
+		return array;
+	}
+	
+	/**
+	 * Convert the given value to a long, throwing an IllegalArgumentException if it is
+	 * not an integer in the range [min, max] (and so can not be stored without loss).
+	 */
+	private static long toIntegral(Number value, long min, long max, String label) {
+		boolean valid;
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			valid = value.longValue() >= min && value.longValue() <= max;
+		}
+		else if (value instanceof BigInteger) {
+			valid = ((BigInteger) value).bitLength() < 64 && value.longValue() >= min && value.longValue() <= max;
+		}
+		else if (value instanceof BigDecimal) {
+			BigDecimal d = (BigDecimal) value;
+			valid = d.signum() == 0 || d.stripTrailingZeros().scale() <= 0 && d.toBigInteger().bitLength() < 64 
+					&& d.longValue() >= min && d.longValue() <= max;
+		}
+		else {
+			double d = value.doubleValue();
+			// (double) Long.MAX_VALUE rounds up to 2^63, which is out of range.
+			valid = d == Math.rint(d) && d >= min && (max == Long.MAX_VALUE ? d < 0x1p63 : d <= max);
+		}
+		if (!valid) {
+			throw new IllegalArgumentException("The value " + value + " (of type " + value.getClass().getSimpleName() + ") for the series " + label + " can not be stored in the series without loss.");
+		}
+		return value.longValue();
+	}
+	
+	private static Object[] toObjectArray(Object column) {
+		if (column instanceof List) {
+			return ((List<?>) column).toArray();
+		}
+		if (column instanceof Object[]) {
+			return ((Object[]) column).clone();
+		}
+		Object[] values = new Object[Array.getLength(column)];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Array.get(column, i);
+		}
+		return values;
+	}
+	
+	
 	private class LengthChangeListener implements DataListener {
 		@Override
 		public void dataChanged(DataEvent event) {
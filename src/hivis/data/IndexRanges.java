@@ -0,0 +1,199 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of disjoint ranges of indices, each represented by a start index
+ * (inclusive) and end index (exclusive). Adding a range that overlaps or is
+ * adjacent to existing ranges merges them. Used by {@link DataEvent} to describe
+ * which elements of a {@link DataSeries} were affected by a change.
+ * To bound the cost of recording many scattered changes, if the number of
+ * ranges exceeds {@link #MAX_RANGES} they are collapsed into a single range
+ * spanning all of them.
+ *
+ * @author O. J. Coleman
+ */
+public class IndexRanges {
+	/**
+	 * The maximum number of distinct ranges stored before they are collapsed into a single range.
+	 */
+	public static final int MAX_RANGES = 32;
+
+	private int[] starts;
+	private int[] ends;
+	private int count;
+
+
+	/**
+	 * Create an empty set of ranges.
+	 */
+	public IndexRanges() {
+		starts = new int[4];
+		ends = new int[4];
+	}
+
+	/**
+	 * Create a set of ranges containing the single given range.
+	 */
+	public IndexRanges(int start, int end) {
+		this();
+		add(start, end);
+	}
+
+	/**
+	 * Create a copy of the given set of ranges.
+	 */
+	public IndexRanges(IndexRanges ranges) {
+		starts = Arrays.copyOf(ranges.starts, ranges.starts.length);
+		ends = Arrays.copyOf(ranges.ends, ranges.ends.length);
+		count = ranges.count;
+	}
+
+
+	/**
+	 * Add the given range of indices. Empty ranges (end <= start) are ignored.
+	 * @param start The first index in the range (inclusive).
+	 * @param end The end of the range (exclusive).
+	 */
+	public void add(int start, int end) {
+		if (end <= start) {
+			return;
+		}
+
+		// Find the first range that ends at or after the given start (it may be merged with the new range).
+		int first = 0;
+		while (first < count && ends[first] < start) {
+			first++;
+		}
+		// Find the range after the last range that starts at or before the given end.
+		int last = first;
+		while (last < count && starts[last] <= end) {
+			last++;
+		}
+
+		if (first < last) {
+			// Merge with ranges first to last-1 (inclusive).
+			start = Math.min(start, starts[first]);
+			end = Math.max(end, ends[last-1]);
+			starts[first] = start;
+			ends[first] = end;
+			int removed = last - first - 1;
+			if (removed > 0) {
+				System.arraycopy(starts, last, starts, first+1, count - last);
+				System.arraycopy(ends, last, ends, first+1, count - last);
+				count -= removed;
+			}
+		}
+		else {
+			// Insert new range at index first.
+			if (count == MAX_RANGES) {
+				starts[0] = Math.min(start, starts[0]);
+				ends[0] = Math.max(end, ends[count-1]);
+				count = 1;
+				return;
+			}
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				ends = Arrays.copyOf(ends, count * 2);
+			}
+			System.arraycopy(starts, first, starts, first+1, count - first);
+			System.arraycopy(ends, first, ends, first+1, count - first);
+			starts[first] = start;
+			ends[first] = end;
+			count++;
+		}
+	}
+
+	/**
+	 * Add all the ranges in the given set of ranges.
+	 */
+	public void addAll(IndexRanges ranges) {
+		for (int i = 0; i < ranges.count; i++) {
+			add(ranges.starts[i], ranges.ends[i]);
+		}
+	}
+
+	/**
+	 * Remove all ranges.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Get the number of (disjoint) ranges.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns true iff there are no ranges.
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Get the start index (inclusive) of the range at the given position in the (sorted) set of ranges.
+	 */
+	public int start(int range) {
+		if (range >= count) throw new IndexOutOfBoundsException();
+		return starts[range];
+	}
+
+	/**
+	 * Get the end index (exclusive) of the range at the given position in the (sorted) set of ranges.
+	 */
+	public int end(int range) {
+		if (range >= count) throw new IndexOutOfBoundsException();
+		return ends[range];
+	}
+
+	/**
+	 * Get the total number of indices covered by the ranges.
+	 */
+	public int indexCount() {
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += ends[i] - starts[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Returns true iff the given index is contained in one of the ranges.
+	 */
+	public boolean contains(int index) {
+		for (int i = 0; i < count && starts[i] <= index; i++) {
+			if (index < ends[i]) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) out.append(", ");
+			out.append(starts[i]).append("-").append(ends[i]);
+		}
+		return out.append("]").toString();
+	}
+}
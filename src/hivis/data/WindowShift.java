@@ -0,0 +1,90 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+/**
+ * <p>
+ * A change type (see {@link DataEvent#getTypes()}) describing values evicted 
+ * from the head of a series and values appended at its tail, as occurs for 
+ * series presenting a sliding window over a stream (see 
+ * {@link AbstractRingDataSeries}). Listeners can use this to update 
+ * incrementally, rather than treating all values as changed: after the change 
+ * the values that were at indices [evicted, previousLength) are at indices 
+ * [0, previousLength - evicted), and the last {@link #appended()} values are new.
+ * </p>
+ * <p>
+ * Events carrying a WindowShift also carry {@link DataSeriesChange#ValuesRemoved} 
+ * and/or {@link DataSeriesChange#ValuesAdded}, and the affected ranges cover all 
+ * shifted indices, so listeners unaware of WindowShift remain correct. If several 
+ * shifts are combined in one event (see {@link DataDefault#beginChanges(Object)}) 
+ * the event carries each of them; see {@link #combined(DataEvent)}.
+ * </p>
+ * 
+ * @author O. J. Coleman
+ */
+public final class WindowShift {
+	private final int evicted, appended;
+	
+	public WindowShift(int evicted, int appended) {
+		this.evicted = evicted;
+		this.appended = appended;
+	}
+	
+	/**
+	 * Get the number of values evicted from the head of the series.
+	 */
+	public int evicted() {
+		return evicted;
+	}
+	
+	/**
+	 * Get the number of values appended to the tail of the series.
+	 */
+	public int appended() {
+		return appended;
+	}
+	
+	/**
+	 * Get the total shift described by the given event, combining any WindowShifts it carries. 
+	 * Returns null if the event does not carry a WindowShift, or also describes other changes 
+	 * (for example {@link DataSeriesChange#ValuesChanged}), in which case the shift does not 
+	 * fully describe the change.
+	 */
+	public static WindowShift combined(DataEvent event) {
+		int evicted = 0, appended = 0;
+		boolean found = false;
+		for (Object type : event.getTypes()) {
+			if (type instanceof WindowShift) {
+				evicted += ((WindowShift) type).evicted;
+				appended += ((WindowShift) type).appended;
+				found = true;
+			}
+			else if (type != DataSeriesChange.ValuesAdded && type != DataSeriesChange.ValuesRemoved) {
+				return null;
+			}
+		}
+		return found ? new WindowShift(evicted, appended) : null;
+	}
+	
+	// Note: equals is not overridden, so that multiple shifts of the same size combined in one event are all retained.
+	
+	@Override
+	public String toString() {
+		return "WindowShift(evicted " + evicted + ", appended " + appended + ")";
+	}
+}
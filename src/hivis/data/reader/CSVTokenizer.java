@@ -0,0 +1,435 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ * Splits CSV-like text into records and fields without creating an object
+ * per field. After each call to {@link #next()} the fields of the record are
+ * available as ranges of the character array returned by {@link #buffer()}
+ * (which is only valid until the next call to next()). Quoted fields are
+ * unquoted in place: the quotes are removed and doubled quote characters are
+ * replaced by a single quote character.
+ * </p>
+ * <p>
+ * Records are terminated by "\n", "\r\n" or "\r" (outside of quotes). Empty
+ * lines produce a record with a single empty field.
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+final class CSVTokenizer implements Closeable {
+	// Parser states.
+	private static final int FIELD_START = 0, UNQUOTED = 1, QUOTED = 2, QUOTE_IN_QUOTED = 3;
+
+	private final Reader reader;
+	private final char separator;
+	private final char quote;
+
+	private char[] buf;
+	// The start of the current record, and the end of the characters read into the buffer.
+	private int pos, limit;
+	private boolean eof;
+	// Whether a '\n' following a '\r' that terminated the previous record should be skipped.
+	private boolean skipLF;
+
+	private int[] starts = new int[16];
+	private int[] ends = new int[16];
+	private int fieldCount;
+	private int fieldLimit = -1;
+
+
+	/**
+	 * Create a tokenizer reading from the given reader.
+	 */
+	CSVTokenizer(Reader reader, char separator, char quote) {
+		this(reader, separator, quote, 1 << 16);
+	}
+
+	CSVTokenizer(Reader reader, char separator, char quote, int bufferSize) {
+		this.reader = reader;
+		this.separator = separator;
+		this.quote = quote;
+		buf = new char[Math.max(bufferSize, 16)];
+	}
+
+
+	/**
+	 * Read the next record. Returns false if there are no more records.
+	 */
+	boolean next() throws IOException {
+		fieldCount = 0;
+		if (skipLF) {
+			if (pos == limit && !fill()) {
+				return false;
+			}
+			if (buf[pos] == '\n') {
+				pos++;
+			}
+			skipLF = false;
+		}
+		if (pos == limit && !fill()) {
+			return false;
+		}
+
+		int i = pos, w = pos, fieldStart = pos;
+		int state = FIELD_START;
+		// Whether the remaining fields of the record are being skipped (see setFieldLimit(int)).
+		boolean skipping = fieldLimit == 0;
+		while (true) {
+			if (i == limit) {
+				int recordStart = pos;
+				boolean more = fill();
+				int shift = recordStart - pos;
+				i -= shift;
+				w -= shift;
+				fieldStart -= shift;
+				for (int f = 0; f < fieldCount; f++) {
+					starts[f] -= shift;
+					ends[f] -= shift;
+				}
+				if (!more) {
+					// End of input terminates the record.
+					if (!skipping) addField(fieldStart, w);
+					pos = i;
+					return true;
+				}
+			}
+
+			char c = buf[i++];
+			if (state == QUOTED) {
+				if (c == quote) {
+					state = QUOTE_IN_QUOTED;
+				}
+				else if (!skipping) {
+					buf[w++] = c;
+				}
+				continue;
+			}
+			if (state == QUOTE_IN_QUOTED) {
+				if (c == quote) {
+					// Escaped (doubled) quote.
+					if (!skipping) buf[w++] = c;
+					state = QUOTED;
+					continue;
+				}
+				state = UNQUOTED;
+			}
+
+			if (c == separator) {
+				if (!skipping) {
+					addField(fieldStart, w);
+					fieldStart = w = i;
+					skipping = fieldCount == fieldLimit;
+				}
+				state = FIELD_START;
+			}
+			else if (c == '\n' || c == '\r') {
+				if (!skipping) addField(fieldStart, w);
+				pos = i;
+				skipLF = c == '\r';
+				return true;
+			}
+			else if (c == quote && state == FIELD_START) {
+				state = QUOTED;
+			}
+			else {
+				if (!skipping) buf[w++] = c;
+				state = UNQUOTED;
+			}
+		}
+	}
+
+	/**
+	 * Set the maximum number of fields to split out of each record; the 
+	 * remaining fields of a record are scanned but not unquoted or recorded. 
+	 * A negative value (the default) means no limit.
+	 */
+	void setFieldLimit(int fieldLimit) {
+		this.fieldLimit = fieldLimit;
+	}
+
+	/**
+	 * Move the current record to the start of the buffer (growing the buffer
+	 * if the record fills it) and read more characters. Returns false if
+	 * there are no more characters.
+	 */
+	private boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+		int keep = limit - pos;
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, keep);
+		}
+		else if (keep == buf.length) {
+			buf = Arrays.copyOf(buf, buf.length * 2);
+		}
+		pos = 0;
+		limit = keep;
+		int read = reader.read(buf, limit, buf.length - limit);
+		if (read <= 0) {
+			eof = true;
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+	private void addField(int start, int end) {
+		if (fieldCount == starts.length) {
+			starts = Arrays.copyOf(starts, fieldCount * 2);
+			ends = Arrays.copyOf(ends, fieldCount * 2);
+		}
+		starts[fieldCount] = start;
+		ends[fieldCount] = end;
+		fieldCount++;
+	}
+
+
+	/**
+	 * Get the number of fields in the current record.
+	 */
+	int fieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * Get the buffer containing the fields of the current record.
+	 */
+	char[] buffer() {
+		return buf;
+	}
+
+	/**
+	 * Get the index in the buffer of the first character of the given field.
+	 */
+	int start(int field) {
+		return starts[field];
+	}
+
+	/**
+	 * Get the index in the buffer after the last character of the given field.
+	 */
+	int end(int field) {
+		return ends[field];
+	}
+
+	/**
+	 * Get the given field of the current record as a String.
+	 */
+	String getString(int field) {
+		return new String(buf, starts[field], ends[field] - starts[field]);
+	}
+
+	/**
+	 * Get the fields of the current record as Strings.
+	 */
+	List<String> getStrings() {
+		List<String> fields = new ArrayList<>(fieldCount);
+		for (int f = 0; f < fieldCount; f++) {
+			fields.add(getString(f));
+		}
+		return fields;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+
+	/**
+	 * <p>
+	 * Find the byte offsets of record boundaries that split the given file
+	 * into chunks of approximately equal size, so that the chunks may be
+	 * tokenized independently. The file is scanned once, tracking whether each
+	 * byte is inside quotes in the same way as {@link #next()}. This requires
+	 * that the file is in an ASCII-compatible encoding (for example UTF-8) and
+	 * that the separator and quote characters are ASCII characters.
+	 * </p>
+	 *
+	 * @param skipRecords The number of records at the start of the file to exclude from the chunks.
+	 * @param chunkCount The desired number of chunks.
+	 * @return Offsets such that chunk k consists of the bytes [offsets[k], offsets[k+1]), 
+	 * 		or null if there are no records after the skipped records.
+	 */
+	static long[] findChunks(File file, char separator, char quote, long skipRecords, int chunkCount) throws IOException {
+		ChunkFinder finder = new ChunkFinder(file.length(), skipRecords, chunkCount);
+		RecordScanner scanner = new RecordScanner(separator, quote, finder::recordEnded);
+		long end = scanner.scan(file, 0);
+		if (scanner.cr) {
+			finder.recordEnded(end);
+		}
+		return finder.getOffsets();
+	}
+	
+	
+	/**
+	 * Find the byte offset of the end of the last complete record in the given
+	 * file, scanning from the given offset, which must be the start of a record. 
+	 * A record is complete if it is terminated by a line break; a trailing "\r" 
+	 * is not considered to terminate a record as it may be followed by a "\n". 
+	 * As for {@link #findChunks(File, char, char, long, int)} this requires 
+	 * an ASCII-compatible encoding.
+	 * 
+	 * @return The offset of the end of the last complete record, or the given offset if there is none.
+	 */
+	static long findLastRecordEnd(File file, char separator, char quote, long start) throws IOException {
+		long[] last = {start};
+		new RecordScanner(separator, quote, end -> last[0] = end).scan(file, start);
+		return last[0];
+	}
+	
+	
+	/**
+	 * Finds the ends of records in a byte stream, tracking whether each byte is 
+	 * inside quotes in the same way as {@link CSVTokenizer#next()}.
+	 */
+	private static class RecordScanner {
+		final char separator, quote;
+		final LongConsumer recordEnded;
+		int state = FIELD_START;
+		// Whether the last byte was a '\r' terminating a record.
+		boolean cr;
+		
+		RecordScanner(char separator, char quote, LongConsumer recordEnded) {
+			this.separator = separator;
+			this.quote = quote;
+			this.recordEnded = recordEnded;
+		}
+		
+		/**
+		 * Scan the given file from the given offset. Returns the offset of the end of the file.
+		 */
+		long scan(File file, long start) throws IOException {
+			byte[] bytes = new byte[1 << 16];
+			long p = start;
+			try (FileInputStream in = new FileInputStream(file)) {
+				in.getChannel().position(start);
+				int read;
+				while ((read = in.read(bytes)) > 0) {
+					for (int k = 0; k < read; k++, p++) {
+						int c = bytes[k] & 0xFF;
+						if (cr) {
+							cr = false;
+							if (c == '\n') {
+								recordEnded.accept(p + 1);
+								continue;
+							}
+							recordEnded.accept(p);
+						}
+						if (state == QUOTED) {
+							if (c == quote) state = QUOTE_IN_QUOTED;
+							continue;
+						}
+						if (state == QUOTE_IN_QUOTED) {
+							if (c == quote) {
+								state = QUOTED;
+								continue;
+							}
+							state = UNQUOTED;
+						}
+						if (c == separator) {
+							state = FIELD_START;
+						}
+						else if (c == '\n' || c == '\r') {
+							state = FIELD_START;
+							if (c == '\r') {
+								// The record ends after the following '\n' if there is one.
+								cr = true;
+							}
+							else {
+								recordEnded.accept(p + 1);
+							}
+						}
+						else if (c == quote && state == FIELD_START) {
+							state = QUOTED;
+						}
+						else {
+							state = UNQUOTED;
+						}
+					}
+				}
+			}
+			return p;
+		}
+	}
+
+
+	/**
+	 * Records chunk boundaries as the ends of records are found.
+	 */
+	private static class ChunkFinder {
+		final long size;
+		final long skipRecords;
+		final int chunkCount;
+		final List<Long> offsets = new ArrayList<>();
+		long records;
+		long step, nextTarget;
+
+		ChunkFinder(long size, long skipRecords, int chunkCount) {
+			this.size = size;
+			this.skipRecords = skipRecords;
+			this.chunkCount = Math.max(chunkCount, 1);
+			if (skipRecords == 0) {
+				start(0);
+			}
+		}
+
+		void start(long offset) {
+			offsets.add(offset);
+			step = Math.max((size - offset) / chunkCount, 1);
+			nextTarget = offset + step;
+		}
+
+		void recordEnded(long end) {
+			records++;
+			if (offsets.isEmpty()) {
+				if (records == skipRecords) {
+					start(end);
+				}
+			}
+			else if (end >= nextTarget && end < size) {
+				offsets.add(end);
+				nextTarget = end + step;
+			}
+		}
+
+		long[] getOffsets() {
+			if (offsets.isEmpty() || offsets.get(0) >= size) {
+				return null;
+			}
+			offsets.add(size);
+			long[] result = new long[offsets.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = offsets.get(i);
+			}
+			return result;
+		}
+	}
+}
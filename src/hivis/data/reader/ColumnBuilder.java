@@ -0,0 +1,325 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesFloat;
+import hivis.data.reader.SpreadSheetReader.CellType;
+
+/**
+ * Converts and accumulates the values read for a column of a text file, in the
+ * storage format of the series the column is read into (for example a
+ * primitive array for numeric columns), and then sets the values in the series
+ * in bulk. Values are converted directly from the characters of each field
+ * (see {@link CSVTokenizer}), numeric values without creating any objects.
+ *
+ * @author O. J. Coleman
+ */
+abstract class ColumnBuilder {
+	/**
+	 * The series the values will be set in.
+	 */
+	protected final DataSeries<?> series;
+
+	/**
+	 * The number of values added.
+	 */
+	protected int size;
+
+
+	protected ColumnBuilder(DataSeries<?> series) {
+		this.series = series;
+	}
+
+
+	/**
+	 * Create a builder for the given series, which was created for the given type of column.
+	 */
+	static ColumnBuilder create(DataSeries<?> series, CellType type, SpreadSheetReader.Config conf) {
+		if (series instanceof DataSeriesDouble) {
+			return new DoubleBuilder((DataSeriesDouble) series);
+		}
+		if (series instanceof DataSeriesFloat) {
+			return new FloatBuilder((DataSeriesFloat) series);
+		}
+		if (type == CellType.DATE) {
+			return new DateBuilder(series, new DateParser(conf.dateFormats, conf.useDeprecatedDates));
+		}
+		if (type == CellType.BOOLEAN) {
+			return new BooleanBuilder(series);
+		}
+		return new TextBuilder(series);
+	}
+
+
+	/**
+	 * Get the number of values added.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Convert and add the value in the given range of the given array.
+	 */
+	abstract void add(char[] chars, int start, int end);
+
+	/**
+	 * Convert and add the given value.
+	 */
+	void add(String value) {
+		char[] chars = value.toCharArray();
+		add(chars, 0, chars.length);
+	}
+
+	/**
+	 * Add a value read from a spreadsheet cell of the given type (see {@link XLSXSheetReader.Handler#cell(int, CellType, double, Object)}).
+	 * Values of a type that does not match the column are added as empty values.
+	 */
+	abstract void addCell(CellType type, double number, Object value);
+
+	/**
+	 * Add the values added to the given builder, which must be of the same type as this builder.
+	 */
+	abstract void addAll(ColumnBuilder builder);
+
+	/**
+	 * Replace the values in the series with the values added to this builder.
+	 */
+	abstract void finish();
+	
+	/**
+	 * Append the values added to this builder to the series, as a single change.
+	 */
+	abstract void append();
+
+
+	/**
+	 * Get the capacity to grow a full array of the given capacity to.
+	 */
+	protected static int grow(int capacity) {
+		return Math.max(16, capacity + (capacity >> 1));
+	}
+
+
+	static class DoubleBuilder extends ColumnBuilder {
+		private double[] values = new double[16];
+		private final NumberParser parser = new NumberParser();
+
+		DoubleBuilder(DataSeriesDouble series) {
+			super(series);
+		}
+
+		@Override
+		void add(char[] chars, int start, int end) {
+			add(parser.parse(chars, start, end) ? parser.value() : Double.NaN);
+		}
+
+		@Override
+		void addCell(CellType type, double number, Object value) {
+			add(type == CellType.NUMERIC || type == CellType.DATE ? number : Double.NaN);
+		}
+
+		void add(double value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(values.length));
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		void addAll(ColumnBuilder builder) {
+			DoubleBuilder other = (DoubleBuilder) builder;
+			if (size + other.size > values.length) {
+				values = Arrays.copyOf(values, Math.max(size + other.size, grow(values.length)));
+			}
+			System.arraycopy(other.values, 0, values, size, other.size);
+			size += other.size;
+		}
+
+		@Override
+		void finish() {
+			((DataSeriesDouble) series).swapData(values, size);
+		}
+
+		@Override
+		void append() {
+			((DataSeriesDouble) series).appendValues(values, 0, size);
+		}
+	}
+
+
+	static class FloatBuilder extends ColumnBuilder {
+		private float[] values = new float[16];
+		private final NumberParser parser = new NumberParser();
+
+		FloatBuilder(DataSeriesFloat series) {
+			super(series);
+		}
+
+		@Override
+		void add(char[] chars, int start, int end) {
+			add(parser.parse(chars, start, end) ? (float) parser.value() : Float.NaN);
+		}
+
+		@Override
+		void addCell(CellType type, double number, Object value) {
+			add(type == CellType.NUMERIC || type == CellType.DATE ? (float) number : Float.NaN);
+		}
+
+		void add(float value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, grow(values.length));
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		void addAll(ColumnBuilder builder) {
+			FloatBuilder other = (FloatBuilder) builder;
+			if (size + other.size > values.length) {
+				values = Arrays.copyOf(values, Math.max(size + other.size, grow(values.length)));
+			}
+			System.arraycopy(other.values, 0, values, size, other.size);
+			size += other.size;
+		}
+
+		@Override
+		void finish() {
+			((DataSeriesFloat) series).swapData(values, size);
+		}
+
+		@Override
+		void append() {
+			((DataSeriesFloat) series).appendValues(values, 0, size);
+		}
+	}
+
+
+	static abstract class ObjectBuilder extends ColumnBuilder {
+		private List<Object> values = new ArrayList<>();
+		private final Class<?> valueType;
+
+		/**
+		 * @param valueType The type of values accepted by {@link #addCell(CellType, double, Object)}.
+		 */
+		ObjectBuilder(DataSeries<?> series, Class<?> valueType) {
+			super(series);
+			this.valueType = valueType;
+		}
+
+		/**
+		 * Add a value, or null if the value is empty or could not be read.
+		 */
+		void addValue(Object value) {
+			values.add(value);
+			size++;
+		}
+
+		@Override
+		void addCell(CellType type, double number, Object value) {
+			addValue(valueType.isInstance(value) ? value : null);
+		}
+
+		@Override
+		void addAll(ColumnBuilder builder) {
+			ObjectBuilder other = (ObjectBuilder) builder;
+			values.addAll(other.values);
+			size += other.size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void finish() {
+			DataSeries<Object> s = (DataSeries<Object>) series;
+			s.beginChanges(this);
+			s.resize(size);
+			for (int i = 0; i < size; i++) {
+				Object value = values.get(i);
+				s.set(i, value == null ? s.getEmptyValue() : value);
+			}
+			s.finishChanges(this);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void append() {
+			DataSeries<Object> s = (DataSeries<Object>) series;
+			s.beginChanges(this);
+			for (Object value : values) {
+				s.appendValue(value == null ? s.getEmptyValue() : value);
+			}
+			s.finishChanges(this);
+		}
+	}
+
+
+	static class TextBuilder extends ObjectBuilder {
+		TextBuilder(DataSeries<?> series) {
+			super(series, String.class);
+		}
+
+		@Override
+		void add(char[] chars, int start, int end) {
+			addValue(new String(chars, start, end - start));
+		}
+
+		@Override
+		void add(String value) {
+			addValue(value);
+		}
+	}
+
+
+	static class DateBuilder extends ObjectBuilder {
+		private final DateParser parser;
+
+		DateBuilder(DataSeries<?> series, DateParser parser) {
+			super(series, Date.class);
+			this.parser = parser;
+		}
+
+		@Override
+		void add(char[] chars, int start, int end) {
+			addValue(parser.parse(chars, start, end));
+		}
+
+		@Override
+		void add(String value) {
+			addValue(parser.parse(value));
+		}
+	}
+
+
+	static class BooleanBuilder extends ObjectBuilder {
+		BooleanBuilder(DataSeries<?> series) {
+			super(series, Boolean.class);
+		}
+
+		@Override
+		void add(char[] chars, int start, int end) {
+			String value = new String(chars, start, end - start).trim();
+			addValue(value.equalsIgnoreCase("true") ? Boolean.TRUE : value.equalsIgnoreCase("false") ? Boolean.FALSE : null);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+
+import hivis.common.Util;
+
+/**
+ * <p>
+ * Parses the date/time values in a column of a text file. The format of the
+ * values is determined from the first value (see
+ * {@link Util#determineDateTimeFormat(String, String...)}), along with the
+ * type of {@link TemporalAccessor} to produce (as for
+ * {@link Util#parseDateTime(String, DateTimeFormatter)}), and then applied to
+ * subsequent values. Values that don't match the format are detected without
+ * throwing exceptions; if such a value is not empty the format is determined
+ * again from it.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+final class DateParser {
+	private final String[] customFormats;
+	private final boolean useDeprecatedDates;
+
+	private DateTimeFormatter format;
+	private TemporalQuery<? extends TemporalAccessor> query;
+	private final ParsePosition position = new ParsePosition(0);
+	private final CharSlice slice = new CharSlice();
+
+
+	/**
+	 * @param customFormats Custom date/time formats to use (see {@link SpreadSheetReader.Config#dateFormats(String...)}).
+	 * @param useDeprecatedDates Whether to produce {@link java.util.Date}s instead of {@link TemporalAccessor}s.
+	 */
+	DateParser(String[] customFormats, boolean useDeprecatedDates) {
+		this.customFormats = customFormats;
+		this.useDeprecatedDates = useDeprecatedDates;
+	}
+
+
+	/**
+	 * Parse the date/time in the given range of the given array. Leading and
+	 * trailing whitespace is ignored. Returns null if the value is empty or
+	 * not a recognised date/time.
+	 */
+	Object parse(char[] chars, int start, int end) {
+		while (start < end && chars[start] <= ' ') start++;
+		while (end > start && chars[end - 1] <= ' ') end--;
+		if (start == end) {
+			return null;
+		}
+		return parse(slice.set(chars, start, end));
+	}
+
+	/**
+	 * Parse the given date/time. Returns null if the value is empty or not a
+	 * recognised date/time.
+	 */
+	Object parse(CharSequence text) {
+		if (format != null && matches(text)) {
+			try {
+				TemporalAccessor dt = query != null ? format.parse(text, query) : Util.parseDateTime(text.toString(), format);
+				return convert(dt);
+			}
+			catch (DateTimeException e) {
+				// The value matches the format but can't be resolved to the expected type.
+			}
+		}
+
+		String value = text.toString().trim();
+		if (value.isEmpty()) {
+			return null;
+		}
+		DateTimeFormatter newFormat = Util.determineDateTimeFormat(value, customFormats);
+		if (newFormat == null) {
+			return null;
+		}
+		format = newFormat;
+		// Util.determineDateTimeFormat only returns a format that works for the value.
+		TemporalAccessor dt = Util.parseDateTime(value, format);
+		query = queryFor(dt);
+		return convert(dt);
+	}
+
+	/**
+	 * Determine whether the given text matches the current format, without
+	 * resolving the parsed fields.
+	 */
+	private boolean matches(CharSequence text) {
+		position.setIndex(0);
+		position.setErrorIndex(-1);
+		return format.parseUnresolved(text, position) != null && position.getErrorIndex() < 0 && position.getIndex() == text.length();
+	}
+
+	private Object convert(TemporalAccessor dt) {
+		return useDeprecatedDates ? Util.temporalAccessorToDate(dt) : dt;
+	}
+
+	/**
+	 * Get the query producing the same type of TemporalAccessor as the given one.
+	 */
+	private static TemporalQuery<? extends TemporalAccessor> queryFor(TemporalAccessor dt) {
+		if (dt instanceof ZonedDateTime) return ZonedDateTime::from;
+		if (dt instanceof OffsetDateTime) return OffsetDateTime::from;
+		if (dt instanceof LocalDateTime) return LocalDateTime::from;
+		if (dt instanceof LocalDate) return LocalDate::from;
+		if (dt instanceof OffsetTime) return OffsetTime::from;
+		if (dt instanceof LocalTime) return LocalTime::from;
+		return null;
+	}
+
+
+	/**
+	 * Reusable view of a range of a character array.
+	 */
+	private static class CharSlice implements CharSequence {
+		private char[] chars;
+		private int start, end;
+
+		CharSlice set(char[] chars, int start, int end) {
+			this.chars = chars;
+			this.start = start;
+			this.end = end;
+			return this;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return chars[start + index];
+		}
+
+		@Override
+		public CharSequence subSequence(int from, int to) {
+			return new String(chars, start + from, to - from);
+		}
+
+		@Override
+		public String toString() {
+			return new String(chars, start, end - start);
+		}
+	}
+}
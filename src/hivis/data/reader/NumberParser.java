@@ -0,0 +1,190 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+/**
+ * <p>
+ * Parses decimal numbers directly from a range of a character array, without
+ * creating a String and without using exceptions to report invalid input.
+ * Accepts the same input as {@link Double#parseDouble(String)} and produces
+ * the same (correctly rounded) result.
+ * </p>
+ * <p>
+ * Numbers with at most 15 significant digits and a decimal exponent of
+ * magnitude at most 22 (the vast majority of values found in data files) are
+ * converted exactly with a single floating point multiplication or division.
+ * Other valid numbers, including hexadecimal, "NaN" and "Infinity", are passed
+ * to {@link Double#parseDouble(String)}.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+final class NumberParser {
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	// Largest integer (mantissa) that can be represented exactly as a double.
+	private static final long MAX_EXACT = 1L << 53;
+	// Number of digits that can safely be accumulated in a long.
+	private static final int MAX_DIGITS = 18;
+
+	private double value;
+
+
+	/**
+	 * Get the value produced by the last successful call to {@link #parse(char[], int, int)}.
+	 */
+	double value() {
+		return value;
+	}
+
+	/**
+	 * Parse the number in the given range of the given array, leading and
+	 * trailing whitespace is ignored. Returns true iff the range contains a
+	 * valid number, in which case the value is available from {@link #value()}.
+	 */
+	boolean parse(char[] chars, int start, int end) {
+		while (start < end && chars[start] <= ' ') start++;
+		while (end > start && chars[end - 1] <= ' ') end--;
+		if (start == end) {
+			return false;
+		}
+
+		int i = start;
+		boolean negative = false;
+		if (chars[i] == '-' || chars[i] == '+') {
+			negative = chars[i] == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digitCount = 0; // Significant digits in the mantissa.
+		int exponent = 0;
+		boolean anyDigits = false;
+		boolean truncated = false;
+		char c;
+
+		// Integer part.
+		while (i < end && (c = chars[i]) >= '0' && c <= '9') {
+			anyDigits = true;
+			if (digitCount < MAX_DIGITS) {
+				mantissa = mantissa * 10 + (c - '0');
+				if (mantissa != 0) digitCount++;
+			}
+			else {
+				exponent++;
+				truncated |= c != '0';
+			}
+			i++;
+		}
+		// Fractional part.
+		if (i < end && chars[i] == '.') {
+			i++;
+			while (i < end && (c = chars[i]) >= '0' && c <= '9') {
+				anyDigits = true;
+				if (digitCount < MAX_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+					if (mantissa != 0) digitCount++;
+					exponent--;
+				}
+				else {
+					truncated |= c != '0';
+				}
+				i++;
+			}
+		}
+		if (!anyDigits) {
+			return parseSpecial(chars, start, end);
+		}
+		// Exponent.
+		if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+				negativeExponent = chars[i] == '-';
+				i++;
+			}
+			if (i == end || chars[i] < '0' || chars[i] > '9') {
+				return false;
+			}
+			int exp = 0;
+			while (i < end && (c = chars[i]) >= '0' && c <= '9') {
+				// Cap the exponent, large exponents are handled by Double.parseDouble.
+				if (exp < 100000) exp = exp * 10 + (c - '0');
+				i++;
+			}
+			exponent += negativeExponent ? -exp : exp;
+		}
+		// Type suffix, as accepted by Double.parseDouble.
+		if (i < end && (chars[i] == 'd' || chars[i] == 'D' || chars[i] == 'f' || chars[i] == 'F')) {
+			i++;
+		}
+		if (i != end) {
+			// May be a hexadecimal number.
+			return parseSpecial(chars, start, end);
+		}
+
+		if (mantissa == 0 && !truncated) {
+			value = negative ? -0.0 : 0.0;
+			return true;
+		}
+		if (!truncated && mantissa < MAX_EXACT && exponent >= -22 && exponent <= 22) {
+			double v = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+			value = negative ? -v : v;
+			return true;
+		}
+		// Syntax is valid, so this won't throw an exception.
+		value = Double.parseDouble(new String(chars, start, end - start));
+		return true;
+	}
+
+	/**
+	 * Parse input that is not a simple decimal number, if it could be a valid number.
+	 */
+	private boolean parseSpecial(char[] chars, int start, int end) {
+		int i = start;
+		if (chars[i] == '-' || chars[i] == '+') i++;
+		boolean possible = startsWith(chars, i, end, "NaN") || startsWith(chars, i, end, "Infinity") ||
+				startsWith(chars, i, end, "0x") || startsWith(chars, i, end, "0X");
+		if (!possible) {
+			return false;
+		}
+		try {
+			value = Double.parseDouble(new String(chars, start, end - start));
+			return true;
+		}
+		catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static boolean startsWith(char[] chars, int start, int end, String prefix) {
+		if (end - start < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (chars[start + i] != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
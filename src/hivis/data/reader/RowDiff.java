@@ -0,0 +1,156 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Aligns the rows of two versions of a sheet, represented by a hash of the
+ * values in each row, so that the rows common to both versions can be
+ * identified when rows have been inserted, removed or changed. The rows are
+ * aligned with Myers' O(ND) difference algorithm (a longest common
+ * subsequence), after trimming the common leading and trailing rows.
+ * </p>
+ * <p>
+ * If the number of inserted and removed rows (excluding the common leading
+ * and trailing rows) exceeds a limit then only the common leading and
+ * trailing rows are aligned, to bound the time and memory used.
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+final class RowDiff {
+	// Maximum number of inserted and removed rows for which the rows between the common leading and trailing rows are aligned.
+	static final int MAX_EDITS = 1000;
+
+	private RowDiff() {}
+
+
+	/**
+	 * Align the rows of two versions of a sheet, given the hashes of the rows.
+	 * Returns an array containing, for each row in the current version, the
+	 * index of the matching row in the previous version, or -1 if there is
+	 * none (the row was inserted or changed). The matching rows are in the
+	 * same order in both versions.
+	 */
+	static int[] align(long[] previous, long[] current) {
+		return align(previous, current, MAX_EDITS);
+	}
+
+	/**
+	 * Align the rows of two versions of a sheet, as for {@link #align(long[], long[])},
+	 * with the given maximum number of inserted and removed rows.
+	 */
+	static int[] align(long[] previous, long[] current, int maxEdits) {
+		int[] matches = new int[current.length];
+		Arrays.fill(matches, -1);
+
+		int common = Math.min(previous.length, current.length);
+		int start = 0;
+		while (start < common && previous[start] == current[start]) {
+			matches[start] = start;
+			start++;
+		}
+		int previousEnd = previous.length, currentEnd = current.length;
+		while (previousEnd > start && currentEnd > start && previous[previousEnd - 1] == current[currentEnd - 1]) {
+			previousEnd--;
+			currentEnd--;
+			matches[currentEnd] = previousEnd;
+		}
+
+		alignMiddle(previous, start, previousEnd, current, start, currentEnd, maxEdits, matches);
+		return matches;
+	}
+
+
+	/**
+	 * Align the given ranges of the previous and current rows with Myers' algorithm,
+	 * recording the matches, unless more than the given number of edits are required.
+	 */
+	private static void alignMiddle(long[] a, int aStart, int aEnd, long[] b, int bStart, int bEnd, int maxEdits, int[] matches) {
+		int n = aEnd - aStart, m = bEnd - bStart;
+		if (n == 0 || m == 0) {
+			return;
+		}
+		int max = Math.min(n + m, maxEdits);
+		// The furthest x reached on each diagonal k = x - y, at index k + offset.
+		int offset = max + 1;
+		int[] v = new int[2 * max + 3];
+		// The state of v for diagonals -d to d after each number of edits d, for backtracking.
+		List<int[]> trace = new ArrayList<>();
+
+		for (int d = 0; d <= max; d++) {
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (d == 0) {
+					x = 0;
+				}
+				else if (k == -d || (k != d && v[k - 1 + offset] < v[k + 1 + offset])) {
+					x = v[k + 1 + offset];
+				}
+				else {
+					x = v[k - 1 + offset] + 1;
+				}
+				int y = x - k;
+				while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+					x++;
+					y++;
+				}
+				v[k + offset] = x;
+
+				if (x >= n && y >= m) {
+					trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+					backtrack(trace, aStart, n, bStart, m, matches);
+					return;
+				}
+			}
+			trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+		}
+	}
+
+
+	/**
+	 * Follow the path found by {@link #alignMiddle} back from the end of both ranges, recording the matching rows.
+	 */
+	private static void backtrack(List<int[]> trace, int aStart, int n, int bStart, int m, int[] matches) {
+		int x = n, y = m;
+		for (int d = trace.size() - 1; d > 0; d--) {
+			int[] previous = trace.get(d - 1);
+			int k = x - y;
+			// previous holds diagonals -(d-1) to d-1, at index k + d - 1.
+			int previousK = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]) ? k + 1 : k - 1;
+			int previousX = previous[previousK + d - 1];
+			int previousY = previousX - previousK;
+			// The snake (matching rows) following the edit from (previousX, previousY).
+			while (x > previousX && y > previousY) {
+				x--;
+				y--;
+				matches[bStart + y] = aStart + x;
+			}
+			x = previousX;
+			y = previousY;
+		}
+		while (x > 0 && y > 0) {
+			x--;
+			y--;
+			matches[bStart + y] = aStart + x;
+		}
+	}
+}
@@ -17,6 +17,8 @@
 package hivis.data.reader;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
@@ -35,14 +37,19 @@ import java.time.OffsetTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
-import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -50,6 +57,9 @@ import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.supercsv.io.CsvListReader;
 import org.supercsv.prefs.CsvPreference;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Ints;
+
 import hivis.common.HV;
 import hivis.common.Util;
 import hivis.data.DataSeries;
@@ -74,14 +84,24 @@ import org.apache.poi.ss.usermodel.Cell;
  * @author O. J. Coleman
  */
 public class SpreadSheetReader implements DataSetSource<DataTable> {
+	// Minimum size of the chunks a file is split into for parallel parsing.
+	private static final long PARALLEL_CHUNK_SIZE_MIN = 1 << 20;
+	// Number of bytes compared to detect whether a followed file was rewritten.
+	private static final int FOLLOW_CHECK_SIZE = 256;
+	
+	// The table presented to users of the reader.
+	private DataTableDefault table;
+	// The table being read into: the presented table for the initial read and appended rows,
+	// otherwise a staging table that is published to the presented table once read (see #reload()).
 	private DataTableDefault dataset;
 	
 	private Config conf;
 	
 	Sheet excelSheet; // Excel sheet, if applicable.
+	List<List<Object>> excelSample; // Sample of rows of an Excel sheet read in streaming mode, if applicable.
 	List<List<String>> textSheet;
 	
-	private Map<Integer, DateTimeFormatter> columnDateFormatMap;
+	private Map<Integer, DateParser> columnDateParsers;
 	
 	private int lastRowIndex;
 	private int lastColumnIndex;
@@ -90,8 +110,24 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 	private int lastColumnIndexDesired;
 	
 	private List<CellType> columnCellTypes = new ArrayList<>();
+	private List<String> columnLabels;
+	private List<Integer> columnIndices;
+	// Indices of the columns selected to be read, if applicable, once determined (see Config#columns(int...)).
+	private List<Integer> selectedColumns;
+	// Indices of columns in the read range that were not read because they contained no values.
+	private List<Integer> emptyColumnIndices;
+	
+	// When reloading with diffs (see Config#diffReload), a hash of the values in each data row when last read, or null.
+	private long[] rowHashes;
+	
+	// When following appends to the file (see Config#follow), the byte offset of 
+	// the end of the last record read, or -1 if the file must be reloaded entirely.
+	private long followOffset = -1;
+	// The bytes at the start of the file and preceding followOffset, to detect rewrites.
+	private byte[] followHead, followTail;
 	
 	WatchService watcher; // Service to monitor the file for changes.
+	private boolean changingDataset; // Whether changes to the table are in progress.
 	
 	
 	/**
@@ -162,6 +198,17 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 	public SpreadSheetReader(Config config) {
 		conf = config.copy();
 		
+		if (conf.selectedColumnLabels != null) {
+			// Selecting columns by label requires a header row.
+			if (conf.headerRowIndex == Config.NONE) {
+				throw new IllegalArgumentException("Columns can not be selected by label if there is no header row.");
+			}
+			if (conf.headerRowIndex == Config.AUTO) {
+				conf.headerRowIndex = 0;
+			}
+			conf.firstDataRowIndex = Math.max(conf.firstDataRowIndex, conf.headerRowIndex + 1);
+		}
+		
 		if (conf.fileFormat == Config.AUTO) {
 			String sourceFileName = conf.sourceFile.getName();
 			if (sourceFileName.endsWith(".xlsx")) {
@@ -186,7 +233,8 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 			throw new RuntimeException(e);
 		}
 		
-		dataset = new DataTableDefault();
+		table = new DataTableDefault();
+		dataset = table;
 		readData();	
 	}
 	
@@ -194,116 +242,44 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 	
 	private void readData() {
 		try {
-			if (conf.fileFormat == Config.EXCEL) {
+			if (conf.fileFormat == Config.EXCEL && conf.streaming && !conf.sourceFile.getName().endsWith(".xls")) {
+				readExcelStreaming();
+				return;
+			}
+			else if (conf.fileFormat == Config.EXCEL) {
 				Workbook wb = WorkbookFactory.create(conf.sourceFile);
 				excelSheet = wb.getSheetAt(conf.sheetIndex);
 				lastRowIndex = excelSheet.getLastRowNum();
 				lastColumnIndex = excelSheet.getRow(0).getLastCellNum()-1;
 			} 
+			else if (conf.streaming) {
+				readCSVStreaming();
+				updateFollowState();
+				return;
+			}
 			else {
-				// Create file format preference.
-				CsvPreference.Builder csvb = new CsvPreference.Builder(conf.csvQuote.charAt(0), conf.csvSeparator.charAt(0), "\r\n");
-				// Don't ignore empty lines to make indexing behaviour consistent between excel and csv/tsv files. 
-				csvb.ignoreEmptyLines(false);
-				
-				lastColumnIndex = 0;
-				textSheet = new ArrayList<>();
-				columnDateFormatMap = new HashMap<>();
-				try (CsvListReader listReader = new CsvListReader(new FileReader(conf.sourceFile), csvb.build())) {
-					List<String> row;
-					while ((row = listReader.read()) != null) {
-						textSheet.add(row);
-						lastColumnIndex = Math.max(lastColumnIndex, row.size()-1);
-					}
-				}
+				readTextSheet();
 				lastRowIndex = textSheet.size()-1;
 			}
 			
-			// Determine index of last row and column.
-			if (conf.dataRowCountDesired <= 0) {
-				lastRowIndexDesired = lastRowIndex;
-			} else {
-				lastRowIndexDesired = Math.min(conf.firstDataRowIndex + conf.dataRowCountDesired - 1, lastRowIndex);
-			}
-			if (conf.dataColumnCountDesired <= 0) {
-				lastColumnIndexDesired = lastColumnIndex;
-			} else {
-				lastColumnIndexDesired = Math.min(conf.firstDataColumnIndex + conf.dataColumnCountDesired - 1, lastColumnIndex);
-			}
-			int dataColumnCountActual = (lastColumnIndexDesired-conf.firstDataColumnIndex)+1;
-			
-			
-			if (conf.headerRowIndex == Config.AUTO) {
-				// Determine if the first row is a header row.
-				int stringCount = 0;
-				for (int c = 0; c <= lastColumnIndex; c++) {
-					if (getCellType(0, c) == CellType.STRING) {
-						stringCount++;
-					}
-				}
-				
-				// If the first row contains all strings, except one column at most.
-				if (stringCount >= lastColumnIndexDesired) {
-					// Use it as the header row.
-					conf.headerRowIndex = 0;
-					conf.firstDataRowIndex = Math.max(conf.firstDataRowIndex, conf.headerRowIndex + 1);
-				}
-			}
-			hasHeaderRow = conf.headerRowIndex >= 0;
+			determineReadRange();
+			detectHeaderRow();
 			
 			// Notify table we're going to make changes to it (to suppress events being fired
 			// every time we add or remove a series.
-			dataset.beginChanges(this);
-			
-			// Ensure series in data table are consistent with what's in the sheet (or set-up for first read).
-			// We use the first row of data to determine the type of a series.
-			List<String> columnLabels = new ArrayList<>(dataColumnCountActual);
-			List<Integer> columnIndices = new ArrayList<>(dataColumnCountActual);
-			List<DataSeries<?>> series = new ArrayList<>(dataColumnCountActual);
-			List<CellType> newDataCellTypes = new ArrayList<>();
-			for (int c = conf.firstDataColumnIndex, ci = 0; c <= lastColumnIndexDesired; c++, ci++) {
-				String label = hasHeaderRow ? getStringCellValue(conf.headerRowIndex, c) : ""+ci;
-				
-				if (label.trim().length() == 0) {
-					// Ignore columns with no header (when a header row is defined and the ignoreColumnsWithNoHeader option is set).
-					if (conf.ignoreColumnsWithNoHeader)
-						continue;
-					label = ""+ci;
-				}
-				
-				CellType sampleCellType = findSampleDataCellTypeInColumn(c, conf.firstDataRowIndex, lastRowIndexDesired);
-				// Ignore columns for which we cannot determine a valid data type from any cell.
-				if (sampleCellType == null) {
-					continue;
-				}
-				
-				columnLabels.add(label);
-				columnIndices.add(c);
-				
-				newDataCellTypes.add(sampleCellType);
-				
-				// If this is a new column (or the header was renamed).
-				if (!dataset.hasSeries(label)) {
-					dataset.addSeries(label, dataSeriesFromCellType(sampleCellType));
-				}
-				// If the type/formatting of the data was changed.
-				else if (columnCellTypes.size() <= ci || columnCellTypes.get(ci) != newDataCellTypes.get(ci)) {
-					dataset.removeSeries(label);
-					dataset.addSeries(label, dataSeriesFromCellType(sampleCellType));
-				}
-				
-				series.add(dataset.getSeries(label));
-			}
+			beginDatasetChanges();
 			
-			columnCellTypes = newDataCellTypes;
-							
-			// Remove series for which the columns have been removed from the sheet (or which were renamed).
-			List<String> currentLabels = new ArrayList<>(dataset.getSeriesLabels());
-			for (String currentLabel : currentLabels) {
-				if (!columnLabels.contains(currentLabel)) {
-					dataset.removeSeries(currentLabel);
-				}
+			Map<String, CellType> previousCellTypes = new HashMap<>();
+			for (int ci = 0; columnLabels != null && ci < columnLabels.size() && ci < columnCellTypes.size(); ci++) {
+				previousCellTypes.put(columnLabels.get(ci), columnCellTypes.get(ci));
 			}
+			setupSeries(lastRowIndexDesired);
+			
+			// If reloading with diffs, align the rows with those previously read, so that 
+			// the values of unchanged rows can be taken from the presented series.
+			int rowCount = (lastRowIndexDesired - conf.firstDataRowIndex) + 1;
+			long[] hashes = conf.diffReload ? getRowHashes() : null;
+			int[] previousRows = hashes != null && rowHashes != null && dataset != table ? RowDiff.align(rowHashes, hashes) : null;
 			
 			// Read the data and set in Dataset.
 			for (int colLabelIdx = 0; colLabelIdx < columnLabels.size(); colLabelIdx++) {
@@ -312,11 +288,24 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 				
 				DataSeries<?> s = dataset.getSeries(label);
 				
+				// The previously read series for the column, if its values can be reused.
+				DataSeries<?> previous = null;
+				if (previousRows != null && table.hasSeries(label) && previousCellTypes.get(label) == columnCellTypes.get(colLabelIdx)) {
+					previous = table.get(label);
+					if (previous.getClass() != s.getClass() || previous.length() != rowHashes.length) {
+						previous = null;
+					}
+				}
+				
 				s.beginChanges(this);
 				
-				s.resize((lastRowIndexDesired - conf.firstDataRowIndex) + 1);
+				s.resize(rowCount);
 				
-				for (int row = conf.firstDataRowIndex, ri = 0; row <= lastRowIndexDesired; row++, ri++) {
+				for (int row = conf.firstDataRowIndex, ri = 0; ri < rowCount; row++, ri++) {
+					if (previous != null && previousRows[ri] >= 0) {
+						s.set(ri, previous.get(previousRows[ri]));
+						continue;
+					}
 					try {
 						Object val = getCellValue(row, column, columnCellTypes.get(colLabelIdx));
 						
@@ -336,11 +325,816 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 				
 				s.finishChanges(this);
 			}
+			rowHashes = hashes;
+			
+			finishDatasetChanges();
 			
-			dataset.finishChanges(this);
+			updateFollowState();
 		} catch (EncryptedDocumentException | InvalidFormatException | IOException e) {
 			throw new DataReadException("Unable to read data from " + conf.sourceFile.getPath(), e);
 		}
+		finally {
+			// Don't leave the table locked if reading failed part way through.
+			if (changingDataset) {
+				finishDatasetChanges();
+			}
+		}
+	}
+	
+	
+	private void beginDatasetChanges() {
+		dataset.beginChanges(this);
+		changingDataset = true;
+	}
+	
+	private void finishDatasetChanges() {
+		changingDataset = false;
+		dataset.finishChanges(this);
+	}
+	
+	
+	/**
+	 * Read the rows of a CSV-like file into {@link #textSheet}, for the non-streaming reader. 
+	 * Reading stops after the last row to be read (see {@link Config#rowCount(int)}). If only 
+	 * selected columns are read (see {@link Config#columns(int...)}) then the values in the 
+	 * other columns of data rows are neither unquoted nor retained.
+	 */
+	private void readTextSheet() throws IOException {
+		lastColumnIndex = 0;
+		textSheet = new ArrayList<>();
+		selectedColumns = null;
+		columnDateParsers = new HashMap<>();
+		int rowEnd = conf.dataRowCountDesired <= 0 ? Integer.MAX_VALUE : getDataRowStartMax() + conf.dataRowCountDesired;
+		
+		if (conf.selectedColumnLabels == null && conf.selectedColumnIndices == null) {
+			try (CsvListReader listReader = new CsvListReader(new FileReader(conf.sourceFile), getCSVPreference())) {
+				List<String> row;
+				while (textSheet.size() < rowEnd && (row = listReader.read()) != null) {
+					textSheet.add(row);
+					lastColumnIndex = Math.max(lastColumnIndex, row.size()-1);
+				}
+			}
+			return;
+		}
+		
+		try (CSVTokenizer tokenizer = new CSVTokenizer(new FileReader(conf.sourceFile), conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0))) {
+			while (textSheet.size() < rowEnd && tokenizer.next()) {
+				addSampleRow(tokenizer);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Get the index of the row data will start at, at the latest: if the header row 
+	 * is to be detected it may be the first row, in which case the data starts at the second.
+	 */
+	private int getDataRowStartMax() {
+		return Math.max(conf.firstDataRowIndex, Math.max(conf.headerRowIndex, 0) + 1);
+	}
+	
+	
+	/**
+	 * Add the current record of the given tokenizer to {@link #textSheet}. If only selected 
+	 * columns are read (see {@link Config#columns(int...)}), once the header row has been 
+	 * added the selected columns are determined and only their values are retained for 
+	 * subsequent rows, and the tokenizer is limited to the fields up to the last selected column.
+	 */
+	private void addSampleRow(CSVTokenizer tokenizer) {
+		int row = textSheet.size();
+		int headerRow = Math.max(conf.headerRowIndex, 0);
+		if (selectedColumns == null || row <= headerRow) {
+			textSheet.add(tokenizer.getStrings());
+		}
+		else {
+			int fieldCount = tokenizer.fieldCount();
+			List<String> values = new ArrayList<>(Collections.nCopies(fieldCount, (String) null));
+			for (int c : selectedColumns) {
+				if (c < fieldCount) {
+					values.set(c, tokenizer.getString(c));
+				}
+			}
+			textSheet.add(values);
+		}
+		lastColumnIndex = Math.max(lastColumnIndex, tokenizer.fieldCount()-1);
+		
+		if (row == headerRow) {
+			selectedColumns = getSelectedColumns();
+			if (selectedColumns != null) {
+				tokenizer.setFieldLimit(Collections.max(selectedColumns) + 1);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Get the indices of the columns selected to be read (see {@link Config#columns(int...)} 
+	 * and {@link Config#columns(String...)}), or null if no columns were selected. If 
+	 * columns are selected by label then the header row must have been read.
+	 */
+	private List<Integer> getSelectedColumns() {
+		if (conf.selectedColumnIndices != null) {
+			return Ints.asList(conf.selectedColumnIndices);
+		}
+		if (conf.selectedColumnLabels != null) {
+			Map<String, Integer> labelIndices = new HashMap<>();
+			for (int c = lastColumnIndex; c >= 0; c--) {
+				labelIndices.put(getStringCellValue(conf.headerRowIndex, c).trim(), c);
+			}
+			List<Integer> columns = new ArrayList<>();
+			for (String label : conf.selectedColumnLabels) {
+				Integer c = labelIndices.get(label.trim());
+				if (c == null) {
+					throw new IllegalArgumentException("The file " + conf.sourceFile.getPath() + " does not contain a column labelled '" + label + "'.");
+				}
+				columns.add(c);
+			}
+			return columns;
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Read a CSV file in streaming mode (see {@link Config#streaming(boolean)}).
+	 * The header row and column types are determined from the rows preceding
+	 * the data and a sample of the data rows, after which the remaining rows
+	 * are tokenized and converted directly into {@link ColumnBuilder}s.
+	 */
+	private void readCSVStreaming() throws IOException {
+		columnDateParsers = new HashMap<>();
+		try (CSVTokenizer tokenizer = new CSVTokenizer(new FileReader(conf.sourceFile), conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0))) {
+			// Read the sample. The header row may be detected as the first row, in which case the data starts at the second.
+			int sampleEnd = getDataRowStartMax() + Math.max(conf.sampleRowCount, 1);
+			lastColumnIndex = 0;
+			textSheet = new ArrayList<>();
+			selectedColumns = null;
+			while (textSheet.size() < sampleEnd && tokenizer.next()) {
+				addSampleRow(tokenizer);
+			}
+			lastRowIndex = textSheet.size()-1;
+			
+			determineReadRange();
+			detectHeaderRow();
+			
+			beginDatasetChanges();
+			
+			setupSeries(lastRowIndexDesired);
+			
+			int columnCount = columnLabels.size();
+			ColumnBuilder[] builders = createColumnBuilders();
+			int[] columns = new int[columnCount];
+			for (int ci = 0; ci < columnCount; ci++) {
+				columns[ci] = columnIndices.get(ci);
+			}
+			// Don't split out fields after the last column being read.
+			tokenizer.setFieldLimit(getFieldLimit(columns));
+			
+			int rowLimit = conf.dataRowCountDesired <= 0 ? Integer.MAX_VALUE : conf.dataRowCountDesired;
+			int rowCount = 0;
+			
+			// Convert the data rows in the sample, then release it.
+			for (int row = conf.firstDataRowIndex; row < textSheet.size() && rowCount < rowLimit; row++, rowCount++) {
+				List<String> values = textSheet.get(row);
+				for (int ci = 0; ci < columnCount; ci++) {
+					builders[ci].add(columns[ci] < values.size() ? values.get(columns[ci]) : "");
+				}
+			}
+			boolean more = textSheet.size() == sampleEnd;
+			textSheet = null;
+			
+			// Convert the remaining rows.
+			long[] chunks = more ? findParallelChunks(sampleEnd) : null;
+			if (chunks != null) {
+				rowCount += readChunks(chunks, builders, columns);
+			}
+			else {
+				while (more && rowCount < rowLimit && tokenizer.next()) {
+					addRecord(tokenizer, builders, columns);
+					rowCount++;
+				}
+			}
+			
+			// Set the data in the series.
+			for (ColumnBuilder builder : builders) {
+				builder.finish();
+			}
+			
+			lastRowIndex = conf.firstDataRowIndex + rowCount - 1;
+			lastRowIndexDesired = lastRowIndex;
+			
+			finishDatasetChanges();
+		}
+	}
+	
+	
+	/**
+	 * Read an Excel (.xlsx) sheet in streaming mode (see {@link Config#streaming(boolean)}) 
+	 * using {@link XLSXSheetReader}, without loading the workbook into memory. As for 
+	 * {@link #readCSVStreaming()} the header row and column types are determined from a 
+	 * sample of the rows, after which the cells of the columns being read are converted 
+	 * directly into {@link ColumnBuilder}s. Reading stops once the desired number of rows 
+	 * has been read.
+	 */
+	private void readExcelStreaming() throws IOException {
+		excelSheet = null;
+		textSheet = null;
+		excelSample = new ArrayList<>();
+		lastColumnIndex = 0;
+		ExcelStreamHandler handler = new ExcelStreamHandler();
+		XLSXSheetReader.read(conf.sourceFile, conf.sheetIndex, handler);
+		handler.finish();
+	}
+	
+	
+	/**
+	 * Receives the cells of an Excel sheet read in streaming mode.
+	 */
+	private class ExcelStreamHandler implements XLSXSheetReader.Handler {
+		final int sampleEnd = getDataRowStartMax() + Math.max(conf.sampleRowCount, 1);
+		final int rowLimit = conf.dataRowCountDesired <= 0 ? Integer.MAX_VALUE : conf.dataRowCountDesired;
+		// The index of the next row expected.
+		int nextRow;
+		// The current row while sampling.
+		List<Object> sampleRow;
+		
+		// After sampling: the builders, the index of the builder for each column 
+		// of the sheet (or -1), whether each builder has received a value for 
+		// the current row, and the number of data rows read.
+		ColumnBuilder[] builders;
+		int[] builderIndex;
+		boolean[] filled;
+		int rowCount;
+		
+		@Override
+		public void startRow(int row) {
+			// Rows containing no cells are omitted from the sheet.
+			while (nextRow < row) {
+				startRow();
+				endRow();
+			}
+			startRow();
+		}
+		
+		private void startRow() {
+			if (builders == null) {
+				sampleRow = new ArrayList<>();
+			}
+			else {
+				Arrays.fill(filled, false);
+			}
+		}
+		
+		@Override
+		public void cell(int column, CellType type, double number, Object value) {
+			if (builders == null) {
+				while (sampleRow.size() <= column) {
+					sampleRow.add(null);
+				}
+				sampleRow.set(column, value);
+			}
+			else if (column < builderIndex.length && builderIndex[column] >= 0 && rowCount < rowLimit) {
+				builders[builderIndex[column]].addCell(type, number, value);
+				filled[builderIndex[column]] = true;
+			}
+		}
+		
+		@Override
+		public boolean endRow() {
+			nextRow++;
+			if (builders == null) {
+				excelSample.add(sampleRow);
+				lastColumnIndex = Math.max(lastColumnIndex, sampleRow.size() - 1);
+				if (excelSample.size() == sampleEnd) {
+					setup();
+				}
+			}
+			else if (rowCount < rowLimit) {
+				for (int ci = 0; ci < builders.length; ci++) {
+					if (!filled[ci]) {
+						builders[ci].addCell(CellType.BLANK, Double.NaN, null);
+					}
+				}
+				rowCount++;
+			}
+			return rowCount < rowLimit;
+		}
+		
+		/**
+		 * Set up the series and builders from the sample, and convert the data rows in it.
+		 */
+		private void setup() {
+			lastRowIndex = excelSample.size() - 1;
+			
+			determineReadRange();
+			detectHeaderRow();
+			
+			beginDatasetChanges();
+			
+			setupSeries(lastRowIndexDesired);
+			
+			builders = createColumnBuilders();
+			filled = new boolean[builders.length];
+			builderIndex = new int[lastColumnIndex + 1];
+			Arrays.fill(builderIndex, -1);
+			for (int ci = 0; ci < builders.length; ci++) {
+				builderIndex[columnIndices.get(ci)] = ci;
+			}
+			
+			for (int row = conf.firstDataRowIndex; row < excelSample.size() && rowCount < rowLimit; row++, rowCount++) {
+				List<Object> values = excelSample.get(row);
+				for (int ci = 0; ci < builders.length; ci++) {
+					int c = columnIndices.get(ci);
+					Object value = c < values.size() ? values.get(c) : null;
+					builders[ci].addCell(CellType.fromValue(value), value instanceof Double ? (Double) value : Double.NaN, value);
+				}
+			}
+			excelSample = null;
+		}
+		
+		/**
+		 * Set the data in the series, once the sheet has been read.
+		 */
+		void finish() {
+			if (builders == null) {
+				setup();
+			}
+			for (ColumnBuilder builder : builders) {
+				builder.finish();
+			}
+			
+			lastRowIndex = conf.firstDataRowIndex + rowCount - 1;
+			lastRowIndexDesired = lastRowIndex;
+			
+			finishDatasetChanges();
+		}
+	}
+	
+	
+	/**
+	 * Create a builder for each column being read.
+	 */
+	private ColumnBuilder[] createColumnBuilders() {
+		ColumnBuilder[] builders = new ColumnBuilder[columnLabels.size()];
+		for (int ci = 0; ci < builders.length; ci++) {
+			builders[ci] = ColumnBuilder.create(dataset.getSeries(columnLabels.get(ci)), columnCellTypes.get(ci), conf);
+		}
+		return builders;
+	}
+	
+	
+	/**
+	 * Get the number of fields needed to read the given columns.
+	 */
+	private static int getFieldLimit(int[] columns) {
+		int limit = 0;
+		for (int c : columns) {
+			limit = Math.max(limit, c + 1);
+		}
+		return limit;
+	}
+	
+	
+	/**
+	 * Convert the values in the current record of the given tokenizer and add them to the given column builders.
+	 */
+	private static void addRecord(CSVTokenizer tokenizer, ColumnBuilder[] builders, int[] columns) {
+		char[] chars = tokenizer.buffer();
+		int fieldCount = tokenizer.fieldCount();
+		for (int ci = 0; ci < builders.length; ci++) {
+			int c = columns[ci];
+			if (c < fieldCount) {
+				builders[ci].add(chars, tokenizer.start(c), tokenizer.end(c));
+			}
+			else {
+				builders[ci].add(chars, 0, 0);
+			}
+		}
+	}
+	
+	
+	/**
+	 * If the remainder of the file should be parsed in parallel (see {@link Config#threadCount(int)}), 
+	 * split it into chunks starting at the record with the given index. Returns the byte offsets 
+	 * of the chunks (see {@link CSVTokenizer#findChunks(File, char, char, long, int)}), or null if 
+	 * the file should be parsed sequentially.
+	 */
+	private long[] findParallelChunks(int firstRecord) throws IOException {
+		int threads = conf.threadCount < 1 ? Runtime.getRuntime().availableProcessors() : conf.threadCount;
+		if (threads <= 1 || conf.dataRowCountDesired > 0 || !canScanBytes()) {
+			return null;
+		}
+		// Create a few chunks per thread to balance the load, but don't bother with small chunks.
+		long chunkCount = Math.min(threads * 4, conf.sourceFile.length() / PARALLEL_CHUNK_SIZE_MIN);
+		if (chunkCount <= 1) {
+			return null;
+		}
+		long[] chunks = CSVTokenizer.findChunks(conf.sourceFile, conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0), firstRecord, (int) chunkCount);
+		return chunks != null && chunks.length > 2 ? chunks : null;
+	}
+	
+	
+	/**
+	 * Determine whether the record and field separators and quotes in the file
+	 * can be found by examining individual bytes (see {@link CSVTokenizer#findChunks(File, char, char, long, int)}).
+	 */
+	private boolean canScanBytes() {
+		Charset charset = Charset.defaultCharset();
+		boolean asciiCompatible = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || 
+				charset.equals(StandardCharsets.ISO_8859_1) || charset.name().startsWith("windows-125");
+		return asciiCompatible && conf.csvSeparator.charAt(0) < 128 && conf.csvQuote.charAt(0) < 128;
+	}
+	
+	
+	/**
+	 * Parse the given chunks of the file in parallel, then add the values to the given column builders in order. 
+	 * Returns the number of rows read.
+	 */
+	private int readChunks(long[] chunks, ColumnBuilder[] builders, int[] columns) throws IOException {
+		int threads = conf.threadCount < 1 ? Runtime.getRuntime().availableProcessors() : conf.threadCount;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks.length - 1));
+		try {
+			List<Future<ColumnBuilder[]>> results = new ArrayList<>();
+			for (int k = 0; k < chunks.length - 1; k++) {
+				final long start = chunks[k], end = chunks[k + 1];
+				results.add(executor.submit(() -> readChunk(start, end, columns)));
+			}
+			
+			// Stitch the column segments together in order.
+			int rowCount = 0;
+			for (Future<ColumnBuilder[]> result : results) {
+				ColumnBuilder[] segments = result.get();
+				for (int ci = 0; ci < builders.length; ci++) {
+					builders[ci].addAll(segments[ci]);
+				}
+				if (segments.length > 0) {
+					rowCount += segments[0].size();
+				}
+			}
+			return rowCount;
+		}
+		catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	
+	/**
+	 * Parse the records in the given byte range of the file into a new set of column builders.
+	 */
+	private ColumnBuilder[] readChunk(long start, long end, int[] columns) throws IOException {
+		ColumnBuilder[] builders = createColumnBuilders();
+		try (FileInputStream in = new FileInputStream(conf.sourceFile)) {
+			in.getChannel().position(start);
+			Reader reader = new InputStreamReader(ByteStreams.limit(in, end - start), Charset.defaultCharset());
+			try (CSVTokenizer tokenizer = new CSVTokenizer(reader, conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0))) {
+				tokenizer.setFieldLimit(getFieldLimit(columns));
+				while (tokenizer.next()) {
+					addRecord(tokenizer, builders, columns);
+				}
+			}
+		}
+		return builders;
+	}
+	
+	
+	/**
+	 * Respond to a modification of the source file: read the appended rows if 
+	 * following the file (see {@link Config#follow(boolean)}) and possible, 
+	 * otherwise reload the file entirely.
+	 */
+	synchronized void fileModified() {
+		try {
+			if (readAppended()) {
+				return;
+			}
+		}
+		catch (IOException e) {
+			throw new DataReadException("Unable to read data from " + conf.sourceFile.getPath(), e);
+		}
+		reload();
+	}
+	
+	
+	/**
+	 * Reload the file entirely. The data is read into a new staging table, so that the presented 
+	 * table is not modified (or locked) while the file is parsed. The new data is then published 
+	 * to the presented table as a single change (see {@link #publish(DataTableDefault)}). If reading 
+	 * fails the presented table is left unchanged.
+	 */
+	private void reload() {
+		DataTableDefault staging = new DataTableDefault();
+		
+		List<CellType> previousCellTypes = columnCellTypes;
+		dataset = staging;
+		boolean read = false;
+		try {
+			readData();
+			read = true;
+		}
+		finally {
+			dataset = table;
+			if (!read) {
+				// The series in the presented table are still of the previous types.
+				columnCellTypes = previousCellTypes;
+				followOffset = -1;
+			}
+		}
+		publish(staging);
+	}
+	
+	
+	/**
+	 * Publish the data read into the given staging table to the presented table, as a single change. 
+	 * Where a series in the presented table has the same label and type as a staging series its storage 
+	 * is swapped with that of the staging series (or for non-primitive series, the values that differ are set), 
+	 * so that events are only fired for the values that changed. Otherwise the staging series is added, 
+	 * replacing any existing series.
+	 */
+	@SuppressWarnings("unchecked")
+	private void publish(DataTableDefault staging) {
+		table.beginChanges(this);
+		try {
+			List<String> labels = new ArrayList<>(staging.getSeriesLabels());
+			for (String label : new ArrayList<>(table.getSeriesLabels())) {
+				if (!labels.contains(label)) {
+					table.removeSeries(label);
+				}
+			}
+			for (String label : labels) {
+				DataSeries<?> newSeries = staging.getSeries(label);
+				DataSeries<?> series = table.hasSeries(label) ? table.getSeries(label) : null;
+				
+				if (series == null || series.getClass() != newSeries.getClass()) {
+					if (series != null) {
+						table.removeSeries(label);
+					}
+					staging.removeSeries(label);
+					table.addSeries(label, newSeries);
+				}
+				else if (series instanceof DataSeriesDouble) {
+					((DataSeriesDouble) series).swapData(((DataSeriesDouble) newSeries).getDataRef(), newSeries.length());
+				}
+				else if (series instanceof DataSeriesFloat) {
+					((DataSeriesFloat) series).swapData(((DataSeriesFloat) newSeries).getDataRef(), newSeries.length());
+				}
+				else {
+					DataSeries<Object> s = (DataSeries<Object>) series;
+					s.beginChanges(this);
+					s.resize(newSeries.length());
+					for (int i = 0; i < newSeries.length(); i++) {
+						Object value = newSeries.get(i);
+						if (!Util.equalsIncData(s.get(i), value)) {
+							s.set(i, value);
+						}
+					}
+					s.finishChanges(this);
+				}
+			}
+		}
+		finally {
+			table.finishChanges(this);
+		}
+	}
+	
+	
+	/**
+	 * If following appends to the file (see {@link Config#follow(boolean)}), record 
+	 * the end of the data read so that subsequently appended rows can be read.
+	 */
+	private void updateFollowState() throws IOException {
+		followOffset = -1;
+		if (!conf.follow || conf.fileFormat != Config.CSV || conf.dataRowCountDesired > 0 || !canScanBytes()) {
+			return;
+		}
+		long end = CSVTokenizer.findLastRecordEnd(conf.sourceFile, conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0), 0);
+		// If the last record was incomplete it was still read, so the file must be reloaded if it changes.
+		if (end < conf.sourceFile.length()) {
+			return;
+		}
+		setFollowOffset(end);
+	}
+	
+	private void setFollowOffset(long offset) throws IOException {
+		followOffset = offset;
+		followHead = readBytes(0, (int) Math.min(offset, FOLLOW_CHECK_SIZE));
+		followTail = readBytes(offset - followHead.length, followHead.length);
+	}
+	
+	
+	/**
+	 * Read the rows appended to the file since the last read (see {@link Config#follow(boolean)}) 
+	 * and append their values to the series, as a single change. An incomplete last row is 
+	 * left to be read once complete. Returns false if the file must be reloaded entirely, 
+	 * because it is not being followed, it was truncated or rewritten, or the new rows 
+	 * contain values in columns that were not previously read.
+	 */
+	private boolean readAppended() throws IOException {
+		if (followOffset < 0) {
+			return false;
+		}
+		if (conf.sourceFile.length() < followOffset || !Arrays.equals(followHead, readBytes(0, followHead.length)) || 
+				!Arrays.equals(followTail, readBytes(followOffset - followTail.length, followTail.length))) {
+			return false;
+		}
+		long end = CSVTokenizer.findLastRecordEnd(conf.sourceFile, conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0), followOffset);
+		if (end == followOffset) {
+			return true;
+		}
+		
+		ColumnBuilder[] builders = createColumnBuilders();
+		int[] columns = new int[builders.length];
+		for (int ci = 0; ci < columns.length; ci++) {
+			columns[ci] = columnIndices.get(ci);
+		}
+		int rowCount = 0;
+		try (FileInputStream in = new FileInputStream(conf.sourceFile)) {
+			in.getChannel().position(followOffset);
+			Reader reader = new InputStreamReader(ByteStreams.limit(in, end - followOffset), Charset.defaultCharset());
+			try (CSVTokenizer tokenizer = new CSVTokenizer(reader, conf.csvSeparator.charAt(0), conf.csvQuote.charAt(0))) {
+				while (tokenizer.next()) {
+					if (!isReadable(tokenizer)) {
+						return false;
+					}
+					addRecord(tokenizer, builders, columns);
+					rowCount++;
+				}
+			}
+		}
+		
+		beginDatasetChanges();
+		for (ColumnBuilder builder : builders) {
+			builder.append();
+		}
+		// The appended rows aren't hashed, so the next reload can't be diffed.
+		rowHashes = null;
+		lastRowIndex += rowCount;
+		lastRowIndexDesired = lastRowIndex;
+		finishDatasetChanges();
+		
+		setFollowOffset(end);
+		return true;
+	}
+	
+	
+	/**
+	 * Determine whether all the values in the current record of the given tokenizer 
+	 * are in columns that are read (or excluded by the configuration).
+	 */
+	private boolean isReadable(CSVTokenizer tokenizer) {
+		int fieldCount = tokenizer.fieldCount();
+		if (conf.dataColumnCountDesired <= 0 && conf.selectedColumnIndices == null && conf.selectedColumnLabels == null && fieldCount - 1 > lastColumnIndex) {
+			return false;
+		}
+		char[] chars = tokenizer.buffer();
+		for (int c : emptyColumnIndices) {
+			if (c < fieldCount) {
+				for (int i = tokenizer.start(c); i < tokenizer.end(c); i++) {
+					if (chars[i] > ' ') {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+	
+	
+	/**
+	 * Read the given range of bytes from the source file. 
+	 * Returns fewer bytes if the file ends before the end of the range.
+	 */
+	private byte[] readBytes(long offset, int length) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(conf.sourceFile, "r")) {
+			length = (int) Math.max(0, Math.min(length, raf.length() - offset));
+			byte[] bytes = new byte[length];
+			raf.seek(offset);
+			raf.readFully(bytes);
+			return bytes;
+		}
+	}
+	
+	
+	/**
+	 * Create the preferences for reading CSV-like files.
+	 */
+	private CsvPreference getCSVPreference() {
+		CsvPreference.Builder csvb = new CsvPreference.Builder(conf.csvQuote.charAt(0), conf.csvSeparator.charAt(0), "\r\n");
+		// Don't ignore empty lines to make indexing behaviour consistent between excel and csv/tsv files. 
+		csvb.ignoreEmptyLines(false);
+		return csvb.build();
+	}
+	
+	
+	/**
+	 * Determine the index of the last row and column to read.
+	 */
+	private void determineReadRange() {
+		if (conf.dataRowCountDesired <= 0) {
+			lastRowIndexDesired = lastRowIndex;
+		} else {
+			lastRowIndexDesired = Math.min(conf.firstDataRowIndex + conf.dataRowCountDesired - 1, lastRowIndex);
+		}
+		if (conf.dataColumnCountDesired <= 0) {
+			lastColumnIndexDesired = lastColumnIndex;
+		} else {
+			lastColumnIndexDesired = Math.min(conf.firstDataColumnIndex + conf.dataColumnCountDesired - 1, lastColumnIndex);
+		}
+	}
+	
+	
+	/**
+	 * Determine whether the first row is a header row, if required.
+	 */
+	private void detectHeaderRow() {
+		if (conf.headerRowIndex == Config.AUTO) {
+			// Determine if the first row is a header row.
+			int stringCount = 0;
+			for (int c = 0; c <= lastColumnIndex; c++) {
+				if (getCellType(0, c) == CellType.STRING) {
+					stringCount++;
+				}
+			}
+			
+			// If the first row contains all strings, except one column at most.
+			if (stringCount >= lastColumnIndexDesired) {
+				// Use it as the header row.
+				conf.headerRowIndex = 0;
+				conf.firstDataRowIndex = Math.max(conf.firstDataRowIndex, conf.headerRowIndex + 1);
+			}
+		}
+		hasHeaderRow = conf.headerRowIndex >= 0;
+	}
+	
+	
+	/**
+	 * Ensure series in data table are consistent with what's in the sheet (or 
+	 * set-up for first read), and set {@link #columnLabels}, {@link #columnIndices} 
+	 * and {@link #columnCellTypes}. The first non-empty value in each column, up 
+	 * to the given row, is used to determine the type of a series.
+	 */
+	private void setupSeries(int lastSampleRowIndex) {
+		List<Integer> columns = getSelectedColumns();
+		if (columns == null) {
+			columns = new ArrayList<>();
+			for (int c = conf.firstDataColumnIndex; c <= lastColumnIndexDesired; c++) {
+				columns.add(c);
+			}
+		}
+		columnLabels = new ArrayList<>(columns.size());
+		columnIndices = new ArrayList<>(columns.size());
+		emptyColumnIndices = new ArrayList<>();
+		List<CellType> newDataCellTypes = new ArrayList<>();
+		for (int ci = 0; ci < columns.size(); ci++) {
+			int c = columns.get(ci);
+			String label = hasHeaderRow ? getStringCellValue(conf.headerRowIndex, c) : ""+ci;
+			
+			if (label.trim().length() == 0) {
+				// Ignore columns with no header (when a header row is defined and the ignoreColumnsWithNoHeader option is set).
+				if (conf.ignoreColumnsWithNoHeader)
+					continue;
+				label = ""+ci;
+			}
+			
+			CellType sampleCellType = findSampleDataCellTypeInColumn(c, conf.firstDataRowIndex, lastSampleRowIndex);
+			// Ignore columns for which we cannot determine a valid data type from any cell.
+			if (sampleCellType == null) {
+				emptyColumnIndices.add(c);
+				continue;
+			}
+			
+			columnLabels.add(label);
+			columnIndices.add(c);
+			
+			newDataCellTypes.add(sampleCellType);
+			
+			// If this is a new column (or the header was renamed).
+			if (!dataset.hasSeries(label)) {
+				dataset.addSeries(label, dataSeriesFromCellType(sampleCellType));
+			}
+			// If the type/formatting of the data was changed.
+			else if (columnCellTypes.size() <= ci || columnCellTypes.get(ci) != newDataCellTypes.get(ci)) {
+				dataset.removeSeries(label);
+				dataset.addSeries(label, dataSeriesFromCellType(sampleCellType));
+			}
+		}
+		
+		columnCellTypes = newDataCellTypes;
+						
+		// Remove series for which the columns have been removed from the sheet (or which were renamed).
+		List<String> currentLabels = new ArrayList<>(dataset.getSeriesLabels());
+		for (String currentLabel : currentLabels) {
+			if (!columnLabels.contains(currentLabel)) {
+				dataset.removeSeries(currentLabel);
+			}
+		}
 	}
 	
 	
@@ -351,6 +1145,9 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 		if (excelSheet != null) {
 			return CellType.fromExcel(excelSheet.getRow(row).getCell(column), conf);
 		}
+		if (excelSample != null) {
+			return column < excelSample.get(row).size() ? CellType.fromValue(excelSample.get(row).get(column)) : CellType.BLANK;
+		}
 		
 		if (column >= textSheet.get(row).size()) return CellType.BLANK;
 		return CellType.fromRaw(textSheet.get(row).get(column), conf);
@@ -380,7 +1177,15 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 			return null;
 		}
 		
-		String v = getStringCellValue(row, column);
+		return convertTextValue(getStringCellValue(row, column), column, type);
+	}
+	
+	
+	/**
+	 * Convert a value from a text file to the given type. Returns the appropriate 
+	 * object type (String, Numeric, Date), or null if the value could not be converted.
+	 */
+	private Object convertTextValue(String v, int column, CellType type) {
 		switch (type) {
 			case STRING: 
 				return v;
@@ -390,24 +1195,12 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 				}
 				catch (Exception e) { return null; }
 			case DATE:
-				// Try format that worked previously for this column if we found one.
-				if (columnDateFormatMap.containsKey(column)) {
-					try {
-						TemporalAccessor dt = Util.parseDateTime(v, columnDateFormatMap.get(column));
-						return conf.useDeprecatedDates ? Util.temporalAccessorToDate(dt) : dt;
-					} catch (DateTimeParseException e) {}
-				}
-				// Try to determine the date/time format.
-				DateTimeFormatter format = Util.determineDateTimeFormat(v, conf.dateFormats);
-				if (format != null) {
-					columnDateFormatMap.put(column, format);
-					// Shouldn't get an exception here since Util.determineDateFormat just provided this format because it works.
-					try {
-						TemporalAccessor dt = Util.parseDateTime(v, format);
-						return conf.useDeprecatedDates ? Util.temporalAccessorToDate(dt) : dt;
-					} catch (DateTimeParseException e) {}
+				DateParser parser = columnDateParsers.get(column);
+				if (parser == null) {
+					parser = new DateParser(conf.dateFormats, conf.useDeprecatedDates);
+					columnDateParsers.put(column, parser);
 				}
-				return null;
+				return parser.parse(v);
 			default: return null;
 		}
 	}
@@ -423,6 +1216,10 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 			Cell cell = excelSheet.getRow(row).getCell(column);
 			if (cell != null) val = cell.getStringCellValue();
 		}
+		else if (excelSample != null) {
+			Object v = column < excelSample.get(row).size() ? excelSample.get(row).get(column) : null;
+			if (v != null) val = v.toString();
+		}
 		else {
 			if (column < textSheet.get(row).size()) val = textSheet.get(row).get(column);
 		}
@@ -431,6 +1228,50 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 	}
 	
 	
+	/**
+	 * Get a hash of the values in the columns being read in each data row, for comparison with 
+	 * the rows when the file was previously read (see {@link Config#diffReload(boolean)}).
+	 * A 64-bit FNV-1a hash of the text of the values is used.
+	 */
+	private long[] getRowHashes() {
+		long[] hashes = new long[lastRowIndexDesired - conf.firstDataRowIndex + 1];
+		for (int row = conf.firstDataRowIndex, ri = 0; ri < hashes.length; row++, ri++) {
+			long hash = 0xcbf29ce484222325L;
+			for (int column : columnIndices) {
+				String text = getRawCellText(row, column);
+				for (int i = 0; i < text.length(); i++) {
+					hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+				}
+				// Separate the values, so that for example "ab","c" and "a","bc" differ.
+				hash = (hash ^ 0x10000) * 0x100000001b3L;
+			}
+			hashes[ri] = hash;
+		}
+		return hashes;
+	}
+	
+	
+	/**
+	 * Get a String representation of the value at the given row and column, 
+	 * for comparison with the value when the file was previously read.
+	 */
+	private String getRawCellText(int row, int column) {
+		if (excelSheet != null) {
+			Cell cell = excelSheet.getRow(row) == null ? null : excelSheet.getRow(row).getCell(column);
+			if (cell == null) return "";
+			int type = cell.getCellType();
+			if (type == Cell.CELL_TYPE_FORMULA) type = cell.getCachedFormulaResultType();
+			switch (type) {
+				case Cell.CELL_TYPE_STRING: return "s" + cell.getStringCellValue();
+				case Cell.CELL_TYPE_NUMERIC: return "n" + cell.getNumericCellValue();
+				case Cell.CELL_TYPE_BOOLEAN: return "b" + cell.getBooleanCellValue();
+				default: return "";
+			}
+		}
+		return getStringCellValue(row, column);
+	}
+	
+	
 	/**
 	 * Finds the first non-empty value in the given column and returns its type.
 	 */
@@ -465,7 +1306,7 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 	
 	@Override
 	public DataTable getData() {
-		return dataset;
+		return table;
 	}
 	
 	
@@ -484,30 +1325,53 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 			while (true) {
 				try {
 					WatchKey key = watcher.take();
+					boolean modified = false;
+					long firstModified = 0;
 					
-					for (WatchEvent<?> event : key.pollEvents()) {
-						File modifiedFile = dir.resolve((Path) event.context()).toFile();
-						
-						// If the source file has changed.
-						if (modifiedFile.equals(conf.sourceFile)) {
-							if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
-								System.err.println("The data source file " + conf.sourceFile.getAbsolutePath() + " was deleted.");
-								return;
-							} else if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY) {
-								try {
-									readData();
-								}
-								catch (Exception ex) {
-									System.err.println("Error reading modified source file \"" + conf.sourceFile.getAbsolutePath() + "\". Will try again on next modification. Error was: " + ex.getMessage());
-									ex.printStackTrace();
+					while (key != null) {
+						for (WatchEvent<?> event : key.pollEvents()) {
+							File modifiedFile = dir.resolve((Path) event.context()).toFile();
+							
+							// If the source file has changed.
+							if (modifiedFile.equals(conf.sourceFile)) {
+								if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+									System.err.println("The data source file " + conf.sourceFile.getAbsolutePath() + " was deleted.");
+									return;
+								} else if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY) {
+									if (!modified) {
+										firstModified = System.nanoTime();
+									}
+									modified = true;
 								}
 							}
 						}
+		
+						boolean valid = key.reset();
+						if (!valid) {
+							throw new IllegalStateException("The watch service key has become invalid.");
+						}
+						
+						// Wait until the file has not been modified for the reload delay, so that 
+						// a burst of modifications (for example while the file is written) is read once, 
+						// but no longer than the maximum reload delay since the first modification, so 
+						// that a file modified more often than the reload delay is still read.
+						key = null;
+						if (modified && conf.reloadDelay > 0) {
+							long remaining = conf.reloadMaxDelay - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstModified);
+							if (remaining > 0) {
+								key = watcher.poll(Math.min(conf.reloadDelay, remaining), TimeUnit.MILLISECONDS);
+							}
+						}
 					}
-	
-					boolean valid = key.reset();
-					if (!valid) {
-						throw new IllegalStateException("The watch service key has become invalid.");
+					
+					if (modified) {
+						try {
+							fileModified();
+						}
+						catch (Exception ex) {
+							System.err.println("Error reading modified source file \"" + conf.sourceFile.getAbsolutePath() + "\". Will try again on next modification. Error was: " + ex.getMessage());
+							ex.printStackTrace();
+						}
 					}
 				}
 				catch (ClosedWatchServiceException cwse) {
@@ -522,7 +1386,7 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 		}
 	}
 	
-	private enum CellType {
+	enum CellType {
 		BLANK,
 		BOOLEAN,
 		NUMERIC,
@@ -547,6 +1411,17 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 			return BLANK;
 		}
 		
+		/**
+		 * Get the type of a value read from a spreadsheet cell (see {@link XLSXSheetReader}).
+		 */
+		public static CellType fromValue(Object v) {
+			if (v instanceof Double) return NUMERIC;
+			if (v instanceof Date) return DATE;
+			if (v instanceof Boolean) return BOOLEAN;
+			if (v instanceof String) return STRING;
+			return BLANK;
+		}
+		
 		public static CellType fromRaw(String v, Config conf) {
 			if (v == null || v.trim().length() == 0)
 				return BLANK;
@@ -628,6 +1503,23 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 		 */
 		public Config columnCount(int columnCount) { this.dataColumnCountDesired = columnCount; return this; }
 		
+		protected int[] selectedColumnIndices;
+		/**
+		 * Set the (zero-based) indices of the columns to read, in the order the series should appear in the table. 
+		 * This overrides {@link #columnIndex(int)} and {@link #columnCount(int)}. Other columns are skipped 
+		 * when the file is parsed: only the fields up to the last selected column of each row are split 
+		 * out and only the values of selected columns are retained and converted.
+		 */
+		public Config columns(int... indices) { this.selectedColumnIndices = indices; this.selectedColumnLabels = null; return this; }
+		
+		protected String[] selectedColumnLabels;
+		/**
+		 * Set the labels (in the header row) of the columns to read, in the order the series should appear in 
+		 * the table. If the header row index is automatic (see {@link #headerRowIndex(int)}) then the first row 
+		 * is used as the header row. See {@link #columns(int...)}.
+		 */
+		public Config columns(String... labels) { this.selectedColumnLabels = labels; this.selectedColumnIndices = null; return this; }
+		
 		protected boolean doublePrecision = true;
 		/**
 		 * Set whether numeric series should be created as DataSeries&lt;Double&gt; (true), or as DataSeries&lt;Float&gt; (false).
@@ -658,6 +1550,81 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 		 */
 		public Config dateFormats(String... formats) { this.dateFormats = formats; return this; }
 		
+		protected boolean streaming = false;
+		/**
+		 * Set whether CSV-like and Excel (.xlsx) files should be read in streaming mode. In streaming mode the 
+		 * file is not loaded into memory in its entirety: the header row and the type of each 
+		 * column are determined from a sample of the first rows (see {@link #sampleRowCount(int)}), 
+		 * then each row is tokenized and its values converted directly into the storage for each 
+		 * column, without creating a String for each numeric or date value. Columns that are empty in the sample are ignored, as 
+		 * are values in columns beyond the last column in the sample. Excel sheets are parsed with 
+		 * POI's event (SAX) model rather than loading the workbook; reading stops once the desired 
+		 * number of rows has been read. Default is false.
+		 */
+		public Config streaming(boolean streaming) { this.streaming = streaming; return this; }
+		
+		protected int sampleRowCount = 1000;
+		/**
+		 * Set the number of data rows used to determine column types in streaming mode (see {@link #streaming(boolean)}). Default is 1000.
+		 */
+		public Config sampleRowCount(int sampleRowCount) { this.sampleRowCount = sampleRowCount; return this; }
+		
+		protected int threadCount = 1;
+		/**
+		 * Set the number of threads used to parse CSV-like files in streaming mode (see {@link #streaming(boolean)}), 
+		 * or 0 to use one thread per available processor. When more than one thread is used, the part of the file 
+		 * after the sample rows is split into chunks at record boundaries (taking quoted values into account), which 
+		 * are parsed concurrently and then combined in order. Files are only split if they are larger than a few 
+		 * megabytes, the number of rows to read is not limited (see {@link #rowCount(int)}) and the platform default 
+		 * character encoding is ASCII-compatible (for example UTF-8). Default is 1.
+		 */
+		public Config threadCount(int threadCount) { this.threadCount = threadCount; return this; }
+		
+		protected boolean diffReload = false;
+		/**
+		 * Set whether, when the file is modified and reloaded, the rows are aligned with the rows previously 
+		 * read (allowing for inserted, removed and changed rows), so that only the rows that were inserted or 
+		 * changed are converted, and the values of the other rows are taken from the previously read series. 
+		 * The rows are compared by a (64-bit) hash of the text of their values, which is retained between 
+		 * reloads (8 bytes per row). If many rows are inserted or removed only the common leading and 
+		 * trailing rows are aligned. Columns are matched by label; added and retyped columns are converted 
+		 * entirely, and if the columns read change then all rows are converted. As series have no insert 
+		 * operation, change events are fired for the values whose index changed as well as those inserted 
+		 * or changed. Not applied in streaming mode (see {@link #streaming(boolean)}), or after appended 
+		 * rows have been read (see {@link #follow(boolean)}) until the next reload. Default is false.
+		 */
+		public Config diffReload(boolean diffReload) { this.diffReload = diffReload; return this; }
+		
+		protected boolean follow = false;
+		/**
+		 * Set whether, when a CSV-like file is modified, only the rows appended to it are read and appended 
+		 * to the series (in a single change), rather than reloading the whole file. This suits files that 
+		 * are continuously appended to, for example by a logger. The file is still reloaded entirely if it 
+		 * is truncated or rewritten (detected by comparing the bytes at the start of the file and preceding 
+		 * the previously read rows), if the last row previously read was not terminated by a line break, 
+		 * or if the new rows contain values in columns that were not previously read. Not applied if the number 
+		 * of rows to read is limited (see {@link #rowCount(int)}), or if the platform default character encoding
+		 * is not ASCII-compatible. The column types determined from the previously read rows are used 
+		 * for the new rows. Default is false.
+		 */
+		public Config follow(boolean follow) { this.follow = follow; return this; }
+		
+		protected int reloadDelay = 100;
+		/**
+		 * Set the time, in milliseconds, that the file must go unmodified for before it is reloaded 
+		 * (or appended rows are read) after it is modified. A burst of modifications, for example 
+		 * while the file is being written, thus results in a single reload. Default is 100.
+		 */
+		public Config reloadDelay(int reloadDelay) { this.reloadDelay = reloadDelay; return this; }
+		
+		protected int reloadMaxDelay = 1000;
+		/**
+		 * Set the maximum time, in milliseconds, between the first modification of the file and it being reloaded 
+		 * (or appended rows being read), when it is modified repeatedly within the reload delay (see {@link #reloadDelay(int)}). 
+		 * A file that is continuously modified, for example by a logger, is thus read at least this often. Default is 1000.
+		 */
+		public Config reloadMaxDelay(int reloadMaxDelay) { this.reloadMaxDelay = reloadMaxDelay; return this; }
+		
 		protected boolean useDeprecatedDates = false;
 		/**
 		 * Set whether to use the (now deprecated) java.util.Date objects to represent dates/times (true), instead of java.time.temporal.TemporalAccessor (false). Default is false.
@@ -671,8 +1638,10 @@ public class SpreadSheetReader implements DataSetSource<DataTable> {
 			try {
 				// Most fields can be (shallow) copied by value.
 				Config copy = (Config) clone();
-				// Just not the date format array.
+				// Just not the arrays.
 				copy.dateFormats = Arrays.copyOf(dateFormats, dateFormats.length);
+				if (selectedColumnIndices != null) copy.selectedColumnIndices = selectedColumnIndices.clone();
+				if (selectedColumnLabels != null) copy.selectedColumnLabels = selectedColumnLabels.clone();
 				return copy;
 			} catch (CloneNotSupportedException e) {}
 			return null;
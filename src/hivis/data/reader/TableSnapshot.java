@@ -0,0 +1,440 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import hivis.data.AbstractBufferDataSeries;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesDoubleBuffer;
+import hivis.data.DataSeriesFloat;
+import hivis.data.DataSeriesFloatBuffer;
+import hivis.data.DataSeriesGeneric;
+import hivis.data.DataSeriesInteger;
+import hivis.data.DataSeriesIntegerBuffer;
+import hivis.data.DataSeriesLong;
+import hivis.data.DataSeriesLongBuffer;
+import hivis.data.DataTable;
+import hivis.data.DataTableDefault;
+
+/**
+ * <p>
+ * Saves and loads {@link DataTable}s in a compact binary columnar format,
+ * which can be loaded far more quickly than a spreadsheet can be parsed.
+ * </p>
+ * <p>
+ * The values of each series are stored in a block: numeric series as arrays
+ * of the primitive type, and other series as a dictionary of distinct values
+ * (in String form) followed by an array of codes (of 1, 2 or 4 bytes,
+ * depending on the size of the dictionary). Series containing String,
+ * Boolean, {@link Date} and java.time date/time values are supported. The
+ * blocks are followed by a footer describing the table: the label, type,
+ * length, location and (optionally) CRC32 checksum of each block, and the
+ * index of the row key series. The file is memory-mapped when loaded, so that
+ * numeric series may be backed directly by the file (see
+ * {@link #TableSnapshot(File, boolean)}), otherwise
+ * the primitive arrays of numeric series are filled with bulk copies.
+ * </p>
+ * <p>
+ * Layout (all values little-endian): "HVTB", format version (int), blocks
+ * (each starting on an 8 byte boundary), footer, footer offset (long), "HVTB".
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+public class TableSnapshot implements DataSetSource<DataTable> {
+	private static final byte[] MAGIC = "HVTB".getBytes(StandardCharsets.US_ASCII);
+	private static final int VERSION = 1;
+
+	// Block types.
+	private static final byte DOUBLE = 1, FLOAT = 2, INT = 3, LONG = 4, DICTIONARY = 5;
+
+	// The types of values supported in dictionary blocks, in the order of their codes,
+	// along with functions to convert them from their String representation.
+	private static final List<Class<?>> VALUE_TYPES = Arrays.asList(String.class, Boolean.class, Date.class,
+			LocalDate.class, LocalDateTime.class, LocalTime.class, OffsetDateTime.class, OffsetTime.class, ZonedDateTime.class, Instant.class);
+	private static final List<Function<String, Object>> VALUE_PARSERS = Arrays.asList(s -> s, Boolean::valueOf, s -> new Date(Long.parseLong(s)),
+			LocalDate::parse, LocalDateTime::parse, LocalTime::parse, OffsetDateTime::parse, OffsetTime::parse, ZonedDateTime::parse, Instant::parse);
+
+	// Maximum number of bytes mapped at once.
+	private static final int MAP_SIZE_MAX = 1 << 30;
+
+	private final DataTable table;
+
+
+	/**
+	 * Load the table saved in the given file (see {@link #save(DataTable, File, boolean)}).
+	 *
+	 * @throws DataReadException If the file could not be read, is not in the expected format or a checksum doesn't match.
+	 */
+	public TableSnapshot(File file) {
+		this(file, false);
+	}
+
+	/**
+	 * Load the table saved in the given file (see {@link #save(DataTable, File, boolean)}).
+	 *
+	 * @param mapped If true then numeric series are backed directly by the memory-mapped file (see 
+	 *   {@link AbstractBufferDataSeries}) rather than copied into arrays, and are read-only. 
+	 * @throws DataReadException If the file could not be read, is not in the expected format or a checksum doesn't match.
+	 */
+	public TableSnapshot(File file, boolean mapped) {
+		try {
+			table = load(file, mapped);
+		}
+		catch (IOException e) {
+			throw new DataReadException("Unable to read data from " + file.getPath(), e);
+		}
+	}
+
+
+	@Override
+	public DataTable getData() {
+		return table;
+	}
+
+
+	/**
+	 * Save the given table to the given file, replacing any existing file.
+	 *
+	 * @param checksums Whether to store a checksum for each block, to be verified when the table is loaded.
+	 * @throws IllegalArgumentException If the table contains a series with values of a type that is not supported.
+	 */
+	public static void save(DataTable table, File file, boolean checksums) throws IOException {
+		table.lock();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer head = allocate(8).put(MAGIC).putInt(VERSION);
+			head.flip();
+			write(channel, head);
+
+			ByteBuffer footer = allocate(256);
+			footer.putInt(table.seriesCount());
+			footer.putInt(table.getRowKeyIndex());
+			for (int s = 0; s < table.seriesCount(); s++) {
+				String label = table.getSeriesLabel(s);
+				DataSeries<?> series = table.get(s);
+
+				// Align the start of the block.
+				long start = (channel.position() + 7) & ~7L;
+				write(channel, allocate(start - channel.position()));
+
+				ByteBuffer block = encode(label, series);
+				block.flip();
+				byte type = block.get();
+				block = block.slice();
+				CRC32 crc = new CRC32();
+				if (checksums) {
+					crc.update(block.duplicate());
+				}
+				write(channel, block);
+
+				footer = ensure(footer, label.length() * 3 + 64);
+				putString(footer, label);
+				footer.put(type);
+				footer.putInt(series.length());
+				footer.putLong(start);
+				footer.putLong(channel.position() - start);
+				footer.put((byte) (checksums ? 1 : 0));
+				footer.putLong(checksums ? crc.getValue() : 0);
+			}
+
+			long footerOffset = channel.position();
+			footer = ensure(footer, 12);
+			footer.putLong(footerOffset);
+			footer.put(MAGIC);
+			footer.flip();
+			write(channel, footer);
+		}
+		finally {
+			table.unlock();
+		}
+	}
+
+
+	/**
+	 * Encode the values of the given series in a block, preceded by the block type.
+	 */
+	private static ByteBuffer encode(String label, DataSeries<?> series) {
+		int length = series.length();
+		Class<?> type = series.getType();
+		if (type == Double.class) {
+			ByteBuffer block = allocate(1 + length * 8L).put(DOUBLE);
+			block.asDoubleBuffer().put(series.asDoubleArray());
+			block.position(block.position() + length * 8);
+			return block;
+		}
+		if (type == Float.class) {
+			ByteBuffer block = allocate(1 + length * 4L).put(FLOAT);
+			block.asFloatBuffer().put(series.asFloatArray());
+			block.position(block.position() + length * 4);
+			return block;
+		}
+		if (type == Integer.class) {
+			ByteBuffer block = allocate(1 + length * 4L).put(INT);
+			block.asIntBuffer().put(series.asIntArray());
+			block.position(block.position() + length * 4);
+			return block;
+		}
+		if (type == Long.class) {
+			ByteBuffer block = allocate(1 + length * 8L).put(LONG);
+			block.asLongBuffer().put(series.asLongArray());
+			block.position(block.position() + length * 8);
+			return block;
+		}
+
+		// Dictionary encode other values.
+		int valueType = -1;
+		Map<String, Integer> codes = new HashMap<>();
+		List<String> dictionary = new ArrayList<>();
+		int[] valueCodes = new int[length];
+		for (int i = 0; i < length; i++) {
+			Object value = series.get(i);
+			if (value == null) {
+				continue;
+			}
+			int vt = VALUE_TYPES.indexOf(value.getClass());
+			if (vt == -1 || valueType != -1 && vt != valueType) {
+				throw new IllegalArgumentException("The series '" + label + "' contains values of type " + value.getClass().getName() + ", which can not be saved.");
+			}
+			valueType = vt;
+			String text = value instanceof Date ? Long.toString(((Date) value).getTime()) : value.toString();
+			Integer code = codes.get(text);
+			if (code == null) {
+				dictionary.add(text);
+				// Code 0 represents null.
+				code = dictionary.size();
+				codes.put(text, code);
+			}
+			valueCodes[i] = code;
+		}
+		int codeSize = dictionary.size() < 0xFF ? 1 : dictionary.size() < 0xFFFF ? 2 : 4;
+
+		ByteBuffer block = allocate(1 + 1 + 4 + 1 + (long) length * codeSize + dictionary.size() * 8L);
+		block.put(DICTIONARY).put((byte) Math.max(valueType, 0)).putInt(dictionary.size());
+		for (String text : dictionary) {
+			block = ensure(block, text.length() * 3 + 4 + (long) length * codeSize + 1);
+			putString(block, text);
+		}
+		block.put((byte) codeSize);
+		for (int code : valueCodes) {
+			if (codeSize == 1) block.put((byte) code);
+			else if (codeSize == 2) block.putShort((short) code);
+			else block.putInt(code);
+		}
+		return block;
+	}
+
+
+	/**
+	 * Load the table saved in the given file.
+	 */
+	private static DataTable load(File file, boolean mapped) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < 20) {
+				throw new IOException("The file is not a table snapshot.");
+			}
+			ByteBuffer head = map(channel, 0, 8);
+			ByteBuffer tail = map(channel, size - 12, 12);
+			if (!hasMagic(head, 0) || !hasMagic(tail, 8)) {
+				throw new IOException("The file is not a table snapshot.");
+			}
+			if (head.getInt(4) != VERSION) {
+				throw new IOException("Unsupported table snapshot version " + head.getInt(4) + ".");
+			}
+			long footerOffset = tail.getLong(0);
+			ByteBuffer footer = map(channel, footerOffset, size - 12 - footerOffset);
+
+			DataTable table = new DataTableDefault();
+			int seriesCount = footer.getInt();
+			int rowKey = footer.getInt();
+			for (int s = 0; s < seriesCount; s++) {
+				String label = getString(footer);
+				byte type = footer.get();
+				int length = footer.getInt();
+				long offset = footer.getLong();
+				long byteLength = footer.getLong();
+				boolean hasChecksum = footer.get() != 0;
+				long checksum = footer.getLong();
+
+				if (hasChecksum) {
+					CRC32 crc = new CRC32();
+					for (long p = 0; p < byteLength; p += MAP_SIZE_MAX) {
+						crc.update(map(channel, offset + p, Math.min(MAP_SIZE_MAX, byteLength - p)));
+					}
+					if (crc.getValue() != checksum) {
+						throw new IOException("The checksum for the series '" + label + "' does not match.");
+					}
+				}
+
+				table.addSeries(label, decode(channel, type, length, offset, byteLength, mapped));
+			}
+			table.setRowKey(rowKey);
+			return table;
+		}
+	}
+
+
+	/**
+	 * Create a series from the block with the given type and location.
+	 */
+	private static DataSeries<?> decode(FileChannel channel, byte type, int length, long offset, long byteLength, boolean mapped) throws IOException {
+		if (mapped && type != DICTIONARY && byteLength <= Integer.MAX_VALUE) {
+			ByteBuffer block = map(channel, offset, byteLength);
+			switch (type) {
+				case DOUBLE: return new DataSeriesDoubleBuffer(block, length);
+				case FLOAT: return new DataSeriesFloatBuffer(block, length);
+				case INT: return new DataSeriesIntegerBuffer(block, length);
+				case LONG: return new DataSeriesLongBuffer(block, length);
+			}
+		}
+		switch (type) {
+			case DOUBLE: {
+				double[] values = new double[length];
+				for (long p = 0; p < byteLength; p += MAP_SIZE_MAX) {
+					map(channel, offset + p, Math.min(MAP_SIZE_MAX, byteLength - p)).asDoubleBuffer().get(values, (int) (p / 8), (int) (Math.min(MAP_SIZE_MAX, byteLength - p) / 8));
+				}
+				DataSeriesDouble series = new DataSeriesDouble(0);
+				series.swapData(values, length);
+				return series;
+			}
+			case FLOAT: {
+				float[] values = new float[length];
+				for (long p = 0; p < byteLength; p += MAP_SIZE_MAX) {
+					map(channel, offset + p, Math.min(MAP_SIZE_MAX, byteLength - p)).asFloatBuffer().get(values, (int) (p / 4), (int) (Math.min(MAP_SIZE_MAX, byteLength - p) / 4));
+				}
+				DataSeriesFloat series = new DataSeriesFloat(0);
+				series.swapData(values, length);
+				return series;
+			}
+			case INT: {
+				int[] values = new int[length];
+				for (long p = 0; p < byteLength; p += MAP_SIZE_MAX) {
+					map(channel, offset + p, Math.min(MAP_SIZE_MAX, byteLength - p)).asIntBuffer().get(values, (int) (p / 4), (int) (Math.min(MAP_SIZE_MAX, byteLength - p) / 4));
+				}
+				DataSeriesInteger series = new DataSeriesInteger(0);
+				series.swapData(values, length);
+				return series;
+			}
+			case LONG: {
+				long[] values = new long[length];
+				for (long p = 0; p < byteLength; p += MAP_SIZE_MAX) {
+					map(channel, offset + p, Math.min(MAP_SIZE_MAX, byteLength - p)).asLongBuffer().get(values, (int) (p / 8), (int) (Math.min(MAP_SIZE_MAX, byteLength - p) / 8));
+				}
+				DataSeriesLong series = new DataSeriesLong(0);
+				series.swapData(values, length);
+				return series;
+			}
+			case DICTIONARY: {
+				if (byteLength > Integer.MAX_VALUE) {
+					throw new IOException("Dictionary encoded blocks larger than 2GB are not supported.");
+				}
+				ByteBuffer block = map(channel, offset, byteLength);
+				Function<String, Object> parser = VALUE_PARSERS.get(block.get());
+				Object[] dictionary = new Object[block.getInt() + 1];
+				for (int d = 1; d < dictionary.length; d++) {
+					dictionary[d] = parser.apply(getString(block));
+				}
+				int codeSize = block.get();
+				Object[] values = new Object[length];
+				for (int i = 0; i < length; i++) {
+					int code = codeSize == 1 ? block.get() & 0xFF : codeSize == 2 ? block.getShort() & 0xFFFF : block.getInt();
+					values[i] = dictionary[code];
+				}
+				return new DataSeriesGeneric<>(values);
+			}
+			default:
+				throw new IOException("Unknown block type " + type + ".");
+		}
+	}
+
+
+	private static ByteBuffer allocate(long capacity) {
+		if (capacity > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Series larger than 2GB can not be saved.");
+		}
+		return ByteBuffer.allocate((int) capacity).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Get a buffer with the contents of the given buffer and at least the given number of bytes remaining.
+	 */
+	private static ByteBuffer ensure(ByteBuffer buffer, long remaining) {
+		if (buffer.remaining() >= remaining) {
+			return buffer;
+		}
+		ByteBuffer grown = allocate(Math.max(buffer.position() + remaining, buffer.capacity() * 2L));
+		buffer.flip();
+		return grown.put(buffer);
+	}
+
+	private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	private static boolean hasMagic(ByteBuffer buffer, int offset) {
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buffer.get(offset + i) != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static void putString(ByteBuffer buffer, String s) {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,343 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import hivis.data.reader.SpreadSheetReader.CellType;
+
+/**
+ * <p>
+ * Reads the cells of a sheet of an Excel (.xlsx) workbook using POI's event
+ * model ({@link XSSFReader}): the sheet XML is parsed with SAX and the cell
+ * values are passed to a {@link Handler} row by row, so that the workbook is
+ * never held in memory (only the shared strings table is).
+ * </p>
+ * <p>
+ * Cells formatted as dates (as for
+ * {@link DateUtil#isADateFormat(int, String)}) are reported as
+ * {@link CellType#DATE}, along with the {@link java.util.Date}. The cached
+ * results of formula cells are reported, not the formulas.
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+final class XLSXSheetReader {
+	/**
+	 * Receives the cells of a sheet.
+	 */
+	interface Handler {
+		/**
+		 * Start a row. Rows containing no cells may be skipped.
+		 */
+		void startRow(int row);
+
+		/**
+		 * Receive a non-blank cell in the current row, in increasing column order.
+		 * @param column The zero-based column index.
+		 * @param type The type of the cell.
+		 * @param number The value of NUMERIC or DATE cells.
+		 * @param value The value of the cell: a Double, Date, String or Boolean.
+		 */
+		void cell(int column, CellType type, double number, Object value);
+
+		/**
+		 * Finish the current row. Returns false to stop reading the sheet.
+		 */
+		boolean endRow();
+	}
+
+
+	private XLSXSheetReader() {}
+
+
+	/**
+	 * Read the sheet with the given index from the given workbook.
+	 */
+	static void read(File file, int sheetIndex, Handler handler) throws IOException {
+		try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+			XSSFReader reader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+			StylesHandler styles = new StylesHandler();
+			try (InputStream in = reader.getStylesData()) {
+				parse(in, styles);
+			}
+			WorkbookHandler workbook = new WorkbookHandler();
+			try (InputStream in = reader.getWorkbookData()) {
+				parse(in, workbook);
+			}
+
+			if (sheetIndex < 0 || sheetIndex >= workbook.sheetIds.size()) {
+				throw new IllegalArgumentException("The workbook " + file.getPath() + " does not contain a sheet with index " + sheetIndex);
+			}
+			try (InputStream in = reader.getSheet(workbook.sheetIds.get(sheetIndex))) {
+				parse(in, new SheetHandler(handler, strings, styles.getDateStyles(), workbook.date1904));
+			}
+		}
+		catch (OpenXML4JException | SAXException e) {
+			throw new IOException(e);
+		}
+	}
+
+
+	private static void parse(InputStream in, DefaultHandler handler) throws IOException, SAXException {
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			XMLReader reader = factory.newSAXParser().getXMLReader();
+			reader.setContentHandler(handler);
+			reader.parse(new InputSource(in));
+		}
+		catch (StopException e) {
+			// Reading was stopped by the handler.
+		}
+		catch (ParserConfigurationException e) {
+			throw new IOException(e);
+		}
+	}
+
+
+	/**
+	 * Thrown to stop parsing a sheet early.
+	 */
+	private static class StopException extends SAXException {
+		private static final long serialVersionUID = 1L;
+	}
+
+
+	/**
+	 * Determines which cell styles (by index) have a date format.
+	 */
+	private static class StylesHandler extends DefaultHandler {
+		final Map<Integer, String> formats = new HashMap<>();
+		final List<Integer> styleFormats = new ArrayList<>();
+		boolean inCellXfs;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes atts) {
+			if (localName.equals("numFmt")) {
+				formats.put(Integer.parseInt(atts.getValue("numFmtId")), atts.getValue("formatCode"));
+			}
+			else if (localName.equals("cellXfs")) {
+				inCellXfs = true;
+			}
+			else if (inCellXfs && localName.equals("xf")) {
+				String id = atts.getValue("numFmtId");
+				styleFormats.add(id == null ? 0 : Integer.parseInt(id));
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if (localName.equals("cellXfs")) {
+				inCellXfs = false;
+			}
+		}
+
+		boolean[] getDateStyles() {
+			boolean[] dateStyles = new boolean[styleFormats.size()];
+			for (int i = 0; i < dateStyles.length; i++) {
+				int id = styleFormats.get(i);
+				String format = formats.containsKey(id) ? formats.get(id) : BuiltinFormats.getBuiltinFormat(id);
+				dateStyles[i] = format != null && DateUtil.isADateFormat(id, format);
+			}
+			return dateStyles;
+		}
+	}
+
+
+	/**
+	 * Determines the relationship ids of the sheets, in order, and whether 
+	 * the workbook uses the 1904 date system.
+	 */
+	private static class WorkbookHandler extends DefaultHandler {
+		static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+		
+		final List<String> sheetIds = new ArrayList<>();
+		boolean date1904;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes atts) {
+			if (localName.equals("workbookPr")) {
+				String value = atts.getValue("date1904");
+				date1904 = "1".equals(value) || "true".equals(value);
+			}
+			else if (localName.equals("sheet")) {
+				sheetIds.add(atts.getValue(RELATIONSHIPS_NS, "id"));
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			if (localName.equals("sheets")) {
+				throw new StopException();
+			}
+		}
+	}
+
+
+	/**
+	 * Converts the rows and cells in the sheet XML and passes them to a Handler.
+	 */
+	private static class SheetHandler extends DefaultHandler {
+		final Handler handler;
+		final ReadOnlySharedStringsTable strings;
+		final boolean[] dateStyles;
+		final boolean date1904;
+
+		int row = -1, column;
+		// The type attribute and style of the current cell.
+		String type;
+		int style;
+		// Whether characters are being collected for a value, and the collected characters.
+		boolean collecting;
+		final StringBuilder text = new StringBuilder();
+		final NumberParser numberParser = new NumberParser();
+		char[] chars = new char[32];
+
+		SheetHandler(Handler handler, ReadOnlySharedStringsTable strings, boolean[] dateStyles, boolean date1904) {
+			this.handler = handler;
+			this.strings = strings;
+			this.dateStyles = dateStyles;
+			this.date1904 = date1904;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes atts) {
+			switch (localName) {
+				case "row":
+					String r = atts.getValue("r");
+					row = r != null ? Integer.parseInt(r) - 1 : row + 1;
+					column = -1;
+					handler.startRow(row);
+					break;
+				case "c":
+					String ref = atts.getValue("r");
+					column = ref != null ? columnIndex(ref) : column + 1;
+					type = atts.getValue("t");
+					String s = atts.getValue("s");
+					style = s != null ? Integer.parseInt(s) : 0;
+					text.setLength(0);
+					break;
+				case "v":
+				case "t":
+					collecting = true;
+					break;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (collecting) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			switch (localName) {
+				case "v":
+				case "t":
+					collecting = false;
+					break;
+				case "c":
+					if (text.length() > 0) {
+						cell();
+					}
+					break;
+				case "row":
+					if (!handler.endRow()) {
+						throw new StopException();
+					}
+					break;
+			}
+		}
+
+		private void cell() {
+			if (type == null || type.equals("n")) {
+				int length = text.length();
+				if (chars.length < length) {
+					chars = new char[length * 2];
+				}
+				text.getChars(0, length, chars, 0);
+				if (!numberParser.parse(chars, 0, length)) {
+					return;
+				}
+				double number = numberParser.value();
+				if (style < dateStyles.length && dateStyles[style] && DateUtil.isValidExcelDate(number)) {
+					handler.cell(column, CellType.DATE, number, DateUtil.getJavaDate(number, date1904));
+				}
+				else {
+					handler.cell(column, CellType.NUMERIC, number, number);
+				}
+				return;
+			}
+			switch (type) {
+				case "s":
+					handler.cell(column, CellType.STRING, Double.NaN, strings.getEntryAt(Integer.parseInt(text.toString().trim())));
+					break;
+				case "inlineStr":
+				case "str":
+					handler.cell(column, CellType.STRING, Double.NaN, text.toString());
+					break;
+				case "b":
+					handler.cell(column, CellType.BOOLEAN, Double.NaN, text.charAt(0) == '1');
+					break;
+				default:
+					// Error value, treat as blank.
+			}
+		}
+
+		/**
+		 * Get the zero-based column index from a cell reference such as "AB12".
+		 */
+		private static int columnIndex(String ref) {
+			int column = 0;
+			for (int i = 0; i < ref.length(); i++) {
+				char c = ref.charAt(i);
+				if (c < 'A' || c > 'Z') {
+					break;
+				}
+				column = column * 26 + (c - 'A' + 1);
+			}
+			return column - 1;
+		}
+	}
+}
@@ -20,6 +20,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
 import java.util.stream.Stream;
 
 import com.google.common.primitives.Primitives;
@@ -33,6 +38,7 @@ import hivis.data.DataSeriesInteger;
 import hivis.data.DataSeriesLong;
 import hivis.data.DataTable;
 import hivis.data.DataValue;
+import hivis.data.IndexRanges;
 import hivis.data.DataSeriesDouble;
 import hivis.data.DataSeriesFloat;
 
@@ -42,7 +48,8 @@ import hivis.data.DataSeriesFloat;
  * provided then change events on them are forwarded to this series. The values
  * in the series are cached. Cached values are lazily (re)calculated on the
  * first call to {@link #get(int)}, {@link #getBoolean(int)} etc, or after the
- * input data has changed (all values in the cache are recalculated at once).
+ * input data has changed (all values in the cache are recalculated at once,
+ * unless the series is element-wise, see {@link #isElementWise()}).
  * 
  * @author O. J. Coleman
  */
@@ -119,7 +126,7 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 			@Override
 			public void dataChanged(DataEvent event) {
 				for (Object changeType : event.getTypes()) {
-					me.setDataChanged(changeType);
+					me.setDataChanged(changeType, event.getAffectedRanges());
 				}
 			}
 		});
@@ -136,6 +143,14 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 	 */
 	@Override
 	public void update(DataEvent cause) {
+		// Determine if we can update only the values affected by the change.
+		IndexRanges ranges = null;
+		if (!recalc && cache != null && cause != null && isElementWise() && 
+				inputSeries != null && inputSeries.contains(cause.affected) &&
+				cause.getAffectedRanges() != null) {
+			ranges = new IndexRanges(cause.getAffectedRanges());
+		}
+		
 		recalc = false;
 		if (cache == null) {
 			setupCache();
@@ -147,10 +162,31 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 		this.beginChanges(this);
 		// Make sure cache series is the right length.
 		int length = length();
+		int previousLength = cache.length();
 		cache.resize(length);
-		update();
+		if (ranges != null) {
+			ranges.add(previousLength, length);
+			for (int r = 0; r < ranges.size() && ranges.start(r) < length; r++) {
+				update(ranges.start(r), Math.min(ranges.end(r), length));
+			}
+		}
+		else {
+			update();
+		}
 		this.finishChanges(this);
 	}
+	
+	/**
+	 * Returns true iff each value in this series is calculated only from the 
+	 * values at the same index in the input series (and from any input 
+	 * DataValues). If so then when an input series changes only the values at 
+	 * the affected indices are recalculated (see 
+	 * {@link DataEvent#getAffectedRanges()}), via {@link #update(int, int)}. 
+	 * This default implementation returns false.
+	 */
+	public boolean isElementWise() {
+		return false;
+	}
 
 	/**
 	 * <p>
@@ -175,6 +211,22 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 			cache.setValue(i, calc(i));
 		}
 	}
+	
+	/**
+	 * Update the values in {@link #cache} for the given range of indices. This 
+	 * is used to incrementally update element-wise series (see 
+	 * {@link #isElementWise()}), the cache will already be the correct length. 
+	 * This default implementation calls {@link #calc(int)} for every index in 
+	 * the range.
+	 * 
+	 * @param fromIndex The first index to update (inclusive).
+	 * @param toIndex The end of the range of indices to update (exclusive).
+	 */
+	public void update(int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			cache.setValue(i, calc(i));
+		}
+	}
 
 	/**
 	 * This is the method where you implement the function, unless overriding
@@ -286,6 +338,12 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 	}
 
 	public static class FloatSeries<I extends Object> extends CalcSeries<I, Float> {
+		/**
+		 * Array that values are calculated into before being swapped in to the cache
+		 * (see {@link #getBuffer(int)} and {@link #setCache(float[], int)}).
+		 */
+		private float[] buffer;
+		
 		public FloatSeries(int length) {
 			super(length);
 		}
@@ -300,8 +358,77 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 
 		@Override
 		public void update() {
-			for (int i = 0; i < length(); i++) {
-				cache.setValue(i, calcFloat(i));
+			int length = length();
+			float[] values = getBuffer(length);
+			calcFloat(0, length, values);
+			setCache(values, length);
+		}
+		
+		@Override
+		public void update(int fromIndex, int toIndex) {
+			int length = toIndex - fromIndex;
+			float[] values = getBuffer(length);
+			calcFloat(fromIndex, toIndex, values);
+			setCache(fromIndex, values, length);
+		}
+		
+		/**
+		 * Calculate the values for the given range of indices, storing them in the
+		 * given array starting at index 0. This default implementation calls 
+		 * {@link #calcFloat(int)} for each index. Sub-classes may override this to 
+		 * provide a more efficient implementation.
+		 * 
+		 * @param fromIndex The first index to calculate (inclusive).
+		 * @param toIndex The end of the range of indices to calculate (exclusive).
+		 * @param values The array to store the calculated values in.
+		 */
+		protected void calcFloat(int fromIndex, int toIndex, float[] values) {
+			for (int i = fromIndex; i < toIndex; i++) {
+				values[i - fromIndex] = calcFloat(i);
+			}
+		}
+		
+		/**
+		 * Get an array with length at least the given length into which new values 
+		 * for the cache may be calculated. The calculated values should then be 
+		 * stored in the cache with {@link #setCache(float[], int)}.
+		 */
+		protected float[] getBuffer(int length) {
+			if (buffer == null || buffer.length < length) {
+				buffer = new float[length];
+			}
+			return buffer;
+		}
+		
+		/**
+		 * Set the values in the cache to those in the given array, typically obtained 
+		 * from {@link #getBuffer(int)}. The values are compared with the existing 
+		 * values in a single pass and at most one change event is generated.
+		 */
+		protected void setCache(float[] values, int length) {
+			if (cache instanceof DataSeriesFloat) {
+				buffer = ((DataSeriesFloat) cache).swapData(values, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(i, values[i]);
+				}
+			}
+		}
+		
+		/**
+		 * Set a range of values in the cache, starting at the given index, to those 
+		 * in the given array (starting at index 0 in the array). At most one change 
+		 * event is generated.
+		 */
+		protected void setCache(int index, float[] values, int length) {
+			if (cache instanceof DataSeriesFloat) {
+				((DataSeriesFloat) cache).setValues(index, values, 0, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(index + i, values[i]);
+				}
 			}
 		}
 
@@ -335,31 +462,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				this.op = op;
 				this.value = value;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcFloat(int fromIndex, int toIndex, float[] values) {
 				DataSeries<I> series = getInputSeries(0);
 				float v = inputValues != null ? inputValues.get(0).getFloat() : this.value;
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getFloat(i) + v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getFloat(i) + v;
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getFloat(i) - v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getFloat(i) - v;
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getFloat(i) * v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getFloat(i) * v;
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getFloat(i) / v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getFloat(i) / v;
 					}
 					return;
 				}
@@ -375,31 +506,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				super(series1, series2);
 				this.op = op;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcFloat(int fromIndex, int toIndex, float[] values) {
 				DataSeries<I> series1 = getInputSeries(0);
 				DataSeries<I> series2 = getInputSeries(1);
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getFloat(i) + series2.getFloat(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getFloat(i) + series2.getFloat(i);
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getFloat(i) - series2.getFloat(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getFloat(i) - series2.getFloat(i);
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getFloat(i) * series2.getFloat(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getFloat(i) * series2.getFloat(i);
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getFloat(i) / series2.getFloat(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getFloat(i) / series2.getFloat(i);
 					}
 					return;
 				}
@@ -410,6 +545,12 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 	}
 
 	public static class DoubleSeries<I extends Object> extends CalcSeries<I, Double> {
+		/**
+		 * Array that values are calculated into before being swapped in to the cache
+		 * (see {@link #getBuffer(int)} and {@link #setCache(double[], int)}).
+		 */
+		private double[] buffer;
+		
 		public DoubleSeries(int length) {
 			super(length);
 		}
@@ -424,8 +565,77 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 
 		@Override
 		public void update() {
-			for (int i = 0; i < length(); i++) {
-				cache.setValue(i, calcDouble(i));
+			int length = length();
+			double[] values = getBuffer(length);
+			calcDouble(0, length, values);
+			setCache(values, length);
+		}
+		
+		@Override
+		public void update(int fromIndex, int toIndex) {
+			int length = toIndex - fromIndex;
+			double[] values = getBuffer(length);
+			calcDouble(fromIndex, toIndex, values);
+			setCache(fromIndex, values, length);
+		}
+		
+		/**
+		 * Calculate the values for the given range of indices, storing them in the
+		 * given array starting at index 0. This default implementation calls 
+		 * {@link #calcDouble(int)} for each index. Sub-classes may override this to 
+		 * provide a more efficient implementation.
+		 * 
+		 * @param fromIndex The first index to calculate (inclusive).
+		 * @param toIndex The end of the range of indices to calculate (exclusive).
+		 * @param values The array to store the calculated values in.
+		 */
+		protected void calcDouble(int fromIndex, int toIndex, double[] values) {
+			for (int i = fromIndex; i < toIndex; i++) {
+				values[i - fromIndex] = calcDouble(i);
+			}
+		}
+		
+		/**
+		 * Get an array with length at least the given length into which new values 
+		 * for the cache may be calculated. The calculated values should then be 
+		 * stored in the cache with {@link #setCache(double[], int)}.
+		 */
+		protected double[] getBuffer(int length) {
+			if (buffer == null || buffer.length < length) {
+				buffer = new double[length];
+			}
+			return buffer;
+		}
+		
+		/**
+		 * Set the values in the cache to those in the given array, typically obtained 
+		 * from {@link #getBuffer(int)}. The values are compared with the existing 
+		 * values in a single pass and at most one change event is generated.
+		 */
+		protected void setCache(double[] values, int length) {
+			if (cache instanceof DataSeriesDouble) {
+				buffer = ((DataSeriesDouble) cache).swapData(values, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(i, values[i]);
+				}
+			}
+		}
+		
+		/**
+		 * Set a range of values in the cache, starting at the given index, to those 
+		 * in the given array (starting at index 0 in the array). At most one change 
+		 * event is generated.
+		 */
+		protected void setCache(int index, double[] values, int length) {
+			if (cache instanceof DataSeriesDouble) {
+				((DataSeriesDouble) cache).setValues(index, values, 0, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(index + i, values[i]);
+				}
 			}
 		}
 
@@ -459,31 +669,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				this.op = op;
 				this.value = value;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcDouble(int fromIndex, int toIndex, double[] values) {
 				DataSeries<I> series = getInputSeries(0);
 				double v = inputValues != null ? inputValues.get(0).getDouble() : this.value;
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getDouble(i) + v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getDouble(i) + v;
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getDouble(i) - v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getDouble(i) - v;
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getDouble(i) * v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getDouble(i) * v;
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getDouble(i) / v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getDouble(i) / v;
 					}
 					return;
 				}
@@ -499,31 +713,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				super(series1, series2);
 				this.op = op;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcDouble(int fromIndex, int toIndex, double[] values) {
 				DataSeries<I> series1 = getInputSeries(0);
 				DataSeries<I> series2 = getInputSeries(1);
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getDouble(i) + series2.getDouble(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getDouble(i) + series2.getDouble(i);
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getDouble(i) - series2.getDouble(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getDouble(i) - series2.getDouble(i);
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getDouble(i) * series2.getDouble(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getDouble(i) * series2.getDouble(i);
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getDouble(i) / series2.getDouble(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getDouble(i) / series2.getDouble(i);
 					}
 					return;
 				}
@@ -534,6 +752,12 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 	}
 
 	public static class IntSeries<I extends Object> extends CalcSeries<I, Integer> {
+		/**
+		 * Array that values are calculated into before being swapped in to the cache
+		 * (see {@link #getBuffer(int)} and {@link #setCache(int[], int)}).
+		 */
+		private int[] buffer;
+		
 		public IntSeries(int length) {
 			super(length);
 		}
@@ -548,9 +772,77 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 
 		@Override
 		public void update() {
-
-			for (int i = 0; i < length(); i++) {
-				cache.setValue(i, calcInteger(i));
+			int length = length();
+			int[] values = getBuffer(length);
+			calcInteger(0, length, values);
+			setCache(values, length);
+		}
+		
+		@Override
+		public void update(int fromIndex, int toIndex) {
+			int length = toIndex - fromIndex;
+			int[] values = getBuffer(length);
+			calcInteger(fromIndex, toIndex, values);
+			setCache(fromIndex, values, length);
+		}
+		
+		/**
+		 * Calculate the values for the given range of indices, storing them in the
+		 * given array starting at index 0. This default implementation calls 
+		 * {@link #calcInteger(int)} for each index. Sub-classes may override this to 
+		 * provide a more efficient implementation.
+		 * 
+		 * @param fromIndex The first index to calculate (inclusive).
+		 * @param toIndex The end of the range of indices to calculate (exclusive).
+		 * @param values The array to store the calculated values in.
+		 */
+		protected void calcInteger(int fromIndex, int toIndex, int[] values) {
+			for (int i = fromIndex; i < toIndex; i++) {
+				values[i - fromIndex] = calcInteger(i);
+			}
+		}
+		
+		/**
+		 * Get an array with length at least the given length into which new values 
+		 * for the cache may be calculated. The calculated values should then be 
+		 * stored in the cache with {@link #setCache(int[], int)}.
+		 */
+		protected int[] getBuffer(int length) {
+			if (buffer == null || buffer.length < length) {
+				buffer = new int[length];
+			}
+			return buffer;
+		}
+		
+		/**
+		 * Set the values in the cache to those in the given array, typically obtained 
+		 * from {@link #getBuffer(int)}. The values are compared with the existing 
+		 * values in a single pass and at most one change event is generated.
+		 */
+		protected void setCache(int[] values, int length) {
+			if (cache instanceof DataSeriesInteger) {
+				buffer = ((DataSeriesInteger) cache).swapData(values, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(i, values[i]);
+				}
+			}
+		}
+		
+		/**
+		 * Set a range of values in the cache, starting at the given index, to those 
+		 * in the given array (starting at index 0 in the array). At most one change 
+		 * event is generated.
+		 */
+		protected void setCache(int index, int[] values, int length) {
+			if (cache instanceof DataSeriesInteger) {
+				((DataSeriesInteger) cache).setValues(index, values, 0, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(index + i, values[i]);
+				}
 			}
 		}
 
@@ -584,31 +876,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				this.op = op;
 				this.value = value;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcInteger(int fromIndex, int toIndex, int[] values) {
 				DataSeries<I> series = getInputSeries(0);
 				int v = inputValues != null ? inputValues.get(0).getInt() : this.value;
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getInt(i) + v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getInt(i) + v;
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getInt(i) - v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getInt(i) - v;
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getInt(i) * v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getInt(i) * v;
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getInt(i) / v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getInt(i) / v;
 					}
 					return;
 				}
@@ -624,31 +920,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				super(series1, series2);
 				this.op = op;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcInteger(int fromIndex, int toIndex, int[] values) {
 				DataSeries<I> series1 = getInputSeries(0);
 				DataSeries<I> series2 = getInputSeries(1);
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getInt(i) + series2.getInt(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getInt(i) + series2.getInt(i);
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getInt(i) - series2.getInt(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getInt(i) - series2.getInt(i);
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getInt(i) * series2.getInt(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getInt(i) * series2.getInt(i);
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getInt(i) / series2.getInt(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getInt(i) / series2.getInt(i);
 					}
 					return;
 				}
@@ -659,6 +959,12 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 	}
 
 	public static class LongSeries<I extends Object> extends CalcSeries<I, Long> {
+		/**
+		 * Array that values are calculated into before being swapped in to the cache
+		 * (see {@link #getBuffer(int)} and {@link #setCache(long[], int)}).
+		 */
+		private long[] buffer;
+		
 		public LongSeries(int length) {
 			super(length);
 		}
@@ -673,9 +979,77 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 
 		@Override
 		public void update() {
-
-			for (int i = 0; i < length(); i++) {
-				cache.setValue(i, calcLong(i));
+			int length = length();
+			long[] values = getBuffer(length);
+			calcLong(0, length, values);
+			setCache(values, length);
+		}
+		
+		@Override
+		public void update(int fromIndex, int toIndex) {
+			int length = toIndex - fromIndex;
+			long[] values = getBuffer(length);
+			calcLong(fromIndex, toIndex, values);
+			setCache(fromIndex, values, length);
+		}
+		
+		/**
+		 * Calculate the values for the given range of indices, storing them in the
+		 * given array starting at index 0. This default implementation calls 
+		 * {@link #calcLong(int)} for each index. Sub-classes may override this to 
+		 * provide a more efficient implementation.
+		 * 
+		 * @param fromIndex The first index to calculate (inclusive).
+		 * @param toIndex The end of the range of indices to calculate (exclusive).
+		 * @param values The array to store the calculated values in.
+		 */
+		protected void calcLong(int fromIndex, int toIndex, long[] values) {
+			for (int i = fromIndex; i < toIndex; i++) {
+				values[i - fromIndex] = calcLong(i);
+			}
+		}
+		
+		/**
+		 * Get an array with length at least the given length into which new values 
+		 * for the cache may be calculated. The calculated values should then be 
+		 * stored in the cache with {@link #setCache(long[], int)}.
+		 */
+		protected long[] getBuffer(int length) {
+			if (buffer == null || buffer.length < length) {
+				buffer = new long[length];
+			}
+			return buffer;
+		}
+		
+		/**
+		 * Set the values in the cache to those in the given array, typically obtained 
+		 * from {@link #getBuffer(int)}. The values are compared with the existing 
+		 * values in a single pass and at most one change event is generated.
+		 */
+		protected void setCache(long[] values, int length) {
+			if (cache instanceof DataSeriesLong) {
+				buffer = ((DataSeriesLong) cache).swapData(values, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(i, values[i]);
+				}
+			}
+		}
+		
+		/**
+		 * Set a range of values in the cache, starting at the given index, to those 
+		 * in the given array (starting at index 0 in the array). At most one change 
+		 * event is generated.
+		 */
+		protected void setCache(int index, long[] values, int length) {
+			if (cache instanceof DataSeriesLong) {
+				((DataSeriesLong) cache).setValues(index, values, 0, length);
+			}
+			else {
+				for (int i = 0; i < length; i++) {
+					cache.setValue(index + i, values[i]);
+				}
 			}
 		}
 
@@ -709,31 +1083,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				this.op = op;
 				this.value = value;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcLong(int fromIndex, int toIndex, long[] values) {
 				DataSeries<I> series = getInputSeries(0);
 				long v = inputValues != null ? inputValues.get(0).getLong() : this.value;
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getLong(i) + v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getLong(i) + v;
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getLong(i) - v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getLong(i) - v;
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getLong(i) * v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getLong(i) * v;
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series.getLong(i) / v);
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series.getLong(i) / v;
 					}
 					return;
 				}
@@ -749,31 +1127,35 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 				super(series1, series2);
 				this.op = op;
 			}
-
+			
 			@Override
-			public void update() {
+			public boolean isElementWise() {
+				return true;
+			}
 
+			@Override
+			protected void calcLong(int fromIndex, int toIndex, long[] values) {
 				DataSeries<I> series1 = getInputSeries(0);
 				DataSeries<I> series2 = getInputSeries(1);
 				switch (op) {
 				case ADD:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getLong(i) + series2.getLong(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getLong(i) + series2.getLong(i);
 					}
 					return;
 				case SUBTRACT:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getLong(i) - series2.getLong(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getLong(i) - series2.getLong(i);
 					}
 					return;
 				case MULTIPLY:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getLong(i) * series2.getLong(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getLong(i) * series2.getLong(i);
 					}
 					return;
 				case DIVIDE:
-					for (int i = 0; i < length(); i++) {
-						cache.setValue(i, series1.getLong(i) / series2.getLong(i));
+					for (int i = fromIndex; i < toIndex; i++) {
+						values[i - fromIndex] = series1.getLong(i) / series2.getLong(i);
 					}
 					return;
 				}
@@ -797,8 +1179,24 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 		public final boolean realOutput;
 	}
 
+	/**
+	 * CalcSeries that applies a single argument method from {@link Math} to 
+	 * each value in the input series. Where available a primitive 
+	 * implementation of the method is used, otherwise the method is called 
+	 * via reflection.
+	 */
 	public static class Maths<I> extends CalcSeries<I, Object> {
 		protected Method method;
+		
+		// The argument type of the method and the primitive kernel implementing it, if available.
+		private Class<?> argType;
+		private Object kernel;
+		
+		// Buffers the values are calculated into before being stored in the cache. 
+		private double[] doubleBuffer;
+		private float[] floatBuffer;
+		private int[] intBuffer;
+		private long[] longBuffer;
 
 		public Maths(String func, DataSeries<I> input) {
 			super(input);
@@ -822,6 +1220,9 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 							+ ", accepting argument type " + input.getType().getSimpleName() + ".", e);
 				}
 			}
+			
+			argType = method.getParameterTypes()[0];
+			kernel = MathKernels.get(method);
 		}
 
 		@Override
@@ -829,29 +1230,130 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 			return method == null ? null : method.getReturnType();
 		}
 
+		@Override
+		public boolean isElementWise() {
+			return true;
+		}
+
+		@Override
 		public void update() {
-			if (cache == null) {
-				setupCache();
-			}
-			this.beginChanges(this);
+			update(0, length());
+		}
 
+		@Override
+		public void update(int fromIndex, int toIndex) {
+			if (kernel == null) {
+				updateReflective(fromIndex, toIndex);
+				return;
+			}
+			
+			DataSeries<I> series = getInputSeries(0);
+			int length = toIndex - fromIndex;
+			Class<?> returnType = method.getReturnType();
+			Object target = cache;
+			
+			if (returnType.equals(double.class)) {
+				DoubleUnaryOperator k = (DoubleUnaryOperator) kernel;
+				if (doubleBuffer == null || doubleBuffer.length < length) doubleBuffer = new double[length];
+				double[] values = doubleBuffer;
+				for (int i = 0; i < length; i++) {
+					values[i] = k.applyAsDouble(series.getDouble(fromIndex + i));
+				}
+				if (target instanceof DataSeriesDouble) {
+					((DataSeriesDouble) target).setValues(fromIndex, values, 0, length);
+					return;
+				}
+				for (int i = 0; i < length; i++) {
+					cache.setValue(fromIndex + i, values[i]);
+				}
+			}
+			else if (returnType.equals(float.class)) {
+				DoubleUnaryOperator k = (DoubleUnaryOperator) kernel;
+				if (floatBuffer == null || floatBuffer.length < length) floatBuffer = new float[length];
+				float[] values = floatBuffer;
+				for (int i = 0; i < length; i++) {
+					values[i] = (float) k.applyAsDouble(series.getDouble(fromIndex + i));
+				}
+				if (target instanceof DataSeriesFloat) {
+					((DataSeriesFloat) target).setValues(fromIndex, values, 0, length);
+					return;
+				}
+				for (int i = 0; i < length; i++) {
+					cache.setValue(fromIndex + i, values[i]);
+				}
+			}
+			else if (returnType.equals(int.class)) {
+				if (intBuffer == null || intBuffer.length < length) intBuffer = new int[length];
+				int[] values = intBuffer;
+				if (kernel instanceof IntUnaryOperator) {
+					IntUnaryOperator k = (IntUnaryOperator) kernel;
+					for (int i = 0; i < length; i++) {
+						values[i] = k.applyAsInt(series.getInt(fromIndex + i));
+					}
+				}
+				else {
+					DoubleToIntFunction k = (DoubleToIntFunction) kernel;
+					for (int i = 0; i < length; i++) {
+						values[i] = k.applyAsInt(series.getDouble(fromIndex + i));
+					}
+				}
+				if (target instanceof DataSeriesInteger) {
+					((DataSeriesInteger) target).setValues(fromIndex, values, 0, length);
+					return;
+				}
+				for (int i = 0; i < length; i++) {
+					cache.setValue(fromIndex + i, values[i]);
+				}
+			}
+			else if (returnType.equals(long.class)) {
+				if (longBuffer == null || longBuffer.length < length) longBuffer = new long[length];
+				long[] values = longBuffer;
+				if (kernel instanceof LongUnaryOperator) {
+					LongUnaryOperator k = (LongUnaryOperator) kernel;
+					for (int i = 0; i < length; i++) {
+						values[i] = k.applyAsLong(series.getLong(fromIndex + i));
+					}
+				}
+				else {
+					DoubleToLongFunction k = (DoubleToLongFunction) kernel;
+					for (int i = 0; i < length; i++) {
+						values[i] = k.applyAsLong(series.getDouble(fromIndex + i));
+					}
+				}
+				if (target instanceof DataSeriesLong) {
+					((DataSeriesLong) target).setValues(fromIndex, values, 0, length);
+					return;
+				}
+				for (int i = 0; i < length; i++) {
+					cache.setValue(fromIndex + i, values[i]);
+				}
+			}
+			else {
+				updateReflective(fromIndex, toIndex);
+			}
+		}
+		
+		/**
+		 * Update the given range of values by calling the Math method via reflection.
+		 */
+		private void updateReflective(int fromIndex, int toIndex) {
 			DataSeries<I> series = getInputSeries(0);
 
 			try {
-				if (method.getParameterTypes()[0].equals(float.class)) {
-					for (int i = 0; i < length(); i++) {
+				if (argType.equals(float.class)) {
+					for (int i = fromIndex; i < toIndex; i++) {
 						cache.setValue(i, method.invoke(null, series.getFloat(i)));
 					}
-				} else if (method.getParameterTypes()[0].equals(double.class)) {
-					for (int i = 0; i < length(); i++) {
+				} else if (argType.equals(double.class)) {
+					for (int i = fromIndex; i < toIndex; i++) {
 						cache.setValue(i, method.invoke(null, series.getDouble(i)));
 					}
-				} else if (method.getParameterTypes()[0].equals(int.class)) {
-					for (int i = 0; i < length(); i++) {
+				} else if (argType.equals(int.class)) {
+					for (int i = fromIndex; i < toIndex; i++) {
 						cache.setValue(i, method.invoke(null, series.getInt(i)));
 					}
-				} else if (method.getParameterTypes()[0].equals(long.class)) {
-					for (int i = 0; i < length(); i++) {
+				} else if (argType.equals(long.class)) {
+					for (int i = fromIndex; i < toIndex; i++) {
 						cache.setValue(i, method.invoke(null, series.getLong(i)));
 					}
 				}
@@ -875,7 +1377,7 @@ public abstract class CalcSeries<I, O> extends AbstractSeriesViewMultiple<I, O>
 					@Override
 					public void dataChanged(DataEvent event) {
 						for (Object changeType : event.getTypes()) {
-							me.setDataChanged(changeType);
+							me.setDataChanged(changeType, event.getAffectedRanges());
 						}
 					}
 				});
@@ -268,14 +268,35 @@ public abstract class CalcValue<I, O> extends AbstractValueView<I, O> {
 		
 		public static class SeriesFunc extends FloatValue {
 			SeriesOp op;
+			SeriesAggregate aggregate;
 			public SeriesFunc(DataSeries collection, SeriesOp op) {
+				this(collection, op, null);
+			}
+			/**
+			 * Create a SeriesFunc that uses the given (optionally shared) {@link SeriesAggregate} to update the value
+			 * incrementally when the series changes. If the aggregate is null then the value is recalculated in full.
+			 */
+			public SeriesFunc(DataSeries collection, SeriesOp op, SeriesAggregate aggregate) {
 				super(collection);
 				this.op = op;
+				this.aggregate = aggregate;
 			}
 			public float calcFloat() {
 				DataSeries s = getInputSeries(0);
 				int len = s.length();
 				if (len == 0 && op.undefinedForEmpty) return Float.NaN;
+				if (aggregate != null) {
+					aggregate.update(s);
+					if (aggregate.isFinite()) {
+						switch (op) {
+						case MINIMUM: return (float) aggregate.getMin();
+						case MAXIMUM: return (float) aggregate.getMax();
+						case SUM: return (float) aggregate.getSum();
+						case PRODUCT: return (float) aggregate.getProduct();
+						}
+					}
+				}
+				if (len == 0) return 0;
 				Iterator<Float> itr = s.asFloat().iterator();
 				float val = itr.next();
 				switch (op) {
@@ -378,14 +399,38 @@ public abstract class CalcValue<I, O> extends AbstractValueView<I, O> {
 		
 		public static class SeriesFunc extends DoubleValue {
 			SeriesOp op;
+			SeriesAggregate aggregate;
 			public SeriesFunc(DataSeries<?> collection, SeriesOp op) {
+				this(collection, op, null);
+			}
+			/**
+			 * Create a SeriesFunc that uses the given (optionally shared) {@link SeriesAggregate} to update the value
+			 * incrementally when the series changes. If the aggregate is null then the value is recalculated in full.
+			 */
+			public SeriesFunc(DataSeries<?> collection, SeriesOp op, SeriesAggregate aggregate) {
 				super(collection);
 				this.op = op;
+				this.aggregate = aggregate;
 			}
 			public double calcDouble() {
 				DataSeries<?> s = getInputSeries(0);
 				int len = s.length();
 				if (len == 0 && op.undefinedForEmpty) return Double.NaN;
+				if (aggregate != null) {
+					aggregate.update(s);
+					if (aggregate.isFinite()) {
+						switch (op) {
+						case MINIMUM: return aggregate.getMin();
+						case MAXIMUM: return aggregate.getMax();
+						case SUM: return aggregate.getSum();
+						case PRODUCT: return aggregate.getProduct();
+						case MEAN: return aggregate.getMean();
+						case VARIANCE: return aggregate.getVariance();
+						case STANDARD_DEVIATION: return Math.sqrt(aggregate.getVariance());
+						}
+					}
+				}
+				if (len == 0) return 0;
 				Iterator<Double> itr;
 				double val;
 				switch (op) {
@@ -513,14 +558,33 @@ public abstract class CalcValue<I, O> extends AbstractValueView<I, O> {
 		
 		public static class SeriesFunc extends IntValue {
 			SeriesOp op;
+			SeriesAggregate aggregate;
 			public SeriesFunc(DataSeries collection, SeriesOp op) {
+				this(collection, op, null);
+			}
+			/**
+			 * Create a SeriesFunc that uses the given (optionally shared) {@link SeriesAggregate} to update the value
+			 * incrementally when the series changes. If the aggregate is null then the value is recalculated in full.
+			 */
+			public SeriesFunc(DataSeries collection, SeriesOp op, SeriesAggregate aggregate) {
 				super(collection);
 				this.op = op;
+				this.aggregate = aggregate;
 			}
 			public int calcInteger() {
 				DataSeries s = getInputSeries(0);
 				int len = s.length();
 				if (len == 0 && op.undefinedForEmpty) return Integer.MIN_VALUE;
+				if (aggregate != null) {
+					// The product is not maintained with integer (overflow) semantics so is always recalculated.
+					aggregate.update(s);
+					switch (op) {
+					case MINIMUM: return (int) aggregate.getLongMin();
+					case MAXIMUM: return (int) aggregate.getLongMax();
+					case SUM: return (int) aggregate.getLongSum();
+					}
+				}
+				if (len == 0) return 0;
 				Iterator<Integer> itr = s.asInt().iterator();
 				int val = itr.next();
 				switch (op) {
@@ -623,14 +687,33 @@ public abstract class CalcValue<I, O> extends AbstractValueView<I, O> {
 		
 		public static class SeriesFunc extends LongValue {
 			SeriesOp op;
+			SeriesAggregate aggregate;
 			public SeriesFunc(DataSeries collection, SeriesOp op) {
+				this(collection, op, null);
+			}
+			/**
+			 * Create a SeriesFunc that uses the given (optionally shared) {@link SeriesAggregate} to update the value
+			 * incrementally when the series changes. If the aggregate is null then the value is recalculated in full.
+			 */
+			public SeriesFunc(DataSeries collection, SeriesOp op, SeriesAggregate aggregate) {
 				super(collection);
 				this.op = op;
+				this.aggregate = aggregate;
 			}
 			public long calcLong() {
 				DataSeries s = getInputSeries(0);
 				long len = s.length();
 				if (len == 0 && op.undefinedForEmpty) return Long.MIN_VALUE;
+				if (aggregate != null) {
+					// The product is not maintained with integer (overflow) semantics so is always recalculated.
+					aggregate.update(s);
+					switch (op) {
+					case MINIMUM: return aggregate.getLongMin();
+					case MAXIMUM: return aggregate.getLongMax();
+					case SUM: return aggregate.getLongSum();
+					}
+				}
+				if (len == 0) return 0;
 				Iterator<Long> itr = s.asLong().iterator();
 				long val = itr.next();
 				switch (op) {
@@ -16,13 +16,15 @@
 package hivis.data.view;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import com.google.common.collect.Streams;
-
 import hivis.common.HV;
 import hivis.data.AbstractUnmodifiableDataSeries;
 import hivis.data.AggregateFunction;
@@ -33,6 +35,7 @@ import hivis.data.DataSeries;
 import hivis.data.DataSeriesDouble;
 import hivis.data.DataTable;
 import hivis.data.DataValue;
+import hivis.data.view.CalcValue.SeriesOp;
 
 /**
  * <p>
@@ -47,6 +50,11 @@ import hivis.data.DataValue;
  * the input table.
  * </p>
  * <p>
+ * Groups are determined in a single pass over the input table (see
+ * {@link GroupIndex}), after which each group table view is given the indices of
+ * the rows it contains directly.
+ * </p>
+ * <p>
  * The group table views returned by {@link #get(Object)} and {@link #values()}
  * will be emptied (set to length 0) if the group size becomes zero (and calls
  * to {@link #get(Object)} for groups that do not yet exist will return empty
@@ -64,10 +72,31 @@ public class DefaultGroupedTable<K> extends CalcMap<K, TableView, DataTable> imp
 	 */
 	protected Function<DataRow, K> keyFunction;
 
+	/**
+	 * The series to group by, if grouping by the values in a series (otherwise -1 and null).
+	 */
+	protected int groupingSeriesIndex = -1;
+	protected String groupingSeriesLabel;
+
+	/**
+	 * Calculates the statistics for views produced by {@link #aggregate(SeriesOp...)}. 
+	 */
+	private Aggregator aggregator;
+
 	/**
 	 * A map of all groups ever produced. Allows re-use of groups.
 	 */
-	protected Map<K, TableViewFilterRows> allGroups = new HashMap<>();
+	protected Map<K, Group> allGroups = new HashMap<>();
+	
+	/**
+	 * The row indices for each current group.
+	 */
+	protected Map<K, int[]> groupRows = new HashMap<>();
+	
+	/**
+	 * The current grouping of rows.
+	 */
+	protected GroupIndex<K> groupIndex;
 
 	/**
 	 * Create a grouping where the key for a row is based on the value of the
@@ -81,6 +110,7 @@ public class DefaultGroupedTable<K> extends CalcMap<K, TableView, DataTable> imp
 	 */
 	public DefaultGroupedTable(DataTable input, int groupingSeries) {
 		super(input);
+		groupingSeriesIndex = groupingSeries;
 		keyFunction = new Function<DataRow, K>() {
 			@Override
 			public K apply(DataRow input) {
@@ -101,6 +131,7 @@ public class DefaultGroupedTable<K> extends CalcMap<K, TableView, DataTable> imp
 	 */
 	public DefaultGroupedTable(DataTable input, String groupingSeries) {
 		super(input);
+		groupingSeriesLabel = groupingSeries;
 		keyFunction = new Function<DataRow, K>() {
 			@Override
 			public K apply(DataRow input) {
@@ -127,7 +158,7 @@ public class DefaultGroupedTable<K> extends CalcMap<K, TableView, DataTable> imp
 	@Override
 	public TableView get(K key) {
 		if (!allGroups.containsKey(key)) {
-			TableViewFilterRows newGroup = new TableViewFilterRows(input, new GroupRowFilter(key));
+			Group newGroup = new Group(key);
 			allGroups.put(key, newGroup);
 		}
 		return allGroups.get(key);
@@ -136,41 +167,100 @@ public class DefaultGroupedTable<K> extends CalcMap<K, TableView, DataTable> imp
 	@Override
 	public void update() {
 		// Determine current groups.
-		Map<K, TableView> newGroups = new HashMap<>();
-
-		for (DataRow row : input) {
-			K key = keyFunction.apply(row);
-			if (!newGroups.containsKey(key)) {
-				TableViewFilterRows group = (TableViewFilterRows) get(key);
-				newGroups.put(key, group);
-			}
+		final DataTable table = input;
+		if (groupingSeriesLabel != null || groupingSeriesIndex >= 0) {
+			DataSeries<?> keySeries = groupingSeriesLabel != null ? table.get(groupingSeriesLabel) : table.get(groupingSeriesIndex);
+			groupIndex = GroupIndex.byValue(keySeries);
+		}
+		else {
+			groupIndex = GroupIndex.byKey(table.length(), i -> keyFunction.apply(table.getRow(i)));
+		}
+		
+		groupRows.clear();
+		for (int g = 0; g < groupIndex.groupCount(); g++) {
+			groupRows.put(groupIndex.getKey(g), groupIndex.getRows(g));
+		}
+		
+		// Update the rows in existing group views (emptying those for groups that no longer exist).
+		for (Entry<K, Group> group : allGroups.entrySet()) {
+			group.getValue().setRows(getGroupRows(group.getKey()));
 		}
 
 		// Remove groups that no longer exist.
 		for (K key : cache.keys().asArray()) {
-			if (!newGroups.containsKey(key)) {
+			if (!groupRows.containsKey(key)) {
 				cache.remove(key);
 			}
 		}
 
-		// Add new groups.
-		for (K key : newGroups.keySet()) {
+		// Add new groups (in the order they first appear in the input table).
+		for (K key : groupIndex.getKeys()) {
 			if (!cache.containsKey(key)) {
-				cache.put(key, newGroups.get(key));
+				cache.put(key, get(key));
 			}
 		}
 	}
+	
+	/**
+	 * Get the indices of the rows in the input table belonging to the group with the given key.
+	 */
+	protected int[] getGroupRows(K key) {
+		if (recalc) update(null);
+		int[] rows = groupRows.get(key);
+		return rows != null ? rows : new int[0];
+	}
 
-	private class GroupRowFilter implements RowFilter {
-		K key;
-
-		GroupRowFilter(K key) {
+	/**
+	 * A view of the rows in the input table belonging to a group. 
+	 */
+	protected class Group extends AbstractTableView<SeriesViewRow<?>, DataTable> {
+		private final K key;
+		private int[] rows = new int[0];
+		
+		Group(K key) {
+			super(DefaultGroupedTable.this.input);
 			this.key = key;
+			updateSeries();
 		}
-
+		
+		/**
+		 * Set the indices of the rows in the input table that belong to this group.
+		 */
+		void setRows(int[] rows) {
+			this.rows = rows;
+			this.beginChanges(this);
+			for (SeriesViewRow<?> s : series.values()) {
+				s.setRowMap(rows);
+			}
+			this.finishChanges(this);
+		}
+		
 		@Override
-		public boolean excludeRow(DataTable input, int index) {
-			return !keyFunction.apply(input.getRow(index)).equals(key);
+		protected void updateSeries(List<Object> eventTypes) {
+			// Maintain old list of SeriesViewRow wrappers so we can reuse them. 
+			HashMap<String, SeriesViewRow<?>> oldSeries = new HashMap<>(series);
+			
+			series.clear();
+			
+			// Create/reuse a SeriesViewRow for each series in the input table. 
+			for (Entry<String, DataSeries<?>> inputS : input.get(0).getLabelledSeries().entrySet()) {
+				String label = inputS.getKey();
+				DataSeries<?> s = inputS.getValue();
+				
+				// If there was an existing SeriesViewRow and it has the input series set as its input, then reuse it.
+				SeriesViewRow<?> oldWrapper = oldSeries.get(label);
+				if (oldWrapper != null && s == oldWrapper.getInputSeries().get(0)) {
+					series.put(label, oldWrapper);
+				}
+				else {
+					series.put(label, new SeriesViewRow<>(s));
+				}
+			}
+			
+			rows = getGroupRows(key);
+			for (SeriesViewRow<?> s : series.values()) {
+				s.setRowMap(rows);
+			}
 		}
 	}
 	
@@ -225,77 +315,160 @@ public class DefaultGroupedTable<K> extends CalcMap<K, TableView, DataTable> imp
 	}
 
 
+	@Override
+	public List<TableView> aggregate(SeriesOp... ops) {
+		if (aggregator == null) {
+			aggregator = new Aggregator();
+		}
+		aggregator.require(ops);
+		List<TableView> views = new ArrayList<>();
+		for (SeriesOp op : ops) {
+			AggregateView view = new AggregateView(op);
+			// Trigger initial update.
+			view.updateSeries();
+			views.add(view);
+		}
+		return views;
+	}
+
 	@Override
 	public TableView aggregateMin() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.min().get();
-	        }
-	    });
+		return aggregate(SeriesOp.MINIMUM).get(0);
 	}
 
 	@Override
 	public TableView aggregateMax() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.max().get();
-	        }
-	    });
+		return aggregate(SeriesOp.MAXIMUM).get(0);
 	}
 
 	@Override
 	public TableView aggregateSum() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.sum().get();
-	        }
-	    });
+		return aggregate(SeriesOp.SUM).get(0);
 	}
 
 	@Override
 	public TableView aggregateProduct() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.product().get();
-	        }
-	    });
+		return aggregate(SeriesOp.PRODUCT).get(0);
 	}
 
 	@Override
 	public TableView aggregateMean() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.mean().get();
-	        }
-	    });
+		return aggregate(SeriesOp.MEAN).get(0);
 	}
 
 	@Override
 	public TableView aggregateVariance() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.variance().get();
-	        }
-	    });
+		return aggregate(SeriesOp.VARIANCE).get(0);
 	}
 
 	@Override
 	public TableView aggregateStdDev() {
-		return this.aggregate(new AggStat() {
-	        public Object applyStat(DataSeries<?> series) {
-	            return series.stdDev().get();
-	        }
-	    });
+		return aggregate(SeriesOp.STANDARD_DEVIATION).get(0);
+	}
+	
+	/**
+	 * Get the current grouping of the rows in the input table.
+	 */
+	protected GroupIndex<K> getGroupIndex() {
+		if (recalc) update(null);
+		return groupIndex;
 	}
 	
 	
-	private static abstract class AggStat implements AggregateFunction {
-		public Object apply(String seriesLabel, DataSeries<?> series) {
-	        if (series.isNumeric()) {
-	          return applyStat(series);
-	        }
-	        return series.get(0);
-	      }
-		public abstract Object applyStat(DataSeries<?> series);
+	/**
+	 * Calculates the statistics for all views produced by
+	 * {@link DefaultGroupedTable#aggregate(SeriesOp...)}, for all numeric series in
+	 * the input table, in a single pass over each series (see {@link GroupAggregate}).
+	 * The statistics are recalculated when the grouping is updated.
+	 */
+	private class Aggregator {
+		private final EnumSet<SeriesOp> ops = EnumSet.noneOf(SeriesOp.class);
+		// The grouping the current results were calculated for.
+		private GroupIndex<K> index;
+		private Map<String, Map<SeriesOp, double[]>> results;
+		
+		void require(SeriesOp... ops) {
+			if (!this.ops.containsAll(Arrays.asList(ops))) {
+				Collections.addAll(this.ops, ops);
+				results = null;
+			}
+		}
+		
+		/**
+		 * Get the given statistic for each group (indexed by group in {@link #getGroupIndex()}).
+		 */
+		double[] get(String seriesLabel, SeriesOp op) {
+			GroupIndex<K> current = getGroupIndex();
+			if (results == null || index != current || !results.containsKey(seriesLabel)) {
+				index = current;
+				results = GroupAggregate.aggregate(current, input, ops.toArray(new SeriesOp[ops.size()]));
+			}
+			return results.get(seriesLabel).get(op);
+		}
+	}
+	
+	
+	/**
+	 * A view of the table groups in which each group is aggregated into a
+	 * single row using the given statistic, or the first value in the group
+	 * for non-numeric series.
+	 */
+	private class AggregateView extends AbstractTableView<CalcSeries<?, ?>, DefaultGroupedTable<K>> {
+		private final SeriesOp op;
+		
+		AggregateView(SeriesOp op) {
+			super(DefaultGroupedTable.this);
+			this.op = op;
+		}
+		
+		@Override
+		protected void updateSeries(List<Object> eventTypes) {
+			final DataTable source = DefaultGroupedTable.this.input;
+			
+			// Maintain old list of series so we can reuse them. 
+			HashMap<String, CalcSeries<?, ?>> oldSeries = new HashMap<>(series);
+			
+			series.clear();
+			
+			for (final String columnLabel : source.getSeriesLabels()) {
+				CalcSeries<?, ?> s = oldSeries.containsKey(columnLabel) ? oldSeries.get(columnLabel) : new CalcSeries<Object, Object> (source) {
+					@Override
+					@SuppressWarnings("unchecked")
+					public DataSeries<Object> getNewSeries() {
+						if (source.get(columnLabel).isNumeric()) {
+							return (DataSeries<Object>) (DataSeries<?>) new DataSeriesDouble();
+						}
+						return (DataSeries<Object>) source.get(columnLabel).getNewSeries();
+					}
+					@Override
+					public void update() {
+						GroupIndex<K> index = getGroupIndex();
+						DataSeries<K> keys = DefaultGroupedTable.this.keys();
+						int length = keys.length();
+						DataSeries<?> column = source.get(columnLabel);
+						Object target = cache;
+						if (column.isNumeric() && target instanceof DataSeriesDouble) {
+							double[] stat = aggregator.get(columnLabel, op);
+							double[] values = new double[length];
+							for (int k = 0; k < length; k++) {
+								values[k] = stat[index.getGroup(keys.get(k))];
+							}
+							((DataSeriesDouble) target).setValues(0, values, 0, length);
+						}
+						else {
+							for (int k = 0; k < length; k++) {
+								cache.set(k, column.get(index.getFirstRow(index.getGroup(keys.get(k)))));
+							}
+						}
+					}
+					@Override
+					public int length() {
+						return DefaultGroupedTable.this.size();
+					}
+				};
+				
+				series.put(columnLabel, s);
+			}
+		}
 	}
-}
\ No newline at end of file
+}
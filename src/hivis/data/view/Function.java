@@ -20,11 +20,24 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.temporal.TemporalAccessor;
 import java.util.Date;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
 
 import com.google.common.reflect.TypeToken;
 
 /**
- * Base class for functions. Sub-classes must implement at least one of the apply methods.
+ * <p>Base class for functions. Sub-classes must implement at least one of the apply methods.</p>
+ * <p>
+ * For numeric functions one of the primitive variants, for example {@link DoubleToDouble}
+ * or {@link IntToInt}, should be used where possible: these are recognised by 
+ * {@link hivis.data.DataSeries#apply(Function)}, which then calculates values without 
+ * boxing or reflection. Instances may be created from lambda expressions with the 
+ * static factory methods, for example <code>Function.doubleToDouble(v -> v * v)</code>.
+ * </p>
  * 
  * @author O. J. Coleman
  */
@@ -103,4 +116,182 @@ public abstract class Function<I, O> {
 	public O apply(TemporalAccessor input) {
 		return apply(input);
 	}
+	
+	
+	/**
+	 * Create a {@link DoubleToDouble} function from the given operator.
+	 */
+	public static DoubleToDouble doubleToDouble(final DoubleUnaryOperator function) {
+		return new DoubleToDouble() {
+			public double applyDouble(double input) {
+				return function.applyAsDouble(input);
+			}
+		};
+	}
+	
+	/**
+	 * Create a {@link DoubleToBoolean} function from the given predicate.
+	 */
+	public static DoubleToBoolean doubleToBoolean(final DoublePredicate function) {
+		return new DoubleToBoolean() {
+			public boolean applyBoolean(double input) {
+				return function.test(input);
+			}
+		};
+	}
+	
+	/**
+	 * Create an {@link IntToDouble} function from the given function.
+	 */
+	public static IntToDouble intToDouble(final IntToDoubleFunction function) {
+		return new IntToDouble() {
+			public double applyDouble(int input) {
+				return function.applyAsDouble(input);
+			}
+		};
+	}
+	
+	/**
+	 * Create an {@link IntToInt} function from the given operator.
+	 */
+	public static IntToInt intToInt(final IntUnaryOperator function) {
+		return new IntToInt() {
+			public int applyInt(int input) {
+				return function.applyAsInt(input);
+			}
+		};
+	}
+	
+	/**
+	 * Create a {@link LongToDouble} function from the given function.
+	 */
+	public static LongToDouble longToDouble(final LongToDoubleFunction function) {
+		return new LongToDouble() {
+			public double applyDouble(long input) {
+				return function.applyAsDouble(input);
+			}
+		};
+	}
+	
+	/**
+	 * Create a {@link LongToLong} function from the given operator.
+	 */
+	public static LongToLong longToLong(final LongUnaryOperator function) {
+		return new LongToLong() {
+			public long applyLong(long input) {
+				return function.applyAsLong(input);
+			}
+		};
+	}
+	
+	
+	/**
+	 * A function from a double (or any numeric value) to a double. 
+	 * Sub-classes must implement {@link #applyDouble(double)}.
+	 */
+	public static abstract class DoubleToDouble extends Function<Number, Double> {
+		public abstract double applyDouble(double input);
+		
+		public Double apply(Number input) {
+			return applyDouble(input.doubleValue());
+		}
+		public Double apply(float input) {
+			return applyDouble(input);
+		}
+		public Double apply(double input) {
+			return applyDouble(input);
+		}
+		public Double apply(int input) {
+			return applyDouble(input);
+		}
+		public Double apply(long input) {
+			return applyDouble(input);
+		}
+	}
+	
+	/**
+	 * A function from a double (or any numeric value) to a boolean. 
+	 * Sub-classes must implement {@link #applyBoolean(double)}.
+	 */
+	public static abstract class DoubleToBoolean extends Function<Number, Boolean> {
+		public abstract boolean applyBoolean(double input);
+		
+		public Boolean apply(Number input) {
+			return applyBoolean(input.doubleValue());
+		}
+		public Boolean apply(float input) {
+			return applyBoolean(input);
+		}
+		public Boolean apply(double input) {
+			return applyBoolean(input);
+		}
+		public Boolean apply(int input) {
+			return applyBoolean(input);
+		}
+		public Boolean apply(long input) {
+			return applyBoolean(input);
+		}
+	}
+	
+	/**
+	 * A function from an int to a double. Sub-classes must implement {@link #applyDouble(int)}.
+	 */
+	public static abstract class IntToDouble extends Function<Integer, Double> {
+		public abstract double applyDouble(int input);
+		
+		public Double apply(Integer input) {
+			return applyDouble(input);
+		}
+		public Double apply(int input) {
+			return applyDouble(input);
+		}
+	}
+	
+	/**
+	 * A function from an int to an int. Sub-classes must implement {@link #applyInt(int)}.
+	 */
+	public static abstract class IntToInt extends Function<Integer, Integer> {
+		public abstract int applyInt(int input);
+		
+		public Integer apply(Integer input) {
+			return applyInt(input);
+		}
+		public Integer apply(int input) {
+			return applyInt(input);
+		}
+	}
+	
+	/**
+	 * A function from a long (or int) to a double. Sub-classes must implement {@link #applyDouble(long)}.
+	 */
+	public static abstract class LongToDouble extends Function<Number, Double> {
+		public abstract double applyDouble(long input);
+		
+		public Double apply(Number input) {
+			return applyDouble(input.longValue());
+		}
+		public Double apply(int input) {
+			return applyDouble(input);
+		}
+		public Double apply(long input) {
+			return applyDouble(input);
+		}
+	}
+	
+	/**
+	 * A function from a long (or int) to a long. Sub-classes must implement {@link #applyLong(long)}.
+	 */
+	public static abstract class LongToLong extends Function<Number, Long> {
+		public abstract long applyLong(long input);
+		
+		public Long apply(Number input) {
+			return applyLong(input.longValue());
+		}
+		public Long apply(int input) {
+			return applyLong(input);
+		}
+		public Long apply(long input) {
+			return applyLong(input);
+		}
+	}
 }
@@ -0,0 +1,230 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hivis.data.DataSeries;
+import hivis.data.DataTable;
+import hivis.data.view.CalcValue.SeriesOp;
+
+/**
+ * Calculates statistics ({@link SeriesOp}s) for each group of a
+ * {@link GroupIndex} over numeric series. Each series is scanned once,
+ * accumulating the requested statistics for all groups into primitive arrays
+ * indexed by group, without creating a view of each group. Statistics are
+ * calculated as for the corresponding methods in {@link DataSeries} (for
+ * example {@link DataSeries#variance()} gives the population variance, and
+ * {@link DataSeries#min()} is NaN if any value is NaN). For series storing
+ * integer values the minimum, maximum, sum and product are accumulated as long
+ * values, so that they are exact (before conversion to double) as for the
+ * corresponding methods in {@link DataSeries}, and overflow wraps around as it
+ * would for repeated addition or multiplication of values of the series type.
+ *
+ * @author O. J. Coleman
+ */
+public final class GroupAggregate {
+	private GroupAggregate() {
+	}
+
+
+	/**
+	 * Calculate the given statistics for each group over the values of the
+	 * given numeric series, in a single scan of the series.
+	 *
+	 * @param groups The grouping of the elements of the series. The length of
+	 *            the grouping must match the length of the series.
+	 * @param series The series to aggregate.
+	 * @param ops The statistics to calculate.
+	 * @return A map from each of the given statistics to an array containing
+	 *         the statistic for each group, indexed by group.
+	 */
+	public static Map<SeriesOp, double[]> aggregate(GroupIndex<?> groups, DataSeries<?> series, SeriesOp... ops) {
+		if (!series.isNumeric()) {
+			throw new IllegalArgumentException("Can not aggregate non-numeric series.");
+		}
+		if (series.length() != groups.length()) {
+			throw new IllegalArgumentException("The length of the series (" + series.length() + ") does not match the length of the grouping (" + groups.length() + ").");
+		}
+
+		int groupCount = groups.groupCount();
+		int[] groupIds = groups.getGroupIds();
+		int length = groups.length();
+		Class<?> type = series.getType();
+		boolean integral = type != null && (type.equals(Integer.class) || type.equals(Long.class) || type.equals(Short.class) || type.equals(Byte.class));
+		boolean intType = integral && !type.equals(Long.class);
+
+		boolean doMin = false, doMax = false, doSum = false, doProduct = false, doVariance = false;
+		for (SeriesOp op : ops) {
+			switch (op) {
+			case MINIMUM: doMin = true; break;
+			case MAXIMUM: doMax = true; break;
+			case SUM: case MEAN: doSum = true; break;
+			case PRODUCT: doProduct = true; break;
+			case VARIANCE: case STANDARD_DEVIATION: doVariance = true; break;
+			}
+		}
+
+		double[] min = null, max = null, sum = null, product = null, mean = null, m2 = null;
+		long[] longMin = null, longMax = null, longSum = null, longProduct = null;
+		int[] count = null;
+		if (doMin) {
+			if (integral) {
+				longMin = new long[groupCount];
+				Arrays.fill(longMin, Long.MAX_VALUE);
+			}
+			else {
+				min = new double[groupCount];
+				Arrays.fill(min, Double.POSITIVE_INFINITY);
+			}
+		}
+		if (doMax) {
+			if (integral) {
+				longMax = new long[groupCount];
+				Arrays.fill(longMax, Long.MIN_VALUE);
+			}
+			else {
+				max = new double[groupCount];
+				Arrays.fill(max, Double.NEGATIVE_INFINITY);
+			}
+		}
+		if (doSum) {
+			if (integral) {
+				longSum = new long[groupCount];
+			}
+			else {
+				sum = new double[groupCount];
+			}
+		}
+		if (doProduct) {
+			if (integral) {
+				longProduct = new long[groupCount];
+				Arrays.fill(longProduct, 1);
+			}
+			else {
+				product = new double[groupCount];
+				Arrays.fill(product, 1);
+			}
+		}
+		if (doVariance) {
+			// Running mean and sum of squared differences (Welford's method).
+			mean = new double[groupCount];
+			m2 = new double[groupCount];
+			count = new int[groupCount];
+		}
+
+		for (int i = 0; i < length; i++) {
+			int g = groupIds[i];
+			double v;
+			if (integral) {
+				long lv = series.getLong(i);
+				if (doMin) longMin[g] = Math.min(longMin[g], lv);
+				if (doMax) longMax[g] = Math.max(longMax[g], lv);
+				if (doSum) longSum[g] += lv;
+				if (doProduct) longProduct[g] *= lv;
+				v = lv;
+			}
+			else {
+				v = series.getDouble(i);
+				if (doMin) min[g] = Math.min(min[g], v);
+				if (doMax) max[g] = Math.max(max[g], v);
+				if (doSum) sum[g] += v;
+				if (doProduct) product[g] *= v;
+			}
+			if (doVariance) {
+				double delta = v - mean[g];
+				mean[g] += delta / ++count[g];
+				m2[g] += delta * (v - mean[g]);
+			}
+		}
+		if (integral) {
+			min = toDouble(longMin, intType);
+			max = toDouble(longMax, intType);
+			sum = toDouble(longSum, intType);
+			product = toDouble(longProduct, intType);
+		}
+
+		Map<SeriesOp, double[]> result = new EnumMap<>(SeriesOp.class);
+		for (SeriesOp op : ops) {
+			double[] values;
+			switch (op) {
+			case MINIMUM: values = min; break;
+			case MAXIMUM: values = max; break;
+			case SUM: values = sum; break;
+			case PRODUCT: values = product; break;
+			case MEAN:
+				values = new double[groupCount];
+				for (int g = 0; g < groupCount; g++) {
+					// The mean is calculated from the unwrapped sum.
+					values[g] = (integral ? (double) longSum[g] : sum[g]) / groups.getGroupSize(g);
+				}
+				break;
+			case VARIANCE:
+			case STANDARD_DEVIATION:
+				values = new double[groupCount];
+				for (int g = 0; g < groupCount; g++) {
+					double variance = m2[g] / count[g];
+					values[g] = op == SeriesOp.VARIANCE ? variance : Math.sqrt(variance);
+				}
+				break;
+			default:
+				throw new UnsupportedOperationException(op + " is not supported by " + GroupAggregate.class.getCanonicalName());
+			}
+			result.put(op, values);
+		}
+		return result;
+	}
+
+	/**
+	 * Convert the given long values to double, first wrapping them to int values if specified.
+	 */
+	private static double[] toDouble(long[] values, boolean toInt) {
+		if (values == null) {
+			return null;
+		}
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = toInt ? (int) values[i] : values[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Calculate the given statistics for each group over the values of each
+	 * numeric series in the given table, scanning each series once.
+	 *
+	 * @param groups The grouping of the rows of the table.
+	 * @param table The table to aggregate.
+	 * @param ops The statistics to calculate.
+	 * @return A map from the label of each numeric series in the table to the
+	 *         statistics for that series (see
+	 *         {@link #aggregate(GroupIndex, DataSeries, SeriesOp...)}).
+	 */
+	public static Map<String, Map<SeriesOp, double[]>> aggregate(GroupIndex<?> groups, DataTable table, SeriesOp... ops) {
+		Map<String, Map<SeriesOp, double[]>> result = new LinkedHashMap<>();
+		for (String label : table.getSeriesLabels()) {
+			DataSeries<?> series = table.get(label);
+			if (series.isNumeric()) {
+				result.put(label, aggregate(groups, series, ops));
+			}
+		}
+		return result;
+	}
+}
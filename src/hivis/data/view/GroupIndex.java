@@ -0,0 +1,273 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import hivis.data.DataSeries;
+
+/**
+ * <p>
+ * Assigns each element (row) of a series or table to a group, in a single
+ * pass over the group keys. Groups are numbered from 0 in the order in which
+ * they first appear. For each group the indices of its elements are available
+ * in ascending order (see {@link #getRows(int)}), and for each element the
+ * group it belongs to is available (see {@link #getGroupIds()}).
+ * </p>
+ * <p>
+ * When grouping by the values of a numeric series the values are hashed as
+ * primitives, so that key objects are only created for the first element of
+ * each group. Two numeric values are considered equal as for
+ * {@link Double#equals(Object)} etc.
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+public class GroupIndex<K> {
+	private final int length;
+	private final int[] groupIds;
+	private final List<K> keys = new ArrayList<>();
+	private Map<K, Integer> keyMap;
+
+	// Element indices for each group, stored contiguously: the indices for group g
+	// are rows[offsets[g]] to rows[offsets[g+1]-1].
+	private int[] offsets;
+	private int[] rows;
+
+
+	private GroupIndex(int length) {
+		this.length = length;
+		groupIds = new int[length];
+	}
+
+
+	/**
+	 * Group the elements of the given series by their value.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K> GroupIndex<K> byValue(DataSeries<?> series) {
+		int length = series.length();
+		GroupIndex<K> index = new GroupIndex<>(length);
+		Class<?> type = series.getType();
+
+		if (Double.class.equals(type) || Float.class.equals(type) || Integer.class.equals(type) || Long.class.equals(type)) {
+			LongIntHash hash = new LongIntHash();
+			boolean isDouble = Double.class.equals(type);
+			boolean isFloat = Float.class.equals(type);
+			boolean isInt = Integer.class.equals(type);
+			for (int i = 0; i < length; i++) {
+				long bits = isDouble ? Double.doubleToLongBits(series.getDouble(i)) :
+							isFloat ? Float.floatToIntBits(series.getFloat(i)) :
+							isInt ? series.getInt(i) : series.getLong(i);
+				int group = hash.putIfAbsent(bits, index.keys.size());
+				if (group == -1) {
+					group = index.keys.size();
+					index.keys.add((K) series.get(i));
+				}
+				index.groupIds[i] = group;
+			}
+		}
+		else {
+			index.assign(length, i -> (K) series.get(i));
+		}
+
+		index.buildRows();
+		return index;
+	}
+
+	/**
+	 * Group the elements with indices [0, length) according to the keys
+	 * produced by the given key function (which is given the element index).
+	 * Keys are compared with {@link Object#equals(Object)}.
+	 */
+	public static <K> GroupIndex<K> byKey(int length, IntFunction<K> keyFunction) {
+		GroupIndex<K> index = new GroupIndex<>(length);
+		index.assign(length, keyFunction);
+		index.buildRows();
+		return index;
+	}
+
+
+	private void assign(int length, IntFunction<K> keyFunction) {
+		keyMap = new HashMap<>();
+		for (int i = 0; i < length; i++) {
+			K key = keyFunction.apply(i);
+			Integer group = keyMap.get(key);
+			if (group == null) {
+				group = keys.size();
+				keyMap.put(key, group);
+				keys.add(key);
+			}
+			groupIds[i] = group;
+		}
+	}
+
+	/**
+	 * Build the lists of element indices for each group (with a counting sort
+	 * of the element indices by group).
+	 */
+	private void buildRows() {
+		int groupCount = keys.size();
+		offsets = new int[groupCount + 1];
+		for (int i = 0; i < length; i++) {
+			offsets[groupIds[i] + 1]++;
+		}
+		for (int g = 0; g < groupCount; g++) {
+			offsets[g + 1] += offsets[g];
+		}
+		rows = new int[length];
+		int[] next = Arrays.copyOf(offsets, groupCount);
+		for (int i = 0; i < length; i++) {
+			rows[next[groupIds[i]]++] = i;
+		}
+	}
+
+
+	/**
+	 * Get the number of elements that were grouped.
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Get the number of groups.
+	 */
+	public int groupCount() {
+		return keys.size();
+	}
+
+	/**
+	 * Get the key for the given group.
+	 */
+	public K getKey(int group) {
+		return keys.get(group);
+	}
+
+	/**
+	 * Get the keys for all groups, in order of group index.
+	 */
+	public List<K> getKeys() {
+		return Collections.unmodifiableList(keys);
+	}
+
+	/**
+	 * Get the index of the group with the given key, or -1 if there is no such group.
+	 */
+	public int getGroup(K key) {
+		if (keyMap == null) {
+			keyMap = new HashMap<>();
+			for (int g = 0; g < keys.size(); g++) {
+				keyMap.put(keys.get(g), g);
+			}
+		}
+		Integer group = keyMap.get(key);
+		return group == null ? -1 : group;
+	}
+
+	/**
+	 * Get the group index for each element. <strong>The returned array should not be modified.</strong>
+	 */
+	public int[] getGroupIds() {
+		return groupIds;
+	}
+
+	/**
+	 * Get the number of elements in the given group.
+	 */
+	public int getGroupSize(int group) {
+		return offsets[group + 1] - offsets[group];
+	}
+
+	/**
+	 * Get the index of the first element in the given group.
+	 */
+	public int getFirstRow(int group) {
+		return rows[offsets[group]];
+	}
+
+	/**
+	 * Get the indices of the elements in the given group, in ascending order.
+	 */
+	public int[] getRows(int group) {
+		return Arrays.copyOfRange(rows, offsets[group], offsets[group + 1]);
+	}
+
+
+	/**
+	 * Minimal open-addressing hash map from long keys to non-negative int values.
+	 */
+	private static class LongIntHash {
+		private long[] keys = new long[16];
+		private int[] values = new int[16];
+		private int size;
+
+		LongIntHash() {
+			Arrays.fill(values, -1);
+		}
+
+		/**
+		 * If the key is present return its value, otherwise add it with the given value and return -1.
+		 */
+		int putIfAbsent(long key, int value) {
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while (values[i] != -1) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+			if (++size * 2 > keys.length) {
+				grow();
+			}
+			return -1;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			Arrays.fill(values, -1);
+			int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldValues[j] != -1) {
+					int i = hash(oldKeys[j]) & mask;
+					while (values[i] != -1) {
+						i = (i + 1) & mask;
+					}
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+			}
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+	}
+}
@@ -16,11 +16,17 @@
 package hivis.data.view;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import hivis.data.DataEvent;
 import hivis.data.DataSeries;
+import hivis.data.DataSeriesChange;
+import hivis.data.IndexRanges;
+import hivis.data.WindowShift;
 
 /**
  * <p>
@@ -43,6 +49,15 @@ import hivis.data.DataSeries;
  * series.
  * </p>
  * <p>
+ * When values are only appended to or changed in the input series the
+ * grouping is updated incrementally: an appended value is appended to its
+ * group, and a changed value is updated in or moved between (at most) two
+ * groups. When values are evicted from the head of the input series (see
+ * {@link WindowShift}) they are removed from the head of their groups. The
+ * grouping is rebuilt if other values are removed or most of the values are
+ * changed.
+ * </p>
+ * <p>
  * The series returned by {@link #get(Object)} and {@link #values()} will be
  * emptied (set to length 0) if the group size becomes zero (and calls to
  * {@link #get(Object)} for groups that do not yet exist will create empty
@@ -70,6 +85,23 @@ public class GroupedSeries<K, V> extends CalcMap<K, SeriesView<V>, DataSeries<V>
 	 */
 	protected Map<K, SeriesView<V>> allGroupsUnmod = new HashMap<>();
 	
+	/**
+	 * The key for each value in the input series, starting at {@link #rowOffset}.
+	 */
+	private List<K> rowKeys = new ArrayList<>();
+	
+	/**
+	 * The number of keys at the start of {@link #rowKeys} for values that have 
+	 * been evicted from the head of the input series. The indices in 
+	 * {@link #groupIndices} are offset by the same amount.
+	 */
+	private int rowOffset;
+	
+	/**
+	 * The (ascending) input indices, plus {@link #rowOffset}, of the values in each current group.
+	 */
+	private Map<K, IndexList> groupIndices = new HashMap<>();
+	
 	public GroupedSeries(DataSeries<V> input) {
 		super(input);
 		keyFunction = new Function<V, K>() {
@@ -96,24 +128,210 @@ public class GroupedSeries<K, V> extends CalcMap<K, SeriesView<V>, DataSeries<V>
 	}
 	
 	@Override
-	public void update() {
-		// Build a new grouping.
-		Map<K, List<V>> newGroups = new HashMap<>();
+	public void update(DataEvent cause) {
+		int evicted = getEvicted(cause);
+		if (evicted >= 0) {
+			this.beginChanges(this);
+			evict(evicted);
+			appendValues();
+			this.finishChanges(this);
+			return;
+		}
+		
+		IndexRanges changed = getIncrementalChanges(cause);
+		if (changed == null) {
+			super.update(cause);
+			return;
+		}
 		
-		for (V value : input) {
+		this.beginChanges(this);
+		// Move changed values between groups as necessary.
+		for (int r = 0; r < changed.size(); r++) {
+			for (int i = changed.start(r); i < changed.end(r); i++) {
+				updateValue(i);
+			}
+		}
+		appendValues();
+		this.finishChanges(this);
+	}
+	
+	/**
+	 * Get the number of input values in the grouping.
+	 */
+	private int rowCount() {
+		return rowKeys.size() - rowOffset;
+	}
+	
+	/**
+	 * Add values appended to the input series to their groups.
+	 */
+	private void appendValues() {
+		for (int i = rowCount(); i < input.length(); i++) {
+			V value = input.get(i);
 			K key = keyFunction.apply(value);
-			
-			List<V> group = null;
-			if (newGroups.containsKey(key)) {
-				group = newGroups.get(key);
+			rowKeys.add(key);
+			IndexList indices = getGroupIndices(key);
+			indices.add(i + rowOffset);
+			allGroups.get(key).append(value);
+		}
+	}
+	
+	/**
+	 * Determine whether the given change in the input series only evicts values 
+	 * from the head and/or appends values (see {@link WindowShift}), in which case 
+	 * the grouping can be updated by removing the evicted values from the head of 
+	 * their groups. Returns the number of values to evict, or -1 if the change 
+	 * is not a shift.
+	 */
+	private int getEvicted(DataEvent cause) {
+		if (recalc || cache == null || cause == null || cause.affected != input) {
+			return -1;
+		}
+		WindowShift shift = WindowShift.combined(cause);
+		if (shift == null) {
+			return -1;
+		}
+		// Values both appended and evicted since the last update were never grouped.
+		int evicted = Math.min(shift.evicted(), rowCount());
+		int retained = rowCount() - evicted;
+		if (input.length() < retained || input.length() - retained > shift.appended()) {
+			return -1;
+		}
+		return evicted;
+	}
+	
+	/**
+	 * Remove the given number of values at the head of the input series from their groups.
+	 */
+	private void evict(int count) {
+		for (int i = 0; i < count; i++) {
+			K key = rowKeys.get(rowOffset + i);
+			IndexList indices = groupIndices.get(key);
+			// The evicted value has the smallest index so is at the head of its group.
+			indices.removeFirst();
+			allGroups.get(key).remove(0);
+			if (indices.size() == 0) {
+				groupIndices.remove(key);
+				cache.remove(key);
 			}
-			else {
-				group = new ArrayList<>();
-				newGroups.put(key, group);
+		}
+		rowOffset += count;
+		// Discard the keys for evicted values once they make up most of the list.
+		if (rowOffset > rowKeys.size() / 2) {
+			rowKeys.subList(0, rowOffset).clear();
+			for (IndexList indices : groupIndices.values()) {
+				indices.rebase(rowOffset);
+			}
+			rowOffset = 0;
+		}
+	}
+	
+	/**
+	 * Determine whether the grouping can be updated incrementally in response
+	 * to the given change in the input series, that is if the change only
+	 * modifies and/or appends values (and not too many values are modified).
+	 * Returns the ranges of (previously existing) indices whose values may
+	 * have changed, or null if the grouping must be rebuilt.
+	 */
+	private IndexRanges getIncrementalChanges(DataEvent cause) {
+		if (recalc || cache == null || cause == null || cause.affected != input || 
+				cause.getAffectedRanges() == null || cause.isType(DataSeriesChange.ValuesRemoved)) {
+			return null;
+		}
+		for (Object type : cause.getTypes()) {
+			if (type != DataSeriesChange.ValuesChanged && type != DataSeriesChange.ValuesAdded) {
+				return null;
 			}
+		}
+		int previousLength = rowCount();
+		if (input.length() < previousLength) {
+			return null;
+		}
+		IndexRanges affected = cause.getAffectedRanges();
+		IndexRanges changed = new IndexRanges();
+		for (int r = 0; r < affected.size() && affected.start(r) < previousLength; r++) {
+			changed.add(affected.start(r), Math.min(affected.end(r), previousLength));
+		}
+		// Rebuilding is cheaper if most of the values have changed.
+		if (changed.indexCount() > previousLength / 2) {
+			return null;
+		}
+		return changed;
+	}
+	
+	/**
+	 * Update the group containing the (possibly changed) value at the given index.
+	 */
+	private void updateValue(int index) {
+		V value = input.get(index);
+		K key = keyFunction.apply(value);
+		K oldKey = rowKeys.get(rowOffset + index);
+		IndexList oldIndices = groupIndices.get(oldKey);
+		int oldPosition = oldIndices.indexOf(rowOffset + index);
+		
+		if (Objects.equals(key, oldKey)) {
+			// Produces a change event iff the value is not equal.
+			allGroups.get(key).set(oldPosition, value);
+			return;
+		}
+		
+		// Remove from the old group.
+		oldIndices.remove(oldPosition);
+		allGroups.get(oldKey).remove(oldPosition);
+		if (oldIndices.size() == 0) {
+			groupIndices.remove(oldKey);
+			cache.remove(oldKey);
+		}
+		
+		// Insert into the new group, maintaining the order of the values.
+		IndexList indices = getGroupIndices(key);
+		int position = indices.insert(rowOffset + index);
+		DataSeries<V> group = allGroups.get(key);
+		group.beginChanges(this);
+		int length = group.length();
+		group.resize(length + 1);
+		for (int j = length; j > position; j--) {
+			group.set(j, group.get(j - 1));
+		}
+		group.set(position, value);
+		group.finishChanges(this);
+		
+		rowKeys.set(rowOffset + index, key);
+	}
+	
+	/**
+	 * Get the list of input indices for the group with the given key, creating 
+	 * the group if it does not currently exist.
+	 */
+	private IndexList getGroupIndices(K key) {
+		IndexList indices = groupIndices.get(key);
+		if (indices == null) {
+			indices = new IndexList();
+			groupIndices.put(key, indices);
+			cache.put(key, get(key));
+		}
+		return indices;
+	}
+	
+	@Override
+	public void update() {
+		// Build a new grouping.
+		rowKeys.clear();
+		rowOffset = 0;
+		Map<K, IndexList> newGroups = new HashMap<>();
+		int length = input.length();
+		for (int i = 0; i < length; i++) {
+			K key = keyFunction.apply(input.get(i));
+			rowKeys.add(key);
 			
-			group.add(value);
+			IndexList group = newGroups.get(key);
+			if (group == null) {
+				group = new IndexList();
+				newGroups.put(key, group);
+			}
+			group.add(i);
 		}
+		groupIndices = newGroups;
 				
 		// First, remove groups that no longer exist.
 		for (K key : cache.keys().asArray()) {
@@ -127,7 +345,7 @@ public class GroupedSeries<K, V> extends CalcMap<K, SeriesView<V>, DataSeries<V>
 		
 		// Second, update or add existing groups.
 		for (K key : newGroups.keySet()) {
-			List<V> newValues = newGroups.get(key);
+			IndexList newIndices = newGroups.get(key);
 			
 			if (cache.containsKey(key)) {
 				DataSeries<V> existingSeries = allGroups.get(key);
@@ -136,16 +354,21 @@ public class GroupedSeries<K, V> extends CalcMap<K, SeriesView<V>, DataSeries<V>
 				existingSeries.beginChanges(this);
 				
 				// If the new series is smaller/bigger then resize will trigger the values removed/added change event.
-				existingSeries.resize(newValues.size());
+				existingSeries.resize(newIndices.size());
 				
 				// Setting each value will produce change events iff the values are not equal.
-				for (int i = 0; i < newValues.size(); i++) {
-					existingSeries.set(i, newValues.get(i));
+				for (int i = 0; i < newIndices.size(); i++) {
+					existingSeries.set(i, input.get(newIndices.get(i)));
 				}
 				
 				existingSeries.finishChanges(this);
 			}
 			else {
+				List<V> newValues = new ArrayList<>(newIndices.size());
+				for (int i = 0; i < newIndices.size(); i++) {
+					newValues.add(input.get(newIndices.get(i)));
+				}
+				
 				DataSeries<V> newSeries;
 				
 				if (allGroups.containsKey(key)) {
@@ -164,4 +387,69 @@ public class GroupedSeries<K, V> extends CalcMap<K, SeriesView<V>, DataSeries<V>
 			}
 		}
 	}
+	
+	
+	/**
+	 * Ascending list of the input indices of the values in a group. The list 
+	 * starts at {@link #first} in the array so that the first index can be 
+	 * removed in constant time.
+	 */
+	private static class IndexList {
+		private int[] indices = new int[4];
+		private int first, size;
+		
+		int size() {
+			return size;
+		}
+		
+		int get(int position) {
+			return indices[first + position];
+		}
+		
+		void add(int index) {
+			if (first + size == indices.length) {
+				// Grow the array, or reclaim the space before the first index if it's at least half the array.
+				int[] array = size < indices.length / 2 ? indices : new int[indices.length * 2];
+				System.arraycopy(indices, first, array, 0, size);
+				indices = array;
+				first = 0;
+			}
+			indices[first + size++] = index;
+		}
+		
+		/**
+		 * Insert the given index in order, returning its position.
+		 */
+		int insert(int index) {
+			int position = -Arrays.binarySearch(indices, first, first + size, index) - 1 - first;
+			add(index);
+			System.arraycopy(indices, first + position, indices, first + position + 1, size - 1 - position);
+			indices[first + position] = index;
+			return position;
+		}
+		
+		int indexOf(int index) {
+			int i = Arrays.binarySearch(indices, first, first + size, index);
+			return i < 0 ? i : i - first;
+		}
+		
+		void remove(int position) {
+			System.arraycopy(indices, first + position + 1, indices, first + position, size - 1 - position);
+			size--;
+		}
+		
+		void removeFirst() {
+			first++;
+			size--;
+		}
+		
+		/**
+		 * Subtract the given offset from all indices.
+		 */
+		void rebase(int offset) {
+			for (int i = first; i < first + size; i++) {
+				indices[i] -= offset;
+			}
+		}
+	}
 }
@@ -15,9 +15,12 @@
  */
 package hivis.data.view;
 
+import java.util.List;
+
 import hivis.data.AggregateFunction;
 import hivis.data.DataMap;
 import hivis.data.DataTable;
+import hivis.data.view.CalcValue.SeriesOp;
 
 /**
  * <p>
@@ -72,6 +75,26 @@ public interface GroupedTable<K> extends DataMap<K, TableView> {
 	 */
 	TableView aggregate(AggregateFunction function);
 
+	/**
+	 * <p>
+	 * Creates views of the table groups in which each group table is
+	 * aggregated into a single row using each of the specified statistics
+	 * (see {@link #aggregateMin()} etc). For non-numeric series the first
+	 * value of the series in each group table is used.
+	 * </p>
+	 * <p>
+	 * The statistics are calculated directly from the input table, in a single
+	 * pass over each numeric series for all the specified statistics, rather
+	 * than from each group table.
+	 * </p>
+	 * 
+	 * @param ops
+	 *            The statistics to aggregate with.
+	 * @return The aggregated view for each of the given statistics, in the
+	 *         same order.
+	 */
+	List<TableView> aggregate(SeriesOp... ops);
+
 	/**
 	 * Convenience aggregation method (see {@link #aggregate(AggregateFunction)}
 	 * . The aggregation function returns the minimum value of each series in a
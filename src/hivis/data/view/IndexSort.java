@@ -0,0 +1,223 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility methods to determine the sort order (permutation) of a set of
+ * values without moving or boxing the values themselves. The order is given as
+ * an array of indices such that the value at index <code>order[i]</code> is the
+ * i<sup>th</sup> value in sorted order. All sorts are stable (equal values
+ * retain their relative order). Sorts may optionally be performed in parallel
+ * (using the common {@link ForkJoinPool}).
+ *
+ * @author O. J. Coleman
+ */
+public final class IndexSort {
+	/**
+	 * The default minimum number of values for which sorting is performed in
+	 * parallel, where parallel sorting is enabled.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+	// Sub-ranges smaller than this are sorted with insertion sort.
+	private static final int INSERTION_SORT_THRESHOLD = 8;
+	// Sub-ranges smaller than this are not split into parallel tasks.
+	private static final int PARALLEL_GRAIN = 1 << 13;
+	// The number of sorts that have been performed in parallel (for testing).
+	static final AtomicInteger parallelSortCount = new AtomicInteger();
+
+
+	/**
+	 * Compares two values, specified by their indices.
+	 */
+	public interface IndexComparator {
+		/**
+		 * Compare the values at the two given indices, returning a negative
+		 * integer, zero, or a positive integer as the first value is less than,
+		 * equal to, or greater than the second.
+		 */
+		public int compare(int index1, int index2);
+	}
+
+
+	private IndexSort() {
+	}
+
+
+	/**
+	 * Get the ascending sort order of the first <code>length</code> values in
+	 * the given array. Values are ordered as by {@link Double#compare(double, double)}
+	 * (NaN values are placed last).
+	 *
+	 * @param parallel Whether to sort in parallel.
+	 */
+	public static int[] order(final double[] values, int length, boolean parallel) {
+		return order(length, (i1, i2) -> Double.compare(values[i1], values[i2]), parallel);
+	}
+
+	/**
+	 * Get the ascending sort order of the first <code>length</code> values in
+	 * the given array. Values are ordered as by {@link Float#compare(float, float)}
+	 * (NaN values are placed last).
+	 *
+	 * @param parallel Whether to sort in parallel.
+	 */
+	public static int[] order(final float[] values, int length, boolean parallel) {
+		return order(length, (i1, i2) -> Float.compare(values[i1], values[i2]), parallel);
+	}
+
+	/**
+	 * Get the ascending sort order of the first <code>length</code> values in the given array.
+	 *
+	 * @param parallel Whether to sort in parallel.
+	 */
+	public static int[] order(final int[] values, int length, boolean parallel) {
+		return order(length, (i1, i2) -> Integer.compare(values[i1], values[i2]), parallel);
+	}
+
+	/**
+	 * Get the ascending sort order of the first <code>length</code> values in the given array.
+	 *
+	 * @param parallel Whether to sort in parallel.
+	 */
+	public static int[] order(final long[] values, int length, boolean parallel) {
+		return order(length, (i1, i2) -> Long.compare(values[i1], values[i2]), parallel);
+	}
+
+	/**
+	 * Get the sort order of the values at indices [0, length) as determined by
+	 * the given comparator.
+	 *
+	 * @param parallel Whether to sort in parallel.
+	 */
+	public static int[] order(int length, IndexComparator comparator, boolean parallel) {
+		int[] order = new int[length];
+		for (int i = 0; i < length; i++) {
+			order[i] = i;
+		}
+		sort(order, 0, length, comparator, parallel);
+		return order;
+	}
+
+	/**
+	 * Sort (stably) the given range of the given array of indices according to
+	 * the given comparator.
+	 *
+	 * @param indices The indices to sort.
+	 * @param fromIndex The start of the range to sort (inclusive).
+	 * @param toIndex The end of the range to sort (exclusive).
+	 * @param comparator Comparator for the values referenced by the indices.
+	 * @param parallel Whether to sort in parallel.
+	 */
+	public static void sort(int[] indices, int fromIndex, int toIndex, IndexComparator comparator, boolean parallel) {
+		if (fromIndex < 0 || toIndex > indices.length || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + ", " + toIndex + ") for array of length " + indices.length);
+		}
+		if (toIndex - fromIndex < 2) {
+			return;
+		}
+		int[] aux = indices.clone();
+		if (parallel && toIndex - fromIndex >= PARALLEL_GRAIN * 2) {
+			parallelSortCount.incrementAndGet();
+			ForkJoinPool.commonPool().invoke(new SortTask(aux, indices, fromIndex, toIndex, comparator));
+		}
+		else {
+			mergeSort(aux, indices, fromIndex, toIndex, comparator);
+		}
+	}
+
+
+	/**
+	 * Sort src[low, high) into dest[low, high). Both arrays must initially
+	 * contain the same values in the range (the roles of the arrays are swapped
+	 * at each level of recursion).
+	 */
+	private static void mergeSort(int[] src, int[] dest, int low, int high, IndexComparator c) {
+		int length = high - low;
+		if (length < INSERTION_SORT_THRESHOLD) {
+			insertionSort(dest, low, high, c);
+			return;
+		}
+		int mid = (low + high) >>> 1;
+		mergeSort(dest, src, low, mid, c);
+		mergeSort(dest, src, mid, high, c);
+		merge(src, dest, low, mid, high, c);
+	}
+
+	private static void insertionSort(int[] a, int low, int high, IndexComparator c) {
+		for (int i = low + 1; i < high; i++) {
+			int v = a[i];
+			int j = i;
+			while (j > low && c.compare(a[j - 1], v) > 0) {
+				a[j] = a[j - 1];
+				j--;
+			}
+			a[j] = v;
+		}
+	}
+
+	/**
+	 * Merge the sorted ranges src[low, mid) and src[mid, high) into dest[low, high).
+	 */
+	private static void merge(int[] src, int[] dest, int low, int mid, int high, IndexComparator c) {
+		// If the ranges are already in order just copy them.
+		if (c.compare(src[mid - 1], src[mid]) <= 0) {
+			System.arraycopy(src, low, dest, low, high - low);
+			return;
+		}
+		for (int i = low, p = low, q = mid; i < high; i++) {
+			if (q >= high || p < mid && c.compare(src[p], src[q]) <= 0) {
+				dest[i] = src[p++];
+			}
+			else {
+				dest[i] = src[q++];
+			}
+		}
+	}
+
+
+	private static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final int[] src, dest;
+		final int low, high;
+		final IndexComparator comparator;
+
+		SortTask(int[] src, int[] dest, int low, int high, IndexComparator comparator) {
+			this.src = src;
+			this.dest = dest;
+			this.low = low;
+			this.high = high;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low < PARALLEL_GRAIN) {
+				mergeSort(src, dest, low, high, comparator);
+				return;
+			}
+			int mid = (low + high) >>> 1;
+			invokeAll(new SortTask(dest, src, low, mid, comparator), new SortTask(dest, src, mid, high, comparator));
+			merge(src, dest, low, mid, high, comparator);
+		}
+	}
+}
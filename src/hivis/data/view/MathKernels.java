@@ -0,0 +1,112 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Registry of primitive implementations of the single argument methods in
+ * {@link Math}, used by {@link CalcSeries.Maths} to avoid calling the methods
+ * via reflection (which boxes the argument and result for every value).
+ * Kernels are keyed by the {@link Method} they implement. Methods taking a
+ * float argument are implemented as {@link DoubleUnaryOperator} or
+ * {@link DoubleToIntFunction} whose argument is the (exactly widened) float
+ * value.
+ *
+ * @author O. J. Coleman
+ */
+final class MathKernels {
+	private static final Map<String, Object> kernels = new HashMap<>();
+
+	static {
+		put("abs", double.class, (DoubleUnaryOperator) Math::abs);
+		put("acos", double.class, (DoubleUnaryOperator) Math::acos);
+		put("asin", double.class, (DoubleUnaryOperator) Math::asin);
+		put("atan", double.class, (DoubleUnaryOperator) Math::atan);
+		put("cbrt", double.class, (DoubleUnaryOperator) Math::cbrt);
+		put("ceil", double.class, (DoubleUnaryOperator) Math::ceil);
+		put("cos", double.class, (DoubleUnaryOperator) Math::cos);
+		put("cosh", double.class, (DoubleUnaryOperator) Math::cosh);
+		put("exp", double.class, (DoubleUnaryOperator) Math::exp);
+		put("expm1", double.class, (DoubleUnaryOperator) Math::expm1);
+		put("floor", double.class, (DoubleUnaryOperator) Math::floor);
+		put("log", double.class, (DoubleUnaryOperator) Math::log);
+		put("log10", double.class, (DoubleUnaryOperator) Math::log10);
+		put("log1p", double.class, (DoubleUnaryOperator) Math::log1p);
+		put("nextDown", double.class, (DoubleUnaryOperator) Math::nextDown);
+		put("nextUp", double.class, (DoubleUnaryOperator) Math::nextUp);
+		put("rint", double.class, (DoubleUnaryOperator) Math::rint);
+		put("signum", double.class, (DoubleUnaryOperator) Math::signum);
+		put("sin", double.class, (DoubleUnaryOperator) Math::sin);
+		put("sinh", double.class, (DoubleUnaryOperator) Math::sinh);
+		put("sqrt", double.class, (DoubleUnaryOperator) Math::sqrt);
+		put("tan", double.class, (DoubleUnaryOperator) Math::tan);
+		put("tanh", double.class, (DoubleUnaryOperator) Math::tanh);
+		put("toDegrees", double.class, (DoubleUnaryOperator) Math::toDegrees);
+		put("toRadians", double.class, (DoubleUnaryOperator) Math::toRadians);
+		put("ulp", double.class, (DoubleUnaryOperator) Math::ulp);
+		put("getExponent", double.class, (DoubleToIntFunction) Math::getExponent);
+		put("round", double.class, (DoubleToLongFunction) Math::round);
+
+		put("abs", float.class, (DoubleUnaryOperator) v -> Math.abs((float) v));
+		put("nextDown", float.class, (DoubleUnaryOperator) v -> Math.nextDown((float) v));
+		put("nextUp", float.class, (DoubleUnaryOperator) v -> Math.nextUp((float) v));
+		put("signum", float.class, (DoubleUnaryOperator) v -> Math.signum((float) v));
+		put("ulp", float.class, (DoubleUnaryOperator) v -> Math.ulp((float) v));
+		put("getExponent", float.class, (DoubleToIntFunction) v -> Math.getExponent((float) v));
+		put("round", float.class, (DoubleToIntFunction) v -> Math.round((float) v));
+
+		put("abs", int.class, (IntUnaryOperator) Math::abs);
+		put("decrementExact", int.class, (IntUnaryOperator) Math::decrementExact);
+		put("incrementExact", int.class, (IntUnaryOperator) Math::incrementExact);
+		put("negateExact", int.class, (IntUnaryOperator) Math::negateExact);
+
+		put("abs", long.class, (LongUnaryOperator) Math::abs);
+		put("decrementExact", long.class, (LongUnaryOperator) Math::decrementExact);
+		put("incrementExact", long.class, (LongUnaryOperator) Math::incrementExact);
+		put("negateExact", long.class, (LongUnaryOperator) Math::negateExact);
+	}
+
+	private MathKernels() {
+	}
+
+	private static void put(String name, Class<?> argType, Object kernel) {
+		kernels.put(name + "(" + argType.getName() + ")", kernel);
+	}
+
+	/**
+	 * Get the primitive kernel implementing the given single argument Math
+	 * method, or null if there is none. The kernel will be a
+	 * {@link DoubleUnaryOperator}, {@link DoubleToIntFunction},
+	 * {@link DoubleToLongFunction}, {@link IntUnaryOperator} or
+	 * {@link LongUnaryOperator}, according to the argument and return type of
+	 * the method.
+	 */
+	static Object get(Method method) {
+		if (method.getParameterCount() != 1 || !method.getDeclaringClass().equals(Math.class)) {
+			return null;
+		}
+		return kernels.get(method.getName() + "(" + method.getParameterTypes()[0].getName() + ")");
+	}
+}
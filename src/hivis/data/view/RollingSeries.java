@@ -0,0 +1,491 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data.view;
+
+import hivis.data.AbstractRingDataSeries;
+import hivis.data.DataEvent;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesChange;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesDoubleRing;
+import hivis.data.IndexRanges;
+import hivis.data.WindowShift;
+import hivis.data.view.CalcValue.SeriesOp;
+
+/**
+ * <p>
+ * A view of a statistic (sum, mean, variance, standard deviation, minimum or
+ * maximum) of the values in a window that rolls along a numeric series: the
+ * value at each index is calculated from the input values in the window ending
+ * at (and including) that index. A window contains either a fixed number of
+ * values, or the values whose timestamps, given by a second series, are within
+ * a fixed duration of the timestamp at that index (see
+ * {@link DataSeries#rolling(int)} and
+ * {@link DataSeries#rolling(DataSeries, double)}). Windows at the start of the
+ * series contain the values available. NaN values are ignored. The variance is
+ * the population variance.
+ * </p>
+ * <p>
+ * Each value is calculated in amortised constant time: sums and moments are
+ * maintained with running (compensated) accumulators as values enter and
+ * leave the window, and minima and maxima with a monotonic deque of the
+ * candidate values. If removing a value from the window cancels most of the
+ * running variance (for example when a value much larger than the others
+ * leaves the window) then the moments are recalculated from the values in the
+ * window. When values are appended to the input series only the new values of
+ * this series are calculated. If the input series is a ring series (see
+ * {@link AbstractRingDataSeries}) then so is this series, and when values are
+ * evicted from the input (see {@link WindowShift}) the same number of values
+ * are evicted from this series and only the values whose windows contained the
+ * evicted values are recalculated (for windows of a fixed number of values).
+ * Other changes cause all values to be recalculated.
+ * </p>
+ * 
+ * @author O. J. Coleman
+ */
+public class RollingSeries extends CalcSeries.DoubleSeries<Object> {
+	// If removing a value leaves less than this fraction of m2 then the
+	// moments are recalculated from the values in the window.
+	private static final double CANCELLATION_RATIO = 1.0 / (1 << 20);
+
+	private final SeriesOp op;
+	private final DataSeries<?> values, times;
+	private final int size;
+	private final double duration;
+
+	// The state of the window ending at the last calculated index.
+	private Window window;
+	// The number of values calculated with the current window state.
+	private int processed;
+
+
+	/**
+	 * Create a view of the given statistic over windows of the given number of values.
+	 * 
+	 * @throws IllegalArgumentException if the size is less than 1 or the statistic is not supported.
+	 * @throws UnsupportedOperationException if the series is not numeric.
+	 */
+	public RollingSeries(DataSeries<?> values, int size, SeriesOp op) {
+		super(inputs(values));
+		checkArguments(values, null, size, 1);
+		checkOp(op);
+		this.op = op;
+		this.values = values;
+		this.times = null;
+		this.size = size;
+		this.duration = 0;
+	}
+
+	/**
+	 * Create a view of the given statistic over windows containing the values whose 
+	 * timestamps are greater than the timestamp at each index minus the given duration. 
+	 * The timestamps must be non-decreasing.
+	 * 
+	 * @param times The timestamp of each value, for example in milliseconds.
+	 * @throws IllegalArgumentException if the duration is not positive, the timestamps 
+	 *   are not numeric or the statistic is not supported.
+	 * @throws UnsupportedOperationException if the series is not numeric.
+	 */
+	public RollingSeries(DataSeries<?> values, DataSeries<?> times, double duration, SeriesOp op) {
+		super(inputs(values, times));
+		checkArguments(values, times, 1, duration);
+		checkOp(op);
+		this.op = op;
+		this.values = values;
+		this.times = times;
+		this.size = Integer.MAX_VALUE;
+		this.duration = duration;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static DataSeries<Object>[] inputs(DataSeries<?>... input) {
+		return (DataSeries<Object>[]) input;
+	}
+
+	static void checkArguments(DataSeries<?> values, DataSeries<?> times, int size, double duration) {
+		if (!values.isNumeric()) {
+			throw new UnsupportedOperationException("Cannot calculate rolling statistics of a non-numeric DataSeries.");
+		}
+		if (size < 1) {
+			throw new IllegalArgumentException("The window size must be at least 1, " + size + " given.");
+		}
+		if (!(duration > 0)) {
+			throw new IllegalArgumentException("The window duration must be positive, " + duration + " given.");
+		}
+		if (times != null && !times.isNumeric()) {
+			throw new IllegalArgumentException("The timestamp series must be numeric.");
+		}
+	}
+
+	private static void checkOp(SeriesOp op) {
+		if (op == SeriesOp.PRODUCT) {
+			throw new IllegalArgumentException("Rolling " + op.name().toLowerCase() + " is not supported.");
+		}
+	}
+
+
+	@Override
+	public int length() {
+		// May be called before the fields are set.
+		if (inputSeries.size() > 1) {
+			return Math.min(inputSeries.get(0).length(), inputSeries.get(1).length());
+		}
+		return inputSeries.get(0).length();
+	}
+
+	@Override
+	public DataSeries<Double> getNewSeries() {
+		DataSeries<?> input = inputSeries.get(0);
+		if (input instanceof AbstractRingDataSeries) {
+			return new DataSeriesDoubleRing(((AbstractRingDataSeries<?, ?>) input).getCapacity());
+		}
+		return super.getNewSeries();
+	}
+
+	@Override
+	public Double getEmptyValue() {
+		return Double.NaN;
+	}
+
+
+	@Override
+	public void update(DataEvent cause) {
+		if (!recalc && cause != null && window != null && cache.length() == processed) {
+			int length = length();
+			WindowShift shift = WindowShift.combined(cause);
+			if (shift != null ? shift.evicted() == 0 : isAppend(cause)) {
+				if (length >= processed) {
+					this.beginChanges(this);
+					append(length);
+					this.finishChanges(this);
+					return;
+				}
+			}
+			else if (shift != null && times == null && cache instanceof DataSeriesDoubleRing
+					&& shift.evicted() <= processed && length == processed - shift.evicted() + shift.appended()) {
+				shift(shift.evicted(), length);
+				return;
+			}
+		}
+		super.update(cause);
+	}
+
+	/**
+	 * Returns true iff the given event describes only values appended after the calculated values.
+	 */
+	private boolean isAppend(DataEvent cause) {
+		IndexRanges ranges = cause.getAffectedRanges();
+		if (ranges == null) {
+			return false;
+		}
+		for (Object type : cause.getTypes()) {
+			if (type != DataSeriesChange.ValuesAdded) {
+				return false;
+			}
+		}
+		for (int r = 0; r < ranges.size(); r++) {
+			if (ranges.start(r) < processed) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void update() {
+		int length = length();
+		double[] output = getBuffer(length);
+		window = new Window();
+		for (int i = 0; i < length; i++) {
+			output[i] = window.step(i);
+		}
+		processed = length;
+		setCache(output, length);
+	}
+
+	/**
+	 * Calculate the values from the last calculated index to the given length, continuing from the current window state.
+	 */
+	private void append(int length) {
+		int count = length - processed;
+		if (count == 0) {
+			return;
+		}
+		double[] output = getBuffer(count);
+		for (int i = processed; i < length; i++) {
+			output[i - processed] = window.step(i);
+		}
+		if (cache instanceof DataSeriesDouble) {
+			((DataSeriesDouble) cache).appendValues(output, 0, count);
+		}
+		else {
+			((DataSeriesDoubleRing) cache).appendValues(output, 0, count);
+		}
+		processed = length;
+	}
+
+	/**
+	 * Update the values after the given number of values were evicted from the head of the (ring) input series.
+	 */
+	private void shift(int evicted, int length) {
+		this.beginChanges(this);
+		window.rebase(evicted);
+		processed -= evicted;
+		((DataSeriesDoubleRing) cache).evict(evicted);
+
+		// Recalculate the remaining values whose windows contained evicted values.
+		Window head = new Window();
+		int end = Math.min(size - 1, processed);
+		for (int i = 0; i < end; i++) {
+			cache.setValue(i, head.step(i));
+		}
+
+		append(length);
+		this.finishChanges(this);
+	}
+
+
+	/**
+	 * The state of a window as it rolls along the input series.
+	 */
+	private class Window {
+		// The values (and timestamps) in the window, in circular buffers with a power of two length.
+		// The first value in the window is at index start in the input series.
+		private double[] entries = new double[16];
+		private double[] entryTimes = times == null ? null : new double[16];
+		private int first, count, start;
+
+		// Monotonic deque of the input indices of the candidates for the minimum or maximum.
+		private int[] deque = op == SeriesOp.MINIMUM || op == SeriesOp.MAXIMUM ? new int[16] : null;
+		private int dequeFirst, dequeCount;
+
+		// Accumulators for the finite values in the window.
+		private int finite, positiveInfinite, negativeInfinite;
+		// The sum is compensated (Neumaier), so that removing a large value doesn't lose the small values added with it.
+		// If removing a value cancels most of m2 then the moments are recalculated from the entries.
+		private double sum, compensation, mean, m2;
+		private boolean momentsStale;
+
+		/**
+		 * Add the value at the given index, which must follow the last added index, 
+		 * roll the window forward and return the statistic for the window.
+		 */
+		double step(int index) {
+			double v = values.getDouble(index);
+			if (count == entries.length) {
+				grow();
+			}
+			int mask = entries.length - 1;
+			entries[(first + count) & mask] = v;
+			if (times != null) {
+				entryTimes[(first + count) & mask] = times.getDouble(index);
+			}
+			count++;
+			add(v);
+			if (deque != null && !Double.isNaN(v)) {
+				int dmask = deque.length - 1;
+				while (dequeCount > 0 && dominates(v, valueAt(deque[(dequeFirst + dequeCount - 1) & dmask]))) {
+					dequeCount--;
+				}
+				deque[(dequeFirst + dequeCount) & dmask] = index;
+				dequeCount++;
+			}
+
+			if (times == null) {
+				while (count > size) {
+					removeFirst();
+				}
+			}
+			else {
+				double from = entryTimes[(first + count - 1) & mask] - duration;
+				while (count > 1 && entryTimes[first] <= from) {
+					removeFirst();
+				}
+			}
+			return value();
+		}
+
+		/**
+		 * Remove the values before the given index from the window, and renumber 
+		 * the indices so that the given index is the first.
+		 */
+		void rebase(int index) {
+			while (count > 0 && start < index) {
+				removeFirst();
+			}
+			start -= index;
+			if (deque != null) {
+				int dmask = deque.length - 1;
+				for (int d = 0; d < dequeCount; d++) {
+					deque[(dequeFirst + d) & dmask] -= index;
+				}
+			}
+		}
+
+		private boolean dominates(double v, double other) {
+			return op == SeriesOp.MINIMUM ? v <= other : v >= other;
+		}
+
+		private double valueAt(int index) {
+			return entries[(first + index - start) & (entries.length - 1)];
+		}
+
+		private void removeFirst() {
+			double v = entries[first];
+			if (deque != null && dequeCount > 0 && deque[dequeFirst] == start) {
+				dequeFirst = (dequeFirst + 1) & (deque.length - 1);
+				dequeCount--;
+			}
+			remove(v);
+			first = (first + 1) & (entries.length - 1);
+			count--;
+			start++;
+		}
+
+		private void grow() {
+			entries = unwrap(entries, first, count);
+			if (times != null) {
+				entryTimes = unwrap(entryTimes, first, count);
+			}
+			first = 0;
+			if (deque != null) {
+				int[] grown = new int[deque.length * 2];
+				for (int d = 0; d < dequeCount; d++) {
+					grown[d] = deque[(dequeFirst + d) & (deque.length - 1)];
+				}
+				deque = grown;
+				dequeFirst = 0;
+			}
+		}
+
+		private double[] unwrap(double[] array, int first, int count) {
+			double[] grown = new double[array.length * 2];
+			for (int i = 0; i < count; i++) {
+				grown[i] = array[(first + i) & (array.length - 1)];
+			}
+			return grown;
+		}
+
+		private void add(double v) {
+			if (Double.isNaN(v)) {
+				return;
+			}
+			if (v == Double.POSITIVE_INFINITY) {
+				positiveInfinite++;
+			}
+			else if (v == Double.NEGATIVE_INFINITY) {
+				negativeInfinite++;
+			}
+			else {
+				finite++;
+				addToSum(v);
+				double delta = v - mean;
+				mean += delta / finite;
+				m2 += delta * (v - mean);
+			}
+		}
+
+		private void remove(double v) {
+			if (Double.isNaN(v)) {
+				return;
+			}
+			if (v == Double.POSITIVE_INFINITY) {
+				positiveInfinite--;
+			}
+			else if (v == Double.NEGATIVE_INFINITY) {
+				negativeInfinite--;
+			}
+			else if (finite <= 1) {
+				finite = 0;
+				sum = 0;
+				compensation = 0;
+				mean = 0;
+				m2 = 0;
+			}
+			else {
+				finite--;
+				addToSum(-v);
+				double delta = v - mean;
+				mean -= delta / finite;
+				double before = m2;
+				m2 = Math.max(0, m2 - delta * (v - mean));
+				if (m2 < before * CANCELLATION_RATIO) {
+					momentsStale = true;
+				}
+			}
+		}
+
+		private void recalculateMoments() {
+			int mask = entries.length - 1;
+			double total = 0;
+			int n = 0;
+			for (int i = 0; i < count; i++) {
+				double v = entries[(first + i) & mask];
+				if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+					total += v;
+					n++;
+				}
+			}
+			mean = n == 0 ? 0 : total / n;
+			m2 = 0;
+			for (int i = 0; i < count; i++) {
+				double v = entries[(first + i) & mask];
+				if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+					m2 += (v - mean) * (v - mean);
+				}
+			}
+			momentsStale = false;
+		}
+
+		private void addToSum(double v) {
+			double t = sum + v;
+			if (Math.abs(sum) >= Math.abs(v)) {
+				compensation += (sum - t) + v;
+			}
+			else {
+				compensation += (v - t) + sum;
+			}
+			sum = t;
+		}
+
+		private double value() {
+			if (momentsStale) {
+				recalculateMoments();
+			}
+			switch (op) {
+				case MINIMUM:
+				case MAXIMUM:
+					return dequeCount == 0 ? Double.NaN : valueAt(deque[dequeFirst]);
+				case SUM:
+					return positiveInfinite > 0 || negativeInfinite > 0 ? infinite() : sum + compensation;
+				case MEAN:
+					return positiveInfinite > 0 || negativeInfinite > 0 ? infinite() : finite == 0 ? Double.NaN : (sum + compensation) / finite;
+				case VARIANCE:
+					return positiveInfinite > 0 || negativeInfinite > 0 || finite == 0 ? Double.NaN : m2 / finite;
+				case STANDARD_DEVIATION:
+					return positiveInfinite > 0 || negativeInfinite > 0 || finite == 0 ? Double.NaN : Math.sqrt(m2 / finite);
+				default:
+					throw new IllegalStateException();
+			}
+		}
+
+		private double infinite() {
+			return positiveInfinite > 0 && negativeInfinite > 0 ? Double.NaN : positiveInfinite > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		}
+	}
+}
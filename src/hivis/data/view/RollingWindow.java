@@ -0,0 +1,158 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data.view;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import hivis.data.DataSeries;
+import hivis.data.view.CalcValue.SeriesOp;
+
+/**
+ * Provides views of statistics over a window rolling along a numeric series,
+ * as returned by {@link DataSeries#rolling(int)} and
+ * {@link DataSeries#rolling(DataSeries, double)}. For example
+ * <code>series.rolling(10).mean()</code> is a view of the mean of each value
+ * and the (up to) 9 values preceding it. The views are created on first
+ * request and then reused. See {@link RollingSeries}.
+ * 
+ * @author O. J. Coleman
+ */
+public class RollingWindow {
+	private final DataSeries<?> series, times;
+	private final int size;
+	private final double duration;
+	private final Map<SeriesOp, SeriesView<Double>> views = new EnumMap<>(SeriesOp.class);
+
+	/**
+	 * Create rolling windows of the given number of values over the given series.
+	 * 
+	 * @throws IllegalArgumentException if the size is less than 1.
+	 * @throws UnsupportedOperationException if the series is not numeric.
+	 */
+	public RollingWindow(DataSeries<?> series, int size) {
+		RollingSeries.checkArguments(series, null, size, 1);
+		this.series = series;
+		this.times = null;
+		this.size = size;
+		this.duration = 0;
+	}
+
+	/**
+	 * Create rolling windows over the given series containing the values whose 
+	 * timestamps are within the given duration of (and not after) the timestamp 
+	 * of each value. The timestamps must be non-decreasing.
+	 * 
+	 * @param times The timestamp of each value, for example in milliseconds.
+	 * @throws IllegalArgumentException if the duration is not positive or the timestamps are not numeric.
+	 * @throws UnsupportedOperationException if the series is not numeric.
+	 */
+	public RollingWindow(DataSeries<?> series, DataSeries<?> times, double duration) {
+		RollingSeries.checkArguments(series, times, 1, duration);
+		this.series = series;
+		this.times = times;
+		this.size = 0;
+		this.duration = duration;
+	}
+
+
+	/**
+	 * Get the series the windows roll along.
+	 */
+	public DataSeries<?> getSeries() {
+		return series;
+	}
+
+	/**
+	 * Get the series of timestamps, or null if the windows contain a fixed number of values.
+	 */
+	public DataSeries<?> getTimes() {
+		return times;
+	}
+
+	/**
+	 * Get the number of values in each (full) window, or 0 if the windows span a duration.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Get the duration spanned by each window, or 0 if the windows contain a fixed number of values.
+	 */
+	public double getDuration() {
+		return duration;
+	}
+
+
+	/**
+	 * Get a view of the given statistic over the windows.
+	 * 
+	 * @throws IllegalArgumentException if the statistic is {@link SeriesOp#PRODUCT}, which is not supported.
+	 */
+	public SeriesView<Double> get(SeriesOp op) {
+		SeriesView<Double> view = views.get(op);
+		if (view == null) {
+			view = times == null ? new RollingSeries(series, size, op) : new RollingSeries(series, times, duration, op);
+			views.put(op, view);
+		}
+		return view;
+	}
+
+	/**
+	 * Get a view of the sum of the values in each window.
+	 */
+	public SeriesView<Double> sum() {
+		return get(SeriesOp.SUM);
+	}
+
+	/**
+	 * Get a view of the mean of the values in each window.
+	 */
+	public SeriesView<Double> mean() {
+		return get(SeriesOp.MEAN);
+	}
+
+	/**
+	 * Get a view of the (population) variance of the values in each window.
+	 */
+	public SeriesView<Double> variance() {
+		return get(SeriesOp.VARIANCE);
+	}
+
+	/**
+	 * Get a view of the (population) standard deviation of the values in each window.
+	 */
+	public SeriesView<Double> stdDev() {
+		return get(SeriesOp.STANDARD_DEVIATION);
+	}
+
+	/**
+	 * Get a view of the minimum of the values in each window.
+	 */
+	public SeriesView<Double> min() {
+		return get(SeriesOp.MINIMUM);
+	}
+
+	/**
+	 * Get a view of the maximum of the values in each window.
+	 */
+	public SeriesView<Double> max() {
+		return get(SeriesOp.MAXIMUM);
+	}
+}
@@ -0,0 +1,721 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.lang.reflect.Array;
+
+import hivis.data.AbstractRingDataSeries;
+import hivis.data.DataEvent;
+import hivis.data.DataListener;
+import hivis.data.DataSeries;
+import hivis.data.IndexRanges;
+import hivis.data.WindowShift;
+
+/**
+ * <p>
+ * Maintains running aggregate statistics (sum, product, mean, variance,
+ * minimum and maximum) over the values in a numeric {@link DataSeries}. The
+ * statistics are updated incrementally from the change events produced by the
+ * series (see {@link DataEvent#getAffectedRanges()}), so that after a change
+ * the cost of updating them is proportional to the number of values affected
+ * rather than the length of the series. The sum is maintained with Neumaier
+ * (compensated) summation, the mean and variance with Welford's method, and
+ * the product as the product of the non-zero values and a count of the zero
+ * values (the product is recalculated from the values when next requested
+ * after a non-zero value is removed or changed). The minimum and maximum are
+ * only recalculated if the current extreme value is removed or changed. The
+ * variance is recalculated from the values if removing a value cancels most
+ * of it (for example when a value much larger than the others is removed), as
+ * the incremental result would then be dominated by rounding error.
+ * </p>
+ * <p>
+ * Changes described by a {@link WindowShift} (values evicted from the head
+ * and appended to the tail, as for an {@link AbstractRingDataSeries}) are
+ * applied by removing the evicted values and adding the appended values, and
+ * the minimum and maximum are then maintained with monotonic deques of the
+ * candidate values. So the cost of a shift is proportional to the number of
+ * values evicted and appended rather than the length of the window.
+ * </p>
+ * <p>
+ * A copy of the values is kept in order to determine the previous value at
+ * each changed index (change events don't include the previous values), so
+ * the memory used by an aggregated series is approximately doubled (8 bytes
+ * per value). The copy is stored in a circular buffer so that values evicted
+ * from the head can be dropped in constant time. If the affected indices for
+ * a change are not known then all statistics are recalculated. Updates are
+ * applied lazily, when {@link #update(DataSeries)} is called. If the series
+ * contains non-finite values (NaN or infinity) then {@link #isFinite()}
+ * returns false and the statistics should not be used (callers should compute
+ * the result directly).
+ * </p>
+ * <p>
+ * Instances are shared by the aggregate {@link CalcValue}s of a series (see
+ * {@link CalcValue.DoubleValue.SeriesFunc} etc).
+ * </p>
+ *
+ * @author O. J. Coleman
+ */
+public class SeriesAggregate implements DataListener {
+	private final boolean integral;
+
+	// Copy of the values at the last update, in a circular buffer: the value
+	// at index i is at slot(i).
+	private double[] values;
+	private long[] longValues;
+	private int head, size;
+
+	private boolean valid = false;
+	private IndexRanges pending = new IndexRanges();
+	// The number of values evicted and appended by WindowShifts since the last update.
+	private int pendingEvicted, pendingAppended;
+
+	// The number of values evicted from the head by WindowShifts since the
+	// statistics were recalculated: the value at index i is the value at
+	// position first + i in the stream of values.
+	private long first;
+	// Monotonic deques of the candidates for the minimum and maximum, which
+	// are maintained while the series only changes by WindowShifts.
+	private ExtremeDeque minDeque, maxDeque;
+	private boolean dequesValid;
+
+	// If removing a value leaves less than this fraction of m2 then the
+	// moments are recalculated from the values.
+	private static final double CANCELLATION_RATIO = 1.0 / (1 << 20);
+
+	// Statistics over the finite values.
+	private int count;
+	private int nonFinite;
+	private double mean;
+	private double m2;
+	private boolean momentsStale;
+	private double sum, compensation;
+	private long longSum;
+	private double product;
+	private int zeroCount;
+	private boolean productValid;
+	private double min, max;
+	private long longMin, longMax;
+	private boolean minValid, maxValid;
+
+
+	/**
+	 * Create a SeriesAggregate for the given numeric series.
+	 */
+	public SeriesAggregate(DataSeries<?> series) {
+		Class<?> type = series.getType();
+		integral = type != null && (type.equals(Integer.class) || type.equals(Long.class) || type.equals(Short.class) || type.equals(Byte.class));
+		series.addChangeListener(this);
+	}
+
+
+	@Override
+	public void dataChanged(DataEvent event) {
+		if (valid) {
+			WindowShift shift = WindowShift.combined(event);
+			if (event.getAffectedRanges() == null) {
+				valid = false;
+			}
+			else if (shift != null && pending.isEmpty()) {
+				pendingEvicted += shift.evicted();
+				pendingAppended += shift.appended();
+			}
+			else if (pendingEvicted > 0 || pendingAppended > 0) {
+				// The indices of the change are relative to the shifted values.
+				valid = false;
+			}
+			else {
+				pending.addAll(event.getAffectedRanges());
+			}
+		}
+	}
+
+
+	/**
+	 * Bring the statistics up to date with the current values in the given
+	 * series (which must be the series given in the constructor).
+	 */
+	public void update(DataSeries<?> series) {
+		int length = series.length();
+		if (!valid) {
+			recalculate(series, length);
+			return;
+		}
+		if (pendingEvicted > 0 || pendingAppended > 0) {
+			if (!shift(series, length)) {
+				recalculate(series, length);
+			}
+			return;
+		}
+		if (pending.isEmpty() && length == size) {
+			return;
+		}
+
+		dequesValid = false;
+		ensureCapacity(length);
+		pending.add(size, length);
+		for (int r = 0; r < pending.size() && pending.start(r) < length; r++) {
+			int end = Math.min(pending.end(r), length);
+			for (int i = pending.start(r); i < end; i++) {
+				int slot = slot(i);
+				if (integral) {
+					long v = series.getLong(i);
+					if (i < size) {
+						if (longValues[slot] != v) {
+							remove(longValues[slot]);
+							add(v);
+							longValues[slot] = v;
+						}
+					}
+					else {
+						add(v);
+						longValues[slot] = v;
+					}
+				}
+				else {
+					double v = series.getDouble(i);
+					if (i < size) {
+						double old = values[slot];
+						if (old != v && (old == old || v == v)) {
+							remove(old);
+							add(v);
+							values[slot] = v;
+						}
+					}
+					else {
+						add(v);
+						values[slot] = v;
+					}
+				}
+			}
+		}
+		// Values removed from the end.
+		for (int i = length; i < size; i++) {
+			if (integral) {
+				remove(longValues[slot(i)]);
+			}
+			else {
+				remove(values[slot(i)]);
+			}
+		}
+		size = length;
+		pending.clear();
+		if (momentsStale) {
+			recalculateMoments();
+		}
+	}
+
+	/**
+	 * Apply the pending WindowShifts: remove the values evicted from the head
+	 * and add the values appended to the tail. Returns false if the shifts
+	 * don't match the length of the series, in which case the statistics must
+	 * be recalculated.
+	 */
+	private boolean shift(DataSeries<?> series, int length) {
+		// Values both appended and evicted since the last update were never in the copy.
+		int evicted = Math.min(pendingEvicted, size);
+		int retained = size - evicted;
+		if (length < retained || length - retained > pendingAppended) {
+			return false;
+		}
+		pendingEvicted = 0;
+		pendingAppended = 0;
+		if (!dequesValid) {
+			buildDeques();
+		}
+
+		for (int i = 0; i < evicted; i++) {
+			if (integral) {
+				remove(longValues[slot(i)]);
+			}
+			else {
+				remove(values[slot(i)]);
+			}
+		}
+		head = retained == 0 ? 0 : slot(evicted);
+		size = retained;
+		first += evicted;
+		minDeque.evict(first);
+		maxDeque.evict(first);
+
+		ensureCapacity(length);
+		for (int i = retained; i < length; i++) {
+			if (integral) {
+				long v = series.getLong(i);
+				longValues[slot(i)] = v;
+				add(v);
+			}
+			else {
+				double v = series.getDouble(i);
+				values[slot(i)] = v;
+				add(v);
+			}
+			minDeque.add(first + i);
+			maxDeque.add(first + i);
+		}
+		size = length;
+		if (momentsStale) {
+			recalculateMoments();
+		}
+		return true;
+	}
+
+
+	private void recalculate(DataSeries<?> series, int length) {
+		reset();
+		head = 0;
+		size = 0;
+		first = 0;
+		pendingEvicted = 0;
+		pendingAppended = 0;
+		dequesValid = false;
+		ensureCapacity(length);
+		if (integral) {
+			for (int i = 0; i < length; i++) {
+				long v = series.getLong(i);
+				longValues[i] = v;
+				add(v);
+			}
+		}
+		else {
+			for (int i = 0; i < length; i++) {
+				double v = series.getDouble(i);
+				values[i] = v;
+				add(v);
+			}
+		}
+		size = length;
+		pending.clear();
+		valid = true;
+	}
+
+	private void recalculateMoments() {
+		double total = 0;
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			double v = valueAt(i);
+			if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+				total += v;
+				n++;
+			}
+		}
+		mean = n == 0 ? 0 : total / n;
+		m2 = 0;
+		for (int i = 0; i < size; i++) {
+			double v = valueAt(i);
+			if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+				m2 += (v - mean) * (v - mean);
+			}
+		}
+		momentsStale = false;
+	}
+
+	private void reset() {
+		count = 0;
+		nonFinite = 0;
+		mean = 0;
+		m2 = 0;
+		momentsStale = false;
+		sum = 0;
+		compensation = 0;
+		longSum = 0;
+		product = 1;
+		zeroCount = 0;
+		productValid = true;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+		longMin = Long.MAX_VALUE;
+		longMax = Long.MIN_VALUE;
+		minValid = true;
+		maxValid = true;
+	}
+
+	private void ensureCapacity(int length) {
+		if (integral) {
+			if (longValues == null || longValues.length < length) {
+				long[] grown = new long[longValues == null ? length : Math.max(length, (int) (longValues.length * 1.5) + 1)];
+				if (longValues != null) copyTo(longValues, grown);
+				longValues = grown;
+				head = 0;
+			}
+		}
+		else {
+			if (values == null || values.length < length) {
+				double[] grown = new double[values == null ? length : Math.max(length, (int) (values.length * 1.5) + 1)];
+				if (values != null) copyTo(values, grown);
+				values = grown;
+				head = 0;
+			}
+		}
+	}
+
+	/**
+	 * Copy the values in the given circular buffer (of length capacity) to the start of the given array.
+	 */
+	private void copyTo(Object buffer, Object array) {
+		int capacity = Array.getLength(buffer);
+		int firstPart = Math.min(size, capacity - head);
+		System.arraycopy(buffer, head, array, 0, firstPart);
+		System.arraycopy(buffer, 0, array, firstPart, size - firstPart);
+	}
+
+	/**
+	 * Get the index in the copy of the values of the value at the given index.
+	 */
+	private int slot(int index) {
+		int slot = head + index;
+		int capacity = integral ? longValues.length : values.length;
+		return slot < capacity ? slot : slot - capacity;
+	}
+
+	/**
+	 * Get the value at the given index in the copy of the values.
+	 */
+	private double valueAt(int index) {
+		return integral ? longValues[slot(index)] : values[slot(index)];
+	}
+
+	private void buildDeques() {
+		if (minDeque == null) {
+			minDeque = new ExtremeDeque(true);
+			maxDeque = new ExtremeDeque(false);
+		}
+		minDeque.clear();
+		maxDeque.clear();
+		for (int i = 0; i < size; i++) {
+			minDeque.add(first + i);
+			maxDeque.add(first + i);
+		}
+		dequesValid = true;
+	}
+
+
+	private void add(double v) {
+		if (Double.isNaN(v) || Double.isInfinite(v)) {
+			nonFinite++;
+			return;
+		}
+		addMoments(v);
+		addToSum(v);
+		addProduct(v);
+		if (minValid && v < min) min = v;
+		if (maxValid && v > max) max = v;
+	}
+
+	private void remove(double v) {
+		if (Double.isNaN(v) || Double.isInfinite(v)) {
+			nonFinite--;
+			return;
+		}
+		removeMoments(v);
+		addToSum(-v);
+		removeProduct(v);
+		if (v <= min) minValid = false;
+		if (v >= max) maxValid = false;
+	}
+
+	private void add(long v) {
+		addMoments(v);
+		longSum += v;
+		addProduct(v);
+		if (minValid && v < longMin) longMin = v;
+		if (maxValid && v > longMax) longMax = v;
+	}
+
+	private void remove(long v) {
+		removeMoments(v);
+		longSum -= v;
+		removeProduct(v);
+		if (v <= longMin) minValid = false;
+		if (v >= longMax) maxValid = false;
+	}
+
+	private void addMoments(double v) {
+		count++;
+		double delta = v - mean;
+		mean += delta / count;
+		m2 += delta * (v - mean);
+	}
+
+	private void removeMoments(double v) {
+		if (count <= 1) {
+			count = 0;
+			mean = 0;
+			m2 = 0;
+			return;
+		}
+		count--;
+		double delta = v - mean;
+		mean -= delta / count;
+		double before = m2;
+		m2 = Math.max(0, m2 - delta * (v - mean));
+		if (m2 < before * CANCELLATION_RATIO) {
+			momentsStale = true;
+		}
+	}
+
+	private void addToSum(double v) {
+		double t = sum + v;
+		if (Math.abs(sum) >= Math.abs(v)) {
+			compensation += (sum - t) + v;
+		}
+		else {
+			compensation += (v - t) + sum;
+		}
+		sum = t;
+	}
+
+	private void addProduct(double v) {
+		if (v == 0) {
+			zeroCount++;
+		}
+		else if (productValid) {
+			product *= v;
+			checkProduct();
+		}
+	}
+
+	private void removeProduct(double v) {
+		if (v == 0) {
+			zeroCount--;
+		}
+		else {
+			// Dividing out the value would accumulate rounding error,
+			// so recalculate the product when it's next requested.
+			productValid = false;
+		}
+	}
+
+	private void checkProduct() {
+		// If the product has overflowed or underflowed then it can no longer
+		// be maintained incrementally.
+		if (product == 0 || Double.isInfinite(product) || Double.isNaN(product)) {
+			productValid = false;
+		}
+	}
+
+
+	/**
+	 * Returns true iff all the values in the series are finite (none are NaN
+	 * or infinite), in which case the statistics are valid. Always true for
+	 * series storing integer values.
+	 */
+	public boolean isFinite() {
+		return nonFinite == 0;
+	}
+
+	/**
+	 * Get the number of values in the series.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Get the sum of the values.
+	 */
+	public double getSum() {
+		return integral ? longSum : sum + compensation;
+	}
+
+	/**
+	 * Get the sum of the values, for series storing integer values. Overflow
+	 * wraps around as it would for repeated addition of long values.
+	 */
+	public long getLongSum() {
+		return integral ? longSum : (long) (sum + compensation);
+	}
+
+	/**
+	 * Get the product of the values.
+	 */
+	public double getProduct() {
+		if (zeroCount > 0) {
+			return 0;
+		}
+		if (!productValid) {
+			product = 1;
+			for (int i = 0; i < size; i++) {
+				double v = valueAt(i);
+				if (v != 0) product *= v;
+			}
+			productValid = !(product == 0 || Double.isInfinite(product) || Double.isNaN(product));
+			return product;
+		}
+		return product;
+	}
+
+	/**
+	 * Get the arithmetic mean of the values, or NaN if there are none.
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : getSum() / count;
+	}
+
+	/**
+	 * Get the (population) variance of the values, or NaN if there are none.
+	 */
+	public double getVariance() {
+		return count == 0 ? Double.NaN : m2 / count;
+	}
+
+	/**
+	 * Get the minimum value, or positive infinity if there are none.
+	 */
+	public double getMin() {
+		if (integral) return count == 0 ? Double.POSITIVE_INFINITY : getLongMin();
+		if (dequesValid) return minDeque.isEmpty() ? Double.POSITIVE_INFINITY : minDeque.value();
+		if (!minValid) {
+			min = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				if (values[slot(i)] < min) min = values[slot(i)];
+			}
+			minValid = true;
+		}
+		return min;
+	}
+
+	/**
+	 * Get the maximum value, or negative infinity if there are none.
+	 */
+	public double getMax() {
+		if (integral) return count == 0 ? Double.NEGATIVE_INFINITY : getLongMax();
+		if (dequesValid) return maxDeque.isEmpty() ? Double.NEGATIVE_INFINITY : maxDeque.value();
+		if (!maxValid) {
+			max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				if (values[slot(i)] > max) max = values[slot(i)];
+			}
+			maxValid = true;
+		}
+		return max;
+	}
+
+	/**
+	 * Get the minimum value for series storing integer values, or Long.MAX_VALUE if there are none.
+	 */
+	public long getLongMin() {
+		if (!integral) return (long) getMin();
+		if (dequesValid) return minDeque.isEmpty() ? Long.MAX_VALUE : minDeque.longValue();
+		if (!minValid) {
+			longMin = Long.MAX_VALUE;
+			for (int i = 0; i < size; i++) {
+				if (longValues[slot(i)] < longMin) longMin = longValues[slot(i)];
+			}
+			minValid = true;
+		}
+		return longMin;
+	}
+
+	/**
+	 * Get the maximum value for series storing integer values, or Long.MIN_VALUE if there are none.
+	 */
+	public long getLongMax() {
+		if (!integral) return (long) getMax();
+		if (dequesValid) return maxDeque.isEmpty() ? Long.MIN_VALUE : maxDeque.longValue();
+		if (!maxValid) {
+			longMax = Long.MIN_VALUE;
+			for (int i = 0; i < size; i++) {
+				if (longValues[slot(i)] > longMax) longMax = longValues[slot(i)];
+			}
+			maxValid = true;
+		}
+		return longMax;
+	}
+
+
+	/**
+	 * Monotonic deque of the positions (see {@link SeriesAggregate#first}) of the
+	 * candidates for the minimum or maximum of the values: each value is more
+	 * extreme than the values after it, and the first is the current extreme.
+	 * Non-finite values are not included.
+	 */
+	private class ExtremeDeque {
+		private final boolean minimum;
+		private long[] positions = new long[16];
+		private int dequeFirst, dequeCount;
+
+		ExtremeDeque(boolean minimum) {
+			this.minimum = minimum;
+		}
+
+		void clear() {
+			dequeFirst = 0;
+			dequeCount = 0;
+		}
+
+		boolean isEmpty() {
+			return dequeCount == 0;
+		}
+
+		/**
+		 * Add the value at the given position, which must follow all positions in the deque.
+		 */
+		void add(long position) {
+			int index = (int) (position - first);
+			if (!integral && (Double.isNaN(values[slot(index)]) || Double.isInfinite(values[slot(index)]))) {
+				return;
+			}
+			int mask = positions.length - 1;
+			// Remove candidates that can no longer be the extreme, as the new value is at least as extreme and will remain longer.
+			while (dequeCount > 0 && !dominates(positions[(dequeFirst + dequeCount - 1) & mask], index)) {
+				dequeCount--;
+			}
+			if (dequeCount == positions.length) {
+				long[] grown = new long[positions.length * 2];
+				for (int d = 0; d < dequeCount; d++) {
+					grown[d] = positions[(dequeFirst + d) & mask];
+				}
+				positions = grown;
+				dequeFirst = 0;
+				mask = positions.length - 1;
+			}
+			positions[(dequeFirst + dequeCount) & mask] = position;
+			dequeCount++;
+		}
+
+		/**
+		 * Remove the candidates at positions before the given position.
+		 */
+		void evict(long position) {
+			while (dequeCount > 0 && positions[dequeFirst] < position) {
+				dequeFirst = (dequeFirst + 1) & (positions.length - 1);
+				dequeCount--;
+			}
+		}
+
+		/**
+		 * Returns true iff the value at the given position is more extreme than the value at the given index.
+		 */
+		private boolean dominates(long position, int index) {
+			int other = (int) (position - first);
+			if (integral) {
+				long v = longValues[slot(other)], w = longValues[slot(index)];
+				return minimum ? v < w : v > w;
+			}
+			double v = values[slot(other)], w = values[slot(index)];
+			return minimum ? v < w : v > w;
+		}
+
+		double value() {
+			return values[slot((int) (positions[dequeFirst] - first))];
+		}
+
+		long longValue() {
+			return longValues[slot((int) (positions[dequeFirst] - first))];
+		}
+	}
+}
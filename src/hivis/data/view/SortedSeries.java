@@ -16,14 +16,9 @@
 package hivis.data.view;
 
 import java.lang.reflect.Array;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.List;
 
-import hivis.data.DataSeries;
-import hivis.data.DataSeriesInteger;
 import hivis.data.DataEvent;
 import hivis.data.DataSeries;
 
@@ -34,7 +29,11 @@ import hivis.data.DataSeries;
  * If no comparator is provided all values must implement the Comparable interface and
  * must be mutually comparable (that is, v1.compareTo(v2) must not throw a
  * ClassCastException for any values v1 and v2). This sort is guaranteed to be
- * stable: equal values will not be reordered as a result of the sort.
+ * stable: equal values will not be reordered as a result of the sort. If the 
+ * number of values is at least the parallel threshold (see 
+ * {@link #setParallelThreshold(int)}) then the sort is performed in parallel.
+ * The sort order (as a permutation of the source indices) may be obtained 
+ * with {@link #getSortOrder()}.
  *
  * @author O. J. Coleman
  */
@@ -43,6 +42,7 @@ public class SortedSeries<V> extends AbstractSeriesViewMultiple<V, V> {
 	protected Comparator<V> comparator;
 	protected boolean recalc = true;
 	protected V[] elements;
+	protected int parallelThreshold = IndexSort.DEFAULT_PARALLEL_THRESHOLD;
 	
 	public SortedSeries(DataSeries<V> source) {
 		this.source = source;
@@ -78,20 +78,60 @@ public class SortedSeries<V> extends AbstractSeriesViewMultiple<V, V> {
 	public void update(DataEvent cause) {
 		this.beginChanges(this);
 		
-		if (elements == null) {
-			elements = (V[]) Array.newInstance(this.getType(), length());
+		int length = length();
+		if (elements == null || elements.length != length) {
+			elements = (V[]) Array.newInstance(this.getType(), length);
 		}
 		elements = source.asArray(elements);
 		
-		if (comparator == null) {
-			Arrays.sort(elements);
+		Comparator<V> c = comparator != null ? comparator : (Comparator<V>) Comparator.naturalOrder();
+		if (useParallel(length)) {
+			Arrays.parallelSort(elements, 0, length, c);
 		} else {
-			Arrays.sort(elements, comparator);
+			Arrays.sort(elements, 0, length, c);
 		}
 		recalc = false;
 		
 		this.finishChanges(this);
 	}
+	
+	/**
+	 * Get the order of the values in this sorted series as a permutation of 
+	 * the indices of the source series: the value at index <code>i</code> in 
+	 * this series is the value at index <code>getSortOrder()[i]</code> in the 
+	 * source series. The sorted values themselves are not calculated.
+	 */
+	public int[] getSortOrder() {
+		final V[] values = source.asArray();
+		final Comparator<V> c = comparator != null ? comparator : (Comparator<V>) Comparator.naturalOrder();
+		return IndexSort.order(values.length, (i1, i2) -> c.compare(values[i1], values[i2]), useParallel(values.length));
+	}
+	
+	/**
+	 * Set the minimum number of values for which the sort is performed in 
+	 * parallel. The default is {@link IndexSort#DEFAULT_PARALLEL_THRESHOLD}.
+	 * Use {@link Integer#MAX_VALUE} to disable parallel sorting.
+	 */
+	public void setParallelThreshold(int threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("The parallel sort threshold must be non-negative.");
+		}
+		parallelThreshold = threshold;
+	}
+	
+	/**
+	 * Get the minimum number of values for which the sort is performed in parallel.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+	
+	/**
+	 * Returns true iff a sort of the given number of values should be performed in parallel.
+	 */
+	protected boolean useParallel(int length) {
+		return length >= parallelThreshold;
+	}
 
 	@Override
 	public void dataChanged(DataEvent event) {
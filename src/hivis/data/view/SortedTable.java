@@ -35,13 +35,18 @@ import hivis.data.DataTable;
 
 /**
  * Creates a view of a table containing the rows in the table sorted according to the natural ordering
- * of the values in a specified series or according to a provided Comparator that defines
- * an ordering over the {@link DataRow}s in the table.
+ * of the values in one or more specified series (see {@link SortKey}) or according to a provided 
+ * Comparator that defines an ordering over the {@link DataRow}s in the table. When sorting by series
+ * the order is computed directly from the (primitive, for numeric series) values of the key series,
+ * without creating {@link DataRow}s, and is computed in parallel for tables with at least 
+ * {@link #setParallelThreshold(int) a given number} of rows.
  * 
  * @author O. J. Coleman
  */
 public class SortedTable extends AbstractTableView<SeriesViewRow<?>, DataTable> {
 	private Comparator<DataRow> comparator;
+	private SortKey[] keys;
+	private int parallelThreshold = IndexSort.DEFAULT_PARALLEL_THRESHOLD;
 	
 	/**
 	 * <p>
@@ -62,7 +67,7 @@ public class SortedTable extends AbstractTableView<SeriesViewRow<?>, DataTable>
 	 */
 	public SortedTable(DataTable input, int sortingSeries) {
 		super(input);
-		comparator = new SeriesComparator(sortingSeries);
+		keys = new SortKey[] {SortKey.asc(sortingSeries)};
 		updateSeries();
 	}
 	
@@ -85,7 +90,7 @@ public class SortedTable extends AbstractTableView<SeriesViewRow<?>, DataTable>
 	 */
 	public SortedTable(DataTable input, String sortingSeries) {
 		super(input);
-		comparator = new SeriesComparator(sortingSeries);
+		keys = new SortKey[] {SortKey.asc(sortingSeries)};
 		updateSeries();
 	}
 
@@ -109,6 +114,44 @@ public class SortedTable extends AbstractTableView<SeriesViewRow<?>, DataTable>
 		this.comparator = comparator;
 		updateSeries();
 	}
+
+	/**
+	 * <p>
+	 * Create a view of the given table containing the rows in the table sorted
+	 * according to the values in the series specified by the given keys. Rows are 
+	 * ordered by the first key, then rows with equal values for the first key are 
+	 * ordered by the second key, and so on. 
+	 * </p>
+	 * <p>
+	 * All values in the specified series must implement the Comparable
+	 * interface and be mutually comparable (this is the case for all numeric, 
+	 * string and date values).
+	 * </p>
+	 * <p>
+	 * This sort is guaranteed to be stable: rows with equal values for all keys 
+	 * will not be reordered as a result of the sort.
+	 * </p>
+	 */
+	public SortedTable(DataTable input, SortKey... keys) {
+		super(input);
+		if (keys.length == 0) {
+			throw new IllegalArgumentException("At least one sort key must be given.");
+		}
+		this.keys = keys.clone();
+		updateSeries();
+	}
+	
+	/**
+	 * Set the minimum number of rows for which the sort order is computed in parallel. 
+	 * The default is {@link IndexSort#DEFAULT_PARALLEL_THRESHOLD}. 
+	 * Use {@link Integer#MAX_VALUE} to disable parallel sorting.
+	 */
+	public void setParallelThreshold(int threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("The parallel sort threshold must be non-negative.");
+		}
+		parallelThreshold = threshold;
+	}
 	
 
 	@Override
@@ -138,8 +181,14 @@ public class SortedTable extends AbstractTableView<SeriesViewRow<?>, DataTable>
 			}
 		}
 		
-		// Get rows ordered by comparator, and then get the original indices of the rows.
-		int[] rowMap = Streams.stream(inputTable).sorted(comparator).mapToInt(row -> row.getRowIndex()).toArray();;
+		int[] rowMap;
+		if (keys != null) {
+			rowMap = getSortOrder(inputTable, inputTable.length() >= parallelThreshold, keys);
+		}
+		else {
+			// Get rows ordered by comparator, and then get the original indices of the rows.
+			rowMap = Streams.stream(inputTable).sorted(comparator).mapToInt(row -> row.getRowIndex()).toArray();
+		}
 		
 		// Update/set row map for each SeriesViewRow wrapper.
 		for (SeriesViewRow<?> s : series.values()) {
@@ -148,27 +197,132 @@ public class SortedTable extends AbstractTableView<SeriesViewRow<?>, DataTable>
 	}
 	
 	
-	private class SeriesComparator implements Comparator<DataRow> {
-		int seriesIndex;
-		String seriesLabel;
-		public SeriesComparator(int series) {
-			seriesIndex = series;
+	/**
+	 * Get the order of the rows in the given table when sorted by the given keys, 
+	 * as a permutation of the row indices: the row at index <code>i</code> in the 
+	 * sorted order is the row at index <code>order[i]</code> in the table. The 
+	 * sort is stable. The order is computed directly from the values in the key 
+	 * series (using primitive values for numeric series).
+	 * 
+	 * @param table The table to sort.
+	 * @param parallel Whether to sort in parallel.
+	 * @param keys The series to sort by, in order of precedence.
+	 * @throws IllegalArgumentException if a key refers to a series that does not exist.
+	 */
+	public static int[] getSortOrder(DataTable table, boolean parallel, SortKey... keys) {
+		int length = table.length();
+		final IndexSort.IndexComparator[] comparators = new IndexSort.IndexComparator[keys.length];
+		for (int k = 0; k < keys.length; k++) {
+			comparators[k] = keys[k].getComparator(table);
 		}
-		public SeriesComparator(String series) {
-			seriesLabel = series;
+		IndexSort.IndexComparator comparator;
+		if (comparators.length == 1) {
+			comparator = comparators[0];
 		}
-		@Override
-		public int compare(DataRow row0, DataRow row1) {
-			if (seriesLabel != null) {
-				Comparable v0 = (Comparable) row0.get(seriesLabel);
-				Comparable v1 = (Comparable) row1.get(seriesLabel);
-				return v0.compareTo(v1);
+		else {
+			comparator = (i1, i2) -> {
+				for (int k = 0; k < comparators.length; k++) {
+					int c = comparators[k].compare(i1, i2);
+					if (c != 0) return c;
+				}
+				return 0;
+			};
+		}
+		int[] order = new int[length];
+		for (int i = 0; i < length; i++) {
+			order[i] = i;
+		}
+		IndexSort.sort(order, 0, length, comparator, parallel);
+		return order;
+	}
+	
+	
+	/**
+	 * Specifies a series to sort a table by and the direction of the sort.
+	 */
+	public static class SortKey {
+		private final int seriesIndex;
+		private final String seriesLabel;
+		private final boolean descending;
+		
+		private SortKey(int seriesIndex, String seriesLabel, boolean descending) {
+			this.seriesIndex = seriesIndex;
+			this.seriesLabel = seriesLabel;
+			this.descending = descending;
+		}
+		
+		/**
+		 * Sort by the series with the given index, in ascending order.
+		 */
+		public static SortKey asc(int series) {
+			return new SortKey(series, null, false);
+		}
+		/**
+		 * Sort by the series with the given label, in ascending order.
+		 */
+		public static SortKey asc(String series) {
+			return new SortKey(-1, series, false);
+		}
+		/**
+		 * Sort by the series with the given index, in descending order.
+		 */
+		public static SortKey desc(int series) {
+			return new SortKey(series, null, true);
+		}
+		/**
+		 * Sort by the series with the given label, in descending order.
+		 */
+		public static SortKey desc(String series) {
+			return new SortKey(-1, series, true);
+		}
+		
+		/**
+		 * Returns true iff this key specifies descending order.
+		 */
+		public boolean isDescending() {
+			return descending;
+		}
+		
+		/**
+		 * Get a comparator over the row indices of the given table for the series specified by this key.
+		 */
+		IndexSort.IndexComparator getComparator(DataTable table) {
+			DataSeries<?> series = seriesLabel != null ? table.get(seriesLabel) : table.get(seriesIndex);
+			if (series == null) {
+				throw new IllegalArgumentException("The table does not contain a series labelled " + seriesLabel + ".");
 			}
-			else {
-				Comparable v0 = (Comparable) row0.get(seriesIndex);
-				Comparable v1 = (Comparable) row1.get(seriesIndex);
-				return v0.compareTo(v1);
+			IndexSort.IndexComparator ascending = getAscendingComparator(series);
+			if (descending) {
+				return (i1, i2) -> ascending.compare(i2, i1);
+			}
+			return ascending;
+		}
+		
+		private static IndexSort.IndexComparator getAscendingComparator(DataSeries<?> series) {
+			Class<?> type = series.getType();
+			if (Double.class.equals(type)) {
+				final double[] values = series.asDoubleArray();
+				return (i1, i2) -> Double.compare(values[i1], values[i2]);
 			}
+			if (Float.class.equals(type)) {
+				final float[] values = series.asFloatArray();
+				return (i1, i2) -> Float.compare(values[i1], values[i2]);
+			}
+			if (Integer.class.equals(type)) {
+				final int[] values = series.asIntArray();
+				return (i1, i2) -> Integer.compare(values[i1], values[i2]);
+			}
+			if (Long.class.equals(type)) {
+				final long[] values = series.asLongArray();
+				return (i1, i2) -> Long.compare(values[i1], values[i2]);
+			}
+			final Object[] values = series.asArray();
+			return (i1, i2) -> ((Comparable<Object>) values[i1]).compareTo(values[i2]);
+		}
+		
+		@Override
+		public String toString() {
+			return (seriesLabel != null ? seriesLabel : ("" + seriesIndex)) + (descending ? " desc" : " asc");
 		}
 	}
 }
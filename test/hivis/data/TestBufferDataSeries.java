@@ -0,0 +1,105 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link AbstractBufferDataSeries} implementations.
+ *
+ * @author O. J. Coleman
+ */
+public class TestBufferDataSeries {
+	@Test
+	public void direct() {
+		DataSeriesDoubleBuffer series = new DataSeriesDoubleBuffer(2);
+		DataSeriesDouble expected = new DataSeriesDouble();
+		for (int i = 0; i < 100; i++) {
+			series.appendValue(i * 0.5);
+			expected.appendValue(i * 0.5);
+		}
+		series.appendValues(new double[] {-1, -2, -3}, 1, 2);
+		expected.appendValues(new double[] {-1, -2, -3}, 1, 2);
+		Assert.assertEquals(series.asList(), expected.asList());
+		
+		series.remove(3);
+		expected.remove(3);
+		series.remove(0);
+		expected.remove(0);
+		series.remove(series.length() - 1);
+		expected.remove(expected.length() - 1);
+		series.setValue(0, 7.0);
+		expected.setValue(0, 7.0);
+		series.resize(110);
+		expected.resize(110);
+		Assert.assertEquals(series.asDoubleArray(), expected.asDoubleArray());
+		Assert.assertEquals(series.getType(), Double.class);
+		Assert.assertTrue(Double.isNaN(series.getDouble(200)));
+		Assert.assertEquals(series.copy().asList(), expected.asList());
+	}
+	
+	@Test
+	public void events() {
+		DataSeriesIntegerBuffer series = new DataSeriesIntegerBuffer();
+		int[] added = new int[1];
+		series.addChangeListener(event -> {
+			if (event.isType(DataSeriesChange.ValuesAdded)) added[0]++;
+		});
+		series.appendValues(new int[] {1, 2, 3, 4}, 0, 4);
+		Assert.assertEquals(added[0], 1);
+		Assert.assertEquals(series.asIntArray(), new int[] {1, 2, 3, 4});
+	}
+	
+	@Test
+	public void mapped() throws IOException {
+		File file = File.createTempFile("hivis", ".bin");
+		try {
+			DataSeriesLongBuffer writable = DataSeriesLongBuffer.map(file, 16, 50, true);
+			for (int i = 0; i < 50; i++) {
+				writable.setValue(i, i * 1000000000000L);
+			}
+			Assert.assertEquals(file.length(), 16 + 50 * 8);
+			
+			DataSeriesLongBuffer readOnly = DataSeriesLongBuffer.map(file, 16, 50, false);
+			Assert.assertTrue(readOnly.isReadOnly());
+			Assert.assertEquals(readOnly.asLongArray(), writable.asLongArray());
+			Assert.assertEquals(readOnly.getLong(49), 49000000000000L);
+			Assert.assertThrows(UnsupportedOperationException.class, () -> readOnly.appendValue(1L));
+			Assert.assertThrows(UnsupportedOperationException.class, () -> readOnly.setValue(0, 1L));
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void wrap() {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		buffer.putFloat(4, 1.5f).putFloat(8, 2.5f);
+		buffer.position(4);
+		DataSeriesFloatBuffer series = new DataSeriesFloatBuffer(buffer, 2);
+		Assert.assertEquals(series.asFloatArray(), new float[] {1.5f, 2.5f});
+		series.appendValue(3.5f);
+		Assert.assertEquals(series.asFloatArray(), new float[] {1.5f, 2.5f, 3.5f});
+	}
+}
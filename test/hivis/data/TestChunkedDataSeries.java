@@ -0,0 +1,117 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link AbstractChunkedDataSeries} implementations.
+ *
+ * @author O. J. Coleman
+ */
+public class TestChunkedDataSeries {
+	@Test
+	public void operations() {
+		Random random = new Random(1);
+		DataSeriesDoubleChunked series = new DataSeriesDoubleChunked(16);
+		DataSeriesDouble expected = new DataSeriesDouble();
+		for (int i = 0; i < 2000; i++) {
+			int op = random.nextInt(10);
+			int length = series.length();
+			if (op < 5) {
+				double v = random.nextDouble();
+				series.appendValue(v);
+				expected.appendValue(v);
+			}
+			else if (op == 5) {
+				double[] values = new double[random.nextInt(40)];
+				for (int j = 0; j < values.length; j++) values[j] = random.nextDouble();
+				series.appendValues(values, 0, values.length);
+				expected.appendValues(values, 0, values.length);
+			}
+			else if (op == 6 && length > 0) {
+				int index = random.nextInt(length);
+				series.remove(index);
+				expected.remove(index);
+			}
+			else if (op == 7 && length > 0) {
+				int from = random.nextInt(length);
+				int to = from + random.nextInt(Math.min(50, length - from) + 1);
+				series.removeRange(from, to);
+				for (int j = from; j < to; j++) expected.remove(from);
+			}
+			else if (op == 8 && length > 0) {
+				int index = random.nextInt(length);
+				series.setValue(index, -1.0);
+				expected.setValue(index, -1.0);
+			}
+			else if (op == 9) {
+				int newLength = Math.max(0, length + random.nextInt(40) - 20);
+				series.resize(newLength);
+				expected.resize(newLength);
+			}
+			Assert.assertEquals(series.length(), expected.length());
+		}
+		Assert.assertEquals(series.asDoubleArray(), expected.asDoubleArray());
+		for (int i = 0; i < expected.length(); i++) {
+			Assert.assertEquals(series.getDouble(i), expected.getDouble(i));
+		}
+		Assert.assertEquals(series.copy().asDoubleArray(), expected.asDoubleArray());
+		Assert.assertEquals(series.sum().getDouble(), expected.sum().getDouble(), 1e-9);
+	}
+	
+	@Test
+	public void chunks() {
+		DataSeriesIntegerChunked series = new DataSeriesIntegerChunked(10);
+		for (int i = 0; i < 25; i++) {
+			series.appendValue(i);
+		}
+		Assert.assertEquals(series.chunkCount(), 3);
+		int[] first = series.getChunk(0);
+		
+		// Appending does not copy existing chunks.
+		series.appendValues(new int[] {25, 26, 27, 28, 29, 30}, 0, 6);
+		Assert.assertSame(series.getChunk(0), first);
+		Assert.assertEquals(series.chunkCount(), 4);
+		
+		// Removing a range drops whole chunks and shifts values only within partially covered chunks.
+		List<DataEvent> events = new ArrayList<>();
+		series.addChangeListener(events::add);
+		series.removeRange(5, 21);
+		Assert.assertEquals(events.size(), 1);
+		Assert.assertEquals(series.chunkCount(), 3);
+		Assert.assertSame(series.getChunk(0), first);
+		Assert.assertEquals(series.getChunkLength(0), 5);
+		Assert.assertEquals(series.getChunkStart(1), 5);
+		
+		long[] sum = new long[1];
+		int[] count = new int[1];
+		series.forEachChunk((values, start, length) -> {
+			Assert.assertEquals(start, count[0]);
+			for (int i = 0; i < length; i++) sum[0] += values[i];
+			count[0] += length;
+		});
+		Assert.assertEquals(count[0], 15);
+		Assert.assertEquals(sum[0], (0 + 1 + 2 + 3 + 4) + (21 + 22 + 23 + 24 + 25 + 26 + 27 + 28 + 29 + 30));
+	}
+}
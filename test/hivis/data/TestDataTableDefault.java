@@ -0,0 +1,131 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the row ingest methods of {@link DataTableDefault}.
+ *
+ * @author O. J. Coleman
+ */
+public class TestDataTableDefault {
+	private DataTableDefault createTable() {
+		return (DataTableDefault) new DataTableDefault().addSeries("d", new DataSeriesDouble()).addSeries("i", new DataSeriesInteger())
+				.addSeries("s", new DataSeriesGeneric<String>());
+	}
+	
+	@Test
+	public void appendRows() {
+		DataTableDefault table = createTable();
+		List<DataEvent> tableEvents = new ArrayList<>(), seriesEvents = new ArrayList<>();
+		table.addChangeListener(tableEvents::add);
+		table.get("d").addChangeListener(seriesEvents::add);
+		
+		List<Object[]> rows = new ArrayList<>();
+		for (int r = 0; r < 100; r++) {
+			rows.add(new Object[] {r * 0.5, r, r % 10 == 0 ? null : "r" + r});
+		}
+		table.appendRows(rows);
+		
+		Assert.assertEquals(table.length(), 100);
+		Assert.assertEquals(tableEvents.size(), 1);
+		Assert.assertEquals(seriesEvents.size(), 1);
+		Assert.assertEquals(seriesEvents.get(0).getTypes(), Collections.singleton(DataSeriesChange.ValuesAdded));
+		Assert.assertEquals(seriesEvents.get(0).getAffectedRanges().toString(), new IndexRanges(0, 100).toString());
+		Assert.assertEquals(table.get("d").getDouble(99), 49.5);
+		Assert.assertEquals(table.get("i").getInt(99), 99);
+		Assert.assertEquals(table.get("s").get(99), "r99");
+		Assert.assertNull(table.get("s").get(90));
+		
+		table.appendRow(1, null, "x");
+		Assert.assertEquals(table.length(), 101);
+		Assert.assertEquals(table.get("d").getDouble(100), 1.0);
+		Assert.assertEquals(table.get("i").getInt(100), Integer.MIN_VALUE);
+		Assert.assertEquals(tableEvents.size(), 2);
+	}
+	
+	@Test
+	public void appendColumns() {
+		DataTableDefault table = createTable();
+		table.appendColumns(new double[] {1, 2, 3}, new int[] {4, 5, 6}, Arrays.asList("a", "b", "c"));
+		Assert.assertEquals(table.get("d").asDoubleArray(), new double[] {1, 2, 3});
+		Assert.assertEquals(table.get("i").asIntArray(), new int[] {4, 5, 6});
+		
+		// Converted from other numeric types.
+		table.appendColumns(new long[] {7}, new Object[] {8.0}, new String[] {"d"});
+		Assert.assertEquals(table.get("d").asDoubleArray(), new double[] {1, 2, 3, 7});
+		Assert.assertEquals(table.get("i").asIntArray(), new int[] {4, 5, 6, 8});
+		
+		DataTableDefault batch = createTable();
+		batch.appendRow(9, 10, "e");
+		table.appendRows(batch);
+		Assert.assertEquals(table.length(), 5);
+		Assert.assertEquals(table.get("s").get(4), "e");
+	}
+	
+	@Test
+	public void invalid() {
+		DataTableDefault table = createTable();
+		table.appendRow(1, 2, "a");
+		
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRow(1, 2));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendColumns(new double[] {1}, new int[] {1, 2}, new String[] {"a"}));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRows(Arrays.asList(new Object[] {1, 2, "b"}, new Object[] {1, "x", "c"})));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRow(1, 2, 3));
+		// Nothing was appended.
+		Assert.assertEquals(table.length(), 1);
+		Assert.assertEquals(table.get("d").length(), 1);
+	}
+	
+	@Test
+	public void lossyConversion() {
+		DataTableDefault table = createTable();
+		table.addSeries("l", new DataSeriesLong());
+		table.appendRow(1, 2, "a", 3L);
+		
+		// Non-integral values.
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRow(1, 1.5, "b", 3L));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendColumns(new double[] {1}, new int[] {2}, new String[] {"b"}, new double[] {0.5}));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRow(1, Double.NaN, "b", 3L));
+		// Out of range values.
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRow(1, 1e12, "b", 3L));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendColumns(new double[] {1}, new long[] {1L << 40}, new String[] {"b"}, new long[] {4}));
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRow(1, 2, "b", 1e19));
+		DataTableDefault rows = createTable();
+		rows.addSeries("l", new DataSeriesDouble());
+		rows.appendRow(1, 2, "b", 2.5);
+		Assert.assertThrows(IllegalArgumentException.class, () -> table.appendRows(rows));
+		// Nothing was appended.
+		Assert.assertEquals(table.length(), 1);
+		Assert.assertEquals(table.get("d").length(), 1);
+		
+		// Values that can be converted without loss are accepted.
+		table.appendRow(1, 1e9, "b", (double) (1L << 60));
+		rows.get("l").set(0, 7.0);
+		table.appendRows(rows);
+		Assert.assertEquals(table.get("i").asIntArray(), new int[] {2, 1000000000, 2});
+		Assert.assertEquals(table.get("l").asLongArray(), new long[] {3, 1L << 60, 7});
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link AbstractRingDataSeries} implementations.
+ *
+ * @author O. J. Coleman
+ */
+public class TestRingDataSeries {
+	@Test
+	public void operations() {
+		Random random = new Random(1);
+		DataSeriesDoubleRing series = new DataSeriesDoubleRing(20);
+		DataSeriesDouble expected = new DataSeriesDouble();
+		for (int i = 0; i < 2000; i++) {
+			int op = random.nextInt(8);
+			int length = series.length();
+			if (op < 4) {
+				double v = random.nextDouble();
+				series.appendValue(v);
+				expected.appendValue(v);
+			}
+			else if (op == 4) {
+				double[] values = new double[random.nextInt(30)];
+				for (int j = 0; j < values.length; j++) values[j] = random.nextDouble();
+				series.appendValues(values, 0, values.length);
+				expected.appendValues(values, 0, values.length);
+			}
+			else if (op == 5 && length > 0) {
+				int index = random.nextInt(length);
+				series.remove(index);
+				expected.remove(index);
+			}
+			else if (op == 6 && length > 0) {
+				int count = random.nextInt(length + 1);
+				series.evict(count);
+				for (int j = 0; j < count; j++) expected.remove(0);
+			}
+			else if (op == 7) {
+				int newLength = random.nextInt(21);
+				series.resize(newLength);
+				expected.resize(newLength);
+			}
+			while (expected.length() > 20) {
+				expected.remove(0);
+			}
+			Assert.assertEquals(series.length(), expected.length());
+		}
+		Assert.assertEquals(series.asDoubleArray(), expected.asDoubleArray());
+		for (int i = 0; i < expected.length(); i++) {
+			Assert.assertEquals(series.getDouble(i), expected.getDouble(i));
+		}
+		Assert.assertEquals(series.copy().asDoubleArray(), expected.asDoubleArray());
+	}
+	
+	@Test
+	public void events() {
+		DataSeriesIntegerRing series = new DataSeriesIntegerRing(4);
+		series.appendValues(new int[] {1, 2, 3}, 0, 3);
+		
+		List<DataEvent> events = new ArrayList<>();
+		series.addChangeListener(events::add);
+		
+		series.appendValue(4);
+		Assert.assertEquals(WindowShift.combined(events.get(0)).evicted(), 0);
+		Assert.assertEquals(WindowShift.combined(events.get(0)).appended(), 1);
+		
+		// Appending to a full series evicts from the head, in the same event.
+		series.appendValue(5);
+		Assert.assertEquals(events.size(), 2);
+		WindowShift shift = WindowShift.combined(events.get(1));
+		Assert.assertEquals(shift.evicted(), 1);
+		Assert.assertEquals(shift.appended(), 1);
+		Assert.assertEquals(series.asIntArray(), new int[] {2, 3, 4, 5});
+		
+		// More values than the capacity.
+		series.appendValues(new int[] {6, 7, 8, 9, 10, 11}, 0, 6);
+		shift = WindowShift.combined(events.get(2));
+		Assert.assertEquals(shift.evicted(), 6);
+		Assert.assertEquals(shift.appended(), 6);
+		Assert.assertEquals(series.asIntArray(), new int[] {8, 9, 10, 11});
+		
+		// Shifts are combined when changes are grouped.
+		series.beginChanges(this);
+		series.appendValue(12);
+		series.appendValue(13);
+		series.evict(1);
+		series.finishChanges(this);
+		shift = WindowShift.combined(events.get(3));
+		Assert.assertEquals(shift.evicted(), 3);
+		Assert.assertEquals(shift.appended(), 2);
+		Assert.assertEquals(series.asIntArray(), new int[] {11, 12, 13});
+		
+		// Other changes are not described by a shift.
+		series.setValue(1, 0);
+		Assert.assertNull(WindowShift.combined(events.get(4)));
+		series.remove(1);
+		Assert.assertNull(WindowShift.combined(events.get(5)));
+		Assert.assertEquals(series.asIntArray(), new int[] {11, 13});
+	}
+	
+	@Test
+	public void generic() {
+		DataSeriesGenericRing<String> series = new DataSeriesGenericRing<>(3);
+		series.appendValues(Arrays.asList("a", "b", "c", "d"));
+		series.appendValue("e");
+		Assert.assertEquals(Arrays.asList(series.asArray()), Arrays.asList("c", "d", "e"));
+		Assert.assertEquals(series.getType(), String.class);
+		Assert.assertNull(series.get(3));
+		series.evict(3);
+		Assert.assertEquals(series.length(), 0);
+		
+		try {
+			series.resize(4);
+			Assert.fail("Resizing beyond the capacity should fail.");
+		}
+		catch (IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+	
+	@Test
+	public void newSeries() {
+		DataSeries<Double> doubles = new DataSeriesDoubleRing(3).getNewSeries(Arrays.asList(1.0, 2.0, 3.0, 4.0, 5.0));
+		Assert.assertEquals(doubles.asDoubleArray(), new double[] {1, 2, 3, 4, 5});
+		Assert.assertEquals(new DataSeriesFloatRing(3).getNewSeries(Arrays.asList(1f, 2f, 3f, 4f)).length(), 4);
+		Assert.assertEquals(new DataSeriesIntegerRing(3).getNewSeries(Arrays.asList(1, 2, 3, 4)).asIntArray(), new int[] {1, 2, 3, 4});
+		Assert.assertEquals(new DataSeriesLongRing(3).getNewSeries(Arrays.asList(1L, 2L, 3L, 4L)).length(), 4);
+		Assert.assertEquals(new DataSeriesGenericRing<String>(3).getNewSeries(Arrays.asList("a", "b", "c", "d")).length(), 4);
+	}
+}
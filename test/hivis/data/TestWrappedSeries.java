@@ -0,0 +1,78 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+
+package hivis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for series wrapping caller-owned arrays (for example {@link DataSeriesDouble#wrap(double[])}).
+ *
+ * @author O. J. Coleman
+ */
+public class TestWrappedSeries {
+	@Test
+	public void wrap() {
+		double[] data = {1, 2, 3, 4};
+		DataSeriesDouble series = DataSeriesDouble.wrap(data);
+		Assert.assertSame(series.getDataRef(), data);
+		List<DataEvent> events = new ArrayList<>();
+		series.addChangeListener(events::add);
+		
+		data[1] = 20;
+		data[2] = 30;
+		series.notifyModified(1, 3);
+		Assert.assertEquals(series.getDouble(2), 30.0);
+		Assert.assertEquals(events.size(), 1);
+		Assert.assertEquals(events.get(0).getAffectedRanges().toString(), new IndexRanges(1, 3).toString());
+		Assert.assertEquals(series.sum().getDouble(), 55.0);
+		
+		// Appending beyond the array replaces it.
+		series.appendValue(5.0);
+		Assert.assertEquals(series.length(), 5);
+		Assert.assertEquals(data.length, 4);
+		
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> series.notifyModified(3, 6));
+	}
+	
+	@Test
+	public void slice() {
+		long[] data = {1, 2, 3, 4, 5, 6};
+		DataSeriesLong.Slice series = DataSeriesLong.wrap(data, 2, 3);
+		Assert.assertEquals(series.asLongArray(), new long[] {3, 4, 5});
+		Assert.assertEquals(series.getLong(3), 0);
+		Assert.assertEquals(series.getType(), Long.class);
+		
+		DataSeries<Long> doubled = series.multiply(2L);
+		Assert.assertEquals(doubled.getLong(0), 6);
+		
+		List<DataEvent> events = new ArrayList<>();
+		series.addChangeListener(events::add);
+		data[2] = 10;
+		series.notifyModified(0, 1);
+		Assert.assertEquals(events.size(), 1);
+		Assert.assertEquals(series.getLong(0), 10);
+		Assert.assertEquals(doubled.getLong(0), 20);
+		
+		Assert.assertThrows(UnsupportedOperationException.class, () -> series.appendValue(1L));
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> DataSeriesInteger.wrap(new int[3], 2, 2));
+	}
+}
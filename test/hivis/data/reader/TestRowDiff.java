@@ -0,0 +1,88 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link RowDiff}.
+ *
+ * @author O. J. Coleman
+ */
+public class TestRowDiff {
+	@Test
+	public void insertRemove() {
+		long[] previous = {1, 2, 3, 4, 5, 6, 7, 8};
+		// Insert 10 after 2, remove 5 and 6, change 8.
+		long[] current = {1, 2, 10, 3, 4, 7, 9};
+		Assert.assertEquals(RowDiff.align(previous, current), new int[] {0, 1, -1, 2, 3, 6, -1});
+		Assert.assertEquals(RowDiff.align(previous, new long[0]), new int[0]);
+		Assert.assertEquals(RowDiff.align(new long[0], current), new int[] {-1, -1, -1, -1, -1, -1, -1});
+	}
+	
+	@Test
+	public void random() {
+		Random r = new Random(1);
+		for (int t = 0; t < 200; t++) {
+			long[] previous = randomRows(r, r.nextInt(40));
+			long[] current = randomRows(r, r.nextInt(40));
+			int[] matches = RowDiff.align(previous, current);
+			
+			// The matches should be in order and a longest common subsequence.
+			int count = 0, last = -1;
+			for (int i = 0; i < current.length; i++) {
+				if (matches[i] >= 0) {
+					Assert.assertTrue(matches[i] > last);
+					Assert.assertEquals(previous[matches[i]], current[i]);
+					last = matches[i];
+					count++;
+				}
+			}
+			Assert.assertEquals(count, lcsLength(previous, current));
+		}
+	}
+	
+	@Test
+	public void maxEdits() {
+		long[] previous = {1, 2, 3, 4, 5, 6};
+		long[] current = {1, 7, 8, 3, 4, 9, 6};
+		// Too many edits to align the middle rows, so only the leading and trailing rows are matched.
+		Assert.assertEquals(RowDiff.align(previous, current, 2), new int[] {0, -1, -1, -1, -1, -1, 5});
+		Assert.assertEquals(RowDiff.align(previous, current, 10), new int[] {0, -1, -1, 2, 3, -1, 5});
+	}
+	
+	private long[] randomRows(Random r, int count) {
+		long[] rows = new long[count];
+		for (int i = 0; i < count; i++) {
+			rows[i] = r.nextInt(5);
+		}
+		return rows;
+	}
+	
+	private int lcsLength(long[] a, long[] b) {
+		int[][] lengths = new int[a.length + 1][b.length + 1];
+		for (int i = 1; i <= a.length; i++) {
+			for (int j = 1; j <= b.length; j++) {
+				lengths[i][j] = a[i - 1] == b[j - 1] ? lengths[i - 1][j - 1] + 1 : Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+			}
+		}
+		return lengths[a.length][b.length];
+	}
+}
@@ -0,0 +1,419 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import hivis.data.DataEvent;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesChange;
+import hivis.data.DataTable;
+import hivis.data.IndexRanges;
+
+/**
+ * Tests for {@link SpreadSheetReader}.
+ *
+ * @author O. J. Coleman
+ */
+public class TestSpreadSheetReader {
+	private File dir;
+	private File csv;
+	private static final int ROWS = 1000;
+	
+	@BeforeClass
+	public void createFile() throws IOException {
+		dir = Files.createTempDirectory("hivis").toFile();
+		csv = new File(dir, "data.csv");
+		try (PrintWriter out = new PrintWriter(csv)) {
+			out.println("id,value,name,date");
+			for (int i = 0; i < ROWS; i++) {
+				out.println(i + "," + (i * 0.5 - 3) + "," + (i % 7 == 0 ? "\"n, " + i + "\"" : "n" + i) + ",2017-01-" + String.format("%02d", i % 28 + 1));
+			}
+			// Row with missing values.
+			out.println(ROWS + ",,");
+		}
+	}
+	
+	@AfterClass
+	public void deleteFile() {
+		csv.delete();
+		dir.delete();
+	}
+	
+	private void checkEqual(DataTable expected, DataTable actual) {
+		Assert.assertEquals(actual.getSeriesLabels().asList(), expected.getSeriesLabels().asList());
+		Assert.assertEquals(actual.length(), expected.length());
+		for (int s = 0; s < expected.seriesCount(); s++) {
+			DataSeries<?> e = expected.get(s), a = actual.get(s);
+			Assert.assertEquals(a.getType(), e.getType());
+			Assert.assertEquals(a.asList(), e.asList());
+		}
+	}
+	
+	@Test
+	public void read() {
+		DataTable table = new SpreadSheetReader(csv).getData();
+		Assert.assertEquals(table.getSeriesLabels().asList().toString(), "[id, value, name, date]");
+		Assert.assertEquals(table.length(), ROWS + 1);
+		Assert.assertEquals(table.get("value").getDouble(3), -1.5);
+		Assert.assertEquals(table.get("name").get(7), "n, 7");
+		Assert.assertTrue(Double.isNaN(table.get("value").getDouble(ROWS)));
+	}
+	
+	@Test
+	public void streaming() {
+		DataTable expected = new SpreadSheetReader(csv).getData();
+		DataTable actual = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(csv).streaming(true).sampleRowCount(10)).getData();
+		checkEqual(expected, actual);
+		
+		// Limited number of rows and columns.
+		expected = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(csv).rowIndex(5).rowCount(100).columnIndex(1).columnCount(2)).getData();
+		actual = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(csv).rowIndex(5).rowCount(100).columnIndex(1).columnCount(2).streaming(true).sampleRowCount(10)).getData();
+		checkEqual(expected, actual);
+		Assert.assertEquals(actual.length(), 100);
+	}
+	
+	@Test
+	public void columns() {
+		DataTable all = new SpreadSheetReader(csv).getData();
+		for (boolean streaming : new boolean[] {false, true}) {
+			DataTable table = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(csv).streaming(streaming).columns("date", "id").rowCount(10)).getData();
+			Assert.assertEquals(table.getSeriesLabels().asList().toString(), "[date, id]");
+			Assert.assertEquals(table.length(), 10);
+			Assert.assertEquals(table.get("date").asList(), all.get("date").asList().subList(0, 10));
+			Assert.assertEquals(table.get("id").asList(), all.get("id").asList().subList(0, 10));
+			
+			table = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(csv).streaming(streaming).columns(2)).getData();
+			Assert.assertEquals(table.getSeriesLabels().asList().toString(), "[name]");
+			Assert.assertEquals(table.get("name").asList(), all.get("name").asList());
+		}
+	}
+	
+	@Test
+	public void parallel() throws IOException {
+		// Large enough to be split into several chunks, with quoted line breaks and separators.
+		File big = new File(dir, "big.csv");
+		try (PrintWriter out = new PrintWriter(big)) {
+			out.print("id,value,name\r\n");
+			for (int i = 0; i < 200000; i++) {
+				out.print(i + "," + (i * 0.25) + "," + (i % 3 == 0 ? "\"n,\n\"\"" + i + "\"\"\"" : "n" + i) + "\r\n");
+			}
+		}
+		try {
+			long[] chunks = CSVTokenizer.findChunks(big, ',', '"', 1, 4);
+			Assert.assertEquals(chunks.length, 5);
+			
+			SpreadSheetReader.Config conf = new SpreadSheetReader.Config().sourceFile(big).streaming(true).sampleRowCount(10);
+			DataTable expected = new SpreadSheetReader(conf.threadCount(1)).getData();
+			DataTable actual = new SpreadSheetReader(conf.threadCount(4)).getData();
+			Assert.assertEquals(actual.length(), 200000);
+			Assert.assertEquals(actual.get("name").get(3), "n,\n\"3\"");
+			checkEqual(expected, actual);
+		}
+		finally {
+			big.delete();
+		}
+	}
+	
+	@Test
+	public void follow() throws IOException {
+		File log = new File(dir, "log.csv");
+		try {
+			Files.write(log.toPath(), "time,value\n1,0.5\n2,1.5\n".getBytes());
+			SpreadSheetReader reader = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(log).follow(true));
+			DataTable table = reader.getData();
+			List<DataEvent> events = new ArrayList<>();
+			table.get("value").addChangeListener(events::add);
+			
+			// The incomplete last row should not be read until it's complete.
+			Files.write(log.toPath(), "3,2.5\n4,\"3".getBytes(), StandardOpenOption.APPEND);
+			reader.fileModified();
+			Assert.assertEquals(table.length(), 3);
+			Files.write(log.toPath(), ".5\"\r\n".getBytes(), StandardOpenOption.APPEND);
+			reader.fileModified();
+			Assert.assertEquals(table.get("time").asList(), Arrays.asList(1.0, 2.0, 3.0, 4.0));
+			Assert.assertEquals(table.get("value").asList(), Arrays.asList(0.5, 1.5, 2.5, 3.5));
+			Assert.assertEquals(events.size(), 2);
+			Assert.assertEquals(events.get(1).getTypes(), Collections.singleton(DataSeriesChange.ValuesAdded));
+			Assert.assertEquals(events.get(1).getAffectedRanges().toString(), new IndexRanges(3, 4).toString());
+			
+			// Rewrite.
+			replace(log, "time,value\n5,0\n");
+			reader.fileModified();
+			Assert.assertEquals(table.get("time").asList(), Arrays.asList(5.0));
+		}
+		finally {
+			log.delete();
+		}
+	}
+	
+	@Test
+	public void continuousModification() throws IOException, InterruptedException {
+		File log = new File(dir, "continuous.csv");
+		try {
+			Files.write(log.toPath(), "time,value\n0,0\n".getBytes());
+			SpreadSheetReader reader = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(log).follow(true).reloadDelay(200).reloadMaxDelay(300));
+			DataTable table = reader.getData();
+			
+			// Append more often than the reload delay: the appended rows should still be read (within the maximum delay).
+			for (int i = 1; i <= 60 && table.length() == 1; i++) {
+				Files.write(log.toPath(), (i + "," + i + "\n").getBytes(), StandardOpenOption.APPEND);
+				Thread.sleep(50);
+			}
+			Assert.assertTrue(table.length() > 1);
+		}
+		finally {
+			log.delete();
+		}
+	}
+	
+	@Test
+	public void diffReload() throws IOException {
+		File sheet = new File(dir, "sheet.csv");
+		try {
+			StringBuilder text = new StringBuilder("id,value,name\n");
+			for (int i = 0; i < 100; i++) {
+				text.append(i + "," + i * 2 + ",n" + i + "\n");
+			}
+			Files.write(sheet.toPath(), text.toString().getBytes());
+			SpreadSheetReader reader = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(sheet).diffReload(true));
+			DataTable table = reader.getData();
+			List<DataEvent> valueEvents = new ArrayList<>(), nameEvents = new ArrayList<>();
+			table.get("value").addChangeListener(valueEvents::add);
+			table.get("name").addChangeListener(nameEvents::add);
+			
+			// Edit a single cell.
+			replace(sheet, text.toString().replace("\n50,100,", "\n50,-1,"));
+			reader.fileModified();
+			Assert.assertEquals(table.get("value").getDouble(50), -1.0);
+			Assert.assertEquals(valueEvents.size(), 1);
+			Assert.assertEquals(valueEvents.get(0).getAffectedRanges().toString(), new IndexRanges(50, 51).toString());
+			Assert.assertEquals(nameEvents.size(), 0);
+			
+			// Insert a row in the middle: the values of the following rows are taken from the previous series.
+			List<Object> names = new ArrayList<>(table.get("name").asList());
+			replace(sheet, text.toString().replace("\n50,100,", "\n50,-1,").replace("\n60,", "\n1000,2000,inserted\n60,"));
+			reader.fileModified();
+			DataTable expected = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(sheet)).getData();
+			checkEqual(expected, table);
+			Assert.assertEquals(table.length(), 101);
+			Assert.assertEquals(table.get("name").get(60), "inserted");
+			Assert.assertSame(table.get("name").get(59), names.get(59));
+			Assert.assertSame(table.get("name").get(61), names.get(60));
+			Assert.assertSame(table.get("name").get(100), names.get(99));
+			
+			// Remove rows in the middle.
+			names = new ArrayList<>(table.get("name").asList());
+			replace(sheet, text.toString().replace("\n50,100,", "\n50,-1,").replace("\n20,40,n20", "").replace("\n21,42,n21", ""));
+			reader.fileModified();
+			expected = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(sheet)).getData();
+			checkEqual(expected, table);
+			Assert.assertEquals(table.length(), 98);
+			Assert.assertSame(table.get("name").get(19), names.get(19));
+			Assert.assertSame(table.get("name").get(20), names.get(22));
+			Assert.assertSame(table.get("name").get(97), names.get(100));
+		}
+		finally {
+			sheet.delete();
+		}
+	}
+	
+	@Test
+	public void reload() throws IOException {
+		File sheet = new File(dir, "reload.csv");
+		try {
+			StringBuilder text = new StringBuilder("id,value,name\n");
+			for (int i = 0; i < 100; i++) {
+				text.append(i + "," + i * 2 + ",n" + i + "\n");
+			}
+			Files.write(sheet.toPath(), text.toString().getBytes());
+			SpreadSheetReader reader = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(sheet));
+			DataTable table = reader.getData();
+			DataSeries<?> value = table.get("value"), name = table.get("name");
+			List<DataEvent> tableEvents = new ArrayList<>(), valueEvents = new ArrayList<>(), nameEvents = new ArrayList<>();
+			table.addChangeListener(tableEvents::add);
+			value.addChangeListener(valueEvents::add);
+			name.addChangeListener(nameEvents::add);
+			
+			// Edit a single numeric cell and two text cells, and add a column.
+			String modified = text.toString().replace("\n20,40,", "\n20,-1,").replace("n30\n", "x\n").replace("n31\n", "y\n");
+			replace(sheet, modified.replace("id,value,name\n", "id,value,name,extra\n").replace("\n0,0,n0\n", "\n0,0,n0,1\n"));
+			reader.fileModified();
+			
+			// The storage of existing series is swapped in, with events only for the changed values.
+			Assert.assertSame(table.get("value"), value);
+			Assert.assertSame(table.get("name"), name);
+			Assert.assertEquals(valueEvents.size(), 1);
+			Assert.assertEquals(valueEvents.get(0).getAffectedRanges().toString(), new IndexRanges(20, 21).toString());
+			Assert.assertEquals(nameEvents.size(), 1);
+			Assert.assertEquals(nameEvents.get(0).getAffectedRanges().toString(), new IndexRanges(30, 32).toString());
+			Assert.assertEquals(tableEvents.size(), 1);
+			DataTable expected = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(sheet)).getData();
+			checkEqual(expected, table);
+		}
+		finally {
+			sheet.delete();
+		}
+	}
+	
+	/**
+	 * Replace the contents of the given file atomically, so the file isn't read while partially written.
+	 */
+	private void replace(File file, String contents) throws IOException {
+		File tmp = Files.createTempFile("hivis", ".csv").toFile();
+		Files.write(tmp.toPath(), contents.getBytes());
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	@Test
+	public void streamingExcel() throws IOException {
+		File xlsx = new File(dir, "sheet.xlsx");
+		try {
+			// Row 3 is omitted, as Excel does for empty rows.
+			StringBuilder rows = new StringBuilder();
+			rows.append("<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c><c r=\"C1\" t=\"s\"><v>2</v></c><c r=\"D1\" t=\"inlineStr\"><is><t>flag</t></is></c></row>");
+			rows.append("<row r=\"2\"><c r=\"A2\"><v>1.5</v></c><c r=\"B2\" t=\"s\"><v>3</v></c><c r=\"C2\" s=\"1\"><v>42736</v></c><c r=\"D2\" t=\"b\"><v>1</v></c></row>");
+			for (int r = 4; r <= 100; r++) {
+				rows.append("<row r=\"" + r + "\"><c r=\"A" + r + "\"><v>" + r + "</v></c><c r=\"C" + r + "\" s=\"1\"><v>" + (42736 + r) + "</v></c></row>");
+			}
+			writeXLSX(xlsx, rows.toString(), "<si><t>value</t></si><si><t>name</t></si><si><t>date</t></si><si><t>a</t></si>");
+			
+			DataTable table = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(xlsx).streaming(true).sampleRowCount(5)).getData();
+			Assert.assertEquals(table.getSeriesLabels().asList().toString(), "[value, name, date, flag]");
+			Assert.assertEquals(table.length(), 99);
+			Assert.assertEquals(table.get("value").getDouble(0), 1.5);
+			Assert.assertTrue(Double.isNaN(table.get("value").getDouble(1)));
+			Assert.assertEquals(table.get("value").getDouble(98), 100.0);
+			Assert.assertEquals(table.get("name").asList().subList(0, 2), Arrays.asList("a", null));
+			Assert.assertEquals(table.get("date").get(0), DateUtil.getJavaDate(42736));
+			Assert.assertEquals(table.get("date").get(98), DateUtil.getJavaDate(42836));
+			Assert.assertEquals(table.get("flag").get(0), Boolean.TRUE);
+			
+			// Limited number of rows and columns.
+			table = new SpreadSheetReader(new SpreadSheetReader.Config().sourceFile(xlsx).streaming(true).sampleRowCount(5).rowCount(50).columnIndex(2).columnCount(1)).getData();
+			Assert.assertEquals(table.getSeriesLabels().asList().toString(), "[date]");
+			Assert.assertEquals(table.length(), 50);
+			Assert.assertEquals(table.get("date").get(49), DateUtil.getJavaDate(42787));
+		}
+		finally {
+			xlsx.delete();
+		}
+	}
+	
+	/**
+	 * Write a minimal workbook with a single sheet containing the given rows, the given shared 
+	 * strings, and a date cell style (with index 1).
+	 */
+	private void writeXLSX(File file, String rows, String sharedStrings) throws IOException {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+		String main = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+		String rel = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+		String pkgRel = "http://schemas.openxmlformats.org/package/2006/relationships";
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+			writeEntry(zip, "[Content_Types].xml", xml + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" + 
+					"<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" + 
+					"<Default Extension=\"xml\" ContentType=\"application/xml\"/>" + 
+					"<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" + 
+					"<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" + 
+					"<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>" + 
+					"<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/></Types>");
+			writeEntry(zip, "_rels/.rels", xml + "<Relationships xmlns=\"" + pkgRel + "\">" + 
+					"<Relationship Id=\"rId1\" Type=\"" + rel + "/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>");
+			writeEntry(zip, "xl/workbook.xml", xml + "<workbook xmlns=\"" + main + "\" xmlns:r=\"" + rel + "\">" + 
+					"<sheets><sheet name=\"Sheet1\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+			writeEntry(zip, "xl/_rels/workbook.xml.rels", xml + "<Relationships xmlns=\"" + pkgRel + "\">" + 
+					"<Relationship Id=\"rId1\" Type=\"" + rel + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>" + 
+					"<Relationship Id=\"rId2\" Type=\"" + rel + "/sharedStrings\" Target=\"sharedStrings.xml\"/>" + 
+					"<Relationship Id=\"rId3\" Type=\"" + rel + "/styles\" Target=\"styles.xml\"/></Relationships>");
+			writeEntry(zip, "xl/worksheets/sheet1.xml", xml + "<worksheet xmlns=\"" + main + "\"><sheetData>" + rows + "</sheetData></worksheet>");
+			writeEntry(zip, "xl/sharedStrings.xml", xml + "<sst xmlns=\"" + main + "\">" + sharedStrings + "</sst>");
+			writeEntry(zip, "xl/styles.xml", xml + "<styleSheet xmlns=\"" + main + "\">" + 
+					"<cellStyleXfs count=\"1\"><xf numFmtId=\"0\"/></cellStyleXfs>" + 
+					"<cellXfs count=\"2\"><xf numFmtId=\"0\"/><xf numFmtId=\"14\"/></cellXfs></styleSheet>");
+		}
+	}
+	
+	private void writeEntry(ZipOutputStream zip, String name, String content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content.getBytes(StandardCharsets.UTF_8));
+		zip.closeEntry();
+	}
+	
+	@Test
+	public void tokenizer() throws IOException {
+		String text = "a,\"b,\"\"c\"\"\",,d\r\n\n\"multi\nline\"\re";
+		// Use a small buffer to test records spanning buffer refills.
+		CSVTokenizer tokenizer = new CSVTokenizer(new StringReader(text), ',', '"', 4);
+		Assert.assertTrue(tokenizer.next());
+		Assert.assertEquals(tokenizer.getStrings(), Arrays.asList("a", "b,\"c\"", "", "d"));
+		Assert.assertTrue(tokenizer.next());
+		Assert.assertEquals(tokenizer.getStrings(), Arrays.asList(""));
+		Assert.assertTrue(tokenizer.next());
+		Assert.assertEquals(tokenizer.getStrings(), Arrays.asList("multi\nline"));
+		Assert.assertTrue(tokenizer.next());
+		Assert.assertEquals(tokenizer.getStrings(), Arrays.asList("e"));
+		Assert.assertFalse(tokenizer.next());
+	}
+	
+	@Test
+	public void numberParser() {
+		NumberParser parser = new NumberParser();
+		Random r = new Random(1);
+		for (int i = 0; i < 100000; i++) {
+			String s;
+			switch (i % 4) {
+				case 0: s = Double.toString(r.nextDouble() * Math.pow(10, r.nextInt(40) - 20)); break;
+				case 1: s = Long.toString(r.nextLong()); break;
+				case 2: s = String.format("%.3f", r.nextGaussian() * 1000); break;
+				default: s = Double.toString(Double.longBitsToDouble(r.nextLong()));
+			}
+			char[] chars = s.toCharArray();
+			Assert.assertTrue(parser.parse(chars, 0, chars.length), s);
+			Assert.assertEquals(Double.doubleToLongBits(parser.value()), Double.doubleToLongBits(Double.parseDouble(s)), s);
+		}
+		for (String s : new String[] {" 12 ", "-0", ".5", "5.", "1e3", "1E-3", "2.5f", "NaN", "-Infinity", "0x1p3", "00012.500"}) {
+			char[] chars = s.toCharArray();
+			Assert.assertTrue(parser.parse(chars, 0, chars.length), s);
+			Assert.assertEquals(parser.value(), Double.parseDouble(s), s);
+		}
+		for (String s : new String[] {"", " ", "-", ".", "e3", "1e", "1.2.3", "12a", "abc", "0x", "Inf"}) {
+			char[] chars = s.toCharArray();
+			Assert.assertFalse(parser.parse(chars, 0, chars.length), s);
+		}
+	}
+}
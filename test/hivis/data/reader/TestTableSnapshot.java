@@ -0,0 +1,127 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import hivis.common.HV;
+import hivis.data.AbstractBufferDataSeries;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesFloat;
+import hivis.data.DataSeriesGeneric;
+import hivis.data.DataSeriesInteger;
+import hivis.data.DataSeriesLong;
+import hivis.data.DataTable;
+import hivis.data.DataTableDefault;
+
+/**
+ * Tests for {@link TableSnapshot}.
+ *
+ * @author O. J. Coleman
+ */
+public class TestTableSnapshot {
+	private static final int ROWS = 1000;
+	
+	private DataTable createTable() {
+		DataSeriesDouble d = new DataSeriesDouble();
+		DataSeriesFloat f = new DataSeriesFloat();
+		DataSeriesInteger i = new DataSeriesInteger();
+		DataSeriesLong l = new DataSeriesLong();
+		DataSeriesGeneric<String> s = new DataSeriesGeneric<>();
+		DataSeriesGeneric<String> u = new DataSeriesGeneric<>();
+		DataSeriesGeneric<Boolean> b = new DataSeriesGeneric<>();
+		DataSeriesGeneric<Date> dt = new DataSeriesGeneric<>();
+		DataSeriesGeneric<LocalDate> ld = new DataSeriesGeneric<>();
+		for (int r = 0; r < ROWS; r++) {
+			d.appendValue(r * 0.25 - 7);
+			f.appendValue(r % 3 == 0 ? Float.NaN : r * 1.5f);
+			i.appendValue(r - 500);
+			l.appendValue(r * 10000000000L);
+			s.appendValue(r % 5 == 0 ? null : "s" + (r % 13));
+			u.appendValue("unique " + r);
+			b.appendValue(r % 2 == 0);
+			dt.appendValue(new Date(1500000000000L + r * 3600000L));
+			ld.appendValue(LocalDate.of(2017, 1, 1).plusDays(r));
+		}
+		return new DataTableDefault().addSeries("double", d).addSeries("float", f).addSeries("int", i).addSeries("long", l)
+				.addSeries("string", s).addSeries("unique ✓", u).addSeries("bool", b).addSeries("date", dt).addSeries("local date", ld);
+	}
+	
+	@Test
+	public void roundTrip() throws IOException {
+		DataTable table = createTable();
+		table.setRowKey(2);
+		File file = File.createTempFile("hivis", ".hvt");
+		try {
+			for (boolean checksums : new boolean[] {true, false}) {
+				HV.saveTable(table, file, checksums);
+				for (boolean mapped : new boolean[] {false, true}) {
+					DataTable loaded = HV.loadTable(file, mapped);
+					
+					Assert.assertEquals(loaded.getSeriesLabels().asList(), table.getSeriesLabels().asList());
+					Assert.assertEquals(loaded.getRowKeyIndex(), 2);
+					for (int s = 0; s < table.seriesCount(); s++) {
+						DataSeries<?> e = table.get(s), a = loaded.get(s);
+						Assert.assertEquals(a.getType(), e.getType());
+						Assert.assertEquals(a.asList(), e.asList());
+					}
+					Assert.assertEquals(loaded.get(0) instanceof AbstractBufferDataSeries, mapped);
+				}
+			}
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void checksum() throws IOException {
+		File file = File.createTempFile("hivis", ".hvt");
+		try {
+			TableSnapshot.save(createTable(), file, true);
+			// Corrupt a value in the first block.
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.seek(16);
+				raf.write(0x7F);
+			}
+			Assert.assertThrows(DataReadException.class, () -> new TableSnapshot(file));
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void unsupportedType() throws IOException {
+		DataTable table = new DataTableDefault().addSeries("object", new DataSeriesGeneric<Object>(new Object()));
+		File file = File.createTempFile("hivis", ".hvt");
+		try {
+			Assert.assertThrows(IllegalArgumentException.class, () -> TableSnapshot.save(table, file, false));
+		}
+		finally {
+			file.delete();
+		}
+	}
+}
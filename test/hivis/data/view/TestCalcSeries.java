@@ -0,0 +1,295 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import hivis.data.DataEvent;
+import hivis.data.DataListener;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesFloat;
+import hivis.data.DataSeriesInteger;
+import hivis.data.DataSeriesLong;
+import hivis.data.DataValueDouble;
+
+/**
+ * Tests for {@link CalcSeries}, in particular that incrementally updated
+ * (element-wise) views produce the same values as a full recalculation.
+ *
+ * @author O. J. Coleman
+ */
+public class TestCalcSeries {
+	@DataProvider(name = "data")
+	public Object[][] data() {
+		int[][] dataNumeric = new int[][] {
+			{},
+			{3},
+			{3, 45, 21, 9, 3},
+			{3, 45, 21, 45, 9, 3, 3}
+		};
+
+		List<DataSeries<? extends Number>> outList = new ArrayList<>();
+
+		for (int i = 0; i < dataNumeric.length; i++) {
+			outList.add(new DataSeriesInteger(dataNumeric[i]));
+		}
+		for (int i = 0; i < dataNumeric.length; i++) {
+			outList.add(new DataSeriesLong(Arrays.stream(dataNumeric[i]).mapToLong(e->e).toArray()));
+		}
+		for (int i = 0; i < dataNumeric.length; i++) {
+			float[] dataFloats = new float[dataNumeric[i].length];
+			for (int j = 0; j < dataNumeric[i].length; j++) { dataFloats[j] = dataNumeric[i][j]; }
+			outList.add(new DataSeriesFloat(dataFloats));
+		}
+		for (int i = 0; i < dataNumeric.length; i++) {
+			outList.add(new DataSeriesDouble(Arrays.stream(dataNumeric[i]).mapToDouble(e->e).toArray()));
+		}
+
+		Object[][] out = new Object[outList.size()][1];
+		for (int i = 0; i < outList.size(); i++) {
+			out[i][0] = outList.get(i);
+		}
+		return out;
+	}
+
+	/**
+	 * Create a set of views of the given series covering the element-wise CalcSeries implementations.
+	 */
+	private List<DataSeries<?>> getViews(DataSeries<? extends Number> original) {
+		List<DataSeries<?>> views = new ArrayList<>();
+		views.add(original.add(2));
+		views.add(original.multiply(3.5));
+		views.add(original.subtract(new DataValueDouble(1.5)));
+		views.add(original.divide(original.add(1)));
+		views.add(original.applyMathMethod("sqrt"));
+		views.add(original.apply(new Function<Number, Double>() {
+			public Double apply(Number n) {
+				return n.doubleValue() * 2;
+			}
+		}));
+		views.add(original.apply(Function.doubleToDouble(v -> v * 3)));
+		views.add(original.apply(Function.doubleToBoolean(v -> v > 20)));
+		// Trigger initial calculation.
+		for (DataSeries<?> v : views) {
+			v.get(0);
+		}
+		return views;
+	}
+
+	/**
+	 * Check that each view contains the same values as a newly created (fully calculated) view.
+	 */
+	private void checkViews(DataSeries<? extends Number> original, List<DataSeries<?>> views) {
+		List<DataSeries<?>> expected = getViews(original.copy());
+		Assert.assertEquals(views.size(), expected.size());
+		for (int v = 0; v < views.size(); v++) {
+			Assert.assertEquals(views.get(v).length(), original.length());
+			for (int i = 0; i < original.length(); i++) {
+				Assert.assertEquals(views.get(v).get(i), expected.get(v).get(i));
+			}
+		}
+	}
+
+	@Test(dataProvider = "data")
+	public void updatedSet(DataSeries<? extends Number> original) {
+		List<DataSeries<?>> views = getViews(original);
+		if (original.length() > 0) {
+			original.set(0, 200);
+			checkViews(original, views);
+			original.set(original.length()/2, 100);
+			checkViews(original, views);
+			original.set(original.length()-1, 300);
+			checkViews(original, views);
+		}
+	}
+
+	@Test(dataProvider = "data")
+	public void updatedAppend(DataSeries<? extends Number> original) {
+		List<DataSeries<?>> views = getViews(original);
+		original.append(200);
+		checkViews(original, views);
+		original.append(100);
+		checkViews(original, views);
+	}
+
+	@Test(dataProvider = "data")
+	public void updatedRemove(DataSeries<? extends Number> original) {
+		List<DataSeries<?>> views = getViews(original);
+		while (original.length() > 1) {
+			original.remove(1);
+			checkViews(original, views);
+		}
+		if (original.length() > 0) {
+			original.remove(0);
+			checkViews(original, views);
+		}
+	}
+
+	@Test(dataProvider = "data")
+	public void updatedResize(DataSeries<? extends Number> original) {
+		List<DataSeries<?>> views = getViews(original);
+		original.resize(original.length() + 2);
+		checkViews(original, views);
+		original.resize(original.length() / 2);
+		checkViews(original, views);
+	}
+
+	@Test(dataProvider = "data")
+	public void updatedBatch(DataSeries<? extends Number> original) {
+		List<DataSeries<?>> views = getViews(original);
+		original.beginChanges(this);
+		original.append(7);
+		if (original.length() > 2) {
+			original.set(1, 11);
+			original.remove(0);
+		}
+		original.finishChanges(this);
+		checkViews(original, views);
+	}
+
+	@Test
+	public void affectedRanges() {
+		DataSeriesDouble original = new DataSeriesDouble(1, 2, 3, 4, 5, 6);
+		DataSeries<Double> view = original.add(1.0);
+		view.get(0);
+
+		final List<DataEvent> events = new ArrayList<>();
+		view.addChangeListener(new DataListener() {
+			@Override
+			public void dataChanged(DataEvent event) {
+				events.add(event);
+			}
+		});
+
+		original.set(3, 10);
+		Assert.assertEquals(events.size(), 1);
+		Assert.assertNotNull(events.get(0).getAffectedRanges());
+		Assert.assertEquals(events.get(0).getAffectedRanges().toString(), "[3-4]");
+
+		// Setting the same value should not produce an event.
+		original.set(3, 10);
+		Assert.assertEquals(events.size(), 1);
+
+		original.append(7);
+		Assert.assertEquals(events.size(), 2);
+		Assert.assertEquals(events.get(1).getAffectedRanges().toString(), "[6-7]");
+		Assert.assertEquals(view.getDouble(6), 8.0);
+	}
+
+	@Test
+	public void mathMethods() throws Exception {
+		double[] values = {-2.5, -1, 0, 0.5, 1, 3.7, 100};
+		DataSeriesDouble doubles = new DataSeriesDouble(values);
+		DataSeriesFloat floats = new DataSeriesFloat(-2.5f, -1, 0, 0.5f, 1, 3.7f, 100);
+		DataSeriesInteger ints = new DataSeriesInteger(new int[] {-2, -1, 0, 1, 3, 100});
+		DataSeriesLong longs = new DataSeriesLong(new long[] {-2, -1, 0, 1, 3, 100});
+		
+		for (String func : new String[] {"abs", "sqrt", "exp", "log", "sin", "cos", "ceil", "floor", "rint", "signum", "ulp", "nextUp", "toDegrees", "cbrt", "round", "getExponent", "negateExact", "incrementExact"}) {
+			for (DataSeries<?> series : new DataSeries<?>[] {doubles, floats, ints, longs}) {
+				DataSeries<?> view;
+				try {
+					view = series.applyMathMethod(func);
+				}
+				catch (IllegalArgumentException e) {
+					// Method not available for this type.
+					continue;
+				}
+				java.lang.reflect.Method method = Math.class.getMethod(func, view instanceof CalcSeries.Maths ? ((CalcSeries.Maths<?>) view).method.getParameterTypes()[0] : double.class);
+				for (int i = 0; i < series.length(); i++) {
+					Object arg = method.getParameterTypes()[0].equals(double.class) ? series.getDouble(i) :
+						method.getParameterTypes()[0].equals(float.class) ? series.getFloat(i) :
+						method.getParameterTypes()[0].equals(int.class) ? series.getInt(i) : (Object) series.getLong(i);
+					Assert.assertEquals(view.get(i), method.invoke(null, arg), func + " of " + series.getType().getSimpleName() + " at " + i);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void primitiveFunctions() {
+		DataSeriesInteger ints = new DataSeriesInteger(new int[] {-2, 5, 7});
+		DataSeriesLong longs = new DataSeriesLong(new long[] {-2, 5, 7});
+
+		DataSeries<Integer> squared = ints.apply(Function.intToInt(v -> v * v));
+		Assert.assertEquals(squared.getType(), Integer.class);
+		Assert.assertEquals(squared.asIntArray(), new int[] {4, 25, 49});
+
+		DataSeries<Double> halved = ints.apply(Function.intToDouble(v -> v / 2.0));
+		Assert.assertEquals(halved.asDoubleArray(), new double[] {-1, 2.5, 3.5});
+
+		DataSeries<Long> negated = longs.apply(Function.longToLong(v -> -v));
+		Assert.assertEquals(negated.getType(), Long.class);
+		Assert.assertEquals(negated.getLong(2), -7L);
+
+		DataSeries<Double> doubled = longs.apply(Function.longToDouble(v -> v * 2.0));
+		Assert.assertEquals(doubled.asDoubleArray(), new double[] {-4, 10, 14});
+
+		DataSeries<Boolean> positive = ints.apply(Function.doubleToBoolean(v -> v > 0));
+		Assert.assertEquals(positive.get(0), Boolean.FALSE);
+		Assert.assertEquals(positive.get(1), Boolean.TRUE);
+
+		ints.set(0, 3);
+		Assert.assertEquals(squared.getInt(0), 9);
+		Assert.assertEquals(positive.get(0), Boolean.TRUE);
+	}
+
+	@Test
+	public void outputType() {
+		DataSeriesInteger ints = new DataSeriesInteger(new int[] {1, 2, 3});
+		final int[] count = new int[1];
+		Function<Integer, Object> f = new Function<Integer, Object>() {
+			public Object apply(Integer input) {
+				count[0]++;
+				return (long) input;
+			}
+		};
+		// Output type isn't concrete, so no values are calculated until the view is used.
+		DataSeries<Object> view = ints.apply(f);
+		Assert.assertEquals(count[0], 0);
+		Assert.assertEquals(view.getType(), Long.class);
+		Assert.assertEquals(view.get(2), 3L);
+
+		// Type given explicitly.
+		count[0] = 0;
+		DataSeries<Object> typed = ints.apply(f, Object.class);
+		Assert.assertEquals(count[0], 0);
+		Assert.assertEquals(typed.get(1), 2L);
+	}
+
+	@Test
+	public void mixedOutputTypes() {
+		DataSeriesDouble reals = new DataSeriesDouble(new double[] {1, 2.5, 3});
+		DataSeries<Number> view = reals.apply(new Function<Double, Number>() {
+			public Number apply(Double input) {
+				return input == Math.rint(input) ? (Number) input.intValue() : input;
+			}
+		});
+		Assert.assertEquals(view.get(0), 1);
+		Assert.assertEquals(view.get(1), 2.5);
+		Assert.assertEquals(view.get(2), 3);
+
+		reals.set(0, 1.5);
+		Assert.assertEquals(view.get(0), 1.5);
+	}
+}
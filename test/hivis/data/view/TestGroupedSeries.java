@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
 
 import org.testng.Assert;
@@ -28,6 +29,7 @@ import hivis.data.DataSeriesDouble;
 import hivis.data.DataSeriesFloat;
 import hivis.data.DataSeriesGeneric;
 import hivis.data.DataSeriesInteger;
+import hivis.data.DataSeriesIntegerRing;
 import hivis.data.DataSeriesLong;
 
 /**
@@ -181,4 +183,61 @@ public class TestGroupedSeries {
 		
 		checkGroups(original, groups, customFunc);
 	}
+
+	@Test(dataProvider = "data")
+	public void updatedGroupingMoveValues(DataSeries<?> original, DataMap<?, DataSeries<?>> groups, Function customFunc) {
+		// Move values between groups one at a time (creating and emptying groups).
+		Object[] values = original.asArray();
+		for (int i = 0; i < values.length; i++) {
+			original.set(i, values[values.length - 1 - i]);
+			checkGroups(original, groups, customFunc);
+		}
+		for (int i = 0; i < values.length; i++) {
+			original.set(i, original.isNumeric() ? 7 : "q");
+			original.append(values[i]);
+			checkGroups(original, groups, customFunc);
+		}
+	}
+	
+	@Test
+	public void windowShift() {
+		final int[] keys = new int[1];
+		Function<Integer, Integer> mod = new Function<Integer, Integer>() {
+			public Integer apply(Integer v) {
+				keys[0]++;
+				return v % 3;
+			}
+		};
+		DataSeriesIntegerRing ring = new DataSeriesIntegerRing(20);
+		DataMap<Integer, SeriesView<Integer>> groups = ring.group(mod);
+		Random r = new Random(1);
+		for (int i = 0; i < 300; i++) {
+			int op = r.nextInt(10);
+			if (op == 0) {
+				ring.appendValues(new int[] {r.nextInt(100), r.nextInt(100), r.nextInt(100)}, 0, 3);
+			}
+			else if (op == 1 && ring.length() > 5) {
+				ring.evict(r.nextInt(5));
+			}
+			else if (op == 2 && ring.length() > 0) {
+				ring.set(r.nextInt(ring.length()), r.nextInt(100));
+			}
+			else {
+				ring.append(r.nextInt(100));
+			}
+			checkGroups(ring, groups, mod);
+		}
+		
+		// Each shift only calculates the keys of the appended values.
+		while (!ring.isFull()) {
+			ring.append(0);
+		}
+		keys[0] = 0;
+		for (int i = 0; i < 50; i++) {
+			ring.append(i);
+			Assert.assertEquals(groups.get(i % 3).getInt(groups.get(i % 3).length() - 1), i);
+		}
+		Assert.assertEquals(keys[0], 50);
+		checkGroups(ring, groups, mod);
+	}
 }
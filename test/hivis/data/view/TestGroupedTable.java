@@ -0,0 +1,168 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import hivis.data.DataRow;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesGeneric;
+import hivis.data.DataSeriesInteger;
+import hivis.data.DataSeriesLong;
+import hivis.data.DataTable;
+import hivis.data.DataTableDefault;
+import hivis.data.view.CalcValue.SeriesOp;
+
+/**
+ * Tests for {@link DefaultGroupedTable}.
+ *
+ * @author O. J. Coleman
+ */
+public class TestGroupedTable {
+	private DataTable getTable() {
+		DataTable table = new DataTableDefault();
+		table.addSeries("group", new DataSeriesInteger(new int[] {2, 1, 2, 1, 3, 1}));
+		table.addSeries("score", new DataSeriesDouble(5, 7, 9, 7, 1, 3));
+		table.addSeries("name", new DataSeriesGeneric<String>("a", "b", "c", "d", "e", "f"));
+		return table;
+	}
+
+	@Test
+	public void grouping() {
+		GroupedTable<Integer> grouped = getTable().group("group");
+		Assert.assertEquals(grouped.keys().asArray(), new Object[] {2, 1, 3});
+		Assert.assertEquals(grouped.get(1).get("name").asArray(), new Object[] {"b", "d", "f"});
+		Assert.assertEquals(grouped.get(2).get("score").asDoubleArray(), new double[] {5, 9});
+		Assert.assertEquals(grouped.get(3).length(), 1);
+		// Groups that don't exist are empty.
+		Assert.assertEquals(grouped.get(4).length(), 0);
+	}
+
+	@Test
+	public void keyFunction() {
+		GroupedTable<Boolean> grouped = getTable().group(new Function<DataRow, Boolean>() {
+			@Override
+			public Boolean apply(DataRow row) {
+				return row.getDouble("score") > 4;
+			}
+		});
+		Assert.assertEquals(grouped.get(true).get("name").asArray(), new Object[] {"a", "b", "c", "d"});
+		Assert.assertEquals(grouped.get(false).get("name").asArray(), new Object[] {"e", "f"});
+	}
+
+	@Test
+	public void updated() {
+		DataTable table = getTable();
+		GroupedTable<Integer> grouped = table.group(0);
+		DataTable group1 = grouped.get(1);
+		DataTable group3 = grouped.get(3);
+		DataTable group4 = grouped.get(4);
+
+		// Move row e from group 3 to group 1.
+		table.get("group").set(4, 1);
+		Assert.assertEquals(group1.get("name").asArray(), new Object[] {"b", "d", "e", "f"});
+		Assert.assertEquals(group3.length(), 0);
+		Assert.assertFalse(grouped.containsKey(3));
+
+		// Add a row to a new group.
+		table.get("group").set(0, 4);
+		Assert.assertEquals(group4.get("name").asArray(), new Object[] {"a"});
+		Assert.assertTrue(grouped.containsKey(4));
+	}
+
+	@Test
+	public void aggregate() {
+		DataTable table = getTable();
+		GroupedTable<Integer> grouped = table.group("group");
+		
+		DataTable mean = grouped.aggregateMean();
+		Assert.assertEquals(mean.get("group").asDoubleArray(), new double[] {2, 1, 3});
+		Assert.assertEquals(mean.get("score").asDoubleArray(), new double[] {7, 17.0 / 3, 1});
+		// Non-numeric series take the first value in each group.
+		Assert.assertEquals(mean.get("name").asArray(), new Object[] {"a", "b", "e"});
+		
+		List<TableView> stats = grouped.aggregate(SeriesOp.MINIMUM, SeriesOp.MAXIMUM, SeriesOp.SUM, SeriesOp.PRODUCT, SeriesOp.VARIANCE, SeriesOp.STANDARD_DEVIATION);
+		Assert.assertEquals(stats.get(0).get("score").asDoubleArray(), new double[] {5, 3, 1});
+		Assert.assertEquals(stats.get(1).get("score").asDoubleArray(), new double[] {9, 7, 1});
+		Assert.assertEquals(stats.get(2).get("score").asDoubleArray(), new double[] {14, 17, 1});
+		Assert.assertEquals(stats.get(3).get("score").asDoubleArray(), new double[] {45, 147, 1});
+		
+		// Compare with the statistics calculated from the group tables.
+		for (Integer key : grouped.keys().asArray()) {
+			int row = grouped.keys().asList().indexOf(key);
+			DataSeries<?> score = grouped.get(key).get("score");
+			Assert.assertEquals(stats.get(4).get("score").getDouble(row), score.variance().getDouble(), 1e-12);
+			Assert.assertEquals(stats.get(5).get("score").getDouble(row), score.stdDev().getDouble(), 1e-12);
+		}
+		
+		// Move row e from group 3 to group 1 and change a score.
+		table.get("group").set(4, 1);
+		table.get("score").set(0, 11);
+		Assert.assertEquals(mean.get("score").asDoubleArray(), new double[] {10, 4.5});
+		Assert.assertEquals(stats.get(2).get("score").asDoubleArray(), new double[] {20, 18});
+	}
+	
+	@Test
+	public void aggregateEquivalence() {
+		DataTable table = new DataTableDefault();
+		table.addSeries("group", new DataSeriesInteger(new int[] {0, 1, 0, 1, 2, 0, 2}));
+		table.addSeries("double", new DataSeriesDouble(1.5, Double.NaN, -2, 4, 3, 0.25, 8));
+		// Sums that are not exact if accumulated as doubles.
+		long big = 1L << 53;
+		table.addSeries("long", new DataSeriesLong(new long[] {big, 3, 1, Long.MAX_VALUE / 2, -7, 1, 5}));
+		table.addSeries("int", new DataSeriesInteger(new int[] {3, -4, 5, 6, Integer.MAX_VALUE, -1, 2}));
+		GroupedTable<Integer> grouped = table.group("group");
+		
+		SeriesOp[] ops = SeriesOp.values();
+		List<TableView> stats = grouped.aggregate(ops);
+		for (int o = 0; o < ops.length; o++) {
+			for (String label : new String[] {"double", "long", "int"}) {
+				for (Integer key : grouped.keys().asArray()) {
+					int row = grouped.keys().asList().indexOf(key);
+					double expected = perGroup(grouped.get(key).get(label), ops[o]);
+					double actual = stats.get(o).get(label).getDouble(row);
+					if (ops[o] == SeriesOp.VARIANCE || ops[o] == SeriesOp.STANDARD_DEVIATION) {
+						Assert.assertEquals(actual, expected, Math.abs(expected) * 1e-12, ops[o] + " " + label + " " + key);
+					}
+					else {
+						Assert.assertEquals(Double.valueOf(actual), Double.valueOf(expected), ops[o] + " " + label + " " + key);
+					}
+				}
+			}
+		}
+		// Group 1 contains NaN, so its statistics (other than for integer series) are NaN, as for the per-group statistics.
+		Assert.assertTrue(Double.isNaN(grouped.aggregateMin().get("double").getDouble(1)));
+		Assert.assertEquals(grouped.aggregateSum().get("long").getDouble(0), (double) (big + 2));
+	}
+	
+	private double perGroup(DataSeries<?> series, SeriesOp op) {
+		switch (op) {
+			case MINIMUM: return series.min().getDouble();
+			case MAXIMUM: return series.max().getDouble();
+			case SUM: return series.sum().getDouble();
+			case PRODUCT: return series.product().getDouble();
+			case MEAN: return series.mean().getDouble();
+			case VARIANCE: return series.variance().getDouble();
+			case STANDARD_DEVIATION: return series.stdDev().getDouble();
+		}
+		throw new IllegalArgumentException();
+	}
+}
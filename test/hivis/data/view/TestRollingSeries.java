@@ -0,0 +1,218 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import hivis.data.DataEvent;
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesChange;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesDoubleRing;
+import hivis.data.DataSeriesLong;
+import hivis.data.view.CalcValue.SeriesOp;
+
+/**
+ * Tests for {@link RollingSeries}, via {@link DataSeries#rolling(int)} and
+ * {@link DataSeries#rolling(DataSeries, double)}, checking that incrementally 
+ * updated values match those calculated directly from the windows.
+ *
+ * @author O. J. Coleman
+ */
+public class TestRollingSeries {
+	private static final SeriesOp[] OPS = { SeriesOp.SUM, SeriesOp.MEAN, SeriesOp.VARIANCE, SeriesOp.STANDARD_DEVIATION, SeriesOp.MINIMUM, SeriesOp.MAXIMUM };
+	
+	@DataProvider(name = "ops")
+	public Object[][] ops() {
+		Object[][] ops = new Object[OPS.length][];
+		for (int i = 0; i < OPS.length; i++) ops[i] = new Object[] { OPS[i] };
+		return ops;
+	}
+	
+	@Test(dataProvider = "ops")
+	public void count(SeriesOp op) {
+		Random random = new Random(1);
+		DataSeriesDouble series = new DataSeriesDouble();
+		SeriesView<Double> view = series.rolling(7).get(op);
+		List<DataEvent> events = new ArrayList<>();
+		view.addChangeListener(events::add);
+		
+		for (int i = 0; i < 200; i++) {
+			int r = random.nextInt(10);
+			if (r < 7) {
+				series.appendValue(random.nextInt(10) == 0 ? Double.NaN : random.nextDouble());
+			}
+			else if (r < 9) {
+				double[] values = new double[random.nextInt(20)];
+				for (int j = 0; j < values.length; j++) values[j] = random.nextDouble();
+				series.appendValues(values, 0, values.length);
+			}
+			else if (series.length() > 0) {
+				series.setValue(random.nextInt(series.length()), random.nextDouble());
+			}
+			check(view, series, null, 7, 0, op);
+		}
+		
+		// Appends only calculate and report the new values.
+		events.clear();
+		series.appendValue(0.5);
+		Assert.assertEquals(events.size(), 1);
+		Assert.assertEquals(events.get(0).getTypes(), Collections.singleton(DataSeriesChange.ValuesAdded));
+		check(view, series, null, 7, 0, op);
+	}
+	
+	@Test(dataProvider = "ops")
+	public void time(SeriesOp op) {
+		Random random = new Random(2);
+		DataSeriesDouble series = new DataSeriesDouble();
+		DataSeriesLong times = new DataSeriesLong();
+		SeriesView<Double> view = series.rolling(times, 100).get(op);
+		long time = 0;
+		for (int i = 0; i < 300; i++) {
+			time += random.nextInt(40);
+			times.appendValue(time);
+			series.appendValue(random.nextDouble());
+			if (random.nextInt(20) == 0) {
+				series.setValue(random.nextInt(series.length()), random.nextDouble());
+			}
+			check(view, series, times, 0, 100, op);
+		}
+	}
+	
+	@Test(dataProvider = "ops")
+	public void ring(SeriesOp op) {
+		Random random = new Random(3);
+		DataSeriesDoubleRing series = new DataSeriesDoubleRing(30);
+		SeriesView<Double> view = series.rolling(5).get(op);
+		for (int i = 0; i < 200; i++) {
+			if (random.nextInt(4) == 0) {
+				double[] values = new double[random.nextInt(40)];
+				for (int j = 0; j < values.length; j++) values[j] = random.nextDouble();
+				series.appendValues(values, 0, values.length);
+			}
+			else if (random.nextInt(20) == 0) {
+				series.evict(random.nextInt(series.length() + 1));
+			}
+			else {
+				series.appendValue(random.nextDouble());
+			}
+			check(view, series, null, 5, 0, op);
+		}
+	}
+	
+	@Test
+	public void nonFinite() {
+		DataSeriesDouble series = new DataSeriesDouble(1, Double.POSITIVE_INFINITY, 2, Double.NEGATIVE_INFINITY, 3, 4);
+		Assert.assertEquals(series.rolling(2).sum().asDoubleArray(), new double[] {1, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, 7});
+		Assert.assertEquals(series.rolling(4).sum().getDouble(3), Double.NaN);
+		Assert.assertEquals(series.rolling(3).max().asDoubleArray(), new double[] {1, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 3, 4});
+		
+		// Views are reused.
+		Assert.assertSame(series.rolling(3).max(), series.rolling(3).max());
+	}
+	
+	@Test
+	public void magnitudes() {
+		DataSeriesDouble series = new DataSeriesDouble(1e20, 1, 1, 1, 1);
+		Assert.assertEquals(series.rolling(2).sum().asDoubleArray(), new double[] {1e20, 1e20, 2, 2, 2});
+		Assert.assertEquals(series.rolling(2).mean().getDouble(4), 1.0);
+		
+		// Streaming appends.
+		DataSeriesDouble stream = new DataSeriesDouble();
+		SeriesView<Double> sum = stream.rolling(3).sum();
+		for (int i = 0; i < 100; i++) {
+			stream.appendValue(i % 10 == 0 ? 1e20 : 1);
+			Assert.assertEquals(sum.getDouble(i), i % 10 < 3 ? 1e20 : 3.0, "Index " + i);
+		}
+		
+		series = new DataSeriesDouble(1e17, 1, 2, 3);
+		Assert.assertEquals(series.rolling(3).variance().getDouble(3), 2.0 / 3, 1e-12);
+		Assert.assertEquals(series.rolling(3).stdDev().getDouble(3), Math.sqrt(2.0 / 3), 1e-12);
+		
+		// Ring series, with the large value evicted.
+		DataSeriesDoubleRing ring = new DataSeriesDoubleRing(3);
+		SeriesView<Double> variance = ring.rolling(2).variance();
+		SeriesView<Double> stdDev = ring.rolling(2).stdDev();
+		for (double v : new double[] {1e17, 1, 2, 4}) {
+			ring.appendValue(v);
+		}
+		Assert.assertEquals(variance.length(), 3);
+		Assert.assertEquals(variance.getDouble(1), 0.25, 1e-12);
+		Assert.assertEquals(variance.getDouble(2), 1.0, 1e-12);
+		Assert.assertEquals(stdDev.getDouble(1), 0.5, 1e-12);
+		Assert.assertEquals(stdDev.getDouble(2), 1.0, 1e-12);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void invalidSize() {
+		new DataSeriesDouble().rolling(0);
+	}
+	
+	
+	private void check(SeriesView<Double> view, DataSeries<?> series, DataSeries<?> times, int size, double duration, SeriesOp op) {
+		Assert.assertEquals(view.length(), series.length());
+		for (int i = 0; i < series.length(); i++) {
+			double expected = calc(series, times, size, duration, op, i);
+			double actual = view.getDouble(i);
+			if (Double.isNaN(expected)) {
+				Assert.assertTrue(Double.isNaN(actual), "Index " + i + ": expected NaN but found " + actual);
+			}
+			else {
+				Assert.assertEquals(actual, expected, 1e-9, "Index " + i);
+			}
+		}
+	}
+	
+	/**
+	 * Calculate the given statistic for the window ending at the given index directly.
+	 */
+	private double calc(DataSeries<?> series, DataSeries<?> times, int size, double duration, SeriesOp op, int index) {
+		double sum = 0, min = Double.NaN, max = Double.NaN;
+		int count = 0;
+		List<Double> values = new ArrayList<>();
+		for (int j = index; j >= 0; j--) {
+			if (times == null ? j <= index - size : times.getDouble(j) <= times.getDouble(index) - duration) {
+				break;
+			}
+			double v = series.getDouble(j);
+			if (Double.isNaN(v)) continue;
+			values.add(v);
+			sum += v;
+			count++;
+			min = Double.isNaN(min) ? v : Math.min(min, v);
+			max = Double.isNaN(max) ? v : Math.max(max, v);
+		}
+		double mean = sum / count, variance = 0;
+		for (double v : values) variance += (v - mean) * (v - mean);
+		variance /= count;
+		switch (op) {
+			case SUM: return sum;
+			case MEAN: return mean;
+			case VARIANCE: return variance;
+			case STANDARD_DEVIATION: return Math.sqrt(variance);
+			case MINIMUM: return min;
+			default: return max;
+		}
+	}
+}
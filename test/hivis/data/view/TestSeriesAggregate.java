@@ -0,0 +1,216 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import hivis.data.DataSeries;
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesDoubleRing;
+import hivis.data.DataSeriesFloat;
+import hivis.data.DataSeriesInteger;
+import hivis.data.DataSeriesLong;
+import hivis.data.DataSeriesLongRing;
+
+/**
+ * Tests for {@link SeriesAggregate}, via {@link DataSeries#min()},
+ * {@link DataSeries#mean()} etc, checking that incrementally updated aggregate
+ * values match those calculated directly from the series values.
+ *
+ * @author O. J. Coleman
+ */
+public class TestSeriesAggregate {
+	@DataProvider(name = "data")
+	public Object[][] data() {
+		return new Object[][] {
+			{new DataSeriesInteger(new int[] {3, 45, 21, 9, 3})},
+			{new DataSeriesLong(new long[] {3, 45, 21, 9, 3})},
+			{new DataSeriesFloat(3, 45, 21, 9, 3)},
+			{new DataSeriesDouble(3, 45, 21, 9, 3)},
+			{new DataSeriesDouble()},
+		};
+	}
+
+	private void check(DataSeries<?> series) {
+		double[] values = series.asDoubleArray();
+		double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0, product = 1;
+		for (double v : values) {
+			min = Math.min(min, v);
+			max = Math.max(max, v);
+			sum += v;
+			product *= v;
+		}
+		Assert.assertEquals(series.sum().getDouble(), sum, 1e-6);
+		if (values.length == 0) {
+			Assert.assertTrue(Double.isNaN(series.mean().getDouble()));
+			return;
+		}
+		double mean = sum / values.length;
+		double variance = 0;
+		for (double v : values) {
+			variance += (v - mean) * (v - mean);
+		}
+		variance /= values.length;
+
+		Assert.assertEquals(series.min().getDouble(), min);
+		Assert.assertEquals(series.max().getDouble(), max);
+		Assert.assertEquals(series.product().getDouble(), product, Math.abs(product) * 1e-6);
+		Assert.assertEquals(series.mean().getDouble(), mean, 1e-9);
+		Assert.assertEquals(series.variance().getDouble(), variance, 1e-6);
+		Assert.assertEquals(series.stdDev().getDouble(), Math.sqrt(variance), 1e-6);
+	}
+
+	@Test(dataProvider = "data")
+	public void updated(DataSeries<?> series) {
+		check(series);
+		Random r = new Random(1);
+		for (int i = 0; i < 200; i++) {
+			int op = r.nextInt(4);
+			int length = series.length();
+			if (op == 0 && length > 0) {
+				series.set(r.nextInt(length), r.nextInt(20) - 5);
+			}
+			else if (op == 1 || length < 2) {
+				series.append(r.nextInt(20) - 5);
+			}
+			else if (op == 2) {
+				series.remove(r.nextInt(length));
+			}
+			else {
+				// Change the current minimum.
+				int index = 0;
+				for (int j = 1; j < length; j++) {
+					if (series.getDouble(j) < series.getDouble(index)) index = j;
+				}
+				series.set(index, 10);
+			}
+			if (length > 8) {
+				series.resize(4);
+			}
+			check(series);
+		}
+	}
+
+	@Test
+	public void nonFinite() {
+		DataSeriesDouble series = new DataSeriesDouble(1, 2, 3);
+		Assert.assertEquals(series.sum().getDouble(), 6.0);
+		series.set(1, Double.NaN);
+		Assert.assertTrue(Double.isNaN(series.sum().getDouble()));
+		Assert.assertTrue(Double.isNaN(series.mean().getDouble()));
+		series.set(1, 5);
+		Assert.assertEquals(series.sum().getDouble(), 9.0);
+		Assert.assertEquals(series.max().getDouble(), 5.0);
+	}
+
+	@Test
+	public void largeValueRemoved() {
+		DataSeriesDouble series = new DataSeriesDouble(1e17, 1, 2);
+		Assert.assertEquals(series.sum().getDouble(), 1e17);
+		series.set(0, 0.0);
+		Assert.assertEquals(series.sum().getDouble(), 3.0);
+		Assert.assertEquals(series.mean().getDouble(), 1.0);
+		Assert.assertEquals(series.variance().getDouble(), 2.0 / 3, 1e-12);
+		series.remove(0);
+		Assert.assertEquals(series.sum().getDouble(), 3.0);
+		Assert.assertEquals(series.variance().getDouble(), 0.25, 1e-12);
+		
+		DataSeriesLong longs = new DataSeriesLong(new long[] {100000000000000000L, 1, 2});
+		Assert.assertEquals(longs.sum().getLong(), 100000000000000003L);
+		longs.set(0, 0L);
+		Assert.assertEquals(longs.sum().getLong(), 3);
+		Assert.assertEquals(longs.variance().getDouble(), 2.0 / 3, 1e-12);
+	}
+
+	@Test
+	public void productAfterChanges() {
+		Random r = new Random(1);
+		DataSeriesDouble series = new DataSeriesDouble();
+		for (int i = 0; i < 50; i++) {
+			series.append(0.5 + r.nextDouble());
+		}
+		for (int i = 0; i < 200; i++) {
+			series.set(r.nextInt(series.length()), 0.5 + r.nextDouble());
+			if (i % 10 == 0) {
+				series.remove(r.nextInt(series.length()));
+				series.append(0.5 + r.nextDouble());
+			}
+			double product = 1;
+			for (int j = 0; j < series.length(); j++) {
+				product *= series.getDouble(j);
+			}
+			Assert.assertEquals(series.product().getDouble(), product);
+		}
+	}
+	@Test
+	public void windowShift() {
+		final int[] reads = new int[1];
+		DataSeriesDoubleRing ring = new DataSeriesDoubleRing(100) {
+			@Override
+			public double getDouble(int index) {
+				reads[0]++;
+				return super.getDouble(index);
+			}
+		};
+		Random r = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			int op = r.nextInt(10);
+			if (op == 0) {
+				ring.appendValues(new double[] {r.nextInt(100), r.nextInt(100), r.nextInt(100)}, 0, 3);
+			}
+			else if (op == 1 && ring.length() > 5) {
+				ring.evict(2);
+			}
+			else if (op == 2 && ring.length() > 0) {
+				// Not a shift: the statistics are updated from the changed index.
+				ring.set(r.nextInt(ring.length()), r.nextInt(100));
+			}
+			else {
+				// Mostly decreasing, so that the maximum is often evicted.
+				ring.append(1000 - i + r.nextInt(10));
+			}
+			check(ring);
+		}
+		
+		// Each shift only reads the appended values.
+		reads[0] = 0;
+		for (int i = 0; i < 100; i++) {
+			ring.append((double) -i);
+			Assert.assertEquals(ring.min().getDouble(), (double) -i);
+			ring.max().getDouble();
+			ring.mean().getDouble();
+			ring.variance().getDouble();
+		}
+		Assert.assertEquals(reads[0], 100);
+		check(ring);
+		
+		DataSeriesLongRing longs = new DataSeriesLongRing(3);
+		longs.appendValues(new long[] {5, 1, 4, 2, 3}, 0, 5);
+		Assert.assertEquals(longs.min().getLong(), 2);
+		Assert.assertEquals(longs.max().getLong(), 4);
+		longs.append(0L);
+		Assert.assertEquals(longs.min().getLong(), 0);
+		Assert.assertEquals(longs.max().getLong(), 3);
+		Assert.assertEquals(longs.sum().getLong(), 5);
+		longs.evict(2);
+		Assert.assertEquals(longs.max().getLong(), 0);
+	}
+}
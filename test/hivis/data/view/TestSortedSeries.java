@@ -9,6 +9,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -171,4 +172,57 @@ public class TestSortedSeries {
 		Object[] sortedVals = sorted.asArray();
 		checkEquals(originalVals, sortedVals, isReverse);
 	}
+
+	@Test(dataProvider = "data")
+	public void sortOrder(DataSeries<?> original, SeriesView<?> sorted, boolean isReverse) {
+		int[] order = ((SortedSeries<?>) sorted).getSortOrder();
+		Assert.assertEquals(order.length, original.length());
+		for (int i = 0; i < order.length; i++) {
+			Assert.assertEquals(original.get(order[i]), sorted.get(i));
+		}
+	}
+	
+	@Test
+	public void parallelSorting() {
+		Random r = new Random(1);
+		double[] values = new double[IndexSort.DEFAULT_PARALLEL_THRESHOLD * 2];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = r.nextInt(1000);
+		}
+		DataSeriesDouble original = new DataSeriesDouble(values);
+		SortedSeries<Double> sorted = (SortedSeries<Double>) original.sort();
+		sorted.setParallelThreshold(0);
+		
+		double[] expected = values.clone();
+		Arrays.sort(expected);
+		Assert.assertEquals(sorted.asDoubleArray(), expected);
+		
+		// Check sort order is stable.
+		int[] order = sorted.getSortOrder();
+		for (int i = 1; i < order.length; i++) {
+			Assert.assertTrue(values[order[i-1]] < values[order[i]] || (values[order[i-1]] == values[order[i]] && order[i-1] < order[i]));
+		}
+	}
+	
+	@Test
+	public void parallelThreshold() {
+		// Fewer values than the default threshold, but enough to be split into parallel tasks.
+		Random r = new Random(1);
+		double[] values = new double[IndexSort.DEFAULT_PARALLEL_THRESHOLD / 2];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = r.nextInt(1000);
+		}
+		SortedSeries<Double> sorted = (SortedSeries<Double>) new DataSeriesDouble(values).sort((v1, v2) -> v1.compareTo(v2));
+		
+		int parallelSorts = IndexSort.parallelSortCount.get();
+		sorted.getSortOrder();
+		Assert.assertEquals(IndexSort.parallelSortCount.get(), parallelSorts);
+		
+		sorted.setParallelThreshold(1000);
+		int[] order = sorted.getSortOrder();
+		Assert.assertEquals(IndexSort.parallelSortCount.get(), parallelSorts + 1);
+		for (int i = 1; i < order.length; i++) {
+			Assert.assertTrue(values[order[i-1]] < values[order[i]] || (values[order[i-1]] == values[order[i]] && order[i-1] < order[i]));
+		}
+	}
 }
@@ -0,0 +1,99 @@
+/**
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General
+ * Public License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ * Boston, MA 02111-1307 USA
+ */
+
+package hivis.data.view;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import hivis.data.DataSeriesDouble;
+import hivis.data.DataSeriesGeneric;
+import hivis.data.DataSeriesInteger;
+import hivis.data.DataTable;
+import hivis.data.DataTableDefault;
+import hivis.data.view.SortedTable.SortKey;
+
+/**
+ * Tests for {@link SortedTable}.
+ *
+ * @author O. J. Coleman
+ */
+public class TestSortedTable {
+	private DataTable getTable() {
+		DataTable table = new DataTableDefault();
+		table.addSeries("group", new DataSeriesInteger(new int[] {2, 1, 2, 1, 3, 1}));
+		table.addSeries("score", new DataSeriesDouble(5, 7, 9, 7, 1, 3));
+		table.addSeries("name", new DataSeriesGeneric<String>("a", "b", "c", "d", "e", "f"));
+		return table;
+	}
+
+	@Test
+	public void singleKey() {
+		DataTable sorted = getTable().sort("score");
+		Assert.assertEquals(sorted.get("name").asArray(), new Object[] {"e", "f", "a", "b", "d", "c"});
+
+		sorted = getTable().sort(2);
+		Assert.assertEquals(sorted.get("name").asArray(), new Object[] {"a", "b", "c", "d", "e", "f"});
+	}
+
+	@Test
+	public void multiKey() {
+		DataTable sorted = getTable().sort(SortKey.asc("group"), SortKey.desc("score"));
+		// Rows b and d have equal keys so retain their relative order.
+		Assert.assertEquals(sorted.get("name").asArray(), new Object[] {"b", "d", "f", "c", "a", "e"});
+
+		sorted = getTable().sort(SortKey.desc(0), SortKey.asc("name"));
+		Assert.assertEquals(sorted.get("name").asArray(), new Object[] {"e", "a", "c", "b", "d", "f"});
+	}
+
+	@Test
+	public void updated() {
+		DataTable table = getTable();
+		DataTable sorted = table.sort(SortKey.asc("score"));
+		table.get("score").set(4, 10);
+		Assert.assertEquals(sorted.get("name").asArray(), new Object[] {"f", "a", "b", "d", "c", "e"});
+	}
+
+	@Test
+	public void parallel() {
+		Random r = new Random(1);
+		int length = IndexSort.DEFAULT_PARALLEL_THRESHOLD * 2;
+		int[] groups = new int[length];
+		double[] scores = new double[length];
+		for (int i = 0; i < length; i++) {
+			groups[i] = r.nextInt(10);
+			scores[i] = r.nextInt(100);
+		}
+		DataTable table = new DataTableDefault();
+		table.addSeries("group", new DataSeriesInteger(groups));
+		table.addSeries("score", new DataSeriesDouble(scores));
+
+		int[] order = SortedTable.getSortOrder(table, true, SortKey.asc("group"), SortKey.desc("score"));
+		int[] orderSequential = SortedTable.getSortOrder(table, false, SortKey.asc("group"), SortKey.desc("score"));
+		Assert.assertEquals(order, orderSequential);
+		for (int i = 1; i < length; i++) {
+			int p = order[i-1], c = order[i];
+			Assert.assertTrue(groups[p] < groups[c] || groups[p] == groups[c] && (scores[p] > scores[c] || scores[p] == scores[c] && p < c));
+		}
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void missingSeries() {
+		getTable().sort(SortKey.asc("nothing"));
+	}
+}